@@ -0,0 +1,60 @@
+package com.jdt16.agenin.transaction.benchmark;
+
+import com.jdt16.agenin.transaction.service.implementation.module.TransactionCodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kode transaksi lama (TRX_ + UUID uppercase + ddMMyyyy) dibanding {@link TransactionCodeGenerator}.
+ * Jalankan: mvn -Pbenchmark test-compile exec:exec (tambahkan -prof gc lewat -Djmh.args untuk alokasi per operasi).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionCodeGeneratorBenchmark {
+
+    private TransactionCodeGenerator transactionCodeGenerator;
+    private UUID transactionId;
+    private LocalDateTime transactionDate;
+
+    @Setup
+    public void setUp() {
+        transactionCodeGenerator = new TransactionCodeGenerator(1);
+        // Id dan tanggal sudah ada di inquiry; yang diukur hanya pembentukan kodenya
+        transactionId = UUID.randomUUID();
+        transactionDate = LocalDateTime.now();
+    }
+
+    @Benchmark
+    public String legacyCode() {
+        return "TRX_" + transactionId.toString().toUpperCase() + "_" + transactionDate.format(DateTimeFormatter.ofPattern("ddMMyyyy"));
+    }
+
+    @Benchmark
+    public String timeOrderedCode() {
+        return transactionCodeGenerator.nextCode();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrderedCodeContended() {
+        return transactionCodeGenerator.nextCode();
+    }
+}
@@ -0,0 +1,36 @@
+package com.jdt16.agenin.transaction.configuration.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import com.jdt16.agenin.transaction.utility.AuditLogBinaryCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Deserializer topic audit untuk consumer: menerima encoding biner (diawali byte versi)
+ * maupun JSON lama (diawali '{'), sehingga producer bisa pindah format tanpa putus.
+ */
+public class AuditLogDeserializer implements Deserializer<LogRequestDTO> {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Override
+    public LogRequestDTO deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            if (data[0] == '{') {
+                return objectMapper.readValue(data, LogRequestDTO.class);
+            }
+            return AuditLogBinaryCodec.decode(data);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to deserialize audit log from topic " + topic, e);
+        }
+    }
+}
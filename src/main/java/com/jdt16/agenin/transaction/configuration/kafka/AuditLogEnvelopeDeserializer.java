@@ -0,0 +1,45 @@
+package com.jdt16.agenin.transaction.configuration.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.request.LogEnvelopeRequestDTO;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import com.jdt16.agenin.transaction.utility.AuditLogBinaryCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Deserializer topic audit yang selalu menghasilkan envelope: envelope (biner/JSON) dibaca apa adanya,
+ * audit log tunggal dibungkus menjadi envelope berisi satu event.
+ */
+public class AuditLogEnvelopeDeserializer implements Deserializer<LogEnvelopeRequestDTO> {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Override
+    public LogEnvelopeRequestDTO deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            if (data[0] == '{') {
+                JsonNode node = objectMapper.readTree(data);
+                if (node.has("events")) {
+                    return objectMapper.treeToValue(node, LogEnvelopeRequestDTO.class);
+                }
+                return LogEnvelopeRequestDTO.of(objectMapper.treeToValue(node, LogRequestDTO.class));
+            }
+            if (AuditLogBinaryCodec.isEnvelope(data)) {
+                return AuditLogBinaryCodec.decodeEnvelope(data);
+            }
+            return LogEnvelopeRequestDTO.of(AuditLogBinaryCodec.decode(data));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to deserialize audit envelope from topic " + topic, e);
+        }
+    }
+}
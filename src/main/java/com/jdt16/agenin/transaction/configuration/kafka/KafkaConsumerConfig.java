@@ -0,0 +1,153 @@
+package com.jdt16.agenin.transaction.configuration.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.event.InquiryCommandEventDTO;
+import com.jdt16.agenin.transaction.dto.request.LogEnvelopeRequestDTO;
+import com.jdt16.agenin.transaction.service.implementation.module.InquiryCommandConsumerService;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${audit-log-consumer.max-poll-records:5000}")
+    private int auditLogMaxPollRecords;
+
+    @Value("${audit-log-consumer.fetch-min-bytes:1048576}")
+    private int auditLogFetchMinBytes;
+
+    @Value("${audit-log-consumer.fetch-max-wait-ms:500}")
+    private int auditLogFetchMaxWaitMs;
+
+    @Value("${audit-log-consumer.concurrency:1}")
+    private int auditLogConcurrency;
+
+    @Value("${audit-log-consumer.dead-letter-topic:create-log-po.DLT}")
+    private String auditLogDeadLetterTopic;
+
+    @Value("${audit-log-consumer.max-retry-elapsed-ms:300000}")
+    private long auditLogMaxRetryElapsedMs;
+
+    @Value("${inquiry-async.max-poll-records:50}")
+    private int inquiryMaxPollRecords;
+
+    @Value("${inquiry-async.concurrency:3}")
+    private int inquiryConcurrency;
+
+    @Value("${inquiry-async.dead-letter-topic:create-transaction-po.DLT}")
+    private String inquiryDeadLetterTopic;
+
+    @Value("${inquiry-async.max-retry-elapsed-ms:120000}")
+    private long inquiryMaxRetryElapsedMs;
+
+    @Bean
+    public ConsumerFactory<String, LogEnvelopeRequestDTO> auditLogConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Record rusak menjadi null (bukan poison pill yang menghentikan partisi)
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, AuditLogEnvelopeDeserializer.class);
+
+        // Offset di-commit container setelah COPY sukses, bukan auto-commit
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Poll besar supaya satu COPY memuat ribuan baris
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, auditLogMaxPollRecords);
+        configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, auditLogFetchMinBytes);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, auditLogFetchMaxWaitMs);
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, LogEnvelopeRequestDTO> auditLogBatchListenerContainerFactory(
+            KafkaTemplate<String, Object> deadLetterKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, LogEnvelopeRequestDTO> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(auditLogConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(auditLogConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        // Gagal sementara (DB tidak tersedia): batch yang sama diulang dengan backoff terbatas,
+        // setelah itu record dikirim ke DLT supaya partisi tidak macet selamanya
+        ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
+        backOff.setMaxInterval(30000L);
+        backOff.setMaxElapsedTime(auditLogMaxRetryElapsedMs);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                deadLetterRecoverer(deadLetterKafkaTemplate, auditLogDeadLetterTopic), backOff));
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, InquiryCommandEventDTO> inquiryCommandConsumerFactory(ObjectMapper objectMapper) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Micro-batch kecil per partisi: satu poll selesai jauh di bawah max.poll.interval
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, inquiryMaxPollRecords);
+
+        JsonDeserializer<InquiryCommandEventDTO> valueDeserializer =
+                new JsonDeserializer<>(InquiryCommandEventDTO.class, objectMapper, false);
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
+
+    /**
+     * Concurrency = batas koneksi JDBC yang dipakai inquiry asinkron
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, InquiryCommandEventDTO> inquiryCommandListenerContainerFactory(
+            ConsumerFactory<String, InquiryCommandEventDTO> inquiryCommandConsumerFactory,
+            KafkaTemplate<String, Object> deadLetterKafkaTemplate,
+            InquiryCommandConsumerService inquiryCommandConsumerService) {
+        ConcurrentKafkaListenerContainerFactory<String, InquiryCommandEventDTO> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(inquiryCommandConsumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(inquiryConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        // Listener menandai perintah yang gagal; hanya perintah itu yang diulang, lalu dicatat FAILED dan ke DLT
+        ExponentialBackOff backOff = new ExponentialBackOff(500L, 2.0);
+        backOff.setMaxInterval(10000L);
+        backOff.setMaxElapsedTime(inquiryMaxRetryElapsedMs);
+        DeadLetterPublishingRecoverer deadLetterRecoverer = deadLetterRecoverer(deadLetterKafkaTemplate, inquiryDeadLetterTopic);
+        ConsumerRecordRecoverer recoverer = (consumerRecord, exception) -> {
+            if (consumerRecord.value() instanceof InquiryCommandEventDTO command) {
+                inquiryCommandConsumerService.recordExhausted(command);
+            }
+            deadLetterRecoverer.accept(consumerRecord, exception);
+        };
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer, backOff));
+        return factory;
+    }
+
+    private static DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<String, Object> template, String topic) {
+        // Partisi -1: partisi DLT dipilih producer dari key, jumlah partisi DLT bebas
+        return new DeadLetterPublishingRecoverer(template, (consumerRecord, exception) -> new TopicPartition(topic, -1));
+    }
+}
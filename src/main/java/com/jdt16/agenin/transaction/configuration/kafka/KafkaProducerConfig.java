@@ -1,7 +1,11 @@
 package com.jdt16.agenin.transaction.configuration.kafka;
 
-import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.event.BalanceChangeEventDTO;
+import com.jdt16.agenin.transaction.dto.event.InquiryCommandEventDTO;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -9,9 +13,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
@@ -20,12 +26,16 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.audit-log-max-block-ms:5000}")
+    private long auditLogMaxBlockMs;
+
     @Bean
-    public ProducerFactory<String, LogRequestDTO> auditLogProducerFactory() {
+    public ProducerFactory<String, byte[]> auditLogProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // Payload sudah ter-encode di outbox (JSON atau biner), dikirim apa adanya
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
 
         // Best practice
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
@@ -34,16 +44,87 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
         configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
         configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10);
-
-        // PENTING: Nonaktifkan type headers
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        // Relay outbox mengirim ratusan record sekaligus
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+        // Broker tidak terjangkau: send() gagal cepat, bukan menahan thread relay 60 detik
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, auditLogMaxBlockMs);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 5000);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 15000);
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
 
     @Bean
-    public KafkaTemplate<String, LogRequestDTO> auditLogKafkaTemplate() {
+    public KafkaTemplate<String, byte[]> auditLogKafkaTemplate() {
         return new KafkaTemplate<>(auditLogProducerFactory());
     }
+
+    @Bean
+    public ProducerFactory<String, BalanceChangeEventDTO> balanceChangeProducerFactory(ObjectMapper objectMapper) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, auditLogMaxBlockMs);
+
+        JsonSerializer<BalanceChangeEventDTO> valueSerializer = new JsonSerializer<>(objectMapper);
+        valueSerializer.setAddTypeInfo(false);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer);
+    }
+
+    @Bean
+    public KafkaTemplate<String, BalanceChangeEventDTO> balanceChangeKafkaTemplate(
+            ProducerFactory<String, BalanceChangeEventDTO> balanceChangeProducerFactory) {
+        return new KafkaTemplate<>(balanceChangeProducerFactory);
+    }
+
+    @Bean
+    public ProducerFactory<String, InquiryCommandEventDTO> inquiryCommandProducerFactory(ObjectMapper objectMapper) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        // Request thread menunggu ack: gagal cepat saat broker tidak terjangkau
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, auditLogMaxBlockMs);
+
+        JsonSerializer<InquiryCommandEventDTO> valueSerializer = new JsonSerializer<>(objectMapper);
+        valueSerializer.setAddTypeInfo(false);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer);
+    }
+
+    @Bean
+    public KafkaTemplate<String, InquiryCommandEventDTO> inquiryCommandKafkaTemplate(
+            ProducerFactory<String, InquiryCommandEventDTO> inquiryCommandProducerFactory) {
+        return new KafkaTemplate<>(inquiryCommandProducerFactory);
+    }
+
+    /**
+     * Producer dead letter topic consumer: nilai yang gagal di-deserialize dikirim sebagai byte asli, selebihnya JSON
+     */
+    @Bean
+    public ProducerFactory<String, Object> deadLetterProducerFactory(ObjectMapper objectMapper) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, auditLogMaxBlockMs);
+
+        JsonSerializer<Object> jsonSerializer = new JsonSerializer<>(objectMapper);
+        jsonSerializer.setAddTypeInfo(false);
+        Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+        valueSerializers.put(byte[].class, new ByteArraySerializer());
+        valueSerializers.put(Object.class, jsonSerializer);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+                new DelegatingByTypeSerializer(valueSerializers, true));
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> deadLetterKafkaTemplate(
+            ProducerFactory<String, Object> deadLetterProducerFactory) {
+        return new KafkaTemplate<>(deadLetterProducerFactory);
+    }
 }
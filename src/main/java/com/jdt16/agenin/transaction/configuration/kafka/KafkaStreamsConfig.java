@@ -0,0 +1,175 @@
+package com.jdt16.agenin.transaction.configuration.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.event.BalanceChangeEventDTO;
+import com.jdt16.agenin.transaction.dto.event.CommissionRollupDTO;
+import com.jdt16.agenin.transaction.dto.event.TransactionCreatedEventDTO;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.Stores;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.support.serializer.JsonSerde;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topologi Kafka Streams: event balance-change di-fold per user ke state store RocksDB
+ * yang dibaca lewat interactive query, dan event transaksi diagregasi per hari (per agen
+ * dan per produk) ke window store rollup. Hanya aktif jika kafka-streams.enabled=true.
+ */
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(name = "kafka-streams.enabled", havingValue = "true")
+public class KafkaStreamsConfig {
+
+    public static final String BALANCE_STORE = "user-balance-store";
+    public static final String AGENT_ROLLUP_STORE = "agent-daily-rollup-store";
+    public static final String PRODUCT_ROLLUP_STORE = "product-daily-rollup-store";
+    public static final Duration ROLLUP_WINDOW = Duration.ofDays(1);
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka-streams.application-id:agenin-transaction-balance}")
+    private String applicationId;
+
+    @Value("${kafka-streams.state-dir:./kafka-streams}")
+    private String stateDir;
+
+    @Value("${kafka-streams.num-standby-replicas:1}")
+    private int numStandbyReplicas;
+
+    @Value("${kafka-streams.balance-change-topic:balance-change-po}")
+    private String balanceChangeTopic;
+
+    @Value("${kafka-streams.transaction-created-topic:transaction-created-po}")
+    private String transactionCreatedTopic;
+
+    @Value("${kafka-streams.processing-guarantee:at_least_once}")
+    private String processingGuarantee;
+
+    @Value("${kafka-streams.rollup-retention-days:400}")
+    private long rollupRetentionDays;
+
+    @Value("${kafka-streams.rollup-grace-minutes:60}")
+    private long rollupGraceMinutes;
+
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration defaultKafkaStreamsConfig() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        configProps.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        // Standby mempercepat failover: store sudah terisi di instance lain
+        configProps.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, numStandbyReplicas);
+        configProps.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        // exactly_once_v2 mencegah rollup terhitung ganda saat instance crash (butuh broker transaksional)
+        configProps.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, processingGuarantee);
+        return new KafkaStreamsConfiguration(configProps);
+    }
+
+    @Bean
+    public KTable<String, BalanceChangeEventDTO> userBalanceTable(StreamsBuilder streamsBuilder, ObjectMapper objectMapper) {
+        JsonSerde<BalanceChangeEventDTO> eventSerde = new JsonSerde<>(BalanceChangeEventDTO.class, objectMapper)
+                .noTypeInfo()
+                .ignoreTypeHeaders();
+
+        return streamsBuilder
+                .stream(balanceChangeTopic, Consumed.with(Serdes.String(), eventSerde))
+                .groupByKey()
+                .reduce(BalanceChangeEventDTO::merge,
+                        Materialized.<String, BalanceChangeEventDTO>as(Stores.persistentKeyValueStore(BALANCE_STORE))
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(eventSerde));
+    }
+
+    /**
+     * Rollup harian (tumbling window 1 hari, event time = tanggal transaksi) per agen dan per produk.
+     * Repartisi by-key mengikuti jumlah partisi topic transaksi, dipakai query untuk cek kelengkapan partisi.
+     */
+    @Bean
+    public KStream<String, TransactionCreatedEventDTO> transactionCreatedStream(
+            StreamsBuilder streamsBuilder, ObjectMapper objectMapper) {
+        JsonSerde<TransactionCreatedEventDTO> eventSerde = new JsonSerde<>(TransactionCreatedEventDTO.class, objectMapper)
+                .noTypeInfo()
+                .ignoreTypeHeaders();
+        JsonSerde<CommissionRollupDTO> rollupSerde = new JsonSerde<>(CommissionRollupDTO.class, objectMapper)
+                .noTypeInfo()
+                .ignoreTypeHeaders();
+
+        KStream<String, TransactionCreatedEventDTO> transactions = streamsBuilder.stream(transactionCreatedTopic,
+                Consumed.with(Serdes.String(), eventSerde)
+                        .withTimestampExtractor(new TransactionCreatedTimestampExtractor()));
+
+        // Transaksi SUB_AGENT juga dikreditkan ke parent referral di rollup agen
+        KStream<String, TransactionCreatedEventDTO> agentCredits = transactions
+                .filter((key, event) -> event != null && event.getTransactionCreatedEventDTOUserId() != null)
+                .flatMap((key, event) -> {
+                    List<KeyValue<String, TransactionCreatedEventDTO>> credits = new ArrayList<>(2);
+                    credits.add(KeyValue.pair(event.getTransactionCreatedEventDTOUserId().toString(), event));
+                    if (event.getTransactionCreatedEventDTOReferenceUserId() != null) {
+                        credits.add(KeyValue.pair(event.getTransactionCreatedEventDTOReferenceUserId().toString(), event));
+                    }
+                    return credits;
+                });
+        aggregateDaily(agentCredits, (agentId, event, rollup) ->
+                        agentId.equals(event.getTransactionCreatedEventDTOUserId().toString())
+                                ? rollup.add(null, event.getTransactionCreatedEventDTOProductPrice(),
+                                        event.getTransactionCreatedEventDTOCommissionAmount())
+                                : rollup.addReferral(event.getTransactionCreatedEventDTOReferenceCommissionAmount()),
+                AGENT_ROLLUP_STORE, eventSerde, rollupSerde);
+
+        // Komisi produk = total komisi yang dibayarkan (agen penjual + parent referral)
+        KStream<String, TransactionCreatedEventDTO> productSales = transactions
+                .filter((key, event) -> event != null && event.getTransactionCreatedEventDTOProductId() != null)
+                .selectKey((key, event) -> event.getTransactionCreatedEventDTOProductId().toString());
+        aggregateDaily(productSales, (productId, event, rollup) ->
+                        rollup.add(event.getTransactionCreatedEventDTOProductName(),
+                                event.getTransactionCreatedEventDTOProductPrice(),
+                                orZero(event.getTransactionCreatedEventDTOCommissionAmount())
+                                        .add(orZero(event.getTransactionCreatedEventDTOReferenceCommissionAmount()))),
+                PRODUCT_ROLLUP_STORE, eventSerde, rollupSerde);
+        return transactions;
+    }
+
+    private void aggregateDaily(
+            KStream<String, TransactionCreatedEventDTO> keyedTransactions,
+            Aggregator<String, TransactionCreatedEventDTO, CommissionRollupDTO> aggregator,
+            String storeName,
+            JsonSerde<TransactionCreatedEventDTO> eventSerde,
+            JsonSerde<CommissionRollupDTO> rollupSerde
+    ) {
+        keyedTransactions
+                .groupByKey(Grouped.with(storeName + "-by-key", Serdes.String(), eventSerde))
+                .windowedBy(TimeWindows.ofSizeAndGrace(ROLLUP_WINDOW, Duration.ofMinutes(rollupGraceMinutes)))
+                .aggregate(CommissionRollupDTO::empty, aggregator,
+                        Materialized.<String, CommissionRollupDTO>as(Stores.persistentWindowStore(storeName,
+                                        Duration.ofDays(rollupRetentionDays), ROLLUP_WINDOW, false))
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(rollupSerde));
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,28 @@
+package com.jdt16.agenin.transaction.configuration.kafka;
+
+import com.jdt16.agenin.transaction.dto.event.TransactionCreatedEventDTO;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Event time = tanggal transaksi (jam lokal) dibaca seolah UTC, sehingga tumbling window 1 hari
+ * (selalu sejajar epoch) jatuh tepat di hari kalender lokal. Awal window dikonversi balik dengan UTC.
+ */
+public class TransactionCreatedTimestampExtractor implements TimestampExtractor {
+
+    @Override
+    public long extract(ConsumerRecord<Object, Object> consumerRecord, long partitionTime) {
+        if (consumerRecord.value() instanceof TransactionCreatedEventDTO event
+                && event.getTransactionCreatedEventDTOTransactionDate() != null) {
+            return toEpochMilli(event.getTransactionCreatedEventDTOTransactionDate());
+        }
+        return consumerRecord.timestamp() >= 0 ? consumerRecord.timestamp() : partitionTime;
+    }
+
+    public static long toEpochMilli(LocalDateTime localDateTime) {
+        return localDateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
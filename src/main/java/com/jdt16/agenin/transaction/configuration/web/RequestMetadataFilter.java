@@ -0,0 +1,33 @@
+package com.jdt16.agenin.transaction.configuration.web;
+
+import com.jdt16.agenin.transaction.dto.context.RequestMetadataContext;
+import com.jdt16.agenin.transaction.utility.RequestMetadataHolder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Parse metadata request sekali di awal request; service dan audit membaca nilai jadi dari {@link RequestMetadataHolder}
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetadataFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestMetadataHolder.set(RequestMetadataContext.from(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestMetadataHolder.clear();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.jdt16.agenin.transaction.configuration.web;
+
+import com.jdt16.agenin.transaction.utility.RequestMetadataHolder;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Diterapkan otomatis oleh Spring Boot ke executor {@code @Async}: task membawa metadata request pemanggil
+ */
+@Component
+public class RequestMetadataTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return RequestMetadataHolder.wrap(runnable);
+    }
+}
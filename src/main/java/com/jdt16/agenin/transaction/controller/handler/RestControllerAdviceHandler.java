@@ -1,8 +1,11 @@
 package com.jdt16.agenin.transaction.controller.handler;
 
 import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
+import com.jdt16.agenin.transaction.dto.exception.InquiryPendingException;
+import com.jdt16.agenin.transaction.dto.response.InquiryStatusResponse;
 import com.jdt16.agenin.transaction.dto.response.RestApiResponse;
 import com.jdt16.agenin.transaction.dto.response.RestApiResponseError;
+import com.jdt16.agenin.transaction.service.implementation.module.AsyncInquiryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -13,8 +16,10 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.springframework.http.HttpStatus.*;
 
@@ -68,6 +73,22 @@ public class RestControllerAdviceHandler {
         return ResponseEntity.status(BAD_REQUEST).body(apiResponse);
     }
 
+    /**
+     * Handle InquiryPendingException - inquiry masih diproses; 202 + Location URL status seperti jalur async,
+     * agar klien polling alih-alih mengirim ulang (transactionId baru = transaksi ganda)
+     */
+    @ExceptionHandler(InquiryPendingException.class)
+    public ResponseEntity<RestApiResponse<InquiryStatusResponse>> handleInquiryPendingException(
+            InquiryPendingException ex) {
+
+        log.info("InquiryPendingException: {}", ex.getMessage());
+
+        RestApiResponse<InquiryStatusResponse> response = AsyncInquiryService.accepted(ex.getTransactionId());
+        return ResponseEntity.accepted()
+                .location(URI.create(response.getRestApiResponseResults().getInquiryStatusUrl()))
+                .body(response);
+    }
+
     /**
      * Handle IllegalStateException - User already has referral code
      */
@@ -172,6 +193,32 @@ public class RestControllerAdviceHandler {
         return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(response);
     }
 
+    /**
+     * Handle RejectedExecutionException - Worker pool penuh (mis. verifikasi password) atau broker tidak meng-ack
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<RestApiResponse<Void>> handleRejectedExecutionException(
+            RejectedExecutionException ex) {
+
+        log.warn("RejectedExecutionException: {}", ex.getMessage());
+
+        Map<String, Serializable> errorDetails = new HashMap<>();
+        errorDetails.put("tipe", "LAYANAN_SIBUK");
+
+        RestApiResponseError error = RestApiResponseError.builder()
+                .restApiResponseRequestError(errorDetails)
+                .build();
+
+        RestApiResponse<Void> response = RestApiResponse.<Void>builder()
+                .restApiResponseCode(SERVICE_UNAVAILABLE.value())
+                .restApiResponseMessage(ex.getMessage())
+                .restApiResponseResults(null)
+                .restApiResponseError(error)
+                .build();
+
+        return ResponseEntity.status(SERVICE_UNAVAILABLE).header("Retry-After", "1").body(response);
+    }
+
     /**
      * Handle RuntimeException
      */
@@ -1,41 +1,136 @@
 package com.jdt16.agenin.transaction.controller.module;
 
+import com.jdt16.agenin.transaction.dto.cache.SerializedResponseBody;
 import com.jdt16.agenin.transaction.dto.request.CommissionToWalletRequest;
 import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
 import com.jdt16.agenin.transaction.dto.response.*;
+import com.jdt16.agenin.transaction.service.implementation.module.AsyncInquiryService;
+import com.jdt16.agenin.transaction.service.implementation.module.CommissionRollupQueryService;
+import com.jdt16.agenin.transaction.service.implementation.module.InquiryGroupCommitService;
 import com.jdt16.agenin.transaction.service.interfacing.module.TransactionService;
+import com.jdt16.agenin.transaction.utility.RequestParamDefaultUtility;
 import com.jdt16.agenin.transaction.utility.RestApiPathUtility;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequiredArgsConstructor
 @Slf4j
 @RequestMapping(RestApiPathUtility.API_PATH + RestApiPathUtility.API_VERSION + RestApiPathUtility.API_PATH_TRANSACTION)
 public class TransactionController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final TransactionService transactionService;
+    private final AsyncInquiryService asyncInquiryService;
+    private final CommissionRollupQueryService commissionRollupQueryService;
+    private final InquiryGroupCommitService inquiryGroupCommitService;
 
+    /**
+     * async=true (dan inquiry-async.enabled): 202 + Location URL status, transaksi diproses consumer.
+     * Sinkron dengan inquiry-group-commit.enabled: ditulis bersama inquiry lain dalam satu transaksi.
+     */
     @PostMapping(RestApiPathUtility.API_PATH_MOCK_TRANSACTION_OPEN_BANK_ACCOUNT)
     public ResponseEntity<RestApiResponse<?>> inquiry(
             @RequestHeader("X-USER-ID") UUID userId,
             @RequestHeader("X-PRODUCT-ID") UUID productId,
+            @RequestParam(defaultValue = "false") boolean async,
             @Valid @RequestBody TransactionRequest transactionRequest) {
+        if (async && asyncInquiryService.isEnabled()) {
+            RestApiResponse<InquiryStatusResponse> accepted =
+                    asyncInquiryService.submitInquiry(userId, productId, transactionRequest);
+            return ResponseEntity.accepted()
+                    .location(URI.create(accepted.getRestApiResponseResults().getInquiryStatusUrl()))
+                    .body(accepted);
+        }
+        if (inquiryGroupCommitService.isEnabled()) {
+            return ResponseEntity.ok(inquiryGroupCommitService.inquiry(userId, productId, transactionRequest));
+        }
         return ResponseEntity.ok(transactionService.inquiry(userId, productId, transactionRequest));
     }
 
+    @GetMapping(RestApiPathUtility.API_PATH_INQUIRY_STATUS + RestApiPathUtility.API_PATH_BY_ID)
+    public ResponseEntity<RestApiResponse<?>> getInquiryStatus(
+            @RequestHeader("X-USER-ID") UUID userId,
+            @PathVariable("id") UUID transactionId) {
+        return ResponseEntity.ok(transactionService.getInquiryStatus(userId, transactionId));
+    }
+
+    /**
+     * Detail satu transaksi milik user per kode (termasuk data open bank account)
+     */
+    @GetMapping(RestApiPathUtility.API_PATH_BY_CODE)
+    public ResponseEntity<RestApiResponse<?>> getTransactionByCode(
+            @RequestHeader("X-USER-ID") UUID userId,
+            @PathVariable("code") String transactionCode) {
+        return ResponseEntity.ok(transactionService.getTransactionByCode(userId, transactionCode));
+    }
+
     @GetMapping(RestApiPathUtility.API_PATH_GET_CUSTOMER_LIST)
     public ResponseEntity<RestApiResponse<?>> getCustomerList(@RequestHeader("X-USER-ID") UUID userId) {
         return ResponseEntity.ok(transactionService.getAllTransactionsByUser(userId));
     }
 
+    @GetMapping(RestApiPathUtility.API_PATH_GET_CUSTOMER_LIST + RestApiPathUtility.API_PATH_USER_PAGINATION)
+    public ResponseEntity<RestApiResponse<?>> getCustomerPage(
+            @RequestHeader("X-USER-ID") UUID userId,
+            @RequestParam(defaultValue = RequestParamDefaultUtility.CUSTOMER_PAGE_LIMIT) int limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        return ResponseEntity.ok(transactionService.getTransactionsByUserPage(userId, limit, cursor));
+    }
+
+    @GetMapping(RestApiPathUtility.API_PATH_GET_CUSTOMER_LIST + RestApiPathUtility.API_PATH_EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportCustomerList(
+            @RequestHeader("X-USER-ID") UUID userId,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192);
+                transactionService.exportTransactionsByUser(userId, gzipOutputStream);
+                gzipOutputStream.finish();
+            } else {
+                transactionService.exportTransactionsByUser(userId, outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"customers-" + userId + ".ndjson\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * ETag = versi katalog. If-None-Match yang cocok dijawab 304 tanpa body.
+     */
     @GetMapping(RestApiPathUtility.API_PATH_GET_PRODUCTS)
-    public ResponseEntity<RestApiResponse<?>> getProductsList() {
-        return ResponseEntity.ok(transactionService.getListProducts());
+    public ResponseEntity<byte[]> getProductsList(WebRequest webRequest) {
+        SerializedResponseBody products = transactionService.getListProductsBody();
+        if (webRequest.checkNotModified(products.getVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(products.getBody());
     }
 
     @PatchMapping(RestApiPathUtility.API_PATH_MODULE_TRANSFER_TO_WALLET)
@@ -46,8 +141,48 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.transactionCommissionToWallet(userId, commissionToWalletRequest));
     }
 
+    /**
+     * ETag = waktu update terakhir saldo dan wallet. Saat cocok, nominal tidak dimuat maupun diserialisasi.
+     */
     @GetMapping(RestApiPathUtility.API_PATH_GET_BALANCE_AND_WALLET)
-    public ResponseEntity<RestApiResponse<?>> getBalanceAndWallet(@RequestHeader("X-USER-ID") UUID userId) {
-        return ResponseEntity.ok(transactionService.getUserBalanceAndWallet(userId));
+    public ResponseEntity<RestApiResponse<?>> getBalanceAndWallet(
+            @RequestHeader("X-USER-ID") UUID userId,
+            WebRequest webRequest
+    ) {
+        Optional<String> version = transactionService.getUserBalanceAndWalletVersion(userId);
+        if (version.isPresent() && webRequest.checkNotModified(version.get())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy("X-USER-ID")
+                .body(transactionService.getUserBalanceAndWallet(userId));
+    }
+
+    /**
+     * Rollup harian agen dari state store Kafka Streams; default awal bulan sampai hari ini
+     */
+    @GetMapping(RestApiPathUtility.API_PATH_COMMISSION_ROLLUP)
+    public ResponseEntity<RestApiResponse<?>> getAgentCommissionRollup(
+            @RequestHeader("X-USER-ID") UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        LocalDate today = LocalDate.now();
+        return ResponseEntity.ok(commissionRollupQueryService.getAgentDailyRollups(
+                userId, from != null ? from : today.withDayOfMonth(1), to != null ? to : today));
+    }
+
+    /**
+     * Total komisi per produk dari state store Kafka Streams; default hari ini
+     */
+    @GetMapping(RestApiPathUtility.API_PATH_COMMISSION_ROLLUP + RestApiPathUtility.API_PATH_GET_PRODUCTS)
+    public ResponseEntity<RestApiResponse<?>> getProductCommissionRollup(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        LocalDate today = LocalDate.now();
+        return ResponseEntity.ok(commissionRollupQueryService.getProductRollups(
+                from != null ? from : today, to != null ? to : today));
     }
 }
@@ -0,0 +1,28 @@
+package com.jdt16.agenin.transaction.dto.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class ProductCatalogEntry {
+    private final UUID productEntityDTOId;
+
+    private final String productEntityDTOName;
+
+    private final String productEntityDTOCode;
+
+    private final String productEntityDTODesc;
+
+    private final BigDecimal productEntityDTOPrice;
+
+    /**
+     * Null jika produk belum memiliki konfigurasi komisi
+     */
+    private final BigDecimal commissionsEntityDTOValue;
+}
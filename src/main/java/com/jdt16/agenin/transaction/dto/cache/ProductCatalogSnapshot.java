@@ -0,0 +1,59 @@
+package com.jdt16.agenin.transaction.dto.cache;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Snapshot katalog produk + komisi yang immutable.
+ * Di-swap secara atomik oleh ProductCatalogCacheService saat refresh.
+ */
+@Getter
+public class ProductCatalogSnapshot {
+    private final Map<UUID, ProductCatalogEntry> entries;
+    private final List<ProductCatalogEntry> products;
+    private final String version;
+    private final long loadedAtNanos;
+
+    /**
+     * Body response daftar produk, di-serialize sekali per snapshot (lazy)
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<SerializedResponseBody> serializedProducts = new AtomicReference<>();
+
+    public ProductCatalogSnapshot(List<ProductCatalogEntry> products, String version, long loadedAtNanos) {
+        Map<UUID, ProductCatalogEntry> byId = new LinkedHashMap<>();
+        for (ProductCatalogEntry product : products) {
+            byId.putIfAbsent(product.getProductEntityDTOId(), product);
+        }
+        this.entries = Collections.unmodifiableMap(byId);
+        this.products = List.copyOf(products);
+        this.version = version;
+        this.loadedAtNanos = loadedAtNanos;
+    }
+
+    public ProductCatalogEntry find(UUID productId) {
+        return entries.get(productId);
+    }
+
+    public boolean isOlderThan(long ageMs, long nowNanos) {
+        return nowNanos - loadedAtNanos >= ageMs * 1_000_000L;
+    }
+
+    public SerializedResponseBody getSerializedProducts() {
+        return serializedProducts.get();
+    }
+
+    /**
+     * Simpan body hasil serialize; jika thread lain sudah lebih dulu, pakai milik thread tersebut
+     */
+    public SerializedResponseBody memoizeSerializedProducts(SerializedResponseBody body) {
+        return serializedProducts.compareAndSet(null, body) ? body : serializedProducts.get();
+    }
+}
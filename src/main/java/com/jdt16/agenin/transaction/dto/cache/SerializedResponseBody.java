@@ -0,0 +1,14 @@
+package com.jdt16.agenin.transaction.dto.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Response JSON yang sudah di-serialize sekali, beserta versi konten sumbernya
+ */
+@Getter
+@AllArgsConstructor
+public class SerializedResponseBody {
+    private final byte[] body;
+    private final String version;
+}
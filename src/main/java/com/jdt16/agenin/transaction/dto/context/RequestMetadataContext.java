@@ -0,0 +1,79 @@
+package com.jdt16.agenin.transaction.dto.context;
+
+import com.jdt16.agenin.transaction.utility.RequestHeaderUtility;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Metadata request (IP client, user agent, header user) yang di-parse sekali oleh filter.
+ * Immutable sehingga aman diteruskan ke thread lain.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class RequestMetadataContext {
+    public static final String UNKNOWN = "UNKNOWN";
+
+    public static final RequestMetadataContext EMPTY = RequestMetadataContext.builder()
+            .userAgent(UNKNOWN)
+            .clientIpAddress(UNKNOWN)
+            .build();
+
+    private static final String[] CLIENT_IP_HEADERS = {
+            RequestHeaderUtility.HEADER_FORWARDED_FOR,
+            RequestHeaderUtility.HEADER_REAL_IP,
+            RequestHeaderUtility.HEADER_PROXY_CLIENT_IP,
+            RequestHeaderUtility.HEADER_WL_PROXY_CLIENT_IP
+    };
+
+    private final String userAgent;
+    private final String clientIpAddress;
+    private final UUID headerUserId;
+
+    public static RequestMetadataContext from(HttpServletRequest request) {
+        String userAgent = request.getHeader(RequestHeaderUtility.HEADER_USER_AGENT);
+        return RequestMetadataContext.builder()
+                .userAgent(userAgent != null ? userAgent : UNKNOWN)
+                .clientIpAddress(resolveClientIp(request))
+                .headerUserId(parseUuid(request.getHeader(RequestHeaderUtility.HEADER_USER_ID)))
+                .build();
+    }
+
+    /**
+     * Header proxy pertama yang terisi, lalu remote address; hanya IP pertama dari daftar comma-separated
+     */
+    private static String resolveClientIp(HttpServletRequest request) {
+        String ip = null;
+        for (String header : CLIENT_IP_HEADERS) {
+            ip = request.getHeader(header);
+            if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
+                break;
+            }
+            ip = null;
+        }
+        if (ip == null) {
+            ip = request.getRemoteAddr();
+        }
+        if (ip == null) {
+            return UNKNOWN;
+        }
+
+        int comma = ip.indexOf(',');
+        return comma >= 0 ? ip.substring(0, comma).trim() : ip;
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.jdt16.agenin.transaction.dto.context;
+
+import com.jdt16.agenin.transaction.dto.entity.UserEntityDTO;
+import com.jdt16.agenin.transaction.utility.RequestContextUtil;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Identitas user + metadata request, di-resolve sekali per request
+ * lalu diteruskan ke setiap tahap proses dan audit log.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class UserIdentityContext {
+    private final UUID userId;
+    private final String userFullName;
+    private final UUID roleId;
+    private final String roleName;
+    private final String userAgent;
+    private final String clientIpAddress;
+
+    public static UserIdentityContext of(UserEntityDTO userEntityDTO) {
+        RequestMetadataContext metadata = RequestContextUtil.getRequestMetadata();
+        return UserIdentityContext.builder()
+                .userId(userEntityDTO.getUserEntityDTOId())
+                .userFullName(userEntityDTO.getUserEntityDTOFullName())
+                .roleId(userEntityDTO.getUserEntityDTORoleId())
+                .roleName(userEntityDTO.getUserEntityDTORoleName())
+                .userAgent(metadata.getUserAgent())
+                .clientIpAddress(metadata.getClientIpAddress())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.jdt16.agenin.transaction.dto.entity;
+
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
+
+/**
+ * Entity dengan id yang ditetapkan aplikasi. Tanpa Persistable, save() melihat id terisi lalu memanggil merge
+ * (SELECT dulu per baris); di sini entity baru langsung di-persist sehingga insert bisa di-batch JDBC.
+ */
+@MappedSuperclass
+public abstract class AssignedIdEntity implements Persistable<UUID> {
+
+    @Transient
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        newEntity = false;
+    }
+}
@@ -0,0 +1,48 @@
+package com.jdt16.agenin.transaction.dto.entity;
+
+import com.jdt16.agenin.transaction.utility.ColumnNameEntityUtility;
+import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Audit event yang menunggu dikirim ke Kafka. Ditulis dalam transaksi DB yang sama dengan data bisnis;
+ * id UUIDv7 ditetapkan aplikasi (berurutan waktu) menjadi urutan kirim relay; tanpa identity,
+ * insert outbox ikut batch JDBC bersama insert bisnis.
+ * Topic kosong = topic audit; event lain yang harus ikut commit (mis. transaction-created) mengisi topic-nya.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@Table(name = TableNameEntityUtility.TABLE_AUDIT_OUTBOX)
+public class AuditOutboxEntityDTO extends AssignedIdEntity {
+    @Id
+    @Column(name = ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_ID, nullable = false, updatable = false)
+    private UUID auditOutboxEntityDTOId;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_MESSAGE_KEY, nullable = false, updatable = false)
+    private String auditOutboxEntityDTOMessageKey;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_PAYLOAD, nullable = false, updatable = false, columnDefinition = "bytea")
+    private byte[] auditOutboxEntityDTOPayload;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_TOPIC, updatable = false)
+    private String auditOutboxEntityDTOTopic;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_CREATED_AT, nullable = false, updatable = false)
+    private LocalDateTime auditOutboxEntityDTOCreatedAt;
+
+    @Override
+    public UUID getId() {
+        return auditOutboxEntityDTOId;
+    }
+}
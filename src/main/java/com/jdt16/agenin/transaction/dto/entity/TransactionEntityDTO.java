@@ -15,8 +15,24 @@ import java.util.UUID;
 @Getter
 @Setter
 @Builder
-@Table(name = TableNameEntityUtility.TABLE_TRANSACTION)
-public class TransactionEntityDTO {
+@Table(
+        name = TableNameEntityUtility.TABLE_TRANSACTION,
+        indexes = {
+                @Index(
+                        name = "idx_transaction_user_date_id",
+                        columnList = ColumnNameEntityUtility.COLUMN_TRANSACTION_USER_ID + ", "
+                                + ColumnNameEntityUtility.COLUMN_TRANSACTION_DATE + " DESC, "
+                                + ColumnNameEntityUtility.COLUMN_TRANSACTION_ID + " DESC"
+                ),
+                // Kode unik global (tabel tidak dipartisi); juga dipakai lookup per kode
+                @Index(
+                        name = "uk_transaction_code",
+                        columnList = ColumnNameEntityUtility.COLUMN_TRANSACTION_CODE,
+                        unique = true
+                )
+        }
+)
+public class TransactionEntityDTO extends AssignedIdEntity {
     @Id
     @Column(name = ColumnNameEntityUtility.COLUMN_TRANSACTION_ID, updatable = false, nullable = false)
     private UUID transactionEntityDTOId;
@@ -41,4 +57,9 @@ public class TransactionEntityDTO {
 
     @Column(name = ColumnNameEntityUtility.COLUMN_TRANSACTION_STATUS, nullable = false)
     private String transactionEntityDTOStatus;
+
+    @Override
+    public UUID getId() {
+        return transactionEntityDTOId;
+    }
 }
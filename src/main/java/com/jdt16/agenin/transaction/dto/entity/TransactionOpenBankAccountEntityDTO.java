@@ -5,6 +5,7 @@ import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -18,8 +19,14 @@ import java.util.UUID;
 @NoArgsConstructor
 @Getter
 @Setter
-@Table(name = TableNameEntityUtility.TABLE_TRANSACTION_OPEN_BANK_ACCOUNT)
-public class TransactionOpenBankAccountEntityDTO {
+@Table(
+        name = TableNameEntityUtility.TABLE_TRANSACTION_OPEN_BANK_ACCOUNT,
+        indexes = @Index(
+                name = "idx_open_bank_account_transaction_id",
+                columnList = ColumnNameEntityUtility.COLUMN_TRANSACTION_OPEN_BANK_ACCOUNT_TRANSACTION_ID
+        )
+)
+public class TransactionOpenBankAccountEntityDTO extends AssignedIdEntity {
     @Id
     @Column(name = ColumnNameEntityUtility.COLUMN_TRANSACTION_OPEN_BANK_ACCOUNT_ID, nullable = false, updatable = false)
     private UUID transactionOpenBankAccountEntityDTOId;
@@ -41,4 +48,9 @@ public class TransactionOpenBankAccountEntityDTO {
 
     @Column(name = ColumnNameEntityUtility.COLUMN_TRANSACTION_OPEN_BANK_ACCOUNT_CUSTOMER_ADDRESS, nullable = false, updatable = false)
     private String transactionOpenBankAccountEntityDTOCustomerAddress;
+
+    @Override
+    public UUID getId() {
+        return transactionOpenBankAccountEntityDTOId;
+    }
 }
@@ -24,7 +24,7 @@ public class UserBalanceEntityDTO {
     @Column(name = ColumnNameEntityUtility.COLUMN_USERS_BALANCE_ID, nullable = false, updatable = false)
     private UUID userBalanceEntityDTOId;
 
-    @Column(name = ColumnNameEntityUtility.COLUMN_USERS_BALANCE_USER_ID, nullable = false, updatable = false)
+    @Column(name = ColumnNameEntityUtility.COLUMN_USERS_BALANCE_USER_ID, unique = true, nullable = false, updatable = false)
     private UUID userBalanceEntityDTOUserId;
 
     @Column(name = ColumnNameEntityUtility.COLUMN_USER_BALANCE_AMOUNT, nullable = false)
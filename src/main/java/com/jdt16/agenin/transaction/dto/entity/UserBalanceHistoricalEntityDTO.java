@@ -19,7 +19,7 @@ import java.util.UUID;
 @Setter
 @Builder
 @Table(name = TableNameEntityUtility.TABLE_USER_BALANCE_HISTORICAL)
-public class UserBalanceHistoricalEntityDTO {
+public class UserBalanceHistoricalEntityDTO extends AssignedIdEntity {
     @Id
     @Column(name = ColumnNameEntityUtility.COLUMN_USERS_BALANCE_HISTORICAL_ID, nullable = false, updatable = false)
     private UUID userBalanceHistoricalEntityDTOId;
@@ -35,4 +35,9 @@ public class UserBalanceHistoricalEntityDTO {
 
     @Column(name = ColumnNameEntityUtility.COLUMN_USER_BALANCE_HISTORICAL_USER_BALANCE_ID, nullable = false)
     private UUID userBalanceHistoricalEntityDTOUserBalanceId;
+
+    @Override
+    public UUID getId() {
+        return userBalanceHistoricalEntityDTOId;
+    }
 }
@@ -0,0 +1,52 @@
+package com.jdt16.agenin.transaction.dto.entity;
+
+import com.jdt16.agenin.transaction.utility.ColumnNameEntityUtility;
+import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sub-baris saldo untuk user "hot" (mode sharded).
+ * Saldo total = M_USER_BALANCE.user_balance_amount + SUM(slot_amount).
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@Table(
+        name = TableNameEntityUtility.TABLE_USER_BALANCE_SLOT,
+        uniqueConstraints = @UniqueConstraint(columnNames = {
+                ColumnNameEntityUtility.COLUMN_USER_BALANCE_SLOT_USER_ID,
+                ColumnNameEntityUtility.COLUMN_USER_BALANCE_SLOT_INDEX
+        })
+)
+public class UserBalanceSlotEntityDTO {
+    @Id
+    @Column(name = ColumnNameEntityUtility.COLUMN_USER_BALANCE_SLOT_ID, nullable = false, updatable = false)
+    private UUID userBalanceSlotEntityDTOId;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_USER_BALANCE_SLOT_USER_ID, nullable = false, updatable = false)
+    private UUID userBalanceSlotEntityDTOUserId;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_USER_BALANCE_SLOT_BALANCE_ID, nullable = false, updatable = false)
+    private UUID userBalanceSlotEntityDTOUserBalanceId;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_USER_BALANCE_SLOT_INDEX, nullable = false, updatable = false)
+    private Integer userBalanceSlotEntityDTOSlotIndex;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_USER_BALANCE_SLOT_AMOUNT, nullable = false)
+    private BigDecimal userBalanceSlotEntityDTOAmount;
+
+    @Column(name = ColumnNameEntityUtility.COLUMN_USER_BALANCE_SLOT_LAST_UPDATE, nullable = false)
+    private LocalDateTime userBalanceSlotEntityDTOLastUpdate;
+}
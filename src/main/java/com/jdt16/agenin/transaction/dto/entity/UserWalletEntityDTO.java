@@ -24,7 +24,7 @@ public class UserWalletEntityDTO {
     @Column(name = ColumnNameEntityUtility.COLUMN_USERS_WALLET_ID, nullable = false, updatable = false)
     private UUID userWalletEntityDTOId;
 
-    @Column(name = ColumnNameEntityUtility.COLUMN_USERS_WALLET_USER_ID, nullable = false, updatable = false)
+    @Column(name = ColumnNameEntityUtility.COLUMN_USERS_WALLET_USER_ID, unique = true, nullable = false, updatable = false)
     private UUID userWalletEntityDTOUserId;
 
     @Column(name = ColumnNameEntityUtility.COLUMN_USER_WALLET_AMOUNT, nullable = false)
@@ -0,0 +1,60 @@
+package com.jdt16.agenin.transaction.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event perubahan saldo/wallet user berisi nilai absolut setelah commit (bukan delta),
+ * sehingga redelivery dan urutan yang tertukar tidak merusak state store.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class BalanceChangeEventDTO {
+    @JsonProperty("userId")
+    private UUID balanceChangeEventDTOUserId;
+
+    @JsonProperty("balanceAmount")
+    private BigDecimal balanceChangeEventDTOBalanceAmount;
+
+    @JsonProperty("balanceLastUpdate")
+    private LocalDateTime balanceChangeEventDTOBalanceLastUpdate;
+
+    @JsonProperty("walletAmount")
+    private BigDecimal balanceChangeEventDTOWalletAmount;
+
+    @JsonProperty("walletLastUpdate")
+    private LocalDateTime balanceChangeEventDTOWalletLastUpdate;
+
+    /**
+     * Gabungkan dengan event berikutnya: saldo dan wallet masing-masing diambil dari yang update-nya paling baru
+     */
+    public BalanceChangeEventDTO merge(BalanceChangeEventDTO next) {
+        boolean nextBalance = isNewer(next.balanceChangeEventDTOBalanceLastUpdate, balanceChangeEventDTOBalanceLastUpdate);
+        boolean nextWallet = isNewer(next.balanceChangeEventDTOWalletLastUpdate, balanceChangeEventDTOWalletLastUpdate);
+        return BalanceChangeEventDTO.builder()
+                .balanceChangeEventDTOUserId(next.balanceChangeEventDTOUserId)
+                .balanceChangeEventDTOBalanceAmount(nextBalance
+                        ? next.balanceChangeEventDTOBalanceAmount : balanceChangeEventDTOBalanceAmount)
+                .balanceChangeEventDTOBalanceLastUpdate(nextBalance
+                        ? next.balanceChangeEventDTOBalanceLastUpdate : balanceChangeEventDTOBalanceLastUpdate)
+                .balanceChangeEventDTOWalletAmount(nextWallet
+                        ? next.balanceChangeEventDTOWalletAmount : balanceChangeEventDTOWalletAmount)
+                .balanceChangeEventDTOWalletLastUpdate(nextWallet
+                        ? next.balanceChangeEventDTOWalletLastUpdate : balanceChangeEventDTOWalletLastUpdate)
+                .build();
+    }
+
+    private static boolean isNewer(LocalDateTime candidate, LocalDateTime current) {
+        if (candidate == null) {
+            return false;
+        }
+        return current == null || !candidate.isBefore(current);
+    }
+}
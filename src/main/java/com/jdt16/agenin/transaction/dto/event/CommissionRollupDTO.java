@@ -0,0 +1,76 @@
+package com.jdt16.agenin.transaction.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Agregat satu window harian di state store rollup: jumlah transaksi, total harga dan total komisi
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CommissionRollupDTO {
+    @JsonProperty("name")
+    private String commissionRollupDTOName;
+
+    @JsonProperty("transactionCount")
+    private long commissionRollupDTOTransactionCount;
+
+    @JsonProperty("grossPrice")
+    @Builder.Default
+    private BigDecimal commissionRollupDTOGrossPrice = BigDecimal.ZERO;
+
+    @JsonProperty("commission")
+    @Builder.Default
+    private BigDecimal commissionRollupDTOCommission = BigDecimal.ZERO;
+
+    public static CommissionRollupDTO empty() {
+        return CommissionRollupDTO.builder().build();
+    }
+
+    /**
+     * Tambahkan satu transaksi; nama diambil dari transaksi terakhir
+     */
+    public CommissionRollupDTO add(String name, BigDecimal price, BigDecimal commission) {
+        return CommissionRollupDTO.builder()
+                .commissionRollupDTOName(name != null ? name : commissionRollupDTOName)
+                .commissionRollupDTOTransactionCount(commissionRollupDTOTransactionCount + 1)
+                .commissionRollupDTOGrossPrice(commissionRollupDTOGrossPrice.add(orZero(price)))
+                .commissionRollupDTOCommission(commissionRollupDTOCommission.add(orZero(commission)))
+                .build();
+    }
+
+    /**
+     * Tambahkan komisi referral untuk parent; jumlah transaksi dan total harga tetap milik agen penjual
+     */
+    public CommissionRollupDTO addReferral(BigDecimal commission) {
+        return CommissionRollupDTO.builder()
+                .commissionRollupDTOName(commissionRollupDTOName)
+                .commissionRollupDTOTransactionCount(commissionRollupDTOTransactionCount)
+                .commissionRollupDTOGrossPrice(commissionRollupDTOGrossPrice)
+                .commissionRollupDTOCommission(commissionRollupDTOCommission.add(orZero(commission)))
+                .build();
+    }
+
+    /**
+     * Jumlahkan dua agregat (dipakai saat menggabungkan beberapa hari)
+     */
+    public CommissionRollupDTO plus(CommissionRollupDTO other) {
+        return CommissionRollupDTO.builder()
+                .commissionRollupDTOName(other.commissionRollupDTOName != null
+                        ? other.commissionRollupDTOName : commissionRollupDTOName)
+                .commissionRollupDTOTransactionCount(commissionRollupDTOTransactionCount
+                        + other.commissionRollupDTOTransactionCount)
+                .commissionRollupDTOGrossPrice(commissionRollupDTOGrossPrice.add(other.commissionRollupDTOGrossPrice))
+                .commissionRollupDTOCommission(commissionRollupDTOCommission.add(other.commissionRollupDTOCommission))
+                .build();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,40 @@
+package com.jdt16.agenin.transaction.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Perintah inquiry asinkron di topic create-transaction, key = userId.
+ * Membawa metadata request karena consumer berjalan di luar thread servlet.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class InquiryCommandEventDTO {
+    @JsonProperty("transactionId")
+    private UUID inquiryCommandEventDTOTransactionId;
+
+    @JsonProperty("transactionDate")
+    private LocalDateTime inquiryCommandEventDTOTransactionDate;
+
+    @JsonProperty("userId")
+    private UUID inquiryCommandEventDTOUserId;
+
+    @JsonProperty("productId")
+    private UUID inquiryCommandEventDTOProductId;
+
+    @JsonProperty("request")
+    private TransactionRequest inquiryCommandEventDTORequest;
+
+    @JsonProperty("userAgent")
+    private String inquiryCommandEventDTOUserAgent;
+
+    @JsonProperty("ipAddress")
+    private String inquiryCommandEventDTOIpAddress;
+}
@@ -0,0 +1,48 @@
+package com.jdt16.agenin.transaction.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event transaksi sukses dari inquiry, dikirim setelah commit. Sumber rollup komisi harian.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class TransactionCreatedEventDTO {
+    @JsonProperty("transactionId")
+    private UUID transactionCreatedEventDTOTransactionId;
+
+    @JsonProperty("userId")
+    private UUID transactionCreatedEventDTOUserId;
+
+    @JsonProperty("productId")
+    private UUID transactionCreatedEventDTOProductId;
+
+    @JsonProperty("productName")
+    private String transactionCreatedEventDTOProductName;
+
+    @JsonProperty("productPrice")
+    private BigDecimal transactionCreatedEventDTOProductPrice;
+
+    @JsonProperty("commissionAmount")
+    private BigDecimal transactionCreatedEventDTOCommissionAmount;
+
+    /**
+     * Parent referral yang ikut menerima komisi (transaksi SUB_AGENT); null untuk AGENT
+     */
+    @JsonProperty("referenceUserId")
+    private UUID transactionCreatedEventDTOReferenceUserId;
+
+    @JsonProperty("referenceCommissionAmount")
+    private BigDecimal transactionCreatedEventDTOReferenceCommissionAmount;
+
+    @JsonProperty("transactionDate")
+    private LocalDateTime transactionCreatedEventDTOTransactionDate;
+}
@@ -0,0 +1,18 @@
+package com.jdt16.agenin.transaction.dto.exception;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Inquiry masih diproses saat batas tunggu habis (bukan gagal); dijawab 202 dengan URL inquiry-status
+ */
+@Getter
+public class InquiryPendingException extends RuntimeException {
+    private final UUID transactionId;
+
+    public InquiryPendingException(UUID transactionId) {
+        super("Inquiry " + transactionId + " is still being processed, check the inquiry status later");
+        this.transactionId = transactionId;
+    }
+}
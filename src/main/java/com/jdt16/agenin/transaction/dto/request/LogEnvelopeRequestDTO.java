@@ -0,0 +1,98 @@
+package com.jdt16.agenin.transaction.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Seluruh audit event dari satu operasi bisnis (satu transaksi DB) dalam satu record Kafka.
+ * Konteks user, role, user agent dan IP ditulis sekali.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class LogEnvelopeRequestDTO {
+    @JsonProperty("envelopeId")
+    private UUID logEnvelopeDTOId;
+
+    @JsonProperty("userId")
+    private UUID logEnvelopeDTOUserId;
+
+    @JsonProperty("userFullname")
+    private String logEnvelopeDTOUserFullname;
+
+    @JsonProperty("roleId")
+    private UUID logEnvelopeDTORoleId;
+
+    @JsonProperty("roleName")
+    private String logEnvelopeDTORoleName;
+
+    @JsonProperty("userAgent")
+    private String logEnvelopeDTOUserAgent;
+
+    @JsonProperty("ipAddress")
+    private String logEnvelopeDTOIpAddress;
+
+    @JsonProperty("events")
+    @Builder.Default
+    private List<LogEventRequestDTO> logEnvelopeDTOEvents = new ArrayList<>();
+
+    /**
+     * Envelope berisi satu event dari audit log tunggal (format lama)
+     */
+    public static LogEnvelopeRequestDTO of(LogRequestDTO logRequest) {
+        LogEnvelopeRequestDTO envelope = LogEnvelopeRequestDTO.builder()
+                .logEnvelopeDTOId(logRequest.getLogEntityDTOAuditLogsId())
+                .logEnvelopeDTOUserId(logRequest.getLogEntityDTOUserId())
+                .logEnvelopeDTOUserFullname(logRequest.getLogEntityDTOUserFullname())
+                .logEnvelopeDTORoleId(logRequest.getLogEntityDTORoleId())
+                .logEnvelopeDTORoleName(logRequest.getLogEntityDTORoleName())
+                .logEnvelopeDTOUserAgent(logRequest.getLogEntityDTOUserAgent())
+                .logEnvelopeDTOIpAddress(logRequest.getLogEntityDTOIpAddress())
+                .build();
+        envelope.addEvent(logRequest);
+        return envelope;
+    }
+
+    public void addEvent(LogRequestDTO logRequest) {
+        logEnvelopeDTOEvents.add(LogEventRequestDTO.builder()
+                .logEventDTOAuditLogsId(logRequest.getLogEntityDTOAuditLogsId())
+                .logEventDTOTableName(logRequest.getLogEntityDTOTableName())
+                .logEventDTORecordId(logRequest.getLogEntityDTORecordId())
+                .logEventDTOAction(logRequest.getLogEntityDTOAction())
+                .logEventDTOOldData(logRequest.getLogEntityDTOOldData())
+                .logEventDTONewData(logRequest.getLogEntityDTONewData())
+                .logEventDTOChangedAt(logRequest.getLogEntityDTOChangedAt())
+                .build());
+    }
+
+    /**
+     * Pecah kembali menjadi audit log per event (untuk consumer yang menyimpan per baris)
+     */
+    public List<LogRequestDTO> toLogRequests() {
+        List<LogRequestDTO> logRequests = new ArrayList<>(logEnvelopeDTOEvents.size());
+        for (LogEventRequestDTO event : logEnvelopeDTOEvents) {
+            logRequests.add(LogRequestDTO.builder()
+                    .logEntityDTOAuditLogsId(event.getLogEventDTOAuditLogsId())
+                    .logEntityDTOTableName(event.getLogEventDTOTableName())
+                    .logEntityDTORecordId(event.getLogEventDTORecordId())
+                    .logEntityDTOAction(event.getLogEventDTOAction())
+                    .logEntityDTOOldData(event.getLogEventDTOOldData())
+                    .logEntityDTONewData(event.getLogEventDTONewData())
+                    .logEntityDTOChangedAt(event.getLogEventDTOChangedAt())
+                    .logEntityDTOUserId(logEnvelopeDTOUserId)
+                    .logEntityDTOUserFullname(logEnvelopeDTOUserFullname)
+                    .logEntityDTORoleId(logEnvelopeDTORoleId)
+                    .logEntityDTORoleName(logEnvelopeDTORoleName)
+                    .logEntityDTOUserAgent(logEnvelopeDTOUserAgent)
+                    .logEntityDTOIpAddress(logEnvelopeDTOIpAddress)
+                    .build());
+        }
+        return logRequests;
+    }
+}
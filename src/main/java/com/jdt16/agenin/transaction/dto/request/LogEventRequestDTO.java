@@ -0,0 +1,39 @@
+package com.jdt16.agenin.transaction.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Satu event audit di dalam {@link LogEnvelopeRequestDTO}; konteks user/agent/IP ada di envelope
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class LogEventRequestDTO {
+    @JsonProperty("auditLogsId")
+    private UUID logEventDTOAuditLogsId;
+
+    @JsonProperty("tableName")
+    private String logEventDTOTableName;
+
+    @JsonProperty("recordId")
+    private UUID logEventDTORecordId;
+
+    @JsonProperty("action")
+    private String logEventDTOAction;
+
+    @JsonProperty("oldData")
+    private Map<String, Object> logEventDTOOldData;
+
+    @JsonProperty("newData")
+    private Map<String, Object> logEventDTONewData;
+
+    @JsonProperty("changedAt")
+    private LocalDateTime logEventDTOChangedAt;
+}
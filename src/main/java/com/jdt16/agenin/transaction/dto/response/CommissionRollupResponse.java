@@ -0,0 +1,37 @@
+package com.jdt16.agenin.transaction.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+public class CommissionRollupResponse {
+    /**
+     * userId agen atau productId, sesuai rollup yang diminta
+     */
+    @JsonProperty("id")
+    private UUID commissionRollupId;
+
+    @JsonProperty("name")
+    private String commissionRollupName;
+
+    /**
+     * Hari window; null untuk total satu rentang tanggal
+     */
+    @JsonProperty("date")
+    private LocalDate commissionRollupDate;
+
+    @JsonProperty("transactionCount")
+    private long commissionRollupTransactionCount;
+
+    @JsonProperty("grossPrice")
+    private BigDecimal commissionRollupGrossPrice;
+
+    @JsonProperty("commission")
+    private BigDecimal commissionRollupCommission;
+}
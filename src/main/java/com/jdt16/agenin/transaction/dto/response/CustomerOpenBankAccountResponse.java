@@ -1,13 +1,21 @@
 package com.jdt16.agenin.transaction.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class CustomerOpenBankAccountResponse {
+    @JsonProperty("transactionId")
+    private UUID customerOpenBankAccountTransactionId;
+
     @JsonProperty("productName")
     private String customerOpenBankAccountProductName;
 
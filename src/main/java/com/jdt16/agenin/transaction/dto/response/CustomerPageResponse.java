@@ -0,0 +1,20 @@
+package com.jdt16.agenin.transaction.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CustomerPageResponse {
+    @JsonProperty("customers")
+    private List<CustomerOpenBankAccountResponse> customerPageResponseCustomers;
+
+    /**
+     * Cursor untuk halaman berikutnya, null jika sudah halaman terakhir
+     */
+    @JsonProperty("nextCursor")
+    private String customerPageResponseNextCursor;
+}
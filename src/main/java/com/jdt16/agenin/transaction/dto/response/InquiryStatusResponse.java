@@ -0,0 +1,26 @@
+package com.jdt16.agenin.transaction.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class InquiryStatusResponse {
+    @JsonProperty("transactionId")
+    private UUID inquiryStatusTransactionId;
+
+    /**
+     * PENDING selama masih di antrean, lalu status transaksi (SUCCESS / FAILED)
+     */
+    @JsonProperty("status")
+    private String inquiryStatusStatus;
+
+    @JsonProperty("transactionCode")
+    private String inquiryStatusTransactionCode;
+
+    @JsonProperty("statusUrl")
+    private String inquiryStatusUrl;
+}
@@ -1,9 +1,10 @@
 package com.jdt16.agenin.transaction.model.repository;
 
 import com.jdt16.agenin.transaction.dto.entity.ProductsEntityDTO;
-import com.jdt16.agenin.transaction.dto.response.ProductsResponse;
+import com.jdt16.agenin.transaction.service.interfacing.module.ProductCommissionProjection;
 import com.jdt16.agenin.transaction.service.interfacing.module.ProductProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +14,18 @@ import java.util.UUID;
 @Repository
 public interface MProductsRepositories extends JpaRepository<ProductsEntityDTO, UUID> {
     Optional<ProductProjection> findByProductEntityDTOId(UUID productId);
+
+    /**
+     * Seluruh produk beserta nilai komisinya dalam satu query (LEFT JOIN, komisi boleh kosong)
+     */
+    @Query("SELECT p.productEntityDTOId AS productEntityDTOId, " +
+            "p.productEntityDTOName AS productEntityDTOName, " +
+            "p.productEntityDTOCode AS productEntityDTOCode, " +
+            "p.productEntityDTODesc AS productEntityDTODesc, " +
+            "p.productEntityDTOPrice AS productEntityDTOPrice, " +
+            "c.commissionsEntityDTOValue AS commissionsEntityDTOValue " +
+            "FROM ProductsEntityDTO p " +
+            "LEFT JOIN CommissionEntityDTO c ON c.commissionsEntityDTOProductId = p.productEntityDTOId " +
+            "ORDER BY p.productEntityDTOName, p.productEntityDTOId, c.commissionsEntityDTOCreatedDate")
+    List<ProductCommissionProjection> findAllWithCommission();
 }
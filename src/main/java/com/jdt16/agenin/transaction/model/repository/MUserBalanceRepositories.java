@@ -1,13 +1,98 @@
 package com.jdt16.agenin.transaction.model.repository;
 
 import com.jdt16.agenin.transaction.dto.entity.UserBalanceEntityDTO;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAmountProjection;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAndWalletLastUpdateProjection;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAndWalletSnapshotProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface MUserBalanceRepositories extends JpaRepository<UserBalanceEntityDTO, UUID> {
     Optional<UserBalanceEntityDTO> findByUserBalanceEntityDTOUserId(UUID userId);
+
+    /**
+     * Saldo total = baris induk + seluruh slot (mode sharded), dalam satu query
+     */
+    @Query(value = "SELECT b.user_balance_id AS \"userBalanceEntityDTOId\", " +
+            "b.user_balance_amount + COALESCE(s.slot_total, 0) AS \"userBalanceEntityDTOBalanceAmount\", " +
+            "GREATEST(b.user_balance_last_updated, s.slot_last_updated) AS \"userBalanceEntityDTOBalanceLastUpdate\" " +
+            "FROM \"M_USER_BALANCE\" b " +
+            "LEFT JOIN (SELECT id_user, SUM(slot_amount) AS slot_total, MAX(slot_last_updated) AS slot_last_updated " +
+            "FROM \"M_USER_BALANCE_SLOT\" WHERE id_user = :userId GROUP BY id_user) s ON s.id_user = b.id_user " +
+            "WHERE b.id_user = :userId",
+            nativeQuery = true)
+    Optional<UserBalanceAmountProjection> findTotalUserBalance(@Param("userId") UUID userId);
+
+    /**
+     * Waktu update terakhir saldo (induk + slot) dan wallet, untuk ETag tanpa memuat nominal
+     */
+    @Query(value = "SELECT GREATEST(b.user_balance_last_updated, " +
+            "(SELECT MAX(s.slot_last_updated) FROM \"M_USER_BALANCE_SLOT\" s WHERE s.id_user = :userId)) " +
+            "AS \"userBalanceEntityDTOBalanceLastUpdate\", " +
+            "w.user_wallet_last_updated AS \"userWalletEntityDTOLastUpdate\" " +
+            "FROM \"M_USER_BALANCE\" b " +
+            "JOIN \"M_USER_WALLET\" w ON w.id_user = b.id_user " +
+            "WHERE b.id_user = :userId",
+            nativeQuery = true)
+    Optional<UserBalanceAndWalletLastUpdateProjection> findBalanceAndWalletLastUpdate(@Param("userId") UUID userId);
+
+    /**
+     * Saldo total (induk + slot) dan wallet beserta waktu update terakhir, untuk event perubahan saldo
+     */
+    @Query(value = "SELECT b.user_balance_amount + COALESCE(s.slot_total, 0) AS \"userBalanceEntityDTOBalanceAmount\", " +
+            "GREATEST(b.user_balance_last_updated, s.slot_last_updated) AS \"userBalanceEntityDTOBalanceLastUpdate\", " +
+            "w.user_wallet_amount AS \"userWalletEntityDTOAmount\", " +
+            "w.user_wallet_last_updated AS \"userWalletEntityDTOLastUpdate\" " +
+            "FROM \"M_USER_BALANCE\" b " +
+            "LEFT JOIN (SELECT id_user, SUM(slot_amount) AS slot_total, MAX(slot_last_updated) AS slot_last_updated " +
+            "FROM \"M_USER_BALANCE_SLOT\" WHERE id_user = :userId GROUP BY id_user) s ON s.id_user = b.id_user " +
+            "LEFT JOIN \"M_USER_WALLET\" w ON w.id_user = b.id_user " +
+            "WHERE b.id_user = :userId",
+            nativeQuery = true)
+    Optional<UserBalanceAndWalletSnapshotProjection> findBalanceAndWalletSnapshot(@Param("userId") UUID userId);
+
+    /**
+     * Upsert + increment saldo dalam satu statement (butuh unique index pada id_user).
+     * newBalanceId hanya dipakai jika baris saldo user belum ada.
+     */
+    @Query(value = "INSERT INTO \"M_USER_BALANCE\" " +
+            "(user_balance_id, id_user, user_balance_amount, user_balance_last_updated) " +
+            "VALUES (:newBalanceId, :userId, :amount, :lastUpdated) " +
+            "ON CONFLICT (id_user) DO UPDATE SET " +
+            "user_balance_amount = \"M_USER_BALANCE\".user_balance_amount + EXCLUDED.user_balance_amount, " +
+            "user_balance_last_updated = EXCLUDED.user_balance_last_updated " +
+            "RETURNING user_balance_id AS \"userBalanceEntityDTOId\", " +
+            "user_balance_amount AS \"userBalanceEntityDTOBalanceAmount\", " +
+            "user_balance_last_updated AS \"userBalanceEntityDTOBalanceLastUpdate\"",
+            nativeQuery = true)
+    UserBalanceAmountProjection incrementUserBalance(
+            @Param("newBalanceId") UUID newBalanceId,
+            @Param("userId") UUID userId,
+            @Param("amount") BigDecimal amount,
+            @Param("lastUpdated") LocalDateTime lastUpdated);
+
+    /**
+     * Kurangi saldo secara atomik hanya jika saldo mencukupi.
+     * Empty berarti saldo tidak ditemukan atau tidak mencukupi.
+     */
+    @Query(value = "UPDATE \"M_USER_BALANCE\" SET " +
+            "user_balance_amount = user_balance_amount - :amount, " +
+            "user_balance_last_updated = :lastUpdated " +
+            "WHERE id_user = :userId AND user_balance_amount >= :amount " +
+            "RETURNING user_balance_id AS \"userBalanceEntityDTOId\", " +
+            "user_balance_amount AS \"userBalanceEntityDTOBalanceAmount\", " +
+            "user_balance_last_updated AS \"userBalanceEntityDTOBalanceLastUpdate\"",
+            nativeQuery = true)
+    Optional<UserBalanceAmountProjection> decrementUserBalance(
+            @Param("userId") UUID userId,
+            @Param("amount") BigDecimal amount,
+            @Param("lastUpdated") LocalDateTime lastUpdated);
 }
@@ -0,0 +1,69 @@
+package com.jdt16.agenin.transaction.model.repository;
+
+import com.jdt16.agenin.transaction.dto.entity.UserBalanceSlotEntityDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface MUserBalanceSlotRepositories extends JpaRepository<UserBalanceSlotEntityDTO, UUID> {
+
+    /**
+     * Promosi ke mode sharded: buat slot 0..slotCount-1 (saldo 0) untuk user yang sudah punya baris saldo
+     */
+    @Modifying
+    @Query(value = "INSERT INTO \"M_USER_BALANCE_SLOT\" " +
+            "(user_balance_slot_id, id_user, user_balance_id, slot_index, slot_amount, slot_last_updated) " +
+            "SELECT gen_random_uuid(), b.id_user, b.user_balance_id, s.slot_index, 0, :lastUpdated " +
+            "FROM \"M_USER_BALANCE\" b CROSS JOIN generate_series(0, :slotCount - 1) AS s(slot_index) " +
+            "WHERE b.id_user = :userId " +
+            "ON CONFLICT (id_user, slot_index) DO NOTHING",
+            nativeQuery = true)
+    int createSlots(
+            @Param("userId") UUID userId,
+            @Param("slotCount") int slotCount,
+            @Param("lastUpdated") LocalDateTime lastUpdated);
+
+    /**
+     * Increment satu slot. Mengembalikan id baris saldo induk, empty jika slot belum ada.
+     */
+    @Query(value = "UPDATE \"M_USER_BALANCE_SLOT\" SET " +
+            "slot_amount = slot_amount + :amount, slot_last_updated = :lastUpdated " +
+            "WHERE id_user = :userId AND slot_index = :slotIndex " +
+            "RETURNING user_balance_id",
+            nativeQuery = true)
+    Optional<UUID> incrementSlot(
+            @Param("userId") UUID userId,
+            @Param("slotIndex") int slotIndex,
+            @Param("amount") BigDecimal amount,
+            @Param("lastUpdated") LocalDateTime lastUpdated);
+
+    /**
+     * Pindahkan seluruh saldo slot ke baris saldo induk (semua slot user di-lock selama proses).
+     * Dipakai sebelum debit agar pengecekan saldo cukup melihat satu baris.
+     */
+    @Modifying
+    @Query(value = "WITH locked AS (" +
+            "SELECT user_balance_slot_id, slot_amount FROM \"M_USER_BALANCE_SLOT\" " +
+            "WHERE id_user = :userId FOR UPDATE" +
+            "), drained AS (" +
+            "UPDATE \"M_USER_BALANCE_SLOT\" s SET slot_amount = 0, slot_last_updated = :lastUpdated " +
+            "FROM locked WHERE s.user_balance_slot_id = locked.user_balance_slot_id AND locked.slot_amount <> 0 " +
+            "RETURNING locked.slot_amount AS drained_amount" +
+            ") " +
+            "UPDATE \"M_USER_BALANCE\" SET " +
+            "user_balance_amount = user_balance_amount + (SELECT COALESCE(SUM(drained_amount), 0) FROM drained), " +
+            "user_balance_last_updated = :lastUpdated " +
+            "WHERE id_user = :userId AND EXISTS (SELECT 1 FROM drained)",
+            nativeQuery = true)
+    int consolidateSlots(
+            @Param("userId") UUID userId,
+            @Param("lastUpdated") LocalDateTime lastUpdated);
+}
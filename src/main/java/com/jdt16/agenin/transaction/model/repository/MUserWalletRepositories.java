@@ -1,13 +1,38 @@
 package com.jdt16.agenin.transaction.model.repository;
 
 import com.jdt16.agenin.transaction.dto.entity.UserWalletEntityDTO;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserWalletAmountProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface MUserWalletRepositories extends JpaRepository<UserWalletEntityDTO, UUID> {
     Optional<UserWalletEntityDTO> findByUserWalletEntityDTOUserId(UUID id);
+
+    /**
+     * Upsert + increment wallet dalam satu statement (butuh unique index pada id_user).
+     * newWalletId hanya dipakai jika wallet user belum ada.
+     */
+    @Query(value = "INSERT INTO \"M_USER_WALLET\" " +
+            "(user_wallet_id, id_user, user_wallet_amount, user_wallet_last_updated) " +
+            "VALUES (:newWalletId, :userId, :amount, :lastUpdated) " +
+            "ON CONFLICT (id_user) DO UPDATE SET " +
+            "user_wallet_amount = \"M_USER_WALLET\".user_wallet_amount + EXCLUDED.user_wallet_amount, " +
+            "user_wallet_last_updated = EXCLUDED.user_wallet_last_updated " +
+            "RETURNING user_wallet_id AS \"userWalletEntityDTOId\", " +
+            "user_wallet_amount AS \"userWalletEntityDTOAmount\", " +
+            "user_wallet_last_updated AS \"userWalletEntityDTOLastUpdate\"",
+            nativeQuery = true)
+    UserWalletAmountProjection incrementUserWallet(
+            @Param("newWalletId") UUID newWalletId,
+            @Param("userId") UUID userId,
+            @Param("amount") BigDecimal amount,
+            @Param("lastUpdated") LocalDateTime lastUpdated);
 }
@@ -0,0 +1,42 @@
+package com.jdt16.agenin.transaction.model.repository;
+
+import com.jdt16.agenin.transaction.dto.entity.AuditOutboxEntityDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TAuditOutboxRepositories extends JpaRepository<AuditOutboxEntityDTO, UUID> {
+
+    /**
+     * Kunci advisory selama transaksi relay; hanya satu instance yang mengosongkan outbox agar urutan terjaga
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockKey)", nativeQuery = true)
+    boolean tryRelayLock(@Param("lockKey") long lockKey);
+
+    /**
+     * Batch berikutnya, urut id (UUIDv7, urutan waktu insert)
+     */
+    @Query("SELECT o FROM AuditOutboxEntityDTO o ORDER BY o.auditOutboxEntityDTOId")
+    List<AuditOutboxEntityDTO> findNextBatch(Pageable pageable);
+
+    /**
+     * Batch audit berikutnya (topic kosong), urut id; hanya baris ini yang boleh dipindah ke spool audit
+     */
+    @Query("SELECT o FROM AuditOutboxEntityDTO o WHERE o.auditOutboxEntityDTOTopic IS NULL ORDER BY o.auditOutboxEntityDTOId")
+    List<AuditOutboxEntityDTO> findNextAuditBatch(Pageable pageable);
+
+    /**
+     * Hapus seluruh baris yang sudah terkirim dalam satu statement
+     */
+    @Modifying
+    @Query("DELETE FROM AuditOutboxEntityDTO o WHERE o.auditOutboxEntityDTOId IN :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+}
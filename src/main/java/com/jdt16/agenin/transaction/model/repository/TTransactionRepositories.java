@@ -1,13 +1,103 @@
 package com.jdt16.agenin.transaction.model.repository;
 
 import com.jdt16.agenin.transaction.dto.entity.TransactionEntityDTO;
+import com.jdt16.agenin.transaction.dto.response.CustomerOpenBankAccountResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TTransactionRepositories extends JpaRepository<TransactionEntityDTO, UUID> {
+    String CUSTOMER_SELECT = "SELECT new com.jdt16.agenin.transaction.dto.response.CustomerOpenBankAccountResponse(" +
+            "t.transactionEntityDTOId, " +
+            "t.transactionEntityDTOProductName, " +
+            "t.transactionEntityDTOProductPrice, " +
+            "o.transactionOpenBankAccountEntityDTOCustomerName, " +
+            "o.transactionOpenBankAccountEntityDTOCustomerIdentityNumber, " +
+            "o.transactionOpenBankAccountEntityDTOCustomerPhoneNumber, " +
+            "o.transactionOpenBankAccountEntityDTOCustomerEmail, " +
+            "o.transactionOpenBankAccountEntityDTOCustomerAddress, " +
+            "t.transactionEntityDTODate, " +
+            "t.transactionEntityDTOStatus) " +
+            "FROM TransactionEntityDTO t " +
+            "LEFT JOIN TransactionOpenBankAccountEntityDTO o " +
+            "ON o.transactionOpenBankAccountEntityDTOTransactionId = t.transactionEntityDTOId ";
+
+    String CUSTOMER_KEYSET_ORDER = "ORDER BY t.transactionEntityDTODate DESC, t.transactionEntityDTOId DESC";
+
     List<TransactionEntityDTO> findByTransactionEntityDTOUserId(UUID userId);
+
+    /**
+     * Daftar customer user dalam satu query (transaksi LEFT JOIN detail open bank account),
+     * urut tanggal terbaru. Langsung dipetakan ke DTO, tanpa entity managed.
+     */
+    @Query(CUSTOMER_SELECT +
+            "WHERE t.transactionEntityDTOUserId = :userId " +
+            CUSTOMER_KEYSET_ORDER)
+    List<CustomerOpenBankAccountResponse> findCustomerOpenBankAccountsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Stream seluruh customer user via server-side cursor (fetch size tetap).
+     * Wajib dikonsumsi di dalam transaksi read-only dan ditutup setelah selesai.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(CUSTOMER_SELECT +
+            "WHERE t.transactionEntityDTOUserId = :userId " +
+            CUSTOMER_KEYSET_ORDER)
+    Stream<CustomerOpenBankAccountResponse> streamCustomerOpenBankAccountsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Halaman pertama keyset pagination (urut tanggal DESC, id DESC)
+     */
+    @Query(CUSTOMER_SELECT +
+            "WHERE t.transactionEntityDTOUserId = :userId " +
+            CUSTOMER_KEYSET_ORDER)
+    List<CustomerOpenBankAccountResponse> findCustomerPageByUserId(
+            @Param("userId") UUID userId,
+            Pageable pageable);
+
+    /**
+     * Halaman berikutnya: seek setelah (cursorDate, cursorId), tanpa OFFSET.
+     * Predikat tanggal <= redundan agar index (id_user, transaction_date, transaction_id) bisa langsung seek.
+     */
+    @Query(CUSTOMER_SELECT +
+            "WHERE t.transactionEntityDTOUserId = :userId " +
+            "AND t.transactionEntityDTODate <= :cursorDate " +
+            "AND (t.transactionEntityDTODate < :cursorDate " +
+            "OR (t.transactionEntityDTODate = :cursorDate AND t.transactionEntityDTOId < :cursorId)) " +
+            CUSTOMER_KEYSET_ORDER)
+    List<CustomerOpenBankAccountResponse> findCustomerPageByUserIdAfter(
+            @Param("userId") UUID userId,
+            @Param("cursorDate") LocalDateTime cursorDate,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable);
+
+    /**
+     * Satu transaksi per kode milik user beserta detail open bank account. Kode unik (uk_transaction_code);
+     * rentang tanggal dari kode menolak kode yang tanggalnya tidak cocok tanpa membaca baris lain.
+     */
+    @Query(CUSTOMER_SELECT +
+            "WHERE t.transactionEntityDTOCode = :code " +
+            "AND t.transactionEntityDTOUserId = :userId " +
+            "AND t.transactionEntityDTODate >= :fromDate " +
+            "AND t.transactionEntityDTODate < :toDate")
+    Optional<CustomerOpenBankAccountResponse> findCustomerOpenBankAccountByCode(
+            @Param("code") String code,
+            @Param("userId") UUID userId,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate);
 }
@@ -0,0 +1,127 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.dto.cache.ProductCatalogEntry;
+import com.jdt16.agenin.transaction.dto.context.RequestMetadataContext;
+import com.jdt16.agenin.transaction.dto.entity.UserEntityDTO;
+import com.jdt16.agenin.transaction.dto.event.InquiryCommandEventDTO;
+import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
+import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
+import com.jdt16.agenin.transaction.dto.response.InquiryStatusResponse;
+import com.jdt16.agenin.transaction.dto.response.RestApiResponse;
+import com.jdt16.agenin.transaction.service.interfacing.module.IdGenerator;
+import com.jdt16.agenin.transaction.utility.RequestContextUtil;
+import com.jdt16.agenin.transaction.utility.RestApiPathUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Jalur inquiry asinkron: validasi dari near-cache (tanpa JDBC), tetapkan transactionId,
+ * publish ke topic create-transaction (key = userId) dan kembalikan 202 + URL status.
+ * Pekerjaan database dilakukan {@link InquiryCommandConsumerService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncInquiryService {
+
+    private static final Set<String> INQUIRY_ROLES = Set.of("AGENT", "SUB_AGENT");
+
+    private final UserIdentityCacheService userIdentityCacheService;
+    private final ProductCatalogCacheService productCatalogCacheService;
+    private final KafkaTemplate<String, InquiryCommandEventDTO> inquiryCommandKafkaTemplate;
+    private final IdGenerator idGenerator;
+
+    @Value("${inquiry-async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${request-topic.create-transaction-topic:create-transaction-po}")
+    private String createTransactionTopic;
+
+    @Value("${inquiry-async.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Terima inquiry; 202 hanya dikembalikan setelah broker meng-ack perintahnya
+     *
+     * @throws RejectedExecutionException jika broker tidak meng-ack dalam send-timeout-ms
+     */
+    public RestApiResponse<InquiryStatusResponse> submitInquiry(
+            UUID userId,
+            UUID productId,
+            TransactionRequest transactionRequest
+    ) {
+        UserEntityDTO user = userIdentityCacheService.findUser(userId)
+                .orElseThrow(() -> new CoreThrowHandlerException("User not found for user: " + userId));
+        if (!INQUIRY_ROLES.contains(user.getUserEntityDTORoleName())) {
+            throw new CoreThrowHandlerException("Transaction FAILED.");
+        }
+        ProductCatalogEntry product = productCatalogCacheService.getProduct(productId);
+        if (product.getCommissionsEntityDTOValue() == null) {
+            throw new CoreThrowHandlerException("Commission value for ID products " + productId + " not found");
+        }
+
+        RequestMetadataContext metadata = RequestContextUtil.getRequestMetadata();
+        InquiryCommandEventDTO command = InquiryCommandEventDTO.builder()
+                .inquiryCommandEventDTOTransactionId(idGenerator.newId())
+                .inquiryCommandEventDTOTransactionDate(LocalDateTime.now())
+                .inquiryCommandEventDTOUserId(userId)
+                .inquiryCommandEventDTOProductId(productId)
+                .inquiryCommandEventDTORequest(transactionRequest)
+                .inquiryCommandEventDTOUserAgent(metadata.getUserAgent())
+                .inquiryCommandEventDTOIpAddress(metadata.getClientIpAddress())
+                .build();
+
+        // Broker tidak meng-ack (atau send gagal sinkron: metadata/buffer penuh) = layanan sementara tidak
+        // tersedia (503 + Retry-After), bukan konflik bisnis
+        try {
+            inquiryCommandKafkaTemplate.send(createTransactionTopic, userId.toString(), command)
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Inquiry could not be queued, please retry", e);
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            log.warn("Inquiry command not acknowledged by broker for userId: {}: {}", userId, e.getMessage());
+            throw new RejectedExecutionException("Inquiry could not be queued, please retry", e);
+        }
+
+        UUID transactionId = command.getInquiryCommandEventDTOTransactionId();
+        log.info("Inquiry {} queued for userId: {}, productId: {}", transactionId, userId, productId);
+        return accepted(transactionId);
+    }
+
+    /**
+     * Body 202 untuk inquiry yang masih diproses; dipakai juga group commit yang melewati batas tunggu
+     */
+    public static RestApiResponse<InquiryStatusResponse> accepted(UUID transactionId) {
+        return RestApiResponse.<InquiryStatusResponse>builder()
+                .restApiResponseCode(HttpStatus.ACCEPTED.value())
+                .restApiResponseMessage("ACCEPTED")
+                .restApiResponseResults(InquiryStatusResponse.builder()
+                        .inquiryStatusTransactionId(transactionId)
+                        .inquiryStatusStatus("PENDING")
+                        .inquiryStatusUrl(statusUrl(transactionId))
+                        .build())
+                .build();
+    }
+
+    public static String statusUrl(UUID transactionId) {
+        return RestApiPathUtility.API_PATH + RestApiPathUtility.API_VERSION + RestApiPathUtility.API_PATH_TRANSACTION
+                + RestApiPathUtility.API_PATH_INQUIRY_STATUS + "/" + transactionId;
+    }
+}
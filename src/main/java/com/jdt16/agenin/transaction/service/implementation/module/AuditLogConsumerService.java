@@ -0,0 +1,172 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.dto.request.LogEnvelopeRequestDTO;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Consumer topic audit: satu poll besar = satu COPY ke AUDIT_LOGS.
+ * Offset baru di-commit setelah listener selesai tanpa exception (at-least-once);
+ * duplikat dari redelivery diabaikan oleh {@link AuditLogCopyService}.
+ * Baris yang tidak bisa dimuat (kolom wajib null, ditolak database) dikirim ke DLT, bukan diulang:
+ * baris tidak lengkap disaring sebelum COPY, dan jika COPY tetap gagal batch dimuat ulang per record.
+ * Record yang gagal di-decode ErrorHandlingDeserializer dikirim ke DLT sebagai byte mentah.
+ * Nonaktif secara default (audit-log-consumer.enabled).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogConsumerService {
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(AuditLogConsumerService.class);
+
+    private final AuditLogCopyService auditLogCopyService;
+    private final MeterRegistry meterRegistry;
+    private final KafkaTemplate<String, Object> deadLetterKafkaTemplate;
+
+    private Counter consumedCounter;
+    private Counter insertedCounter;
+    private Counter skippedCounter;
+    private Counter deadLetteredCounter;
+
+    @Value("${audit-log-consumer.dead-letter-topic:create-log-po.DLT}")
+    private String deadLetterTopic;
+
+    @Value("${audit-log-consumer.dead-letter-timeout-ms:10000}")
+    private long deadLetterTimeoutMs;
+
+    @PostConstruct
+    void init() {
+        consumedCounter = meterRegistry.counter("audit.consumer.consumed");
+        insertedCounter = meterRegistry.counter("audit.consumer.inserted");
+        skippedCounter = meterRegistry.counter("audit.consumer.skipped");
+        deadLetteredCounter = meterRegistry.counter("audit.consumer.dead-lettered");
+    }
+
+    @KafkaListener(
+            id = "audit-log-copy-consumer",
+            topics = "${kafka.audit-log-topic:create-log-po}",
+            groupId = "${audit-log-consumer.group-id:agenin-audit-log-copy}",
+            containerFactory = "auditLogBatchListenerContainerFactory",
+            autoStartup = "${audit-log-consumer.enabled:false}")
+    public void consume(List<ConsumerRecord<String, LogEnvelopeRequestDTO>> records) {
+        List<LogRequestDTO> logRequests = new ArrayList<>(records.size());
+        int skipped = 0;
+        for (ConsumerRecord<String, LogEnvelopeRequestDTO> consumerRecord : records) {
+            LogEnvelopeRequestDTO envelope = consumerRecord.value();
+            if (envelope == null) {
+                DeserializationException failure = SerializationUtils.getExceptionFromHeader(consumerRecord,
+                        SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+                if (failure != null) {
+                    deadLetterUndecodable(consumerRecord, failure);
+                } else {
+                    // Tombstone tanpa payload: tidak ada yang bisa dimuat maupun disimpan
+                    skipped++;
+                }
+                continue;
+            }
+            for (LogRequestDTO logRequest : envelope.toLogRequests()) {
+                if (AuditLogCopyService.isLoadable(logRequest)) {
+                    logRequests.add(logRequest);
+                } else {
+                    deadLetter(logRequest, "Audit log has a null value in a required column");
+                }
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} audit records without a payload", skipped);
+            skippedCounter.increment(skipped);
+        }
+
+        int inserted;
+        try {
+            inserted = auditLogCopyService.copy(logRequests);
+        } catch (RuntimeException e) {
+            log.warn("Audit COPY of {} rows failed, loading per record: {}", logRequests.size(), e.getMessage());
+            inserted = copyPerRecord(logRequests);
+        }
+        consumedCounter.increment(logRequests.size());
+        insertedCounter.increment(inserted);
+        log.debug("Audit batch loaded: records={}, inserted={}", logRequests.size(), inserted);
+    }
+
+    /**
+     * Muat ulang satu per satu: baris yang ditolak database ke DLT, error lain dilempar agar batch diulang container
+     */
+    private int copyPerRecord(List<LogRequestDTO> logRequests) {
+        int inserted = 0;
+        for (LogRequestDTO logRequest : logRequests) {
+            try {
+                inserted += auditLogCopyService.copy(List.of(logRequest));
+            } catch (RuntimeException e) {
+                if (!AuditLogCopyService.isRejectedRow(e)) {
+                    throw e;
+                }
+                deadLetter(logRequest, e.getMessage());
+            }
+        }
+        return inserted;
+    }
+
+    private void deadLetter(LogRequestDTO logRequest, String reason) {
+        String key = logRequest.getLogEntityDTOTableName() + "#" + logRequest.getLogEntityDTORecordId();
+        ProducerRecord<String, Object> deadLetter = new ProducerRecord<>(deadLetterTopic, key, logRequest);
+        send(deadLetter, reason);
+        log.warn("Audit log {} sent to {}: {}", logRequest.getLogEntityDTOAuditLogsId(), deadLetterTopic, reason);
+    }
+
+    /**
+     * Byte mentah dari DeserializationException dikirim apa adanya, dengan asal record di header DLT
+     */
+    private void deadLetterUndecodable(ConsumerRecord<String, LogEnvelopeRequestDTO> consumerRecord,
+                                       DeserializationException failure) {
+        ProducerRecord<String, Object> deadLetter = new ProducerRecord<>(deadLetterTopic, consumerRecord.key(), failure.getData());
+        Headers headers = deadLetter.headers();
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, consumerRecord.topic().getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(consumerRecord.partition()).array());
+        headers.add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(consumerRecord.offset()).array());
+        headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN, failure.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        String reason = failure.getMessage();
+        send(deadLetter, reason);
+        log.warn("Undecodable audit record {}-{}@{} sent to {}: {}", consumerRecord.topic(), consumerRecord.partition(),
+                consumerRecord.offset(), deadLetterTopic, reason);
+    }
+
+    private void send(ProducerRecord<String, Object> deadLetter, String reason) {
+        deadLetter.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE,
+                String.valueOf(reason).getBytes(StandardCharsets.UTF_8));
+        try {
+            // Tunggu ack DLT sebelum offset batch di-commit
+            deadLetterKafkaTemplate.send(deadLetter).get(deadLetterTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dead-lettering audit log", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Audit log dead letter not acknowledged", e);
+        }
+        deadLetteredCounter.increment();
+    }
+}
@@ -0,0 +1,171 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import com.jdt16.agenin.transaction.utility.ColumnNameEntityUtility;
+import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk load audit log ke AUDIT_LOGS dengan protokol COPY (CSV).
+ * COPY masuk ke temp table dulu, lalu INSERT ... ON CONFLICT DO NOTHING ke tabel utama
+ * sehingga redelivery (at-least-once) tidak menggandakan baris: audit_logs_id adalah kunci dedup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogCopyService {
+
+    static final String STAGING_TABLE = "audit_logs_staging";
+
+    static final List<String> COLUMNS = List.of(
+            ColumnNameEntityUtility.COLUMN_LOGGING_ID,
+            ColumnNameEntityUtility.COLUMN_LOGGING_TABLE_NAME,
+            ColumnNameEntityUtility.COLUMN_LOGGING_RECORD_ID,
+            ColumnNameEntityUtility.COLUMN_LOGGING_ACTION,
+            ColumnNameEntityUtility.COLUMN_LOGGING_OLD_DATA,
+            ColumnNameEntityUtility.COLUMN_LOGGING_NEW_DATA,
+            ColumnNameEntityUtility.COLUMN_LOGGING_USER_AGENT,
+            ColumnNameEntityUtility.COLUMN_LOGGING_IP_ADDRESS,
+            ColumnNameEntityUtility.COLUMN_LOGGING_CHANGED_AT,
+            ColumnNameEntityUtility.COLUMN_LOGGING_ROLE_ID,
+            ColumnNameEntityUtility.COLUMN_LOGGING_ROLE_NAME,
+            ColumnNameEntityUtility.COLUMN_LOGGING_USER_ID,
+            ColumnNameEntityUtility.COLUMN_LOGGING_USER_FULLNAME);
+
+    private static final String COLUMN_LIST = String.join(", ", COLUMNS);
+
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Simpan batch dalam satu transaksi; mengembalikan jumlah baris baru (duplikat diabaikan)
+     */
+    public int copy(List<LogRequestDTO> logRequests) {
+        if (logRequests.isEmpty()) {
+            return 0;
+        }
+        String csv = toCsv(logRequests);
+
+        Integer inserted = transactionTemplate.execute(status -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE IF NOT EXISTS " + STAGING_TABLE +
+                        " (LIKE \"" + TableNameEntityUtility.TABLE_T_AUDIT_LOGS + "\" INCLUDING DEFAULTS)" +
+                        " ON COMMIT DELETE ROWS");
+
+                long copied = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY " + STAGING_TABLE + " (" + COLUMN_LIST + ") FROM STDIN WITH (FORMAT csv)",
+                        new StringReader(csv));
+
+                int rows = statement.executeUpdate(
+                        "INSERT INTO \"" + TableNameEntityUtility.TABLE_T_AUDIT_LOGS + "\" (" + COLUMN_LIST + ") " +
+                                "SELECT DISTINCT ON (" + ColumnNameEntityUtility.COLUMN_LOGGING_ID + ") " + COLUMN_LIST +
+                                " FROM " + STAGING_TABLE +
+                                " ON CONFLICT (" + ColumnNameEntityUtility.COLUMN_LOGGING_ID + ") DO NOTHING");
+                log.debug("Audit COPY: staged={}, inserted={}", copied, rows);
+                return rows;
+            } catch (SQLException e) {
+                throw new IllegalStateException("Audit log COPY failed for " + logRequests.size() + " rows", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    /**
+     * Semua kolom AUDIT_LOGS NOT NULL (old/new data kosong dirender {}); satu baris null menggagalkan seluruh COPY
+     */
+    public static boolean isLoadable(LogRequestDTO logRequest) {
+        return logRequest.getLogEntityDTOAuditLogsId() != null
+                && logRequest.getLogEntityDTOTableName() != null
+                && logRequest.getLogEntityDTORecordId() != null
+                && logRequest.getLogEntityDTOAction() != null
+                && logRequest.getLogEntityDTOUserAgent() != null
+                && logRequest.getLogEntityDTOIpAddress() != null
+                && logRequest.getLogEntityDTOChangedAt() != null
+                && logRequest.getLogEntityDTORoleId() != null
+                && logRequest.getLogEntityDTORoleName() != null
+                && logRequest.getLogEntityDTOUserId() != null
+                && logRequest.getLogEntityDTOUserFullname() != null;
+    }
+
+    /**
+     * True jika kegagalan berasal dari isi baris (SQLState kelas 22 data exception / 23 constraint),
+     * sehingga mengulang baris yang sama tidak akan pernah berhasil
+     */
+    public static boolean isRejectedRow(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                String sqlState = sqlException.getSQLState();
+                return sqlState.startsWith("22") || sqlState.startsWith("23");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Render baris CSV sesuai urutan {@link #COLUMNS}; null ditulis sebagai field kosong tanpa kutip (NULL)
+     */
+    String toCsv(List<LogRequestDTO> logRequests) {
+        StringBuilder csv = new StringBuilder(logRequests.size() * 512);
+        for (LogRequestDTO logRequest : logRequests) {
+            appendField(csv, logRequest.getLogEntityDTOAuditLogsId()).append(',');
+            appendField(csv, logRequest.getLogEntityDTOTableName()).append(',');
+            appendField(csv, logRequest.getLogEntityDTORecordId()).append(',');
+            appendField(csv, logRequest.getLogEntityDTOAction()).append(',');
+            appendField(csv, toJson(logRequest.getLogEntityDTOOldData())).append(',');
+            appendField(csv, toJson(logRequest.getLogEntityDTONewData())).append(',');
+            appendField(csv, logRequest.getLogEntityDTOUserAgent()).append(',');
+            appendField(csv, logRequest.getLogEntityDTOIpAddress()).append(',');
+            appendField(csv, logRequest.getLogEntityDTOChangedAt()).append(',');
+            appendField(csv, logRequest.getLogEntityDTORoleId()).append(',');
+            appendField(csv, logRequest.getLogEntityDTORoleName()).append(',');
+            appendField(csv, logRequest.getLogEntityDTOUserId()).append(',');
+            appendField(csv, logRequest.getLogEntityDTOUserFullname()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data == null ? Map.of() : data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize audit data", e);
+        }
+    }
+
+    private static StringBuilder appendField(StringBuilder csv, Object value) {
+        if (value == null) {
+            return csv;
+        }
+        String text = value.toString();
+        csv.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+}
@@ -1,31 +1,100 @@
 package com.jdt16.agenin.transaction.service.implementation.module;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.entity.AuditOutboxEntityDTO;
+import com.jdt16.agenin.transaction.dto.request.LogEnvelopeRequestDTO;
 import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import com.jdt16.agenin.transaction.model.repository.TAuditOutboxRepositories;
+import com.jdt16.agenin.transaction.utility.AuditLogBinaryCodec;
+import com.jdt16.agenin.transaction.utility.ColumnNameEntityUtility;
+import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
+import org.springframework.jdbc.datasource.ConnectionHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
+/**
+ * Audit log ditulis ke outbox (T_AUDIT_OUTBOX) dalam transaksi pemanggil,
+ * lalu dikirim ke Kafka oleh {@link AuditOutboxRelayService}.
+ * Dengan envelope aktif, semua event dalam satu transaksi digabung menjadi satu baris outbox
+ * ({@link LogEnvelopeRequestDTO}) yang ditulis tepat sebelum commit.
+ * <p>
+ * UPDATE dikirim sebagai diff: hanya field yang berubah antara before-image dan after-image.
+ * Before-image = after-image terakhir record yang sama, ditimpa oldData dari pemanggil.
+ * Setiap {@code audit-log-diff.full-snapshot-interval} update per record dikirim snapshot penuh
+ * yang ditandai {@link #SNAPSHOT_MARKER} pada newData. After-image baru masuk cache setelah transaksi commit.
+ * Cache lokal per instance, jadi diff hanya bisa direkonstruksi jika satu record ditulis satu instance;
+ * nonaktif secara default (audit-log-diff.enabled) sampai consumer AUDIT_LOGS memahami diff.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuditLogProducerService {
 
-    private final KafkaTemplate<String, LogRequestDTO> auditLogKafkaTemplate;
+    public static final String SNAPSHOT_MARKER = "_snapshot";
 
-    @Value("${kafka.audit-log-topic:create-log-po}")
-    private String auditLogTopic;
+    private static final String INSERT_OUTBOX_SQL = "INSERT INTO \"" + TableNameEntityUtility.TABLE_AUDIT_OUTBOX + "\" ("
+            + ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_ID + ", "
+            + ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_MESSAGE_KEY + ", "
+            + ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_PAYLOAD + ", "
+            + ColumnNameEntityUtility.COLUMN_AUDIT_OUTBOX_CREATED_AT + ") VALUES (?, ?, ?, ?)";
+
+    private final TAuditOutboxRepositories tAuditOutboxRepositories;
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+
+    /**
+     * Urutan kirim relay mengikuti id outbox, jadi selalu UUIDv7 apa pun id-generator.type
+     */
+    private final TimeOrderedIdGenerator outboxIdGenerator = new TimeOrderedIdGenerator();
+
+    /**
+     * After-image terakhir + jumlah diff sejak snapshot penuh, per table#recordId (LRU, lokal instance)
+     */
+    private final Map<String, RecordImage> recordImages = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * json (default, kompatibel consumer lama) atau binary ({@link AuditLogBinaryCodec})
+     */
+    @Value("${kafka.audit-log-format:json}")
+    private String auditLogFormat;
+
+    /**
+     * true: event satu transaksi digabung menjadi satu envelope per konteks user
+     */
+    @Value("${kafka.audit-log-envelope:false}")
+    private boolean auditLogEnvelope;
+
+    @Value("${audit-log-diff.enabled:false}")
+    private boolean auditLogDiff;
+
+    @Value("${audit-log-diff.full-snapshot-interval:20}")
+    private int fullSnapshotInterval;
+
+    @Value("${audit-log-diff.max-records:10000}")
+    private int diffMaxRecords;
 
     /**
      * Mengirim audit log ke Kafka untuk operasi CREATE
      */
+    @Transactional
     public void logCreate(
             String tableName,
             UUID recordId,
@@ -59,6 +128,7 @@ public class AuditLogProducerService {
     /**
      * Mengirim audit log ke Kafka untuk operasi UPDATE
      */
+    @Transactional
     public void logUpdate(
             String tableName,
             UUID recordId,
@@ -70,6 +140,50 @@ public class AuditLogProducerService {
             String roleName,
             String userAgent,
             String ipAddress
+    ) {
+        Map<String, Object> shippedOldData = oldData;
+        Map<String, Object> shippedNewData = newData;
+        if (auditLogDiff) {
+            ShippedImages images = diffAgainstLastImage(tableName + "#" + recordId, oldData, newData);
+            shippedOldData = images.oldData();
+            shippedNewData = images.newData();
+        }
+
+        LogRequestDTO logRequest = LogRequestDTO.builder()
+                .logEntityDTOAuditLogsId(UUID.randomUUID())
+                .logEntityDTOTableName(tableName)
+                .logEntityDTORecordId(recordId)
+                .logEntityDTOAction("UPDATE")
+                .logEntityDTOOldData(shippedOldData)
+                .logEntityDTONewData(shippedNewData)
+                .logEntityDTOUserId(userId)
+                .logEntityDTOUserFullname(userFullname)
+                .logEntityDTORoleId(roleId)
+                .logEntityDTORoleName(roleName)
+                .logEntityDTOUserAgent(userAgent)
+                .logEntityDTOIpAddress(ipAddress)
+                .logEntityDTOChangedAt(LocalDateTime.now())
+                .build();
+
+        sendAuditLog(logRequest);
+    }
+
+    /**
+     * Audit UPDATE untuk kegagalan yang diikuti rollback. Di dalam transaksi, event ditahan lalu ditulis
+     * setelah rollback di thread yang sama memakai koneksi yang masih dipegang transaksi itu,
+     * tanpa transaksi bersarang (tidak meminjam koneksi pool kedua). Tidak di-diff: bukan perubahan state record.
+     */
+    public void logFailedUpdate(
+            String tableName,
+            UUID recordId,
+            Map<String, Object> oldData,
+            Map<String, Object> newData,
+            UUID userId,
+            String userFullname,
+            UUID roleId,
+            String roleName,
+            String userAgent,
+            String ipAddress
     ) {
         LogRequestDTO logRequest = LogRequestDTO.builder()
                 .logEntityDTOAuditLogsId(UUID.randomUUID())
@@ -87,12 +201,18 @@ public class AuditLogProducerService {
                 .logEntityDTOChangedAt(LocalDateTime.now())
                 .build();
 
-        sendAuditLog(logRequest);
+        String key = tableName + "#" + recordId;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            saveOutbox(key, toPayload(logRequest));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new FailedAuditWriter(key, logRequest));
     }
 
     /**
      * Mengirim audit log ke Kafka untuk operasi DELETE
      */
+    @Transactional
     public void logDelete(String tableName, UUID recordId, Map<String, Object> oldData,
                           UUID userId, String userFullname, UUID roleId, String roleName,
                           String userAgent, String ipAddress) {
@@ -117,29 +237,298 @@ public class AuditLogProducerService {
     }
 
     /**
-     * Method internal untuk send ke Kafka dengan key partitioning
+     * Hitung pasangan {old, new} yang dikirim untuk UPDATE dan tahan after-image record sampai commit.
+     * Tanpa before-image atau saat jatah diff habis, data dikirim utuh sebagai snapshot.
+     */
+    private ShippedImages diffAgainstLastImage(String recordKey, Map<String, Object> oldData,
+                                               Map<String, Object> newData) {
+        Map<String, Object> safeOld = oldData == null ? Map.of() : oldData;
+        Map<String, Object> safeNew = newData == null ? Map.of() : newData;
+
+        RecordImage lastImage = findImage(recordKey);
+        // Nilai old dari pemanggil menimpa after-image terakhir; field lain tetap dari image terakhir
+        Map<String, Object> before = new HashMap<>(lastImage == null ? Map.of() : lastImage.afterImage());
+        before.putAll(safeOld);
+
+        Map<String, Object> afterImage = new HashMap<>(before);
+        afterImage.putAll(safeNew);
+
+        if (lastImage == null || lastImage.diffsSinceSnapshot() + 1 >= fullSnapshotInterval) {
+            stageImage(recordKey, new RecordImage(afterImage, 0));
+            Map<String, Object> snapshot = new HashMap<>(safeNew);
+            snapshot.put(SNAPSHOT_MARKER, true);
+            return new ShippedImages(safeOld, snapshot);
+        }
+
+        Map<String, Object> changedOld = new HashMap<>();
+        Map<String, Object> changedNew = new HashMap<>();
+        safeNew.forEach((field, value) -> {
+            if (!sameValue(before.get(field), value)) {
+                if (before.containsKey(field)) {
+                    changedOld.put(field, before.get(field));
+                }
+                changedNew.put(field, value);
+            }
+        });
+        stageImage(recordKey, new RecordImage(afterImage, lastImage.diffsSinceSnapshot() + 1));
+        return new ShippedImages(changedOld, changedNew);
+    }
+
+    /**
+     * Image yang belum commit di transaksi ini lebih baru dari cache
+     */
+    private RecordImage findImage(String recordKey) {
+        PendingImages pending = (PendingImages) TransactionSynchronizationManager.getResource(recordImages);
+        if (pending != null && pending.images.containsKey(recordKey)) {
+            return pending.images.get(recordKey);
+        }
+        synchronized (recordImages) {
+            return recordImages.get(recordKey);
+        }
+    }
+
+    /**
+     * Di dalam transaksi image ditahan sampai afterCommit; rollback membuangnya
+     */
+    private void stageImage(String recordKey, RecordImage image) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            putImages(Map.of(recordKey, image));
+            return;
+        }
+        PendingImages pending = (PendingImages) TransactionSynchronizationManager.getResource(recordImages);
+        if (pending == null) {
+            pending = new PendingImages();
+            TransactionSynchronizationManager.bindResource(recordImages, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.images.put(recordKey, image);
+    }
+
+    private void putImages(Map<String, RecordImage> images) {
+        synchronized (recordImages) {
+            recordImages.putAll(images);
+            while (recordImages.size() > diffMaxRecords) {
+                recordImages.remove(recordImages.keySet().iterator().next());
+            }
+        }
+    }
+
+    private static boolean sameValue(Object before, Object after) {
+        if (before instanceof BigDecimal beforeDecimal && after instanceof BigDecimal afterDecimal) {
+            return beforeDecimal.compareTo(afterDecimal) == 0;
+        }
+        return Objects.equals(before, after);
+    }
+
+    private record RecordImage(Map<String, Object> afterImage, int diffsSinceSnapshot) {
+    }
+
+    private record ShippedImages(Map<String, Object> oldData, Map<String, Object> newData) {
+    }
+
+    /**
+     * After-image yang ditulis transaksi berjalan, dipindah ke cache hanya setelah commit
+     */
+    private final class PendingImages implements TransactionSynchronization {
+        private final Map<String, RecordImage> images = new LinkedHashMap<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(recordImages);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(recordImages, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            putImages(images);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(recordImages);
+        }
+    }
+
+    /**
+     * Method internal: simpan ke outbox dengan key partitioning. Di request path hanya terjadi satu insert lokal.
      */
     private void sendAuditLog(LogRequestDTO logRequest) {
+        if (auditLogEnvelope && TransactionSynchronizationManager.isSynchronizationActive()) {
+            currentEnvelopeCollector().add(logRequest);
+            return;
+        }
+
         String key = logRequest.getLogEntityDTOTableName() + "#" + logRequest.getLogEntityDTORecordId();
+        saveOutbox(key, toPayload(logRequest));
+
+        log.debug("Audit log queued to outbox: ID={}, table={}, action={}",
+                logRequest.getLogEntityDTOAuditLogsId(),
+                logRequest.getLogEntityDTOTableName(),
+                logRequest.getLogEntityDTOAction());
+    }
 
-        CompletableFuture<SendResult<String, LogRequestDTO>> future =
-                auditLogKafkaTemplate.send(auditLogTopic, key, logRequest);
-
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                log.info("Audit log sent successfully: ID={}, table={}, action={}, partition={}, offset={}",
-                        logRequest.getLogEntityDTOAuditLogsId(),
-                        logRequest.getLogEntityDTOTableName(),
-                        logRequest.getLogEntityDTOAction(),
-                        result.getRecordMetadata().partition(),
-                        result.getRecordMetadata().offset());
+    private EnvelopeCollector currentEnvelopeCollector() {
+        EnvelopeCollector collector = (EnvelopeCollector) TransactionSynchronizationManager.getResource(this);
+        if (collector == null) {
+            collector = new EnvelopeCollector();
+            TransactionSynchronizationManager.bindResource(this, collector);
+            TransactionSynchronizationManager.registerSynchronization(collector);
+        }
+        return collector;
+    }
+
+    private void saveOutbox(String key, byte[] payload) {
+        AuditOutboxEntityDTO outbox = AuditOutboxEntityDTO.builder()
+                .auditOutboxEntityDTOId(outboxIdGenerator.newId())
+                .auditOutboxEntityDTOMessageKey(key)
+                .auditOutboxEntityDTOPayload(payload)
+                .auditOutboxEntityDTOCreatedAt(LocalDateTime.now())
+                .build();
+        tAuditOutboxRepositories.save(outbox);
+    }
+
+    /**
+     * Insert outbox lewat JDBC di afterCompletion setelah rollback. JpaTransactionManager baru melepas
+     * ConnectionHolder transaksi di cleanup sesudah afterCompletion, dan Hibernate sudah mengembalikan
+     * koneksinya ke autocommit setelah rollback, jadi insert di koneksi itu langsung permanen tanpa meminjam
+     * koneksi kedua. Urutan itu bukan kontrak Spring: jika tidak ada koneksi terikat, dipakai koneksi baru
+     * dari pool yang langsung ditutup. Commit eksplisit hanya jika koneksi tidak autocommit.
+     */
+    private void insertOutboxAfterRollback(String key, byte[] payload) {
+        ConnectionHolder holder = (ConnectionHolder) TransactionSynchronizationManager.getResource(dataSource);
+        try {
+            if (holder != null && holder.getConnectionHandle() != null) {
+                insertOutbox(holder.getConnection(), key, payload);
+                return;
+            }
+            log.debug("No transactional connection bound after rollback, writing failure audit on a new connection");
+            try (Connection connection = dataSource.getConnection()) {
+                insertOutbox(connection, key, payload);
+            }
+        } catch (SQLException e) {
+            log.error("Failed to write failure audit after rollback: key={}", key, e);
+        }
+    }
+
+    private void insertOutbox(Connection connection, String key, byte[] payload) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_OUTBOX_SQL)) {
+            statement.setObject(1, outboxIdGenerator.newId());
+            statement.setString(2, key);
+            statement.setBytes(3, payload);
+            statement.setObject(4, LocalDateTime.now());
+            statement.executeUpdate();
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+
+    private byte[] toPayload(LogRequestDTO logRequest) {
+        if ("binary".equalsIgnoreCase(auditLogFormat)) {
+            return AuditLogBinaryCodec.encode(logRequest);
+        }
+        return toJson(logRequest, logRequest.getLogEntityDTOAuditLogsId());
+    }
+
+    private byte[] toPayload(LogEnvelopeRequestDTO envelope) {
+        if ("binary".equalsIgnoreCase(auditLogFormat)) {
+            return AuditLogBinaryCodec.encodeEnvelope(envelope);
+        }
+        return toJson(envelope, envelope.getLogEnvelopeDTOId());
+    }
+
+    private byte[] toJson(Object value, UUID id) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize audit log " + id, e);
+        }
+    }
+
+    /**
+     * Pengumpul event per transaksi. Event dikelompokkan per konteks user
+     * (normalnya hanya satu), masing-masing menjadi satu envelope saat beforeCommit.
+     */
+    private final class EnvelopeCollector implements TransactionSynchronization {
+        private final Map<EnvelopeContext, LogEnvelopeRequestDTO> envelopes = new LinkedHashMap<>();
+        private final Map<EnvelopeContext, String> keys = new LinkedHashMap<>();
+
+        void add(LogRequestDTO logRequest) {
+            EnvelopeContext context = EnvelopeContext.of(logRequest);
+            LogEnvelopeRequestDTO envelope = envelopes.get(context);
+            if (envelope == null) {
+                envelopes.put(context, LogEnvelopeRequestDTO.of(logRequest));
+                keys.put(context, logRequest.getLogEntityDTOTableName() + "#" + logRequest.getLogEntityDTORecordId());
             } else {
-                log.error("Failed to send audit log: ID={}, table={}, action={}",
-                        logRequest.getLogEntityDTOAuditLogsId(),
-                        logRequest.getLogEntityDTOTableName(),
-                        logRequest.getLogEntityDTOAction(),
-                        ex);
+                envelope.addEvent(logRequest);
             }
-        });
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            envelopes.forEach((context, envelope) -> {
+                saveOutbox(keys.get(context), toPayload(envelope));
+                log.debug("Audit envelope queued to outbox: ID={}, events={}",
+                        envelope.getLogEnvelopeDTOId(), envelope.getLogEnvelopeDTOEvents().size());
+            });
+            envelopes.clear();
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(AuditLogProducerService.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(AuditLogProducerService.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AuditLogProducerService.this);
+        }
+    }
+
+    /**
+     * Audit kegagalan satu transaksi: ikut commit jika transaksi tetap commit, ditulis setelahnya jika rollback
+     */
+    private final class FailedAuditWriter implements TransactionSynchronization {
+        private final String key;
+        private final LogRequestDTO logRequest;
+
+        FailedAuditWriter(String key, LogRequestDTO logRequest) {
+            this.key = key;
+            this.logRequest = logRequest;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            saveOutbox(key, toPayload(logRequest));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) {
+                insertOutboxAfterRollback(key, toPayload(logRequest));
+            }
+        }
+    }
+
+    private record EnvelopeContext(UUID userId, String userFullname, UUID roleId, String roleName,
+                                   String userAgent, String ipAddress) {
+        static EnvelopeContext of(LogRequestDTO logRequest) {
+            return new EnvelopeContext(
+                    logRequest.getLogEntityDTOUserId(),
+                    logRequest.getLogEntityDTOUserFullname(),
+                    logRequest.getLogEntityDTORoleId(),
+                    logRequest.getLogEntityDTORoleName(),
+                    logRequest.getLogEntityDTOUserAgent(),
+                    logRequest.getLogEntityDTOIpAddress());
+        }
     }
 }
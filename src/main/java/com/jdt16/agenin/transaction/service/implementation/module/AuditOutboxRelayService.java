@@ -0,0 +1,268 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.dto.entity.AuditOutboxEntityDTO;
+import com.jdt16.agenin.transaction.model.repository.TAuditOutboxRepositories;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relay outbox audit ke Kafka: ambil batch berurutan, kirim, tunggu ack, lalu hapus dengan satu statement.
+ * Gagal kirim = rollback; baris tetap di outbox dan dicoba lagi (at-least-once).
+ * Thread request tidak pernah menyentuh producer; kegagalan beruntun membuka circuit breaker
+ * sehingga relay berhenti mencoba sementara dan event menumpuk di outbox (tidak ada yang dibuang).
+ * Jika spool aktif, selama breaker terbuka outbox dipindah ke {@link AuditSpoolService};
+ * isi spool dikirim lebih dulu setelah broker pulih agar urutan tetap terjaga.
+ * Baris dengan topic sendiri (mis. transaction-created) dikirim ke topic itu dan tidak ikut spool;
+ * selama breaker terbuka baris tersebut tetap di outbox.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditOutboxRelayService {
+
+    static final long RELAY_LOCK_KEY = 0x41554449544F5554L;
+
+    private final TAuditOutboxRepositories tAuditOutboxRepositories;
+    private final KafkaTemplate<String, byte[]> auditLogKafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AuditSpoolService auditSpoolService;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong pendingRows = new AtomicLong();
+    private volatile long breakerOpenUntilNanos;
+    private volatile boolean breakerOpen;
+
+    private Counter relayedCounter;
+    private Counter failureCounter;
+    private Counter spilledCounter;
+
+    @Value("${kafka.audit-log-topic:create-log-po}")
+    private String auditLogTopic;
+
+    @Value("${audit-outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit-outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${audit-outbox.send-timeout-ms:20000}")
+    private long sendTimeoutMs;
+
+    @Value("${audit-outbox.breaker-failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${audit-outbox.breaker-open-ms:30000}")
+    private long breakerOpenMs;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("audit.outbox.depth", pendingRows, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("audit.outbox.breaker.open", this, relay -> relay.breakerOpen ? 1 : 0)
+                .register(meterRegistry);
+        relayedCounter = meterRegistry.counter("audit.outbox.relayed");
+        failureCounter = meterRegistry.counter("audit.outbox.failures");
+        spilledCounter = meterRegistry.counter("audit.outbox.spilled");
+    }
+
+    /**
+     * Kosongkan outbox per batch sampai habis (maks maxBatchesPerRun batch per putaran)
+     */
+    @Scheduled(fixedDelayString = "${audit-outbox.relay-interval-ms:200}")
+    public void relay() {
+        if (breakerOpen && System.nanoTime() - breakerOpenUntilNanos < 0) {
+            spillToSpool();
+            return;
+        }
+
+        try {
+            if (!replaySpool()) {
+                return;
+            }
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Integer relayed = transactionTemplate.execute(status -> relayBatch());
+                onRelaySuccess();
+
+                int relayedCount = relayed == null ? 0 : relayed;
+                relayedCounter.increment(relayedCount);
+                if (relayedCount < batchSize) {
+                    pendingRows.set(0);
+                    return;
+                }
+            }
+            pendingRows.set(tAuditOutboxRepositories.count());
+        } catch (RuntimeException e) {
+            onRelayFailure(e);
+        }
+    }
+
+    public boolean isBreakerOpen() {
+        return breakerOpen;
+    }
+
+    private void onRelaySuccess() {
+        consecutiveFailures.set(0);
+        breakerOpen = false;
+    }
+
+    private void onRelayFailure(RuntimeException e) {
+        failureCounter.increment();
+        int failures = consecutiveFailures.incrementAndGet();
+        // Percobaan half-open yang gagal langsung membuka breaker lagi
+        if (breakerOpen || failures >= breakerFailureThreshold) {
+            breakerOpenUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(breakerOpenMs);
+            breakerOpen = true;
+            consecutiveFailures.set(0);
+            log.error("Audit outbox relay failed {} times, pausing for {} ms: {}", failures, breakerOpenMs, e.getMessage());
+            pendingRows.set(countPendingQuietly());
+        } else {
+            log.warn("Audit outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private long countPendingQuietly() {
+        try {
+            return tAuditOutboxRepositories.count();
+        } catch (RuntimeException e) {
+            return pendingRows.get();
+        }
+    }
+
+    /**
+     * Kirim isi spool berurutan. True jika spool kosong sehingga outbox boleh diproses.
+     */
+    private boolean replaySpool() {
+        if (!auditSpoolService.isEnabled()) {
+            return true;
+        }
+
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<AuditSpoolService.SpoolRecord> records = auditSpoolService.peek(batchSize);
+            if (records.isEmpty()) {
+                return true;
+            }
+
+            List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(records.size());
+            for (AuditSpoolService.SpoolRecord spoolRecord : records) {
+                futures.add(auditLogKafkaTemplate.send(auditLogTopic, spoolRecord.key(), spoolRecord.payload()));
+            }
+            awaitAcks(futures);
+
+            auditSpoolService.acknowledge(records.size());
+            onRelaySuccess();
+            relayedCounter.increment(records.size());
+        }
+        return auditSpoolService.isEmpty();
+    }
+
+    /**
+     * Breaker terbuka: pindahkan outbox ke spool lokal supaya tabel tidak membengkak selama outage
+     */
+    private void spillToSpool() {
+        if (!auditSpoolService.isEnabled()) {
+            return;
+        }
+
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Integer spilled = transactionTemplate.execute(status -> spillBatch());
+                int spilledCount = spilled == null ? 0 : spilled;
+                spilledCounter.increment(spilledCount);
+                if (spilledCount < batchSize) {
+                    pendingRows.set(0);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Audit outbox spill failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int spillBatch() {
+        if (!tAuditOutboxRepositories.tryRelayLock(RELAY_LOCK_KEY)) {
+            return 0;
+        }
+        List<AuditOutboxEntityDTO> batch = tAuditOutboxRepositories.findNextAuditBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<AuditSpoolService.SpoolRecord> records = new ArrayList<>(batch.size());
+        List<UUID> ids = new ArrayList<>(batch.size());
+        for (AuditOutboxEntityDTO outbox : batch) {
+            records.add(new AuditSpoolService.SpoolRecord(
+                    outbox.getAuditOutboxEntityDTOMessageKey(),
+                    outbox.getAuditOutboxEntityDTOPayload()));
+            ids.add(outbox.getAuditOutboxEntityDTOId());
+        }
+        // Spool di-flush ke disk sebelum baris outbox dihapus
+        auditSpoolService.append(records);
+
+        tAuditOutboxRepositories.deleteByIds(ids);
+        return batch.size();
+    }
+
+    private List<AuditOutboxEntityDTO> lockAndReadBatch() {
+        if (!tAuditOutboxRepositories.tryRelayLock(RELAY_LOCK_KEY)) {
+            return List.of();
+        }
+        return tAuditOutboxRepositories.findNextBatch(PageRequest.of(0, batchSize));
+    }
+
+    private int relayBatch() {
+        List<AuditOutboxEntityDTO> batch = lockAndReadBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
+        List<UUID> ids = new ArrayList<>(batch.size());
+        for (AuditOutboxEntityDTO outbox : batch) {
+            String topic = outbox.getAuditOutboxEntityDTOTopic();
+            futures.add(auditLogKafkaTemplate.send(
+                    topic != null ? topic : auditLogTopic,
+                    outbox.getAuditOutboxEntityDTOMessageKey(),
+                    outbox.getAuditOutboxEntityDTOPayload()));
+            ids.add(outbox.getAuditOutboxEntityDTOId());
+        }
+        awaitAcks(futures);
+
+        tAuditOutboxRepositories.deleteByIds(ids);
+        log.debug("Relayed {} outbox rows", batch.size());
+        return batch.size();
+    }
+
+    private void awaitAcks(List<CompletableFuture<SendResult<String, byte[]>>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying audit outbox", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Audit outbox batch not acknowledged", e);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Spool audit lokal (append-only) berbasis segment file memory-mapped berukuran tetap.
+ * Dipakai relay outbox saat Kafka tidak tersedia, supaya event keluar dari database.
+ * <p>
+ * Format segment: header [magic, version, ackedPosition, reserved] lalu record
+ * [length, crc32, keyLength, key, payload]. Record ditulis body dulu, length terakhir;
+ * saat start ulang, scan berhenti di length 0 atau crc tidak cocok (tulisan terpotong).
+ * Heap hanya menyimpan posisi baca/tulis per segment.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditSpoolService {
+
+    private static final int MAGIC = 0x41535031;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ACKED_POSITION_OFFSET = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long pendingRecords;
+    private long nextSequence;
+
+    @Value("${audit-spool.enabled:false}")
+    private boolean enabled;
+
+    @Value("${audit-spool.directory:./audit-spool}")
+    private String directory;
+
+    @Value("${audit-spool.segment-size-bytes:67108864}")
+    private int segmentSizeBytes;
+
+    public record SpoolRecord(String key, byte[] payload) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            recover();
+        }
+        Gauge.builder("audit.spool.records", this, AuditSpoolService::pendingRecords)
+                .register(meterRegistry);
+        Gauge.builder("audit.spool.segments", this, AuditSpoolService::segmentCount)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean isEmpty() {
+        return pendingRecords == 0;
+    }
+
+    public synchronized long pendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Tambahkan record berurutan lalu flush ke disk sebelum kembali
+     */
+    public synchronized void append(List<SpoolRecord> records) {
+        for (SpoolRecord spoolRecord : records) {
+            byte[] key = spoolRecord.key().getBytes(StandardCharsets.UTF_8);
+            byte[] payload = spoolRecord.payload();
+            int bodyLength = 4 + key.length + payload.length;
+            int recordSize = RECORD_HEADER_SIZE + bodyLength;
+            if (HEADER_SIZE + recordSize > segmentSizeBytes) {
+                throw new IllegalArgumentException("Audit record of " + recordSize + " bytes exceeds spool segment size");
+            }
+
+            Segment segment = segments.peekLast();
+            if (segment == null || segment.writePosition + recordSize > segment.capacity()) {
+                if (segment != null) {
+                    segment.force(HEADER_SIZE, segment.writePosition - HEADER_SIZE);
+                    if (segment.readPosition >= segment.writePosition) {
+                        segments.pollLast();
+                        deleteSegment(segment);
+                    }
+                }
+                segment = createSegment();
+            }
+            segment.write(key, payload, bodyLength);
+            pendingRecords++;
+        }
+
+        Segment tail = segments.peekLast();
+        if (tail != null) {
+            tail.force(HEADER_SIZE, tail.writePosition - HEADER_SIZE);
+        }
+    }
+
+    /**
+     * Baca maksimal max record terlama tanpa memajukan posisi baca
+     */
+    public synchronized List<SpoolRecord> peek(int max) {
+        List<SpoolRecord> records = new ArrayList<>(Math.min(max, (int) Math.min(pendingRecords, Integer.MAX_VALUE)));
+        for (Segment segment : segments) {
+            int position = segment.readPosition;
+            while (records.size() < max && position < segment.writePosition) {
+                records.add(segment.read(position));
+                position += segment.recordSize(position);
+            }
+            if (records.size() >= max) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Majukan posisi baca sebanyak count record yang sudah di-ack broker; segment yang habis dihapus
+     */
+    public synchronized void acknowledge(int count) {
+        int remaining = count;
+        while (remaining > 0 && !segments.isEmpty()) {
+            Segment segment = segments.peekFirst();
+            while (remaining > 0 && segment.readPosition < segment.writePosition) {
+                segment.readPosition += segment.recordSize(segment.readPosition);
+                pendingRecords--;
+                remaining--;
+            }
+            segment.persistAckedPosition();
+
+            if (segment.readPosition < segment.writePosition || segments.size() == 1) {
+                break;
+            }
+            segments.pollFirst();
+            deleteSegment(segment);
+        }
+    }
+
+    private void recover() {
+        Path spoolDirectory = Paths.get(directory);
+        try {
+            Files.createDirectories(spoolDirectory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(spoolDirectory)) {
+                files = listing
+                        .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+
+            for (int i = 0; i < files.size(); i++) {
+                boolean tail = i == files.size() - 1;
+                Segment segment = Segment.open(files.get(i), sequenceOf(files.get(i)), tail);
+                nextSequence = Math.max(nextSequence, segment.sequence + 1);
+                if (segment.readPosition >= segment.writePosition && !tail) {
+                    deleteSegment(segment);
+                    continue;
+                }
+                segments.addLast(segment);
+                pendingRecords += segment.pendingRecords();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover audit spool in " + spoolDirectory, e);
+        }
+
+        if (pendingRecords > 0) {
+            log.warn("Recovered {} unsent audit records from {} spool segments", pendingRecords, segments.size());
+        }
+    }
+
+    private Segment createSegment() {
+        Path file = Paths.get(directory, String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        try {
+            Files.createDirectories(file.getParent());
+            Segment segment = Segment.create(file, nextSequence++, segmentSizeBytes);
+            segments.addLast(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create audit spool segment " + file, e);
+        }
+    }
+
+    private static void deleteSegment(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Failed to delete acknowledged audit spool segment {}", segment.path, e);
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long sequence;
+        private final MappedByteBuffer buffer;
+        private int readPosition;
+        private int writePosition;
+
+        private Segment(Path path, long sequence, MappedByteBuffer buffer) {
+            this.path = path;
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long sequence, int size) throws IOException {
+            Segment segment = new Segment(path, sequence, map(path, size));
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(4, FORMAT_VERSION);
+            segment.readPosition = HEADER_SIZE;
+            segment.writePosition = HEADER_SIZE;
+            segment.persistAckedPosition();
+            return segment;
+        }
+
+        static Segment open(Path path, long sequence, boolean tail) throws IOException {
+            Segment segment = new Segment(path, sequence, map(path, (int) Files.size(path)));
+            if (segment.buffer.getInt(0) != MAGIC || segment.buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not an audit spool segment: " + path);
+            }
+            segment.readPosition = Math.max(HEADER_SIZE, segment.buffer.getInt(ACKED_POSITION_OFFSET));
+            segment.writePosition = segment.scanValidEnd(segment.readPosition);
+            if (tail) {
+                // Buang sisa tulisan terpotong agar tidak terbaca setelah append berikutnya
+                byte[] zeros = new byte[8192];
+                for (int position = segment.writePosition; position < segment.capacity(); position += zeros.length) {
+                    segment.buffer.put(position, zeros, 0, Math.min(zeros.length, segment.capacity() - position));
+                }
+            }
+            return segment;
+        }
+
+        private static MappedByteBuffer map(Path path, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+
+        void write(byte[] key, byte[] payload, int bodyLength) {
+            int bodyStart = writePosition + RECORD_HEADER_SIZE;
+            buffer.putInt(bodyStart, key.length);
+            buffer.put(bodyStart + 4, key);
+            buffer.put(bodyStart + 4 + key.length, payload);
+            buffer.putInt(writePosition + 4, crc(bodyStart, bodyLength));
+            buffer.putInt(writePosition, bodyLength);
+            writePosition = bodyStart + bodyLength;
+        }
+
+        SpoolRecord read(int position) {
+            int bodyLength = buffer.getInt(position);
+            int bodyStart = position + RECORD_HEADER_SIZE;
+            int keyLength = buffer.getInt(bodyStart);
+            byte[] key = new byte[keyLength];
+            byte[] payload = new byte[bodyLength - 4 - keyLength];
+            buffer.get(bodyStart + 4, key);
+            buffer.get(bodyStart + 4 + keyLength, payload);
+            return new SpoolRecord(new String(key, StandardCharsets.UTF_8), payload);
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        int recordSize(int position) {
+            return RECORD_HEADER_SIZE + buffer.getInt(position);
+        }
+
+        long pendingRecords() {
+            long count = 0;
+            for (int position = readPosition; position < writePosition; position += recordSize(position)) {
+                count++;
+            }
+            return count;
+        }
+
+        void persistAckedPosition() {
+            buffer.putInt(ACKED_POSITION_OFFSET, readPosition);
+            force(0, HEADER_SIZE);
+        }
+
+        void force(int index, int length) {
+            if (length > 0) {
+                buffer.force(index, length);
+            }
+        }
+
+        private int scanValidEnd(int from) {
+            int position = from;
+            while (position + RECORD_HEADER_SIZE <= capacity()) {
+                int bodyLength = buffer.getInt(position);
+                int bodyStart = position + RECORD_HEADER_SIZE;
+                if (bodyLength < 4 || bodyStart + bodyLength > capacity()
+                        || buffer.getInt(position + 4) != crc(bodyStart, bodyLength)) {
+                    break;
+                }
+                position = bodyStart + bodyLength;
+            }
+            return position;
+        }
+
+        private int crc(int offset, int length) {
+            CRC32 crc32 = new CRC32();
+            crc32.update(buffer.slice(offset, length));
+            return (int) crc32.getValue();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.dto.event.BalanceChangeEventDTO;
+import com.jdt16.agenin.transaction.model.repository.MUserBalanceRepositories;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publikasi perubahan saldo/wallet ke topic balance-change untuk state store Kafka Streams.
+ * User yang berubah dikumpulkan per transaksi dan baru diserahkan ke thread publisher setelah commit,
+ * sehingga transaksi yang di-rollback tidak pernah terkirim. Thread publisher membaca saldo absolut
+ * (yang sudah commit, termasuk increment slot transaksi lain) lalu mengirimnya; thread request/writer
+ * hanya memasukkan user id ke antrean terbatas dan tidak pernah menunggu SELECT maupun broker.
+ * User yang masih antre tidak diantrekan ulang (snapshot dibaca saat diproses); antrean penuh = dibuang.
+ * PostgreSQL tetap sumber kebenaran; event yang hilang dikoreksi oleh perubahan berikutnya.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceChangePublisherService {
+
+    private final MUserBalanceRepositories mUserBalanceRepositories;
+    private final KafkaTemplate<String, BalanceChangeEventDTO> balanceChangeKafkaTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<UUID> pendingUserIds = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor publishExecutor;
+    private Counter publishedCounter;
+    private Counter failureCounter;
+    private Counter droppedCounter;
+
+    @Value("${kafka-streams.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka-streams.balance-change-topic:balance-change-po}")
+    private String balanceChangeTopic;
+
+    @Value("${kafka-streams.balance-change-queue-capacity:10000}")
+    private int queueCapacity;
+
+    @PostConstruct
+    void init() {
+        publishExecutor = new ThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "balance-change-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("balance.change.queue.depth", publishExecutor, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+        publishedCounter = meterRegistry.counter("balance.change.published");
+        failureCounter = meterRegistry.counter("balance.change.failures");
+        droppedCounter = meterRegistry.counter("balance.change.dropped");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publishExecutor.shutdownNow();
+    }
+
+    /**
+     * Tandai saldo/wallet user berubah di transaksi aktif
+     */
+    public void markChanged(UUID userId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(userId);
+            return;
+        }
+
+        ChangedUsers changedUsers = (ChangedUsers) TransactionSynchronizationManager.getResource(this);
+        if (changedUsers == null) {
+            changedUsers = new ChangedUsers();
+            TransactionSynchronizationManager.bindResource(this, changedUsers);
+            TransactionSynchronizationManager.registerSynchronization(changedUsers);
+        }
+        changedUsers.userIds.add(userId);
+    }
+
+    /**
+     * Serahkan user ke thread publisher tanpa pernah memblokir pemanggil
+     */
+    private void enqueue(UUID userId) {
+        if (!pendingUserIds.add(userId)) {
+            return;
+        }
+        try {
+            publishExecutor.execute(() -> publish(userId));
+        } catch (RejectedExecutionException e) {
+            pendingUserIds.remove(userId);
+            droppedCounter.increment();
+            log.warn("Balance change queue full, dropping change for user {}", userId);
+        }
+    }
+
+    private void publish(UUID userId) {
+        // Lepas tanda antre sebelum membaca, supaya commit sesudah SELECT ini diantrekan lagi
+        pendingUserIds.remove(userId);
+        try {
+            readSnapshot(userId).ifPresent(this::send);
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Failed to publish balance change for user {}", userId, e);
+        }
+    }
+
+    private Optional<BalanceChangeEventDTO> readSnapshot(UUID userId) {
+        return mUserBalanceRepositories.findBalanceAndWalletSnapshot(userId)
+                .map(snapshot -> BalanceChangeEventDTO.builder()
+                        .balanceChangeEventDTOUserId(userId)
+                        .balanceChangeEventDTOBalanceAmount(snapshot.getUserBalanceEntityDTOBalanceAmount())
+                        .balanceChangeEventDTOBalanceLastUpdate(snapshot.getUserBalanceEntityDTOBalanceLastUpdate())
+                        .balanceChangeEventDTOWalletAmount(snapshot.getUserWalletEntityDTOAmount())
+                        .balanceChangeEventDTOWalletLastUpdate(snapshot.getUserWalletEntityDTOLastUpdate())
+                        .build());
+    }
+
+    private void send(BalanceChangeEventDTO event) {
+        balanceChangeKafkaTemplate.send(balanceChangeTopic, event.getBalanceChangeEventDTOUserId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        failureCounter.increment();
+                        log.warn("Failed to publish balance change for user {}", event.getBalanceChangeEventDTOUserId(), ex);
+                    } else {
+                        publishedCounter.increment();
+                    }
+                });
+    }
+
+    private final class ChangedUsers implements TransactionSynchronization {
+        private final Set<UUID> userIds = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            userIds.forEach(BalanceChangePublisherService.this::enqueue);
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(BalanceChangePublisherService.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(BalanceChangePublisherService.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BalanceChangePublisherService.this);
+        }
+    }
+}
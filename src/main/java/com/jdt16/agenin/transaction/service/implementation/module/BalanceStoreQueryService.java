@@ -0,0 +1,52 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.configuration.kafka.KafkaStreamsConfig;
+import com.jdt16.agenin.transaction.dto.event.BalanceChangeEventDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Interactive query ke state store saldo lokal. Empty jika streams nonaktif, belum RUNNING,
+ * atau partisi user tidak di-host instance ini; pemanggil lalu membaca PostgreSQL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceStoreQueryService {
+
+    private final ObjectProvider<StreamsBuilderFactoryBean> streamsBuilderFactoryBean;
+
+    public Optional<BalanceChangeEventDTO> findBalance(UUID userId) {
+        StreamsBuilderFactoryBean factoryBean = streamsBuilderFactoryBean.getIfAvailable();
+        if (factoryBean == null) {
+            return Optional.empty();
+        }
+        KafkaStreams kafkaStreams = factoryBean.getKafkaStreams();
+        if (kafkaStreams == null || kafkaStreams.state() != KafkaStreams.State.RUNNING) {
+            return Optional.empty();
+        }
+
+        try {
+            ReadOnlyKeyValueStore<String, BalanceChangeEventDTO> store = kafkaStreams.store(
+                    StoreQueryParameters.fromNameAndType(KafkaStreamsConfig.BALANCE_STORE,
+                            QueryableStoreTypes.keyValueStore()));
+            return Optional.ofNullable(store.get(userId.toString()))
+                    .filter(event -> event.getBalanceChangeEventDTOBalanceAmount() != null
+                            && event.getBalanceChangeEventDTOWalletAmount() != null);
+        } catch (InvalidStateStoreException e) {
+            log.debug("Balance store not queryable, falling back to database: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.configuration.kafka.KafkaStreamsConfig;
+import com.jdt16.agenin.transaction.configuration.kafka.TransactionCreatedTimestampExtractor;
+import com.jdt16.agenin.transaction.dto.event.CommissionRollupDTO;
+import com.jdt16.agenin.transaction.dto.response.CommissionRollupResponse;
+import com.jdt16.agenin.transaction.dto.response.RestApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Baca rollup komisi harian dari window store Kafka Streams lokal, tanpa menyentuh tabel OLTP.
+ * Store tidak tersedia (streams nonaktif / rebalancing) dijawab RejectedExecutionException (503 + Retry-After),
+ * bukan fallback ke database. Query hanya dijawab dari partisi aktif lokal: key agen yang di-host instance lain,
+ * atau rollup produk yang partisinya tidak lengkap di instance ini, juga dijawab 503 agar tidak ada hasil parsial.
+ */
+@Service
+@RequiredArgsConstructor
+public class CommissionRollupQueryService {
+
+    private static final String ROLLUP_UNAVAILABLE = "Commission rollup is not available, try again later";
+
+    private final ObjectProvider<StreamsBuilderFactoryBean> streamsBuilderFactoryBean;
+    private final KafkaAdmin kafkaAdmin;
+
+    @Value("${kafka-streams.rollup-max-range-days:93}")
+    private long maxRangeDays;
+
+    @Value("${kafka-streams.transaction-created-topic:transaction-created-po}")
+    private String transactionCreatedTopic;
+
+    /**
+     * Jumlah partisi store rollup (= partisi topic transaksi), di-cache setelah berhasil dibaca
+     */
+    private volatile int rollupPartitions;
+
+    /**
+     * Rollup harian satu agen dalam rentang tanggal (inklusif), urut tanggal
+     */
+    public RestApiResponse<List<CommissionRollupResponse>> getAgentDailyRollups(UUID userId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        KafkaStreams kafkaStreams = runningStreams();
+        String key = userId.toString();
+        KeyQueryMetadata metadata = kafkaStreams.queryMetadataForKey(
+                KafkaStreamsConfig.AGENT_ROLLUP_STORE, key, Serdes.String().serializer());
+        if (metadata == null || metadata.partition() < 0) {
+            throw new RejectedExecutionException(ROLLUP_UNAVAILABLE);
+        }
+        ReadOnlyWindowStore<String, CommissionRollupDTO> store = windowStore(kafkaStreams,
+                KafkaStreamsConfig.AGENT_ROLLUP_STORE, metadata.partition(),
+                "Commission rollup for this agent is hosted on another instance");
+
+        List<CommissionRollupResponse> rollups = new ArrayList<>();
+        try (WindowStoreIterator<CommissionRollupDTO> iterator =
+                     store.fetch(key, windowStart(from), windowStart(to))) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, CommissionRollupDTO> window = iterator.next();
+                rollups.add(toResponse(userId, toDate(window.key), window.value));
+            }
+        }
+        return createRestApiResponse("SUCCESS GET agent commission rollup", rollups);
+    }
+
+    /**
+     * Total per produk dalam rentang tanggal (inklusif), urut komisi terbesar
+     */
+    public RestApiResponse<List<CommissionRollupResponse>> getProductRollups(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        KafkaStreams kafkaStreams = runningStreams();
+        int partitions = rollupPartitions();
+
+        // Semua partisi harus aktif di instance ini; store diambil dulu agar hasil parsial tidak pernah terbentuk
+        List<ReadOnlyWindowStore<String, CommissionRollupDTO>> stores = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            stores.add(windowStore(kafkaStreams, KafkaStreamsConfig.PRODUCT_ROLLUP_STORE, partition,
+                    "Product commission rollup is partitioned across instances, try again later"));
+        }
+
+        Map<String, CommissionRollupDTO> totals = new LinkedHashMap<>();
+        for (ReadOnlyWindowStore<String, CommissionRollupDTO> store : stores) {
+            try (KeyValueIterator<Windowed<String>, CommissionRollupDTO> iterator =
+                         store.fetchAll(windowStart(from), windowStart(to))) {
+                while (iterator.hasNext()) {
+                    KeyValue<Windowed<String>, CommissionRollupDTO> window = iterator.next();
+                    totals.merge(window.key.key(), window.value, CommissionRollupDTO::plus);
+                }
+            }
+        }
+
+        List<CommissionRollupResponse> rollups = totals.entrySet().stream()
+                .map(entry -> toResponse(UUID.fromString(entry.getKey()), null, entry.getValue()))
+                .sorted(Comparator.comparing(CommissionRollupResponse::getCommissionRollupCommission).reversed())
+                .toList();
+        return createRestApiResponse("SUCCESS GET product commission rollup", rollups);
+    }
+
+    private KafkaStreams runningStreams() {
+        StreamsBuilderFactoryBean factoryBean = streamsBuilderFactoryBean.getIfAvailable();
+        KafkaStreams kafkaStreams = factoryBean != null ? factoryBean.getKafkaStreams() : null;
+        if (kafkaStreams == null || kafkaStreams.state() != KafkaStreams.State.RUNNING) {
+            throw new RejectedExecutionException(ROLLUP_UNAVAILABLE);
+        }
+        return kafkaStreams;
+    }
+
+    /**
+     * Store satu partisi aktif lokal; partisi yang tidak di-host instance ini dijawab RejectedExecutionException
+     */
+    private static ReadOnlyWindowStore<String, CommissionRollupDTO> windowStore(
+            KafkaStreams kafkaStreams, String storeName, int partition, String notLocalMessage) {
+        try {
+            return kafkaStreams.store(StoreQueryParameters
+                    .fromNameAndType(storeName, QueryableStoreTypes.<String, CommissionRollupDTO>windowStore())
+                    .withPartition(partition));
+        } catch (InvalidStateStoreException e) {
+            throw new RejectedExecutionException(notLocalMessage);
+        }
+    }
+
+    private int rollupPartitions() {
+        int partitions = rollupPartitions;
+        if (partitions > 0) {
+            return partitions;
+        }
+        try {
+            TopicDescription topic = kafkaAdmin.describeTopics(transactionCreatedTopic).get(transactionCreatedTopic);
+            partitions = topic != null ? topic.partitions().size() : 0;
+        } catch (KafkaException e) {
+            throw new RejectedExecutionException(ROLLUP_UNAVAILABLE);
+        }
+        if (partitions <= 0) {
+            throw new RejectedExecutionException(ROLLUP_UNAVAILABLE);
+        }
+        rollupPartitions = partitions;
+        return partitions;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxRangeDays + " days");
+        }
+    }
+
+    private static Instant windowStart(LocalDate date) {
+        return Instant.ofEpochMilli(TransactionCreatedTimestampExtractor.toEpochMilli(date.atStartOfDay()));
+    }
+
+    private static LocalDate toDate(long windowStartMs) {
+        return Instant.ofEpochMilli(windowStartMs).atOffset(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private static CommissionRollupResponse toResponse(UUID id, LocalDate date, CommissionRollupDTO rollup) {
+        return CommissionRollupResponse.builder()
+                .commissionRollupId(id)
+                .commissionRollupName(rollup.getCommissionRollupDTOName())
+                .commissionRollupDate(date)
+                .commissionRollupTransactionCount(rollup.getCommissionRollupDTOTransactionCount())
+                .commissionRollupGrossPrice(rollup.getCommissionRollupDTOGrossPrice())
+                .commissionRollupCommission(rollup.getCommissionRollupDTOCommission())
+                .build();
+    }
+
+    private static <T> RestApiResponse<T> createRestApiResponse(String message, T results) {
+        return RestApiResponse.<T>builder()
+                .restApiResponseCode(HttpStatus.OK.value())
+                .restApiResponseMessage(message)
+                .restApiResponseResults(results)
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.dto.context.RequestMetadataContext;
+import com.jdt16.agenin.transaction.dto.event.InquiryCommandEventDTO;
+import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
+import com.jdt16.agenin.transaction.model.repository.TTransactionRepositories;
+import com.jdt16.agenin.transaction.service.interfacing.module.TransactionService;
+import com.jdt16.agenin.transaction.utility.RequestMetadataHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Consumer perintah inquiry. Satu poll = micro-batch per partisi; tiap perintah diproses dalam transaksinya sendiri
+ * sehingga pemakaian koneksi JDBC dibatasi oleh concurrency container, bukan oleh lonjakan request.
+ * Perintah yang sudah punya baris transaksi dilewati (redelivery aman).
+ * Kegagalan bisnis dan pelanggaran constraint dicatat sebagai transaksi FAILED. Kegagalan lain diulang mulai dari
+ * perintah yang gagal dengan backoff terbatas; setelah habis perintah dicatat FAILED dan dikirim ke DLT
+ * ({@link #recordExhausted}), sehingga partisi tidak macet untuk user lain.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InquiryCommandConsumerService {
+
+    private final TransactionService transactionService;
+    private final TTransactionRepositories tTransactionRepositories;
+    private final MeterRegistry meterRegistry;
+
+    private Counter processedCounter;
+    private Counter failedCounter;
+    private Counter duplicateCounter;
+
+    @PostConstruct
+    void init() {
+        processedCounter = meterRegistry.counter("inquiry.async.processed");
+        failedCounter = meterRegistry.counter("inquiry.async.failed");
+        duplicateCounter = meterRegistry.counter("inquiry.async.duplicate");
+    }
+
+    @KafkaListener(
+            id = "inquiry-command-consumer",
+            topics = "${request-topic.create-transaction-topic:create-transaction-po}",
+            groupId = "${inquiry-async.group-id:agenin-transaction-inquiry}",
+            containerFactory = "inquiryCommandListenerContainerFactory",
+            autoStartup = "${inquiry-async.enabled:false}")
+    public void consume(List<InquiryCommandEventDTO> commands) {
+        for (int i = 0; i < commands.size(); i++) {
+            InquiryCommandEventDTO command = commands.get(i);
+            if (command == null) {
+                continue;
+            }
+            try {
+                process(command);
+            } catch (RuntimeException e) {
+                // Offset sebelum perintah ini di-commit; retry dan recoverer hanya untuk perintah ini
+                throw new BatchListenerFailedException(
+                        "Async inquiry " + command.getInquiryCommandEventDTOTransactionId() + " failed", e, i);
+            }
+        }
+    }
+
+    /**
+     * Dipanggil recoverer container setelah retry habis: status jadi FAILED, bukan PENDING selamanya
+     */
+    public void recordExhausted(InquiryCommandEventDTO command) {
+        failedCounter.increment();
+        try {
+            recordFailed(command);
+        } catch (RuntimeException e) {
+            log.error("Exhausted inquiry {} could not be recorded as FAILED: {}",
+                    command.getInquiryCommandEventDTOTransactionId(), e.getMessage());
+        }
+    }
+
+    void process(InquiryCommandEventDTO command) {
+        if (tTransactionRepositories.existsById(command.getInquiryCommandEventDTOTransactionId())) {
+            duplicateCounter.increment();
+            return;
+        }
+
+        RequestMetadataHolder.set(RequestMetadataContext.builder()
+                .userAgent(command.getInquiryCommandEventDTOUserAgent())
+                .clientIpAddress(command.getInquiryCommandEventDTOIpAddress())
+                .headerUserId(command.getInquiryCommandEventDTOUserId())
+                .build());
+        try {
+            transactionService.inquiry(
+                    command.getInquiryCommandEventDTOTransactionId(),
+                    command.getInquiryCommandEventDTOTransactionDate(),
+                    command.getInquiryCommandEventDTOUserId(),
+                    command.getInquiryCommandEventDTOProductId(),
+                    command.getInquiryCommandEventDTORequest());
+            processedCounter.increment();
+        } catch (CoreThrowHandlerException | DataIntegrityViolationException e) {
+            // Mengulang tidak akan berhasil: kegagalan bisnis atau constraint (mis. tabrakan kode transaksi)
+            log.warn("Async inquiry {} failed: {}", command.getInquiryCommandEventDTOTransactionId(), e.getMessage());
+            failedCounter.increment();
+            try {
+                recordFailed(command);
+            } catch (CoreThrowHandlerException recordFailure) {
+                // Produk sudah tidak ada di katalog: status tetap PENDING, perintah tidak diulang
+                log.error("Failed inquiry {} could not be recorded: {}",
+                        command.getInquiryCommandEventDTOTransactionId(), recordFailure.getMessage());
+            }
+        } finally {
+            RequestMetadataHolder.clear();
+        }
+    }
+
+    private void recordFailed(InquiryCommandEventDTO command) {
+        transactionService.recordFailedInquiry(
+                command.getInquiryCommandEventDTOTransactionId(),
+                command.getInquiryCommandEventDTOTransactionDate(),
+                command.getInquiryCommandEventDTOUserId(),
+                command.getInquiryCommandEventDTOProductId());
+    }
+}
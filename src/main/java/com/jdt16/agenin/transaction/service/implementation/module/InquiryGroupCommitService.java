@@ -0,0 +1,274 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.dto.context.RequestMetadataContext;
+import com.jdt16.agenin.transaction.dto.exception.InquiryPendingException;
+import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
+import com.jdt16.agenin.transaction.dto.response.RestApiResponse;
+import com.jdt16.agenin.transaction.dto.response.TransactionResponse;
+import com.jdt16.agenin.transaction.service.interfacing.module.IdGenerator;
+import com.jdt16.agenin.transaction.service.interfacing.module.TransactionService;
+import com.jdt16.agenin.transaction.utility.RequestContextUtil;
+import com.jdt16.agenin.transaction.utility.RequestMetadataHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit inquiry: request masuk antrean, satu writer thread mengumpulkan maksimal max-batch-size
+ * request atau menunggu max-wait-ms, lalu menulis semuanya dalam satu transaksi (satu fsync WAL).
+ * Future tiap pemanggil selesai setelah batch commit.
+ * <p>
+ * Inquiry yang gagal di tengah batch membuat batch di-rollback; request itu diselesaikan dengan error-nya
+ * dan sisanya diulang sebagai batch baru. Gagal saat commit (tidak bisa diatribusikan) → tiap request
+ * diulang dalam transaksinya sendiri.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InquiryGroupCommitService {
+
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final IdGenerator idGenerator;
+
+    private BlockingQueue<PendingInquiry> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private DistributionSummary batchSizeSummary;
+    private Counter retriedCounter;
+    private Counter rejectedCounter;
+
+    @Value("${inquiry-group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inquiry-group-commit.max-batch-size:32}")
+    private int maxBatchSize;
+
+    @Value("${inquiry-group-commit.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${inquiry-group-commit.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${inquiry-group-commit.await-timeout-ms:10000}")
+    private long awaitTimeoutMs;
+
+    private record PendingInquiry(
+            UUID transactionId,
+            LocalDateTime transactionDate,
+            UUID userId,
+            UUID productId,
+            TransactionRequest transactionRequest,
+            RequestMetadataContext metadata,
+            CompletableFuture<RestApiResponse<TransactionResponse>> result
+    ) {
+    }
+
+    /**
+     * Inquiry ke-index dalam batch gagal; membawa exception aslinya keluar dari callback transaksi
+     */
+    private static final class BatchItemFailure extends RuntimeException {
+        private final int index;
+
+        private BatchItemFailure(int index, RuntimeException cause) {
+            super(cause);
+            this.index = index;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizeSummary = meterRegistry.summary("inquiry.group.commit.batch.size");
+        retriedCounter = meterRegistry.counter("inquiry.group.commit.retried");
+        rejectedCounter = meterRegistry.counter("inquiry.group.commit.rejected");
+        Gauge.builder("inquiry.group.commit.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+
+        if (enabled) {
+            running = true;
+            writer = new Thread(this::runWriter, "inquiry-group-commit");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Antrekan inquiry; future selesai setelah batch yang memuatnya commit
+     *
+     * @throws RejectedExecutionException jika antrean penuh
+     */
+    public CompletableFuture<RestApiResponse<TransactionResponse>> submit(
+            UUID userId,
+            UUID productId,
+            TransactionRequest transactionRequest
+    ) {
+        return enqueue(userId, productId, transactionRequest).result();
+    }
+
+    /**
+     * Versi blocking untuk thread servlet. Melewati batas tunggu → InquiryPendingException berisi transactionId
+     * (dijawab 202, sama dengan jalur async); request tetap di antrean dan statusnya dibaca lewat inquiry-status.
+     */
+    public RestApiResponse<TransactionResponse> inquiry(
+            UUID userId,
+            UUID productId,
+            TransactionRequest transactionRequest
+    ) {
+        PendingInquiry pending = enqueue(userId, productId, transactionRequest);
+        try {
+            return pending.result().get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Inquiry failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new InquiryPendingException(pending.transactionId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Inquiry was interrupted");
+        }
+    }
+
+    private PendingInquiry enqueue(UUID userId, UUID productId, TransactionRequest transactionRequest) {
+        PendingInquiry pending = new PendingInquiry(idGenerator.newId(), LocalDateTime.now(), userId, productId,
+                transactionRequest, RequestContextUtil.getRequestMetadata(), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("Inquiry queue is full, please retry");
+        }
+        return pending;
+    }
+
+    private void runWriter() {
+        List<PendingInquiry> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingInquiry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingInquiry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Inquiry group commit writer failed", e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+
+        List<PendingInquiry> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.result()
+                .completeExceptionally(new RejectedExecutionException("Inquiry writer stopped, please retry")));
+    }
+
+    private void writeBatch(List<PendingInquiry> batch) {
+        batchSizeSummary.record(batch.size());
+        List<PendingInquiry> remaining = new ArrayList<>(batch);
+        while (!remaining.isEmpty()) {
+            List<PendingInquiry> attempt = remaining;
+            List<RestApiResponse<TransactionResponse>> responses;
+            try {
+                responses = transactionTemplate.execute(status -> {
+                    List<RestApiResponse<TransactionResponse>> results = new ArrayList<>(attempt.size());
+                    for (int i = 0; i < attempt.size(); i++) {
+                        try {
+                            results.add(runInquiry(attempt.get(i)));
+                        } catch (RuntimeException e) {
+                            throw new BatchItemFailure(i, e);
+                        }
+                    }
+                    return results;
+                });
+            } catch (BatchItemFailure failure) {
+                attempt.get(failure.index).result().completeExceptionally(failure.getCause());
+                remaining = new ArrayList<>(attempt);
+                remaining.remove(failure.index);
+                if (!remaining.isEmpty()) {
+                    retriedCounter.increment(remaining.size());
+                }
+                continue;
+            } catch (RuntimeException e) {
+                log.warn("Inquiry batch of {} failed at commit, retrying individually: {}", attempt.size(), e.getMessage());
+                retriedCounter.increment(attempt.size());
+                attempt.forEach(this::writeIndividually);
+                return;
+            }
+
+            for (int i = 0; i < attempt.size(); i++) {
+                attempt.get(i).result().complete(responses.get(i));
+            }
+            return;
+        }
+    }
+
+    private void writeIndividually(PendingInquiry pending) {
+        try {
+            pending.result().complete(runInquiry(pending));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private RestApiResponse<TransactionResponse> runInquiry(PendingInquiry pending) {
+        RequestMetadataHolder.set(pending.metadata());
+        try {
+            return transactionService.inquiry(pending.transactionId(), pending.transactionDate(),
+                    pending.userId(), pending.productId(), pending.transactionRequest());
+        } finally {
+            RequestMetadataHolder.clear();
+        }
+    }
+}
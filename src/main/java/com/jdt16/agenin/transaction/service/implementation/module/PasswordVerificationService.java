@@ -0,0 +1,177 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifikasi password BCrypt di executor terpisah berukuran tetap, supaya burst transfer
+ * tidak menghabiskan thread servlet. Saat antrian penuh request langsung ditolak
+ * (RejectedExecutionException → 503). Verifikasi sukses di-cache sebentar.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordVerificationService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Long> verifiedCredentials = new ConcurrentHashMap<>();
+    private final byte[] cacheSalt = new byte[32];
+
+    private ThreadPoolExecutor verificationExecutor;
+    private Counter rejectedCounter;
+    private Counter cacheHitCounter;
+
+    @Value("${password-verification.pool-size:4}")
+    private int poolSize;
+
+    @Value("${password-verification.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${password-verification.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${password-verification.cache-ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    @Value("${password-verification.cache-max-size:10000}")
+    private int cacheMaxSize;
+
+    @PostConstruct
+    void init() {
+        new SecureRandom().nextBytes(cacheSalt);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        verificationExecutor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verify-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("password.verification.queue.depth", verificationExecutor, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("password.verification.active", verificationExecutor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("password.verification.cache.size", verifiedCredentials, ConcurrentMap::size)
+                .register(meterRegistry);
+        rejectedCounter = meterRegistry.counter("password.verification.rejected");
+        cacheHitCounter = meterRegistry.counter("password.verification.cache.hits");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verificationExecutor.shutdownNow();
+    }
+
+    /**
+     * Cocokkan password mentah dengan hash tersimpan.
+     *
+     * @throws RejectedExecutionException jika executor penuh atau verifikasi melewati batas waktu
+     */
+    public boolean matches(UUID userId, String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+
+        // Hash tersimpan ikut di-digest: ganti password otomatis membatalkan cache lama
+        String cacheKey = digest(userId, rawPassword, encodedPassword);
+        long nowNanos = System.nanoTime();
+        Long expiresAtNanos = verifiedCredentials.get(cacheKey);
+        if (expiresAtNanos != null && nowNanos - expiresAtNanos < 0) {
+            cacheHitCounter.increment();
+            return true;
+        }
+
+        boolean matched = verifyOnExecutor(rawPassword, encodedPassword);
+        if (matched) {
+            remember(cacheKey, nowNanos);
+        } else if (expiresAtNanos != null) {
+            verifiedCredentials.remove(cacheKey);
+        }
+        return matched;
+    }
+
+    private boolean verifyOnExecutor(String rawPassword, String encodedPassword) {
+        Future<Boolean> verification;
+        try {
+            verification = verificationExecutor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password verification rejected, executor saturated (queue: {})", verificationExecutor.getQueue().size());
+            throw new RejectedExecutionException("Password verification is busy, please retry");
+        }
+
+        try {
+            return verification.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            verification.cancel(true);
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("Password verification timed out, please retry");
+        } catch (InterruptedException e) {
+            verification.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Password verification interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password verification failed", e.getCause());
+        }
+    }
+
+    private void remember(String cacheKey, long nowNanos) {
+        if (verifiedCredentials.size() >= cacheMaxSize) {
+            verifiedCredentials.values().removeIf(expiresAt -> nowNanos - expiresAt >= 0);
+            if (verifiedCredentials.size() >= cacheMaxSize) {
+                verifiedCredentials.clear();
+            }
+        }
+        verifiedCredentials.put(cacheKey, nowNanos + TimeUnit.MILLISECONDS.toNanos(cacheTtlMs));
+    }
+
+    private String digest(UUID userId, String rawPassword, String encodedPassword) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(cacheSalt);
+            messageDigest.update(userId.toString().getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) 0);
+            messageDigest.update(rawPassword.getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) 0);
+            messageDigest.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(messageDigest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.dto.cache.ProductCatalogEntry;
+import com.jdt16.agenin.transaction.dto.cache.ProductCatalogSnapshot;
+import com.jdt16.agenin.transaction.dto.cache.SerializedResponseBody;
+import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
+import com.jdt16.agenin.transaction.model.repository.MProductsRepositories;
+import com.jdt16.agenin.transaction.service.interfacing.module.ProductCommissionProjection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalogCacheService {
+
+    private final MProductsRepositories mProductsRepositories;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<ProductCatalogSnapshot> snapshotReference = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    @Value("${catalog-cache.ttl-ms:300000}")
+    private long catalogTtlMs;
+
+    @Value("${catalog-cache.miss-refresh-interval-ms:5000}")
+    private long missRefreshIntervalMs;
+
+    /**
+     * Ambil produk + komisi dari snapshot katalog tanpa query ke database.
+     * Jika produk tidak ditemukan, snapshot di-refresh sekali (dibatasi interval)
+     * untuk menangkap produk yang baru ditambahkan.
+     */
+    public ProductCatalogEntry getProduct(UUID productId) {
+        ProductCatalogSnapshot snapshot = currentSnapshot();
+        ProductCatalogEntry entry = snapshot.find(productId);
+
+        if (entry == null && snapshot.isOlderThan(missRefreshIntervalMs, System.nanoTime())) {
+            entry = refreshIfUnchanged(snapshot).find(productId);
+        }
+        if (entry == null) {
+            throw new CoreThrowHandlerException("Product with ID " + productId + " not found");
+        }
+        return entry;
+    }
+
+    /**
+     * Seluruh produk di katalog, urutan sesuai hasil load terakhir
+     */
+    public List<ProductCatalogEntry> getProducts() {
+        return currentSnapshot().getProducts();
+    }
+
+    /**
+     * Versi konten katalog (fingerprint), berubah hanya jika isi produk/komisi berubah
+     */
+    public String getVersion() {
+        return currentSnapshot().getVersion();
+    }
+
+    /**
+     * Body JSON daftar produk yang sudah di-serialize untuk snapshot aktif.
+     * Serialize hanya terjadi sekali per snapshot; refresh katalog otomatis membuatnya usang.
+     */
+    public SerializedResponseBody getSerializedProducts(Function<List<ProductCatalogEntry>, ?> responseFactory) {
+        ProductCatalogSnapshot snapshot = currentSnapshot();
+        SerializedResponseBody serialized = snapshot.getSerializedProducts();
+        if (serialized != null) {
+            return serialized;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(responseFactory.apply(snapshot.getProducts()));
+            return snapshot.memoizeSerializedProducts(new SerializedResponseBody(body, snapshot.getVersion()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize product catalog", e);
+        }
+    }
+
+    /**
+     * Hook refresh manual, dipanggil saat katalog produk/komisi berubah
+     */
+    public ProductCatalogSnapshot refresh() {
+        refreshLock.lock();
+        try {
+            ProductCatalogSnapshot snapshot = loadSnapshot();
+            snapshotReference.set(snapshot);
+            log.info("Product catalog cache refreshed: {} products", snapshot.getProducts().size());
+            return snapshot;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private ProductCatalogSnapshot currentSnapshot() {
+        ProductCatalogSnapshot snapshot = snapshotReference.get();
+        if (snapshot == null) {
+            return refreshIfUnchanged(null);
+        }
+        if (snapshot.isOlderThan(catalogTtlMs, System.nanoTime()) && refreshLock.tryLock()) {
+            // Thread lain tetap memakai snapshot lama selama refresh berjalan
+            try {
+                return refreshIfUnchanged(snapshot);
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    private ProductCatalogSnapshot refreshIfUnchanged(ProductCatalogSnapshot expected) {
+        refreshLock.lock();
+        try {
+            ProductCatalogSnapshot current = snapshotReference.get();
+            if (current != expected) {
+                return current;
+            }
+            return refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private ProductCatalogSnapshot loadSnapshot() {
+        Map<UUID, ProductCatalogEntry> productsById = new LinkedHashMap<>();
+        for (ProductCommissionProjection row : mProductsRepositories.findAllWithCommission()) {
+            // Satu produk bisa punya lebih dari satu komisi: pakai baris pertama
+            productsById.putIfAbsent(row.getProductEntityDTOId(), ProductCatalogEntry.builder()
+                    .productEntityDTOId(row.getProductEntityDTOId())
+                    .productEntityDTOName(row.getProductEntityDTOName())
+                    .productEntityDTOCode(row.getProductEntityDTOCode())
+                    .productEntityDTODesc(row.getProductEntityDTODesc())
+                    .productEntityDTOPrice(row.getProductEntityDTOPrice())
+                    .commissionsEntityDTOValue(row.getCommissionsEntityDTOValue())
+                    .build());
+        }
+        List<ProductCatalogEntry> products = new ArrayList<>(productsById.values());
+        return new ProductCatalogSnapshot(products, fingerprint(products), System.nanoTime());
+    }
+
+    private static String fingerprint(List<ProductCatalogEntry> products) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            for (ProductCatalogEntry product : products) {
+                String row = product.getProductEntityDTOId() + "|" + product.getProductEntityDTOName() + "|"
+                        + product.getProductEntityDTOCode() + "|" + product.getProductEntityDTODesc() + "|"
+                        + plain(product.getProductEntityDTOPrice()) + "|" + plain(product.getCommissionsEntityDTOValue()) + "\n";
+                messageDigest.update(row.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(messageDigest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+}
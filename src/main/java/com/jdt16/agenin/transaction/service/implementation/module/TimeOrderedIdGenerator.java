@@ -0,0 +1,50 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.service.interfacing.module.IdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUIDv7 (RFC 9562): 48 bit unix epoch milidetik, 12 bit counter, 62 bit acak.
+ * Id berurutan waktu sehingga insert index B-tree selalu di ujung kanan (append-mostly).
+ * Counter menjaga urutan di milidetik yang sama; jika habis, timestamp dipinjam maju 1 ms.
+ */
+@Service
+@ConditionalOnProperty(name = "id-generator.type", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final int MAX_COUNTER = 0xFFF;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private long lastTimestampMs;
+    private int counter;
+
+    @Override
+    public UUID newId() {
+        long timestampMs;
+        int sequence;
+        synchronized (this) {
+            long nowMs = System.currentTimeMillis();
+            if (nowMs > lastTimestampMs) {
+                lastTimestampMs = nowMs;
+                // Mulai dari nilai acak kecil: ruang counter tetap lega dan id tidak mudah ditebak
+                counter = random.nextInt(MAX_COUNTER / 2);
+            } else if (counter < MAX_COUNTER) {
+                counter++;
+            } else {
+                lastTimestampMs++;
+                counter = 0;
+            }
+            timestampMs = lastTimestampMs;
+            sequence = counter;
+        }
+
+        long mostSigBits = (timestampMs << 16) | 0x7000L | sequence;
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
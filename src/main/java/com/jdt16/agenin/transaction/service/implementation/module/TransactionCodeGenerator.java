@@ -0,0 +1,170 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import jakarta.annotation.PostConstruct;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Kode transaksi TRX_ + 18 karakter Crockford base32: 48 bit epoch milidetik (10 karakter),
+ * 20 bit node (4 karakter) dan 20 bit sequence (4 karakter).
+ * Milidetik diambil dari tanggal transaksi, sehingga kode bisa dicari lewat rentang tanggal transaksi
+ * meskipun diproses jauh setelah disubmit. Tanggal yang tidak lebih lama dari tanggal terakhir memakai
+ * sequence per milidetik (bit atas 0); tanggal yang terlambat memakai counter bergulir 19 bit (bit atas 1),
+ * sehingga tidak bertabrakan dengan kode yang sudah terbit untuk milidetik yang sama.
+ * Kode hanya unik antar instance jika tiap instance
+ * yang hidup bersamaan mendapat node id berbeda lewat env AGENIN_TRANSACTION_CODE_NODE_ID (mis. ordinal pod
+ * StatefulSet); profile produksi (transaction-code.required-profiles) gagal start tanpa node id.
+ * Tanpa node id (dev) dipakai node acak, yang tidak menjamin keunikan antar instance.
+ * Kode ditulis ke buffer char per thread, tanpa formatter maupun string perantara.
+ */
+@Service
+@NoArgsConstructor
+@Slf4j
+public class TransactionCodeGenerator implements EnvironmentAware {
+
+    public static final String PREFIX = "TRX_";
+    public static final int CODE_LENGTH = PREFIX.length() + 18;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int SEQUENCE_BITS = 20;
+    private static final int MAX_NODE_ID = (1 << 20) - 1;
+    private static final int LATE_SEQUENCE_FLAG = 1 << (SEQUENCE_BITS - 1);
+    private static final int MAX_SEQUENCE = LATE_SEQUENCE_FLAG - 1;
+    private static final int TIMESTAMP_CHARS = 10;
+    private static final int NODE_SEQUENCE_CHARS = 8;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> {
+        char[] buffer = new char[CODE_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), buffer, 0);
+        return buffer;
+    });
+
+    @Value("${transaction-code.node-id:-1}")
+    private int configuredNodeId = -1;
+
+    @Value("${transaction-code.required-profiles:prod,production}")
+    private String[] requiredProfiles = new String[0];
+
+    private Environment environment;
+
+    private int nodeId;
+    private long lastTimestampMs;
+    private int sequence;
+    private int lateSequence;
+
+    public TransactionCodeGenerator(int nodeId) {
+        this.configuredNodeId = nodeId;
+        init();
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    void init() {
+        if (configuredNodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("transaction-code.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        if (configuredNodeId >= 0) {
+            nodeId = configuredNodeId;
+            log.info("Transaction code generator node id: {}", nodeId);
+            return;
+        }
+        if (environment != null && requiredProfiles.length > 0
+                && environment.acceptsProfiles(Profiles.of(requiredProfiles))) {
+            throw new IllegalStateException("transaction-code.node-id (AGENIN_TRANSACTION_CODE_NODE_ID) must be set "
+                    + "to a unique value per instance in profiles " + String.join(",", requiredProfiles));
+        }
+        nodeId = new SecureRandom().nextInt(MAX_NODE_ID + 1);
+        log.warn("Transaction code generator uses random node id {}; codes are not guaranteed unique across instances",
+                nodeId);
+    }
+
+    public String nextCode() {
+        return nextCode(Instant.now());
+    }
+
+    public String nextCode(Instant createdAt) {
+        long requestedMs = createdAt.toEpochMilli();
+        long timestampMs;
+        int currentSequence;
+        synchronized (this) {
+            if (requestedMs > lastTimestampMs) {
+                lastTimestampMs = requestedMs;
+                sequence = 0;
+                timestampMs = requestedMs;
+                currentSequence = 0;
+            } else if (requestedMs < lastTimestampMs) {
+                // Tanggal terlambat (jalur asinkron): simpan milidetiknya, sequence dari counter terpisah
+                lateSequence = (lateSequence + 1) & MAX_SEQUENCE;
+                timestampMs = requestedMs;
+                currentSequence = LATE_SEQUENCE_FLAG | lateSequence;
+            } else {
+                if (sequence < MAX_SEQUENCE) {
+                    sequence++;
+                } else {
+                    lastTimestampMs++;
+                    sequence = 0;
+                }
+                timestampMs = lastTimestampMs;
+                currentSequence = sequence;
+            }
+        }
+
+        char[] buffer = BUFFER.get();
+        encode(timestampMs, buffer, PREFIX.length(), TIMESTAMP_CHARS);
+        encode(((long) nodeId << SEQUENCE_BITS) | currentSequence, buffer,
+                PREFIX.length() + TIMESTAMP_CHARS, NODE_SEQUENCE_CHARS);
+        return new String(buffer);
+    }
+
+    /**
+     * Waktu pembuatan dari kode; empty untuk kode format lama atau kode yang tidak valid
+     */
+    public static Optional<Instant> decodeCreatedAt(String code) {
+        if (code == null || code.length() != CODE_LENGTH || !code.startsWith(PREFIX)) {
+            return Optional.empty();
+        }
+        long timestampMs = 0;
+        for (int i = PREFIX.length(); i < CODE_LENGTH; i++) {
+            int value = decodeChar(code.charAt(i));
+            if (value < 0) {
+                return Optional.empty();
+            }
+            if (i < PREFIX.length() + TIMESTAMP_CHARS) {
+                timestampMs = (timestampMs << 5) | value;
+            }
+        }
+        return Optional.of(Instant.ofEpochMilli(timestampMs));
+    }
+
+    private static void encode(long value, char[] buffer, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            buffer[i] = ALPHABET[(int) (value & 0x1F)];
+            value >>>= 5;
+        }
+    }
+
+    private static int decodeChar(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        for (int i = 10; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,74 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.entity.AuditOutboxEntityDTO;
+import com.jdt16.agenin.transaction.dto.event.TransactionCreatedEventDTO;
+import com.jdt16.agenin.transaction.model.repository.TAuditOutboxRepositories;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publikasi event transaksi sukses ke topic transaction-created untuk rollup Kafka Streams.
+ * Event ditulis ke outbox (T_AUDIT_OUTBOX, dengan topic) dalam transaksi DB pemanggil lalu dikirim
+ * {@link AuditOutboxRelayService} (key = transactionId): inquiry yang di-rollback tidak ikut terhitung,
+ * gagal kirim tidak menghilangkan event, dan thread request/writer tidak pernah menunggu broker.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionCreatedPublisherService {
+
+    private final TAuditOutboxRepositories tAuditOutboxRepositories;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Urutan kirim relay mengikuti id outbox, jadi selalu UUIDv7 apa pun id-generator.type
+     */
+    private final TimeOrderedIdGenerator outboxIdGenerator = new TimeOrderedIdGenerator();
+
+    private Counter enqueuedCounter;
+
+    @Value("${kafka-streams.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka-streams.transaction-created-topic:transaction-created-po}")
+    private String transactionCreatedTopic;
+
+    @PostConstruct
+    void init() {
+        enqueuedCounter = meterRegistry.counter("transaction.created.enqueued");
+    }
+
+    public void publish(TransactionCreatedEventDTO event) {
+        if (!enabled) {
+            return;
+        }
+        String transactionId = event.getTransactionCreatedEventDTOTransactionId().toString();
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize transaction created event " + transactionId, e);
+        }
+
+        AuditOutboxEntityDTO outbox = AuditOutboxEntityDTO.builder()
+                .auditOutboxEntityDTOId(outboxIdGenerator.newId())
+                .auditOutboxEntityDTOTopic(transactionCreatedTopic)
+                .auditOutboxEntityDTOMessageKey(transactionId)
+                .auditOutboxEntityDTOPayload(payload)
+                .auditOutboxEntityDTOCreatedAt(LocalDateTime.now())
+                .build();
+        tAuditOutboxRepositories.save(outbox);
+        enqueuedCounter.increment();
+        log.debug("Transaction created event {} written to outbox", transactionId);
+    }
+}
@@ -1,6 +1,8 @@
 package com.jdt16.agenin.transaction.service.implementation.module;
 
-import com.jdt16.agenin.transaction.configuration.security.SecurityConfig;
+import com.jdt16.agenin.transaction.dto.cache.ProductCatalogEntry;
+import com.jdt16.agenin.transaction.dto.cache.SerializedResponseBody;
+import com.jdt16.agenin.transaction.dto.context.UserIdentityContext;
 import com.jdt16.agenin.transaction.dto.entity.TransactionEntityDTO;
 import com.jdt16.agenin.transaction.dto.entity.TransactionOpenBankAccountEntityDTO;
 import com.jdt16.agenin.transaction.dto.entity.UserEntityDTO;
@@ -8,41 +10,61 @@ import com.jdt16.agenin.transaction.dto.entity.UserBalanceEntityDTO;
 import com.jdt16.agenin.transaction.dto.entity.UserWalletEntityDTO;
 import com.jdt16.agenin.transaction.dto.entity.UserBalanceHistoricalEntityDTO;
 import com.jdt16.agenin.transaction.dto.entity.UserWalletHistoricalEntityDTO;
-import com.jdt16.agenin.transaction.dto.entity.ProductsEntityDTO;
+import com.jdt16.agenin.transaction.dto.event.BalanceChangeEventDTO;
+import com.jdt16.agenin.transaction.dto.event.TransactionCreatedEventDTO;
 import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
 import com.jdt16.agenin.transaction.dto.request.CommissionToWalletRequest;
 import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
 import com.jdt16.agenin.transaction.dto.response.RestApiResponse;
 import com.jdt16.agenin.transaction.dto.response.TransactionResponse;
 import com.jdt16.agenin.transaction.dto.response.CustomerOpenBankAccountResponse;
+import com.jdt16.agenin.transaction.dto.response.CustomerPageResponse;
+import com.jdt16.agenin.transaction.dto.response.InquiryStatusResponse;
 import com.jdt16.agenin.transaction.dto.response.UserBalanceResponse;
 import com.jdt16.agenin.transaction.dto.response.UserBalanceAndWalletResponse;
 import com.jdt16.agenin.transaction.dto.response.ProductsResponse;
 import com.jdt16.agenin.transaction.model.repository.MUserRepositories;
 import com.jdt16.agenin.transaction.model.repository.TTransactionRepositories;
-import com.jdt16.agenin.transaction.model.repository.MProductsRepositories;
 import com.jdt16.agenin.transaction.model.repository.MUserBalanceRepositories;
 import com.jdt16.agenin.transaction.model.repository.MUserWalletRepositories;
 import com.jdt16.agenin.transaction.model.repository.TUsersBalanceHistoricalRepositories;
-import com.jdt16.agenin.transaction.model.repository.MCommissionRepositories;
 import com.jdt16.agenin.transaction.model.repository.TTransactionOpenBankAccountRepositories;
 import com.jdt16.agenin.transaction.model.repository.TUsersReferralRepositories;
 import com.jdt16.agenin.transaction.model.repository.TUsersWalletHistoricalRepositories;
-import com.jdt16.agenin.transaction.service.interfacing.module.CommissionValueProjection;
-import com.jdt16.agenin.transaction.service.interfacing.module.ProductProjection;
+import com.jdt16.agenin.transaction.service.interfacing.module.IdGenerator;
 import com.jdt16.agenin.transaction.service.interfacing.module.TransactionService;
-import com.jdt16.agenin.transaction.utility.RequestContextUtil;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAmountProjection;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserWalletAmountProjection;
+import com.jdt16.agenin.transaction.utility.CustomerPageCursorUtility;
+import com.jdt16.agenin.transaction.utility.RequestParamDefaultUtility;
 import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Slf4j
@@ -51,19 +73,31 @@ public class TransactionServiceImpl implements TransactionService {
 
     private final MUserRepositories mUserRepositories;
     private final TTransactionRepositories tTransactionRepositories;
-    private final MProductsRepositories mProductsRepositories;
     private final MUserBalanceRepositories mUserBalanceRepositories;
     private final MUserWalletRepositories mUserWalletRepositories;
     private final TUsersBalanceHistoricalRepositories tUsersBalanceHistoricalRepositories;
-    private final MCommissionRepositories mCommissionRepositories;
+    private final ProductCatalogCacheService productCatalogCacheService;
+    private final UserBalanceShardingService userBalanceShardingService;
+    private final UserIdentityCacheService userIdentityCacheService;
+    private final PasswordVerificationService passwordVerificationService;
     private final AuditLogProducerService auditLogProducerService;
     private final TTransactionOpenBankAccountRepositories tTransactionOpenBankAccountRepositories;
     private final TUsersReferralRepositories tUsersReferralRepositories;
-    private final SecurityConfig securityConfig = new SecurityConfig();
     private final TUsersWalletHistoricalRepositories tUsersWalletHistoricalRepositories;
-    private static final String TRANSACTION_CODE_PREFIX = "TRX_";
+    private final ObjectMapper objectMapper;
+    private final BalanceChangePublisherService balanceChangePublisherService;
+    private final BalanceStoreQueryService balanceStoreQueryService;
+    private final TransactionCreatedPublisherService transactionCreatedPublisherService;
+    private final IdGenerator idGenerator;
+    private final TransactionCodeGenerator transactionCodeGenerator;
     private static final String TRANSACTION_STATUS_SUCCESS = "SUCCESS";
     private static final String TRANSACTION_STATUS_FAILED = "FAILED";
+    private static final String INQUIRY_STATUS_PENDING = "PENDING";
+    private static final Pattern LEGACY_TRANSACTION_CODE = Pattern.compile("^TRX_[0-9A-F-]{36}_(\\d{8})$");
+    private static final DateTimeFormatter LEGACY_TRANSACTION_CODE_DATE = DateTimeFormatter.ofPattern("ddMMyyyy");
+
+    @Value("${transaction-lookup.clock-skew-ms:60000}")
+    private long lookupClockSkewMs;
 
     @Transactional(rollbackFor = CoreThrowHandlerException.class)
     @Override
@@ -71,40 +105,115 @@ public class TransactionServiceImpl implements TransactionService {
             UUID userId,
             UUID productId,
             TransactionRequest transactionRequest
+    ) {
+        return inquiry(generateTransactionId(), LocalDateTime.now(), userId, productId, transactionRequest);
+    }
+
+    /**
+     * Inquiry dengan transactionId yang sudah ditetapkan (jalur asinkron: id dibuat saat request diterima)
+     */
+    @Transactional(rollbackFor = CoreThrowHandlerException.class)
+    @Override
+    public RestApiResponse<TransactionResponse> inquiry(
+            UUID transactionId,
+            LocalDateTime transactionDate,
+            UUID userId,
+            UUID productId,
+            TransactionRequest transactionRequest
     ) {
         log.info("Starting transaction inquiry for userId: {}, productId: {}", userId, productId);
 
-        UUID transactionId = generateTransactionId();
-        LocalDateTime transactionDate = LocalDateTime.now();
+        UserIdentityContext identity = resolveIdentity(userId);
         TransactionEntityDTO transactionEntityDTO = createTransaction(userId, productId, transactionId, transactionDate);
 
-        tTransactionRepositories.save(transactionEntityDTO);
+        // Upsert saldo (native query memicu auto-flush) dijalankan sebelum insert entity,
+        // sehingga ketiga insert di bawah tidak terpecah dan terkirim bersama sebagai batch JDBC
+        UUID userBalanceId = processUserCommission(userId, productId, transactionId);
 
+        tTransactionRepositories.save(transactionEntityDTO);
         TransactionOpenBankAccountEntityDTO bankAccountDetail = saveTransactionOpenBankAccount(transactionId, transactionRequest);
-        UUID userBalanceId = processUserCommission(userId, productId);
-
         saveUserBalanceHistorical(userBalanceId, transactionId, productId);
 
-        UserEntityDTO userEntityDTO = mUserRepositories.findByUserEntityDTOId(userId)
-                .orElseThrow(() -> new CoreThrowHandlerException("User not found for user: " + userId));
-
-        if (userEntityDTO.getUserEntityDTORoleName().equals("SUB_AGENT")) {
-            processReferralCommission(userId, transactionId, productId);
-            logTransactionSuccess(transactionId, userEntityDTO, transactionEntityDTO);
+        if (identity.getRoleName().equals("SUB_AGENT")) {
+            UUID referenceUserId = processReferralCommission(identity, transactionId, productId);
+            publishTransactionCreated(transactionEntityDTO, referenceUserId);
+            logTransactionSuccess(transactionId, identity, transactionEntityDTO);
             TransactionResponse transactionResponse = buildTransactionResponse(transactionEntityDTO, bankAccountDetail);
             return createRestApiResponse(HttpStatus.OK, TRANSACTION_STATUS_SUCCESS, transactionResponse);
-        } else if (userEntityDTO.getUserEntityDTORoleName().equals("AGENT")) {
-            logTransactionSuccess(transactionId, userEntityDTO, transactionEntityDTO);
+        } else if (identity.getRoleName().equals("AGENT")) {
+            publishTransactionCreated(transactionEntityDTO, null);
+            logTransactionSuccess(transactionId, identity, transactionEntityDTO);
             TransactionResponse transactionResponse = buildTransactionResponse(transactionEntityDTO, bankAccountDetail);
             return createRestApiResponse(HttpStatus.OK, TRANSACTION_STATUS_SUCCESS, transactionResponse);
         } else {
-            logTransactionFailed(transactionEntityDTO, userEntityDTO);
+            logTransactionFailed(transactionEntityDTO, identity);
             throw new CoreThrowHandlerException("Transaction FAILED.");
         }
     }
 
+    /**
+     * Event untuk rollup komisi harian; hanya terkirim jika transaksi inquiry commit.
+     * referenceUserId diisi jika parent referral ikut menerima komisi yang sama.
+     */
+    private void publishTransactionCreated(TransactionEntityDTO transactionEntityDTO, UUID referenceUserId) {
+        BigDecimal commissionAmount = getCommissionsValue(transactionEntityDTO.getTransactionEntityDTOProductId());
+        transactionCreatedPublisherService.publish(TransactionCreatedEventDTO.builder()
+                .transactionCreatedEventDTOTransactionId(transactionEntityDTO.getTransactionEntityDTOId())
+                .transactionCreatedEventDTOUserId(transactionEntityDTO.getTransactionEntityDTOUserId())
+                .transactionCreatedEventDTOProductId(transactionEntityDTO.getTransactionEntityDTOProductId())
+                .transactionCreatedEventDTOProductName(transactionEntityDTO.getTransactionEntityDTOProductName())
+                .transactionCreatedEventDTOProductPrice(transactionEntityDTO.getTransactionEntityDTOProductPrice())
+                .transactionCreatedEventDTOCommissionAmount(commissionAmount)
+                .transactionCreatedEventDTOReferenceUserId(referenceUserId)
+                .transactionCreatedEventDTOReferenceCommissionAmount(referenceUserId != null ? commissionAmount : null)
+                .transactionCreatedEventDTOTransactionDate(transactionEntityDTO.getTransactionEntityDTODate())
+                .build());
+    }
+
+    /**
+     * Catat inquiry asinkron yang gagal sebagai transaksi FAILED agar status bisa dibaca pemanggil
+     */
+    @Transactional
+    @Override
+    public void recordFailedInquiry(UUID transactionId, LocalDateTime transactionDate, UUID userId, UUID productId) {
+        if (tTransactionRepositories.existsById(transactionId)) {
+            return;
+        }
+        TransactionEntityDTO transactionEntityDTO = createTransaction(userId, productId, transactionId, transactionDate);
+        transactionEntityDTO.setTransactionEntityDTOStatus(TRANSACTION_STATUS_FAILED);
+        tTransactionRepositories.save(transactionEntityDTO);
+    }
+
+    /**
+     * Status inquiry: PENDING selama belum ada baris transaksi milik user
+     */
+    @Override
+    public RestApiResponse<InquiryStatusResponse> getInquiryStatus(UUID userId, UUID transactionId) {
+        InquiryStatusResponse inquiryStatusResponse = tTransactionRepositories.findById(transactionId)
+                .filter(transaction -> userId.equals(transaction.getTransactionEntityDTOUserId()))
+                .map(transaction -> InquiryStatusResponse.builder()
+                        .inquiryStatusTransactionId(transactionId)
+                        .inquiryStatusStatus(transaction.getTransactionEntityDTOStatus())
+                        .inquiryStatusTransactionCode(transaction.getTransactionEntityDTOCode())
+                        .build())
+                .orElseGet(() -> InquiryStatusResponse.builder()
+                        .inquiryStatusTransactionId(transactionId)
+                        .inquiryStatusStatus(INQUIRY_STATUS_PENDING)
+                        .build());
+        return createRestApiResponse(HttpStatus.OK, "SUCCESS GET inquiry status", inquiryStatusResponse);
+    }
+
+    /**
+     * Resolve user sekali per request (via near-cache), dipakai oleh semua tahap inquiry
+     */
+    private UserIdentityContext resolveIdentity(UUID userId) {
+        return userIdentityCacheService.findUser(userId)
+                .map(UserIdentityContext::of)
+                .orElseThrow(() -> new CoreThrowHandlerException("User not found for user: " + userId));
+    }
+
     private UUID generateTransactionId() {
-        return UUID.randomUUID();
+        return idGenerator.newId();
     }
 
     private TransactionEntityDTO createTransaction(
@@ -115,7 +224,8 @@ public class TransactionServiceImpl implements TransactionService {
     ) {
         return TransactionEntityDTO.builder()
                 .transactionEntityDTOId(transactionId)
-                .transactionEntityDTOCode(generateTransactionCode(transactionId, transactionDate))
+                .transactionEntityDTOCode(transactionCodeGenerator.nextCode(
+                        transactionDate.atZone(ZoneId.systemDefault()).toInstant()))
                 .transactionEntityDTOUserId(userId)
                 .transactionEntityDTOProductId(productId)
                 .transactionEntityDTOProductName(getProductName(productId))
@@ -125,16 +235,12 @@ public class TransactionServiceImpl implements TransactionService {
                 .build();
     }
 
-    private String generateTransactionCode(UUID transactionId, LocalDateTime transactionDate) {
-        return TRANSACTION_CODE_PREFIX + transactionId.toString().toUpperCase() + "_" + transactionDate.format(DateTimeFormatter.ofPattern("ddMMyyyy"));
-    }
-
     private TransactionOpenBankAccountEntityDTO saveTransactionOpenBankAccount(
             UUID transactionId,
             TransactionRequest transactionRequest
     ) {
         TransactionOpenBankAccountEntityDTO bankAccount = new TransactionOpenBankAccountEntityDTO();
-        bankAccount.setTransactionOpenBankAccountEntityDTOId(UUID.randomUUID());
+        bankAccount.setTransactionOpenBankAccountEntityDTOId(idGenerator.newId());
         bankAccount.setTransactionOpenBankAccountEntityDTOTransactionId(transactionId);
         bankAccount.setTransactionOpenBankAccountEntityDTOCustomerName(
                 transactionRequest.getTransactionEntityDTOCustomerName()
@@ -155,33 +261,11 @@ public class TransactionServiceImpl implements TransactionService {
         return tTransactionOpenBankAccountRepositories.save(bankAccount);
     }
 
-    private UUID processUserCommission(UUID userId, UUID productId) {
+    private UUID processUserCommission(UUID userId, UUID productId, UUID transactionId) {
         BigDecimal commissionValue = getCommissionsValue(productId);
-
-        UserBalanceEntityDTO userBalance = mUserBalanceRepositories
-                .findByUserBalanceEntityDTOUserId(userId)
-                .orElseGet(() -> createNewUserBalance(userId));
-
-        updateUserBalance(userBalance, commissionValue);
-
-        UserBalanceEntityDTO savedBalance = mUserBalanceRepositories.save(userBalance);
-        return savedBalance.getUserBalanceEntityDTOId();
-    }
-
-    private UserBalanceEntityDTO createNewUserBalance(UUID userId) {
-        return UserBalanceEntityDTO.builder()
-                .userBalanceEntityDTOId(UUID.randomUUID())
-                .userBalanceEntityDTOUserId(userId)
-                .userBalanceEntityDTOBalanceAmount(BigDecimal.ZERO)
-                .userBalanceEntityDTOBalanceLastUpdate(LocalDateTime.now())
-                .build();
-    }
-
-    private void updateUserBalance(UserBalanceEntityDTO userBalance, BigDecimal commissionValue) {
-        BigDecimal currentBalance = userBalance.getUserBalanceEntityDTOBalanceAmount();
-        BigDecimal newBalance = currentBalance.add(commissionValue);
-        userBalance.setUserBalanceEntityDTOBalanceAmount(newBalance);
-        userBalance.setUserBalanceEntityDTOBalanceLastUpdate(LocalDateTime.now());
+        UUID userBalanceId = userBalanceShardingService.incrementBalance(userId, commissionValue, transactionId);
+        balanceChangePublisherService.markChanged(userId);
+        return userBalanceId;
     }
 
     private void saveUserBalanceHistorical(
@@ -191,7 +275,7 @@ public class TransactionServiceImpl implements TransactionService {
     ) {
         BigDecimal commissionValue = getCommissionsValue(productId);
         UserBalanceHistoricalEntityDTO historical = UserBalanceHistoricalEntityDTO.builder()
-                .userBalanceHistoricalEntityDTOId(UUID.randomUUID())
+                .userBalanceHistoricalEntityDTOId(idGenerator.newId())
                 .userBalanceHistoricalEntityDTOUserBalanceId(userBalanceId)
                 .userBalanceHistoricalEntityDTOTransactionId(transactionId)
                 .userBalanceHistoricalEntityDTOAmount(commissionValue)
@@ -201,28 +285,25 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Transactional(rollbackFor = CoreThrowHandlerException.class)
-    private void processReferralCommission(
-            UUID inviteeUserId,
+    private UUID processReferralCommission(
+            UserIdentityContext inviteeUser,
             UUID transactionId,
             UUID productId
     ) {
-        UserEntityDTO inviteeUser = mUserRepositories.findByUserEntityDTOId(inviteeUserId)
-                .orElseThrow(() -> new CoreThrowHandlerException(
-                        "Invitee user not found: " + inviteeUserId
-                ));
-
+        UUID inviteeUserId = inviteeUser.getUserId();
         UUID referenceUserId = tUsersReferralRepositories
                 .findReferenceUserIdByInviteeUserId(inviteeUserId)
                 .orElseThrow(() -> createReferralNotFoundException(inviteeUserId, inviteeUser));
 
         BigDecimal commissionValue = getCommissionsValue(productId);
-        UUID referenceUserBalanceId = processUserCommission(referenceUserId, productId);
+        UUID referenceUserBalanceId = processUserCommission(referenceUserId, productId, transactionId);
         saveUserBalanceHistorical(referenceUserBalanceId, transactionId, productId);
 
         logReferralCommissionSuccess(referenceUserId, inviteeUserId, commissionValue, inviteeUser, transactionId);
+        return referenceUserId;
     }
 
-    private CoreThrowHandlerException createReferralNotFoundException(UUID inviteeUserId, UserEntityDTO userEntityDTO) {
+    private CoreThrowHandlerException createReferralNotFoundException(UUID inviteeUserId, UserIdentityContext identity) {
         String errorMessage = String.format(
                 "Data integrity error: Parent user not found for invitee: %s. " +
                         "The transaction will be rolled back to maintain referral data consistency.",
@@ -237,44 +318,38 @@ public class TransactionServiceImpl implements TransactionService {
                 "timestamp", LocalDateTime.now(),
                 "error", errorMessage
         );
-        auditLogProducerService.logUpdate(
+        auditLogProducerService.logFailedUpdate(
                 TableNameEntityUtility.TABLE_USERS_REFERRAL,
                 inviteeUserId,
                 oldData,
                 newData,
-                userEntityDTO.getUserEntityDTOId(),
-                userEntityDTO.getUserEntityDTOFullName(),
-                userEntityDTO.getUserEntityDTORoleId(),
-                userEntityDTO.getUserEntityDTORoleName(),
-                RequestContextUtil.getUserAgent(),
-                RequestContextUtil.getClientIpAddress()
+                identity.getUserId(),
+                identity.getUserFullName(),
+                identity.getRoleId(),
+                identity.getRoleName(),
+                identity.getUserAgent(),
+                identity.getClientIpAddress()
         );
 
         return new CoreThrowHandlerException(errorMessage);
     }
 
     private String getProductName(UUID productId) {
-        return mProductsRepositories.findByProductEntityDTOId(productId)
-                .map(ProductProjection::getProductEntityDTOName)
-                .orElseThrow(() -> new CoreThrowHandlerException(
-                        "Product with ID " + productId + " not found"
-                ));
+        return productCatalogCacheService.getProduct(productId).getProductEntityDTOName();
     }
 
     private BigDecimal getProductPrice(UUID productId) {
-        return mProductsRepositories.findByProductEntityDTOId(productId)
-                .map(ProductProjection::getProductEntityDTOPrice)
-                .orElseThrow(() -> new CoreThrowHandlerException(
-                        "Product with ID " + productId + " not found"
-                ));
+        return productCatalogCacheService.getProduct(productId).getProductEntityDTOPrice();
     }
 
     private BigDecimal getCommissionsValue(UUID productId) {
-        return mCommissionRepositories.findByCommissionsEntityDTOProductId(productId)
-                .map(CommissionValueProjection::getCommissionsEntityDTOValue)
-                .orElseThrow(() -> new CoreThrowHandlerException(
-                        "Commission value for ID products " + productId + " not found"
-                ));
+        BigDecimal commissionValue = productCatalogCacheService.getProduct(productId).getCommissionsEntityDTOValue();
+        if (commissionValue == null) {
+            throw new CoreThrowHandlerException(
+                    "Commission value for ID products " + productId + " not found"
+            );
+        }
+        return commissionValue;
     }
 
     private TransactionResponse buildTransactionResponse(
@@ -309,7 +384,7 @@ public class TransactionServiceImpl implements TransactionService {
                 .build();
     }
 
-    private void logTransactionSuccess(UUID transactionId, UserEntityDTO userEntityDTO, TransactionEntityDTO transactionEntityDTO) {
+    private void logTransactionSuccess(UUID transactionId, UserIdentityContext identity, TransactionEntityDTO transactionEntityDTO) {
         String successMessage = "Transaction successfully created with ID: " + transactionId;
         log.info(successMessage);
 
@@ -319,12 +394,12 @@ public class TransactionServiceImpl implements TransactionService {
                 TableNameEntityUtility.TABLE_TRANSACTION,
                 transactionId,
                 newData,
-                userEntityDTO.getUserEntityDTOId(),
-                userEntityDTO.getUserEntityDTOFullName(),
-                userEntityDTO.getUserEntityDTORoleId(),
-                userEntityDTO.getUserEntityDTORoleName(),
-                RequestContextUtil.getUserAgent(),
-                RequestContextUtil.getClientIpAddress()
+                identity.getUserId(),
+                identity.getUserFullName(),
+                identity.getRoleId(),
+                identity.getRoleName(),
+                identity.getUserAgent(),
+                identity.getClientIpAddress()
         );
     }
 
@@ -332,7 +407,7 @@ public class TransactionServiceImpl implements TransactionService {
             UUID referenceUserId,
             UUID inviteeUserId,
             BigDecimal commissionValue,
-            UserEntityDTO userEntityDTO,
+            UserIdentityContext identity,
             UUID transactionId
     ) {
         String successMessage = String.format(
@@ -354,40 +429,50 @@ public class TransactionServiceImpl implements TransactionService {
                 transactionId,
                 oldData,
                 newData,
-                userEntityDTO.getUserEntityDTOId(),
-                userEntityDTO.getUserEntityDTOFullName(),
-                userEntityDTO.getUserEntityDTORoleId(),
-                userEntityDTO.getUserEntityDTORoleName(),
-                RequestContextUtil.getUserAgent(),
-                RequestContextUtil.getClientIpAddress()
+                identity.getUserId(),
+                identity.getUserFullName(),
+                identity.getRoleId(),
+                identity.getRoleName(),
+                identity.getUserAgent(),
+                identity.getClientIpAddress()
         );
     }
 
-    private void logTransactionFailed(TransactionEntityDTO transactionEntityDTO, UserEntityDTO userEntityDTO) {
+    private void logTransactionFailed(TransactionEntityDTO transactionEntityDTO, UserIdentityContext identity) {
         String failedMessage = "Transaction failed created with ID: " + transactionEntityDTO.getTransactionEntityDTOId();
         log.info(failedMessage);
         Map<String, Object> oldData = Collections.emptyMap();
         Map<String, Object> newData = buildTransactionDataMap(transactionEntityDTO);
 
-        auditLogProducerService.logUpdate(
+        auditLogProducerService.logFailedUpdate(
                 TableNameEntityUtility.TABLE_TRANSACTION,
                 UUID.randomUUID(),
                 oldData,
                 newData,
-                userEntityDTO.getUserEntityDTOId(),
-                userEntityDTO.getUserEntityDTOFullName(),
-                userEntityDTO.getUserEntityDTORoleId(),
-                userEntityDTO.getUserEntityDTORoleName(),
-                RequestContextUtil.getUserAgent(),
-                RequestContextUtil.getClientIpAddress()
+                identity.getUserId(),
+                identity.getUserFullName(),
+                identity.getRoleId(),
+                identity.getRoleName(),
+                identity.getUserAgent(),
+                identity.getClientIpAddress()
         );
     }
 
     @Override
     public RestApiResponse<List<ProductsResponse>> getListProducts() {
-        List<ProductsEntityDTO> productsEntityDTOList = mProductsRepositories.findAll();
+        return buildListProductsResponse(productCatalogCacheService.getProducts());
+    }
+
+    /**
+     * Daftar produk sebagai body JSON siap kirim, di-serialize sekali per versi katalog
+     */
+    @Override
+    public SerializedResponseBody getListProductsBody() {
+        return productCatalogCacheService.getSerializedProducts(this::buildListProductsResponse);
+    }
 
-        List<ProductsResponse> productsResponseList = productsEntityDTOList.stream()
+    private RestApiResponse<List<ProductsResponse>> buildListProductsResponse(List<ProductCatalogEntry> products) {
+        List<ProductsResponse> productsResponseList = products.stream()
                 .map(this::toProductsResponse)
                 .toList();
 
@@ -398,39 +483,17 @@ public class TransactionServiceImpl implements TransactionService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
     @Override
     public RestApiResponse<List<CustomerOpenBankAccountResponse>> getAllTransactionsByUser(UUID userId) {
-        List<TransactionEntityDTO> transactionEntityDTOS = tTransactionRepositories.findByTransactionEntityDTOUserId(userId);
-        if (transactionEntityDTOS.isEmpty()) {
+        List<CustomerOpenBankAccountResponse> results = tTransactionRepositories.findCustomerOpenBankAccountsByUserId(userId);
+        if (results.isEmpty()) {
             return RestApiResponse.<List<CustomerOpenBankAccountResponse>>builder()
                     .restApiResponseCode(HttpStatus.OK.value())
                     .restApiResponseMessage("FAILED GET all transactions by user")
                     .restApiResponseResults(Collections.emptyList())
                     .build();
         }
-        List<CustomerOpenBankAccountResponse> results = transactionEntityDTOS.stream()
-                .sorted(Comparator.comparing(TransactionEntityDTO::getTransactionEntityDTODate).reversed())
-                .map(transactionEntityDTO -> {
-                    TransactionOpenBankAccountEntityDTO transactionOpenBankAccountEntityDTO = tTransactionOpenBankAccountRepositories
-                            .findByTransactionOpenBankAccountEntityDTOTransactionId(transactionEntityDTO.getTransactionEntityDTOId())
-                            .orElse(null);
-
-                    CustomerOpenBankAccountResponse customerOpenBankAccountResponse = new CustomerOpenBankAccountResponse();
-                    customerOpenBankAccountResponse.setCustomerOpenBankAccountProductName(transactionEntityDTO.getTransactionEntityDTOProductName());
-                    customerOpenBankAccountResponse.setCustomerOpenBankAccountProductPrice(transactionEntityDTO.getTransactionEntityDTOProductPrice());
-                    customerOpenBankAccountResponse.setCustomerOpenBankAccountTransactionDate(transactionEntityDTO.getTransactionEntityDTODate());
-                    customerOpenBankAccountResponse.setCustomerOpenBankAccountTransactionStatus(transactionEntityDTO.getTransactionEntityDTOStatus());
-
-                    if (transactionOpenBankAccountEntityDTO != null) {
-                        customerOpenBankAccountResponse.setCustomerOpenBankAccountName(transactionOpenBankAccountEntityDTO.getTransactionOpenBankAccountEntityDTOCustomerName());
-                        customerOpenBankAccountResponse.setCustomerOpenBankAccountIdentityNumber(transactionOpenBankAccountEntityDTO.getTransactionOpenBankAccountEntityDTOCustomerIdentityNumber());
-                        customerOpenBankAccountResponse.setCustomerOpenBankAccountPhoneNumber(transactionOpenBankAccountEntityDTO.getTransactionOpenBankAccountEntityDTOCustomerPhoneNumber());
-                        customerOpenBankAccountResponse.setCustomerOpenBankAccountEmail(transactionOpenBankAccountEntityDTO.getTransactionOpenBankAccountEntityDTOCustomerEmail());
-                        customerOpenBankAccountResponse.setCustomerOpenBankAccountAddress(transactionOpenBankAccountEntityDTO.getTransactionOpenBankAccountEntityDTOCustomerAddress());
-                    }
-                    return customerOpenBankAccountResponse;
-                })
-                .toList();
 
         return RestApiResponse.<List<CustomerOpenBankAccountResponse>>builder()
                 .restApiResponseCode(HttpStatus.OK.value())
@@ -439,69 +502,161 @@ public class TransactionServiceImpl implements TransactionService {
                 .build();
     }
 
+    /**
+     * Satu transaksi per kode, hanya milik user pemanggil (kode user lain dijawab 404 yang sama).
+     * Rentang tanggal diambil dari kode, sehingga kode dengan format tidak dikenal langsung 404 tanpa query.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public RestApiResponse<CustomerOpenBankAccountResponse> getTransactionByCode(UUID userId, String transactionCode) {
+        CustomerOpenBankAccountResponse result = resolveCodeDateRange(transactionCode)
+                .flatMap(range -> tTransactionRepositories.findCustomerOpenBankAccountByCode(
+                        transactionCode, userId, range.from(), range.to()))
+                .orElseThrow(() -> new CoreThrowHandlerException("Transaction with code " + transactionCode + " not found"));
+        return createRestApiResponse(HttpStatus.OK, "SUCCESS GET transaction by code", result);
+    }
+
+    private record DateRange(LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Kode baru: milidetik kode = tanggal transaksi (bisa maju beberapa milidetik saat sequence penuh),
+     * berapa pun lag pemrosesan asinkronnya; margin clock skew menutup selisih presisi dan pergeseran itu.
+     * Kode lama (TRX_UUID_ddMMyyyy): satu hari kalender.
+     */
+    private Optional<DateRange> resolveCodeDateRange(String transactionCode) {
+        Optional<Instant> createdAt = TransactionCodeGenerator.decodeCreatedAt(transactionCode);
+        if (createdAt.isPresent()) {
+            LocalDateTime created = LocalDateTime.ofInstant(createdAt.get(), ZoneId.systemDefault());
+            return Optional.of(new DateRange(
+                    created.minus(lookupClockSkewMs, ChronoUnit.MILLIS),
+                    created.plus(lookupClockSkewMs, ChronoUnit.MILLIS)));
+        }
+
+        Matcher legacy = LEGACY_TRANSACTION_CODE.matcher(transactionCode);
+        if (legacy.matches()) {
+            try {
+                LocalDate day = LocalDate.parse(legacy.group(1), LEGACY_TRANSACTION_CODE_DATE);
+                return Optional.of(new DateRange(day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+            } catch (DateTimeParseException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public RestApiResponse<CustomerPageResponse> getTransactionsByUserPage(UUID userId, int limit, String cursor) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        int pageLimit = Math.min(limit, RequestParamDefaultUtility.CUSTOMER_PAGE_MAX_LIMIT);
+        // Ambil satu baris ekstra untuk mengetahui apakah masih ada halaman berikutnya
+        Pageable pageable = PageRequest.of(0, pageLimit + 1);
+
+        List<CustomerOpenBankAccountResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = tTransactionRepositories.findCustomerPageByUserId(userId, pageable);
+        } else {
+            CustomerPageCursorUtility.Cursor decoded = CustomerPageCursorUtility.decode(cursor);
+            rows = tTransactionRepositories.findCustomerPageByUserIdAfter(
+                    userId, decoded.transactionDate(), decoded.transactionId(), pageable);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageLimit) {
+            rows = rows.subList(0, pageLimit);
+            CustomerOpenBankAccountResponse last = rows.get(pageLimit - 1);
+            nextCursor = CustomerPageCursorUtility.encode(
+                    last.getCustomerOpenBankAccountTransactionDate(),
+                    last.getCustomerOpenBankAccountTransactionId()
+            );
+        }
+
+        CustomerPageResponse customerPageResponse = CustomerPageResponse.builder()
+                .customerPageResponseCustomers(rows)
+                .customerPageResponseNextCursor(nextCursor)
+                .build();
+        return createRestApiResponse(
+                HttpStatus.OK,
+                "SUCCESS GET transactions page by user",
+                customerPageResponse
+        );
+    }
+
+    /**
+     * Tulis seluruh customer user sebagai NDJSON (satu objek JSON per baris) langsung ke output stream.
+     * Baris dibaca bertahap dari cursor database sehingga memori tetap konstan.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public long exportTransactionsByUser(UUID userId, OutputStream outputStream) throws IOException {
+        ObjectWriter rowWriter = objectMapper.writerFor(CustomerOpenBankAccountResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long exported = 0;
+
+        try (Stream<CustomerOpenBankAccountResponse> rows = tTransactionRepositories.streamCustomerOpenBankAccountsByUserId(userId)) {
+            Iterator<CustomerOpenBankAccountResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.writeValue(outputStream, iterator.next());
+                outputStream.write('\n');
+                exported++;
+            }
+        }
+        outputStream.flush();
+
+        log.info("Exported {} customer rows for user {}", exported, userId);
+        return exported;
+    }
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public RestApiResponse<UserBalanceResponse> transactionCommissionToWallet(
             UUID userId,
             CommissionToWalletRequest commissionToWalletRequest
     ) {
+        // Selalu baca ulang dari DB (bukan near-cache) karena butuh hash password terbaru
         UserEntityDTO userEntityDTO = mUserRepositories.findByUserEntityDTOId(userId)
                 .orElseThrow(() -> new CoreThrowHandlerException("User not found"));
-        String userFullName = userEntityDTO.getUserEntityDTOFullName();
-        UUID roleId = userEntityDTO.getUserEntityDTORoleId();
-        String roleName = userEntityDTO.getUserEntityDTORoleName();
+        UserIdentityContext identity = UserIdentityContext.of(userEntityDTO);
 
         validatePassword(
                 commissionToWalletRequest.getUserEntityDTOPassword(),
                 userEntityDTO.getUserEntityDTOPassword(),
-                userId,
+                identity,
                 commissionToWalletRequest.getCommissionToWalletAmount()
         );
 
         BigDecimal transferAmount = commissionToWalletRequest.getCommissionToWalletAmount();
         if (transferAmount == null || transferAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            logFailedCommissionToWallet(userId, transferAmount, "Transfer amount must be greater than zero");
+            logFailedCommissionToWallet(identity, transferAmount, "Transfer amount must be greater than zero");
             throw new CoreThrowHandlerException("Transfer amount must be greater than zero");
         }
 
-        UserBalanceEntityDTO userBalance = mUserBalanceRepositories
-                .findByUserBalanceEntityDTOUserId(userId)
-                .orElseThrow(() -> {
-                    logFailedCommissionToWallet(userId, transferAmount, "User balance not found");
-                    return new CoreThrowHandlerException(
-                            "User balance not found for user: " + userId
-                    );
-                });
-
-        BigDecimal balanceBefore = nullToZero(userBalance.getUserBalanceEntityDTOBalanceAmount());
-
-        if (balanceBefore.compareTo(transferAmount) < 0) {
-            logFailedCommissionToWallet(userId, transferAmount, "Insufficient commission balance");
-            throw new CoreThrowHandlerException(
-                    "Insufficient commission balance. Available: " + balanceBefore +
-                            ", requested: " + transferAmount
-            );
-        }
+        userBalanceShardingService.consolidate(userId);
+        UserBalanceAmountProjection userBalance = mUserBalanceRepositories
+                .decrementUserBalance(userId, transferAmount, LocalDateTime.now())
+                .orElseThrow(() -> createBalanceDebitException(identity, transferAmount));
 
-        BigDecimal balanceAfter = balanceBefore.subtract(transferAmount);
-        userBalance.setUserBalanceEntityDTOBalanceAmount(balanceAfter);
-        userBalance.setUserBalanceEntityDTOBalanceLastUpdate(LocalDateTime.now());
-        mUserBalanceRepositories.save(userBalance);
+        BigDecimal balanceAfter = nullToZero(userBalance.getUserBalanceEntityDTOBalanceAmount());
+        BigDecimal balanceBefore = balanceAfter.add(transferAmount);
 
-        UserWalletEntityDTO userWallet = mUserWalletRepositories
-                .findByUserWalletEntityDTOUserId(userId)
-                .orElseGet(() -> createNewWallet(userId));
-
-        BigDecimal walletBefore = nullToZero(userWallet.getUserWalletEntityDTOAmount());
-        BigDecimal walletAfter = walletBefore.add(transferAmount);
+        UserWalletAmountProjection userWallet = mUserWalletRepositories.incrementUserWallet(
+                idGenerator.newId(),
+                userId,
+                transferAmount,
+                LocalDateTime.now()
+        );
 
-        userWallet.setUserWalletEntityDTOAmount(walletAfter);
-        userWallet.setUserWalletEntityDTOLastUpdate(LocalDateTime.now());
-        UserWalletEntityDTO savedWallet = mUserWalletRepositories.save(userWallet);
+        BigDecimal walletAfter = nullToZero(userWallet.getUserWalletEntityDTOAmount());
+        BigDecimal walletBefore = walletAfter.subtract(transferAmount);
 
-        saveWalletHistorical(savedWallet.getUserWalletEntityDTOId(), transferAmount);
+        saveWalletHistorical(userWallet.getUserWalletEntityDTOId(), transferAmount);
+        balanceChangePublisherService.markChanged(userId);
 
-        logSuccessCommissionToWallet(userId, transferAmount, balanceBefore, balanceAfter, walletBefore, walletAfter, userFullName, roleId, roleName);
+        logSuccessCommissionToWallet(identity, userWallet.getUserWalletEntityDTOId(), transferAmount,
+                balanceBefore, balanceAfter, walletBefore, walletAfter);
 
         UserBalanceResponse userBalanceResponse = UserBalanceResponse.builder()
                 .userBalanceEntityDTOUserId(userId)
@@ -517,9 +672,24 @@ public class TransactionServiceImpl implements TransactionService {
         );
     }
 
+    /**
+     * Baca dari state store Kafka Streams lokal jika tersedia, selain itu dari PostgreSQL
+     */
     @Override
     public RestApiResponse<UserBalanceAndWalletResponse> getUserBalanceAndWallet(UUID userId) {
-        UserBalanceEntityDTO userBalance = mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(userId)
+        Optional<BalanceChangeEventDTO> stored = balanceStoreQueryService.findBalance(userId);
+        if (stored.isPresent()) {
+            return createRestApiResponse(
+                    HttpStatus.OK,
+                    "SUCCESS GET user balance and wallet",
+                    UserBalanceAndWalletResponse.builder()
+                            .userBalanceEntityDTOAmount(stored.get().getBalanceChangeEventDTOBalanceAmount())
+                            .userWalletEntityDTOAmount(stored.get().getBalanceChangeEventDTOWalletAmount())
+                            .build()
+            );
+        }
+
+        UserBalanceAmountProjection userBalance = userBalanceShardingService.findTotalBalance(userId)
                 .orElseThrow(() -> new CoreThrowHandlerException("User balance not found for user: " + userId));
         UserWalletEntityDTO userWallet = mUserWalletRepositories.findByUserWalletEntityDTOUserId(userId)
                 .orElseThrow(() -> new CoreThrowHandlerException("User wallet not found for user: " + userId));
@@ -534,18 +704,53 @@ public class TransactionServiceImpl implements TransactionService {
         );
     }
 
-    private UserWalletEntityDTO createNewWallet(UUID userId) {
-        return UserWalletEntityDTO.builder()
-                .userWalletEntityDTOId(UUID.randomUUID())
-                .userWalletEntityDTOUserId(userId)
-                .userWalletEntityDTOAmount(BigDecimal.ZERO)
-                .userWalletEntityDTOLastUpdate(LocalDateTime.now())
-                .build();
+    /**
+     * Versi saldo + wallet dari waktu update terakhir (termasuk slot), dipakai sebagai ETag.
+     * Empty jika saldo/wallet belum ada; pemanggil jatuh ke jalur normal.
+     * Dilayani dari state store Kafka Streams jika user ada di store lokal (tanpa koneksi database).
+     */
+    @Override
+    public Optional<String> getUserBalanceAndWalletVersion(UUID userId) {
+        Optional<BalanceChangeEventDTO> stored = balanceStoreQueryService.findBalance(userId);
+        if (stored.isPresent()) {
+            return Optional.of(toVersion(stored.get().getBalanceChangeEventDTOBalanceLastUpdate())
+                    + "-" + toVersion(stored.get().getBalanceChangeEventDTOWalletLastUpdate()));
+        }
+        return mUserBalanceRepositories.findBalanceAndWalletLastUpdate(userId)
+                .map(lastUpdate -> toVersion(lastUpdate.getUserBalanceEntityDTOBalanceLastUpdate())
+                        + "-" + toVersion(lastUpdate.getUserWalletEntityDTOLastUpdate()));
+    }
+
+    private static String toVersion(LocalDateTime lastUpdate) {
+        if (lastUpdate == null) {
+            return "0";
+        }
+        long epochMicros = lastUpdate.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + lastUpdate.getNano() / 1_000;
+        return Long.toHexString(epochMicros);
+    }
+
+    /**
+     * Debit atomik gagal: bedakan saldo tidak ditemukan dengan saldo tidak mencukupi
+     */
+    private CoreThrowHandlerException createBalanceDebitException(UserIdentityContext identity, BigDecimal transferAmount) {
+        UUID userId = identity.getUserId();
+        Optional<UserBalanceEntityDTO> userBalance = mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(userId);
+        if (userBalance.isEmpty()) {
+            logFailedCommissionToWallet(identity, transferAmount, "User balance not found");
+            return new CoreThrowHandlerException("User balance not found for user: " + userId);
+        }
+
+        BigDecimal available = nullToZero(userBalance.get().getUserBalanceEntityDTOBalanceAmount());
+        logFailedCommissionToWallet(identity, transferAmount, "Insufficient commission balance");
+        return new CoreThrowHandlerException(
+                "Insufficient commission balance. Available: " + available +
+                        ", requested: " + transferAmount
+        );
     }
 
     private void saveWalletHistorical(UUID walletId, BigDecimal amount) {
         UserWalletHistoricalEntityDTO historical = UserWalletHistoricalEntityDTO.builder()
-                .userWalletHistoricalEntityDTOId(UUID.randomUUID())
+                .userWalletHistoricalEntityDTOId(idGenerator.newId())
                 .userWalletHistoricalEntityDTOUserWalletId(walletId)
                 .userWalletHistoricalEntityDTOAmount(amount)
                 .userWalletHistoricalEntityDTOCreatedDate(LocalDateTime.now())
@@ -557,14 +762,19 @@ public class TransactionServiceImpl implements TransactionService {
         return value == null ? BigDecimal.ZERO : value;
     }
 
-    private ProductsResponse toProductsResponse(ProductsEntityDTO productsEntityDTO) {
+    private ProductsResponse toProductsResponse(ProductCatalogEntry product) {
+        if (product.getCommissionsEntityDTOValue() == null) {
+            throw new CoreThrowHandlerException(
+                    "Commission value for ID products " + product.getProductEntityDTOId() + " not found"
+            );
+        }
         return ProductsResponse.builder()
-                .productEntityDTOId(productsEntityDTO.getProductEntityDTOId())
-                .productEntityDTOName(productsEntityDTO.getProductEntityDTOName())
-                .productEntityDTOCode(productsEntityDTO.getProductEntityDTOCode())
-                .productEntityDTODesc(productsEntityDTO.getProductEntityDTODesc())
-                .productEntityDTOPrice(productsEntityDTO.getProductEntityDTOPrice())
-                .commissionsEntityDTOValue(getCommissionsValue(productsEntityDTO.getProductEntityDTOId()))
+                .productEntityDTOId(product.getProductEntityDTOId())
+                .productEntityDTOName(product.getProductEntityDTOName())
+                .productEntityDTOCode(product.getProductEntityDTOCode())
+                .productEntityDTODesc(product.getProductEntityDTODesc())
+                .productEntityDTOPrice(product.getProductEntityDTOPrice())
+                .commissionsEntityDTOValue(product.getCommissionsEntityDTOValue())
                 .build();
     }
 
@@ -581,65 +791,66 @@ public class TransactionServiceImpl implements TransactionService {
         return data;
     }
 
-    private void logFailedCommissionToWallet(UUID userId, BigDecimal transferAmount, String reason) {
+    private void logFailedCommissionToWallet(UserIdentityContext identity, BigDecimal transferAmount, String reason) {
         Map<String, Object> newData = Map.of(
-                "userId", userId,
+                "userId", identity.getUserId(),
                 "transferAmount", transferAmount,
                 "status", TRANSACTION_STATUS_FAILED,
                 "reason", reason,
                 "timestamp", LocalDateTime.now()
         );
-        auditLogProducerService.logUpdate(
+        auditLogProducerService.logFailedUpdate(
                 TableNameEntityUtility.TABLE_USER_WALLET,
                 UUID.randomUUID(),
                 Collections.emptyMap(),
                 newData,
-                userId,
-                null,
-                null,
-                null,
-                RequestContextUtil.getUserAgent(),
-                RequestContextUtil.getClientIpAddress()
+                identity.getUserId(),
+                identity.getUserFullName(),
+                identity.getRoleId(),
+                identity.getRoleName(),
+                identity.getUserAgent(),
+                identity.getClientIpAddress()
         );
     }
 
+    /**
+     * Before/after image wallet user; producer hanya mengirim field yang berubah
+     */
     private void logSuccessCommissionToWallet(
-            UUID userId,
+            UserIdentityContext identity,
+            UUID walletId,
             BigDecimal transferAmount,
             BigDecimal balanceBefore,
             BigDecimal balanceAfter,
             BigDecimal walletBefore,
-            BigDecimal walletAfter,
-            String userFullname,
-            UUID roleId,
-            String roleName) {
+            BigDecimal walletAfter) {
+        Map<String, Object> oldData = Map.of(
+                "balance", balanceBefore,
+                "wallet", walletBefore
+        );
         Map<String, Object> newData = Map.of(
-                "userId", userId,
+                "balance", balanceAfter,
+                "wallet", walletAfter,
                 "transferAmount", transferAmount,
-                "status", TRANSACTION_STATUS_SUCCESS,
-                "balanceBefore", balanceBefore,
-                "balanceAfter", balanceAfter,
-                "walletBefore", walletBefore,
-                "walletAfter", walletAfter,
-                "timestamp", LocalDateTime.now()
+                "status", TRANSACTION_STATUS_SUCCESS
         );
         auditLogProducerService.logUpdate(
                 TableNameEntityUtility.TABLE_USER_WALLET,
-                UUID.randomUUID(),
-                Collections.emptyMap(),
+                walletId,
+                oldData,
                 newData,
-                userId,
-                userFullname,
-                roleId,
-                roleName,
-                RequestContextUtil.getUserAgent(),
-                RequestContextUtil.getClientIpAddress()
+                identity.getUserId(),
+                identity.getUserFullName(),
+                identity.getRoleId(),
+                identity.getRoleName(),
+                identity.getUserAgent(),
+                identity.getClientIpAddress()
         );
     }
 
-    private void validatePassword(String rawPassword, String encodedPassword, UUID userId, BigDecimal amount) {
-        if (!securityConfig.passwordEncoder().matches(rawPassword, encodedPassword)) {
-            logFailedCommissionToWallet(userId, amount, "Invalid password");
+    private void validatePassword(String rawPassword, String encodedPassword, UserIdentityContext identity, BigDecimal amount) {
+        if (!passwordVerificationService.matches(identity.getUserId(), rawPassword, encodedPassword)) {
+            logFailedCommissionToWallet(identity, amount, "Invalid password");
             throw new CoreThrowHandlerException("Invalid password");
         }
     }
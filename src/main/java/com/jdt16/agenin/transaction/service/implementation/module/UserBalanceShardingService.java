@@ -0,0 +1,127 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.model.repository.MUserBalanceRepositories;
+import com.jdt16.agenin.transaction.model.repository.MUserBalanceSlotRepositories;
+import com.jdt16.agenin.transaction.service.interfacing.module.IdGenerator;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAmountProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Kredit saldo komisi. User dengan frekuensi kredit tinggi (parent dengan banyak downline)
+ * dipromosikan ke mode sharded: kredit disebar ke beberapa slot agar tidak antri di satu baris.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserBalanceShardingService {
+
+    private static final long WINDOW_MS = 1_000L;
+
+    private final MUserBalanceRepositories mUserBalanceRepositories;
+    private final MUserBalanceSlotRepositories mUserBalanceSlotRepositories;
+    private final IdGenerator idGenerator;
+
+    private final Set<UUID> shardedUsers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<UUID, WriteRateWindow> writeRates = new ConcurrentHashMap<>();
+
+    @Value("${balance-sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Value("${balance-sharding.slot-count:8}")
+    private int slotCount;
+
+    @Value("${balance-sharding.promotion-writes-per-second:20}")
+    private int promotionWritesPerSecond;
+
+    @Value("${balance-sharding.tracker-max-users:10000}")
+    private int trackerMaxUsers;
+
+    /**
+     * Tambah saldo user. routingKey (mis. transactionId) menentukan slot tujuan pada mode sharded.
+     * Mengembalikan id baris saldo induk.
+     */
+    public UUID incrementBalance(UUID userId, BigDecimal amount, UUID routingKey) {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (shardingEnabled && isHot(userId, now)) {
+            Optional<UUID> balanceId = mUserBalanceSlotRepositories.incrementSlot(
+                    userId, Math.floorMod(routingKey.hashCode(), slotCount), amount, now);
+            if (balanceId.isPresent()) {
+                return balanceId.get();
+            }
+            // Slot belum ada (mis. transaksi promosi di-rollback), kembali ke baris induk
+            shardedUsers.remove(userId);
+        }
+
+        return mUserBalanceRepositories
+                .incrementUserBalance(idGenerator.newId(), userId, amount, now)
+                .getUserBalanceEntityDTOId();
+    }
+
+    /**
+     * Pindahkan saldo slot ke baris induk. Wajib dipanggil sebelum debit saldo.
+     */
+    public void consolidate(UUID userId) {
+        int updated = mUserBalanceSlotRepositories.consolidateSlots(userId, LocalDateTime.now());
+        if (updated > 0) {
+            log.debug("Balance slots consolidated for user {}", userId);
+        }
+    }
+
+    /**
+     * Saldo total user (induk + slot)
+     */
+    public Optional<UserBalanceAmountProjection> findTotalBalance(UUID userId) {
+        return mUserBalanceRepositories.findTotalUserBalance(userId);
+    }
+
+    private boolean isHot(UUID userId, LocalDateTime now) {
+        if (shardedUsers.contains(userId)) {
+            return true;
+        }
+
+        long nowMs = System.currentTimeMillis();
+        if (writeRates.size() >= trackerMaxUsers) {
+            writeRates.values().removeIf(window -> window.isExpired(nowMs));
+        }
+        WriteRateWindow window = writeRates.computeIfAbsent(userId, id -> new WriteRateWindow());
+        if (window.record(nowMs) < promotionWritesPerSecond) {
+            return false;
+        }
+
+        // Slot dibuat dari baris induk; user tanpa baris saldo tetap di jalur normal
+        mUserBalanceSlotRepositories.createSlots(userId, slotCount, now);
+        shardedUsers.add(userId);
+        writeRates.remove(userId);
+        log.info("User {} promoted to sharded balance ({} slots)", userId, slotCount);
+        return true;
+    }
+
+    private static final class WriteRateWindow {
+        private long windowStartMs;
+        private int count;
+
+        synchronized int record(long nowMs) {
+            if (nowMs - windowStartMs >= WINDOW_MS) {
+                windowStartMs = nowMs;
+                count = 0;
+            }
+            return ++count;
+        }
+
+        synchronized boolean isExpired(long nowMs) {
+            return nowMs - windowStartMs >= WINDOW_MS;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.jdt16.agenin.transaction.service.implementation.module;
+
+import com.jdt16.agenin.transaction.dto.entity.UserEntityDTO;
+import com.jdt16.agenin.transaction.model.repository.MUserRepositories;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-cache UserEntityDTO dengan TTL pendek dan ukuran terbatas.
+ * Hanya untuk kebutuhan identitas (nama/role); hash password tidak ikut disimpan maupun dikembalikan.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserIdentityCacheService {
+
+    private final MUserRepositories mUserRepositories;
+
+    private final ConcurrentMap<UUID, CachedUser> cachedUsers = new ConcurrentHashMap<>();
+
+    @Value("${user-identity-cache.ttl-ms:30000}")
+    private long userTtlMs;
+
+    @Value("${user-identity-cache.max-size:10000}")
+    private int maxSize;
+
+    public Optional<UserEntityDTO> findUser(UUID userId) {
+        long nowNanos = System.nanoTime();
+        CachedUser cached = cachedUsers.get(userId);
+        if (cached != null && !cached.isExpired(nowNanos)) {
+            return Optional.of(cached.userEntityDTO());
+        }
+
+        Optional<UserEntityDTO> userEntityDTO = mUserRepositories.findByUserEntityDTOId(userId)
+                .map(UserIdentityCacheService::copyOf);
+        if (userEntityDTO.isPresent()) {
+            put(userId, userEntityDTO.get(), nowNanos);
+        } else if (cached != null) {
+            cachedUsers.remove(userId, cached);
+        }
+        return userEntityDTO;
+    }
+
+    /**
+     * Hapus user dari cache, dipanggil saat data user diketahui berubah
+     */
+    public void evict(UUID userId) {
+        cachedUsers.remove(userId);
+    }
+
+    private void put(UUID userId, UserEntityDTO userEntityDTO, long nowNanos) {
+        if (cachedUsers.size() >= maxSize && !cachedUsers.containsKey(userId)) {
+            cachedUsers.values().removeIf(cached -> cached.isExpired(nowNanos));
+            // Masih penuh: buang entry sembarang agar ukuran tetap terbatas
+            Iterator<UUID> iterator = cachedUsers.keySet().iterator();
+            while (cachedUsers.size() >= maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        cachedUsers.put(userId, new CachedUser(userEntityDTO, nowNanos + TimeUnit.MILLISECONDS.toNanos(userTtlMs)));
+    }
+
+    /**
+     * Salinan detached agar entity managed tidak dibagi antar thread; hash password sengaja dikosongkan
+     */
+    private static UserEntityDTO copyOf(UserEntityDTO source) {
+        return new UserEntityDTO(
+                source.getUserEntityDTOId(),
+                source.getUserEntityDTOFullName(),
+                source.getUserEntityDTOPhoneNumber(),
+                source.getUserEntityDTOEmail(),
+                null,
+                source.getUserEntityDTORoleId(),
+                source.getUserEntityDTORoleName(),
+                source.getUserEntityDTOCreatedDate(),
+                source.getUserEntityDTOUpdatedDate()
+        );
+    }
+
+    private record CachedUser(UserEntityDTO userEntityDTO, long expiresAtNanos) {
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.jdt16.agenin.transaction.service.interfacing.module;
+
+import java.util.UUID;
+
+/**
+ * Pembuat primary key UUID untuk baris yang ditulis aplikasi (transaksi, detail rekening, historis saldo).
+ * Implementasi dipilih lewat id-generator.type.
+ */
+public interface IdGenerator {
+    UUID newId();
+}
@@ -0,0 +1,18 @@
+package com.jdt16.agenin.transaction.service.interfacing.module;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface ProductCommissionProjection {
+    UUID getProductEntityDTOId();
+
+    String getProductEntityDTOName();
+
+    String getProductEntityDTOCode();
+
+    String getProductEntityDTODesc();
+
+    BigDecimal getProductEntityDTOPrice();
+
+    BigDecimal getCommissionsEntityDTOValue();
+}
@@ -1,24 +1,47 @@
 package com.jdt16.agenin.transaction.service.interfacing.module;
 
+import com.jdt16.agenin.transaction.dto.cache.SerializedResponseBody;
 import com.jdt16.agenin.transaction.dto.entity.TransactionOpenBankAccountEntityDTO;
 import com.jdt16.agenin.transaction.dto.request.CommissionToWalletRequest;
 import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
 import com.jdt16.agenin.transaction.dto.response.*;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface TransactionService {
     @Transactional
     RestApiResponse<TransactionResponse> inquiry(UUID userId, UUID productId, TransactionRequest transactionRequest);
 
+    @Transactional
+    RestApiResponse<TransactionResponse> inquiry(UUID transactionId, LocalDateTime transactionDate, UUID userId,
+                                                 UUID productId, TransactionRequest transactionRequest);
+
+    void recordFailedInquiry(UUID transactionId, LocalDateTime transactionDate, UUID userId, UUID productId);
+
+    RestApiResponse<InquiryStatusResponse> getInquiryStatus(UUID userId, UUID transactionId);
+
     RestApiResponse<List<ProductsResponse>> getListProducts();
 
+    SerializedResponseBody getListProductsBody();
+
     RestApiResponse<List<CustomerOpenBankAccountResponse>> getAllTransactionsByUser(UUID userId);
 
+    RestApiResponse<CustomerOpenBankAccountResponse> getTransactionByCode(UUID userId, String transactionCode);
+
+    RestApiResponse<CustomerPageResponse> getTransactionsByUserPage(UUID userId, int limit, String cursor);
+
+    long exportTransactionsByUser(UUID userId, OutputStream outputStream) throws IOException;
+
     RestApiResponse<UserBalanceResponse> transactionCommissionToWallet(UUID userId, CommissionToWalletRequest commissionToWalletRequest);
 
     RestApiResponse<UserBalanceAndWalletResponse> getUserBalanceAndWallet(UUID userId);
+
+    Optional<String> getUserBalanceAndWalletVersion(UUID userId);
 }
@@ -0,0 +1,13 @@
+package com.jdt16.agenin.transaction.service.interfacing.module;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface UserBalanceAmountProjection {
+    UUID getUserBalanceEntityDTOId();
+
+    BigDecimal getUserBalanceEntityDTOBalanceAmount();
+
+    LocalDateTime getUserBalanceEntityDTOBalanceLastUpdate();
+}
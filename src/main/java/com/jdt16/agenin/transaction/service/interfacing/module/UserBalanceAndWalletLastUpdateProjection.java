@@ -0,0 +1,9 @@
+package com.jdt16.agenin.transaction.service.interfacing.module;
+
+import java.time.LocalDateTime;
+
+public interface UserBalanceAndWalletLastUpdateProjection {
+    LocalDateTime getUserBalanceEntityDTOBalanceLastUpdate();
+
+    LocalDateTime getUserWalletEntityDTOLastUpdate();
+}
@@ -0,0 +1,14 @@
+package com.jdt16.agenin.transaction.service.interfacing.module;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface UserBalanceAndWalletSnapshotProjection {
+    BigDecimal getUserBalanceEntityDTOBalanceAmount();
+
+    LocalDateTime getUserBalanceEntityDTOBalanceLastUpdate();
+
+    BigDecimal getUserWalletEntityDTOAmount();
+
+    LocalDateTime getUserWalletEntityDTOLastUpdate();
+}
@@ -0,0 +1,352 @@
+package com.jdt16.agenin.transaction.utility;
+
+import com.jdt16.agenin.transaction.dto.request.LogEnvelopeRequestDTO;
+import com.jdt16.agenin.transaction.dto.request.LogEventRequestDTO;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encoding biner audit log (versi 1), pengganti JSON di topic audit.
+ * <p>
+ * Layout: byte versi, lalu field LogRequestDTO dalam urutan tetap (tanpa nama field),
+ * lalu oldData dan newData. Byte {@link #ENVELOPE_VERSION} menandai {@link LogEnvelopeRequestDTO}:
+ * konteks user sekali, lalu jumlah event dan field per event.
+ * Setiap nilai diawali tag tipe: UUID 16 byte mentah,
+ * timestamp epoch micros (UTC), decimal unscaled + scale, integer varint zigzag.
+ * Key map dan string yang sering muncul dikodekan sebagai indeks kamus.
+ * Kamus hanya boleh ditambah di akhir; perubahan lain wajib menaikkan versi.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class AuditLogBinaryCodec {
+    public static final byte VERSION = 1;
+    public static final byte ENVELOPE_VERSION = 2;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_DICTIONARY = 2;
+    private static final byte TAG_UUID = 3;
+    private static final byte TAG_INT = 4;
+    private static final byte TAG_LONG = 5;
+    private static final byte TAG_DECIMAL = 6;
+    private static final byte TAG_TIMESTAMP = 7;
+    private static final byte TAG_TRUE = 8;
+    private static final byte TAG_FALSE = 9;
+    private static final byte TAG_DOUBLE = 10;
+    private static final byte TAG_MAP = 11;
+    private static final byte TAG_LIST = 12;
+
+    private static final List<String> DICTIONARY = List.of(
+            "CREATE", "UPDATE", "DELETE", "SUCCESS", "FAILED",
+            TableNameEntityUtility.TABLE_TRANSACTION,
+            TableNameEntityUtility.TABLE_USERS_REFERRAL,
+            TableNameEntityUtility.TABLE_USER_WALLET,
+            TableNameEntityUtility.TABLE_USER_BALANCE,
+            "AGENT", "SUB_AGENT",
+            "id", "transactionCode", "userId", "productId", "productName", "productPrice", "date", "status",
+            "referenceUserId", "inviteeUserId", "commissionValue", "transactionId", "timestamp", "error",
+            "transferAmount", "reason", "balanceBefore", "balanceAfter", "walletBefore", "walletAfter"
+    );
+
+    private static final Map<String, Integer> DICTIONARY_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < DICTIONARY.size(); i++) {
+            DICTIONARY_INDEX.put(DICTIONARY.get(i), i);
+        }
+    }
+
+    public static byte[] encode(LogRequestDTO logRequest) {
+        Writer writer = new Writer();
+        writer.out.write(VERSION);
+        writer.writeValue(logRequest.getLogEntityDTOAuditLogsId());
+        writer.writeValue(logRequest.getLogEntityDTOTableName());
+        writer.writeValue(logRequest.getLogEntityDTORecordId());
+        writer.writeValue(logRequest.getLogEntityDTOAction());
+        writer.writeValue(logRequest.getLogEntityDTOUserAgent());
+        writer.writeValue(logRequest.getLogEntityDTOIpAddress());
+        writer.writeValue(logRequest.getLogEntityDTOChangedAt());
+        writer.writeValue(logRequest.getLogEntityDTORoleId());
+        writer.writeValue(logRequest.getLogEntityDTORoleName());
+        writer.writeValue(logRequest.getLogEntityDTOUserId());
+        writer.writeValue(logRequest.getLogEntityDTOUserFullname());
+        writer.writeValue(logRequest.getLogEntityDTOOldData());
+        writer.writeValue(logRequest.getLogEntityDTONewData());
+        return writer.out.toByteArray();
+    }
+
+    public static byte[] encodeEnvelope(LogEnvelopeRequestDTO envelope) {
+        Writer writer = new Writer();
+        writer.out.write(ENVELOPE_VERSION);
+        writer.writeValue(envelope.getLogEnvelopeDTOId());
+        writer.writeValue(envelope.getLogEnvelopeDTOUserId());
+        writer.writeValue(envelope.getLogEnvelopeDTOUserFullname());
+        writer.writeValue(envelope.getLogEnvelopeDTORoleId());
+        writer.writeValue(envelope.getLogEnvelopeDTORoleName());
+        writer.writeValue(envelope.getLogEnvelopeDTOUserAgent());
+        writer.writeValue(envelope.getLogEnvelopeDTOIpAddress());
+        writer.writeVarLong(envelope.getLogEnvelopeDTOEvents().size());
+        for (LogEventRequestDTO event : envelope.getLogEnvelopeDTOEvents()) {
+            writer.writeValue(event.getLogEventDTOAuditLogsId());
+            writer.writeValue(event.getLogEventDTOTableName());
+            writer.writeValue(event.getLogEventDTORecordId());
+            writer.writeValue(event.getLogEventDTOAction());
+            writer.writeValue(event.getLogEventDTOChangedAt());
+            writer.writeValue(event.getLogEventDTOOldData());
+            writer.writeValue(event.getLogEventDTONewData());
+        }
+        return writer.out.toByteArray();
+    }
+
+    public static boolean isEnvelope(byte[] data) {
+        return data.length > 0 && data[0] == ENVELOPE_VERSION;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static LogEnvelopeRequestDTO decodeEnvelope(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte version = buffer.get();
+        if (version != ENVELOPE_VERSION) {
+            throw new IllegalArgumentException("Unsupported audit envelope encoding version: " + version);
+        }
+        LogEnvelopeRequestDTO envelope = LogEnvelopeRequestDTO.builder()
+                .logEnvelopeDTOId((UUID) readValue(buffer))
+                .logEnvelopeDTOUserId((UUID) readValue(buffer))
+                .logEnvelopeDTOUserFullname((String) readValue(buffer))
+                .logEnvelopeDTORoleId((UUID) readValue(buffer))
+                .logEnvelopeDTORoleName((String) readValue(buffer))
+                .logEnvelopeDTOUserAgent((String) readValue(buffer))
+                .logEnvelopeDTOIpAddress((String) readValue(buffer))
+                .build();
+        int eventCount = (int) readVarLong(buffer);
+        for (int i = 0; i < eventCount; i++) {
+            envelope.getLogEnvelopeDTOEvents().add(LogEventRequestDTO.builder()
+                    .logEventDTOAuditLogsId((UUID) readValue(buffer))
+                    .logEventDTOTableName((String) readValue(buffer))
+                    .logEventDTORecordId((UUID) readValue(buffer))
+                    .logEventDTOAction((String) readValue(buffer))
+                    .logEventDTOChangedAt((LocalDateTime) readValue(buffer))
+                    .logEventDTOOldData((Map<String, Object>) readValue(buffer))
+                    .logEventDTONewData((Map<String, Object>) readValue(buffer))
+                    .build());
+        }
+        return envelope;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static LogRequestDTO decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported audit log encoding version: " + version);
+        }
+        return LogRequestDTO.builder()
+                .logEntityDTOAuditLogsId((UUID) readValue(buffer))
+                .logEntityDTOTableName((String) readValue(buffer))
+                .logEntityDTORecordId((UUID) readValue(buffer))
+                .logEntityDTOAction((String) readValue(buffer))
+                .logEntityDTOUserAgent((String) readValue(buffer))
+                .logEntityDTOIpAddress((String) readValue(buffer))
+                .logEntityDTOChangedAt((LocalDateTime) readValue(buffer))
+                .logEntityDTORoleId((UUID) readValue(buffer))
+                .logEntityDTORoleName((String) readValue(buffer))
+                .logEntityDTOUserId((UUID) readValue(buffer))
+                .logEntityDTOUserFullname((String) readValue(buffer))
+                .logEntityDTOOldData((Map<String, Object>) readValue(buffer))
+                .logEntityDTONewData((Map<String, Object>) readValue(buffer))
+                .build();
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_STRING -> readString(buffer);
+            case TAG_DICTIONARY -> DICTIONARY.get((int) readVarLong(buffer));
+            case TAG_UUID -> new UUID(buffer.getLong(), buffer.getLong());
+            case TAG_INT -> (int) zigZagDecode(readVarLong(buffer));
+            case TAG_LONG -> zigZagDecode(readVarLong(buffer));
+            case TAG_DECIMAL -> readDecimal(buffer);
+            case TAG_TIMESTAMP -> fromEpochMicros(zigZagDecode(readVarLong(buffer)));
+            case TAG_TRUE -> Boolean.TRUE;
+            case TAG_FALSE -> Boolean.FALSE;
+            case TAG_DOUBLE -> buffer.getDouble();
+            case TAG_MAP -> readMap(buffer);
+            case TAG_LIST -> readList(buffer);
+            default -> throw new IllegalArgumentException("Unknown audit log value tag: " + tag);
+        };
+    }
+
+    private static Map<String, Object> readMap(ByteBuffer buffer) {
+        int size = (int) readVarLong(buffer);
+        Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            map.put(readKey(buffer), readValue(buffer));
+        }
+        return map;
+    }
+
+    private static List<Object> readList(ByteBuffer buffer) {
+        int size = (int) readVarLong(buffer);
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readValue(buffer));
+        }
+        return list;
+    }
+
+    /**
+     * Key: varint 0 = string inline, n > 0 = kamus[n - 1]
+     */
+    private static String readKey(ByteBuffer buffer) {
+        int reference = (int) readVarLong(buffer);
+        return reference == 0 ? readString(buffer) : DICTIONARY.get(reference - 1);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[(int) readVarLong(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer buffer) {
+        int scale = (int) zigZagDecode(readVarLong(buffer));
+        byte[] unscaled = new byte[(int) readVarLong(buffer)];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    private static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, dateTime.toInstant(ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime fromEpochMicros(long epochMicros) {
+        return LocalDateTime.ofInstant(Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS), ZoneOffset.UTC);
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+        void writeValue(Object value) {
+            if (value == null) {
+                out.write(TAG_NULL);
+            } else if (value instanceof String string) {
+                Integer index = DICTIONARY_INDEX.get(string);
+                if (index != null) {
+                    out.write(TAG_DICTIONARY);
+                    writeVarLong(index);
+                } else {
+                    out.write(TAG_STRING);
+                    writeString(string);
+                }
+            } else if (value instanceof UUID uuid) {
+                out.write(TAG_UUID);
+                writeFixedLong(uuid.getMostSignificantBits());
+                writeFixedLong(uuid.getLeastSignificantBits());
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                out.write(TAG_INT);
+                writeVarLong(zigZagEncode(((Number) value).longValue()));
+            } else if (value instanceof Long longValue) {
+                out.write(TAG_LONG);
+                writeVarLong(zigZagEncode(longValue));
+            } else if (value instanceof BigDecimal decimal) {
+                out.write(TAG_DECIMAL);
+                writeVarLong(zigZagEncode(decimal.scale()));
+                byte[] unscaled = decimal.unscaledValue().toByteArray();
+                writeVarLong(unscaled.length);
+                out.writeBytes(unscaled);
+            } else if (value instanceof LocalDateTime dateTime) {
+                out.write(TAG_TIMESTAMP);
+                writeVarLong(zigZagEncode(toEpochMicros(dateTime)));
+            } else if (value instanceof Boolean bool) {
+                out.write(bool ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof Double || value instanceof Float) {
+                out.write(TAG_DOUBLE);
+                writeFixedLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+            } else if (value instanceof Map<?, ?> map) {
+                out.write(TAG_MAP);
+                writeVarLong(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeKey(String.valueOf(entry.getKey()));
+                    writeValue(entry.getValue());
+                }
+            } else if (value instanceof Collection<?> collection) {
+                out.write(TAG_LIST);
+                writeVarLong(collection.size());
+                for (Object element : collection) {
+                    writeValue(element);
+                }
+            } else {
+                // Tipe lain (enum, BigInteger, dll.) dikirim sebagai teks seperti di JSON
+                writeValue(value.toString());
+            }
+        }
+
+        private void writeKey(String key) {
+            Integer index = DICTIONARY_INDEX.get(key);
+            if (index != null) {
+                writeVarLong(index + 1L);
+            } else {
+                writeVarLong(0);
+                writeString(key);
+            }
+        }
+
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        private void writeFixedLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long zigZagEncode(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+}
@@ -41,6 +41,14 @@ public class ColumnNameEntityUtility {
     public static final String COLUMN_USER_BALANCE_AMOUNT = "user_balance_amount";
     public static final String COLUMN_USER_BALANCE_LAST_UPDATE = "user_balance_last_updated";
 
+    /* M_USER_BALANCE_SLOT */
+    public static final String COLUMN_USER_BALANCE_SLOT_ID = "user_balance_slot_id";
+    public static final String COLUMN_USER_BALANCE_SLOT_USER_ID = "id_user";
+    public static final String COLUMN_USER_BALANCE_SLOT_BALANCE_ID = "user_balance_id";
+    public static final String COLUMN_USER_BALANCE_SLOT_INDEX = "slot_index";
+    public static final String COLUMN_USER_BALANCE_SLOT_AMOUNT = "slot_amount";
+    public static final String COLUMN_USER_BALANCE_SLOT_LAST_UPDATE = "slot_last_updated";
+
     /* M_USERS_BALANCE_HISTORICAL */
     public static final String COLUMN_USERS_BALANCE_HISTORICAL_ID = "users_balance_historical_id";
     public static final String COLUMN_USERS_BALANCE_HISTORICAL_AMOUNT = "balance_amount";
@@ -106,4 +114,11 @@ public class ColumnNameEntityUtility {
     public static final String COLUMN_LOGGING_ROLE_NAME = "role_name";
     public static final String COLUMN_LOGGING_USER_ID = "id_user";
     public static final String COLUMN_LOGGING_USER_FULLNAME = "user_fullname";
+
+    /* T_AUDIT_OUTBOX */
+    public static final String COLUMN_AUDIT_OUTBOX_ID = "audit_outbox_id";
+    public static final String COLUMN_AUDIT_OUTBOX_MESSAGE_KEY = "message_key";
+    public static final String COLUMN_AUDIT_OUTBOX_PAYLOAD = "payload";
+    public static final String COLUMN_AUDIT_OUTBOX_TOPIC = "message_topic";
+    public static final String COLUMN_AUDIT_OUTBOX_CREATED_AT = "created_at";
 }
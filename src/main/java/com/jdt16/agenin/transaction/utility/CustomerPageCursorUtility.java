@@ -0,0 +1,43 @@
+package com.jdt16.agenin.transaction.utility;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encode/decode cursor opaque (transactionDate, transactionId) untuk keyset pagination customer
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CustomerPageCursorUtility {
+    private static final String CURSOR_VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    public static String encode(LocalDateTime transactionDate, UUID transactionId) {
+        String raw = CURSOR_VERSION + SEPARATOR + transactionDate + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException jika cursor tidak valid
+     */
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !CURSOR_VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Cursor(LocalDateTime.parse(parts[1]), UUID.fromString(parts[2]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public record Cursor(LocalDateTime transactionDate, UUID transactionId) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.jdt16.agenin.transaction.utility;
 
+import com.jdt16.agenin.transaction.dto.context.RequestMetadataContext;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -7,48 +8,30 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 public class RequestContextUtil {
 
     /**
-     * Extract client IP address dari HTTP request
-     * Memperhitungkan X-FORWARDED-FOR header untuk load balancer/proxy
+     * Metadata request aktif: hasil parse filter ({@link RequestMetadataHolder}),
+     * atau parse langsung dari request servlet jika filter tidak terpasang
      */
-    public static String getClientIpAddress() {
-        HttpServletRequest request = getCurrentHttpRequest();
-        if (request == null) {
-            return "UNKNOWN";
-        }
-
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("X-Real-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-
-        // Ambil IP pertama jika multiple (comma-separated)
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
+    public static RequestMetadataContext getRequestMetadata() {
+        RequestMetadataContext metadata = RequestMetadataHolder.current();
+        if (metadata != RequestMetadataContext.EMPTY) {
+            return metadata;
         }
+        HttpServletRequest request = getCurrentHttpRequest();
+        return request != null ? RequestMetadataContext.from(request) : RequestMetadataContext.EMPTY;
+    }
 
-        return ip != null ? ip : "UNKNOWN";
+    /**
+     * Client IP address, memperhitungkan X-FORWARDED-FOR header untuk load balancer/proxy
+     */
+    public static String getClientIpAddress() {
+        return getRequestMetadata().getClientIpAddress();
     }
 
     /**
-     * Extract User-Agent dari HTTP request
+     * User-Agent dari HTTP request
      */
     public static String getUserAgent() {
-        HttpServletRequest request = getCurrentHttpRequest();
-        if (request == null) {
-            return "UNKNOWN";
-        }
-
-        String userAgent = request.getHeader("User-Agent");
-        return userAgent != null ? userAgent : "UNKNOWN";
+        return getRequestMetadata().getUserAgent();
     }
 
     /**
@@ -6,4 +6,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class RequestHeaderUtility {
     public static final String HEADER_ACCEPTED_LANGUAGE = "Accept-Language";
+    public static final String HEADER_USER_AGENT = "User-Agent";
+    public static final String HEADER_USER_ID = "X-USER-ID";
+    public static final String HEADER_FORWARDED_FOR = "X-Forwarded-For";
+    public static final String HEADER_REAL_IP = "X-Real-IP";
+    public static final String HEADER_PROXY_CLIENT_IP = "Proxy-Client-IP";
+    public static final String HEADER_WL_PROXY_CLIENT_IP = "WL-Proxy-Client-IP";
 }
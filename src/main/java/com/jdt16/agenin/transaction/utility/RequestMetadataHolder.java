@@ -0,0 +1,70 @@
+package com.jdt16.agenin.transaction.utility;
+
+import com.jdt16.agenin.transaction.dto.context.RequestMetadataContext;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Penyimpanan {@link RequestMetadataContext} per thread. Diisi oleh filter,
+ * dan harus diteruskan eksplisit lewat {@link #wrap(Runnable)} / {@link #wrap(Callable)} saat pindah thread.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RequestMetadataHolder {
+
+    private static final ThreadLocal<RequestMetadataContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Metadata request aktif; {@link RequestMetadataContext#EMPTY} di luar request
+     */
+    public static RequestMetadataContext current() {
+        RequestMetadataContext metadata = CURRENT.get();
+        return metadata != null ? metadata : RequestMetadataContext.EMPTY;
+    }
+
+    public static void set(RequestMetadataContext metadata) {
+        CURRENT.set(metadata);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Bungkus task agar berjalan dengan metadata thread pemanggil, lalu kembalikan state thread pekerja
+     */
+    public static Runnable wrap(Runnable task) {
+        RequestMetadataContext captured = CURRENT.get();
+        return () -> {
+            RequestMetadataContext previous = CURRENT.get();
+            apply(captured);
+            try {
+                task.run();
+            } finally {
+                apply(previous);
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        RequestMetadataContext captured = CURRENT.get();
+        return () -> {
+            RequestMetadataContext previous = CURRENT.get();
+            apply(captured);
+            try {
+                return task.call();
+            } finally {
+                apply(previous);
+            }
+        };
+    }
+
+    private static void apply(RequestMetadataContext metadata) {
+        if (metadata == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(metadata);
+        }
+    }
+}
@@ -5,4 +5,6 @@ public class RequestParamDefaultUtility {
     public static final String PAGE_SIZE = "1";
     public static final String USER_PAGE_SORT_BY = "userEntityDTOId";
     public static final String USER_PAGE_SORT_DIRECTION = "false";
+    public static final String CUSTOMER_PAGE_LIMIT = "20";
+    public static final int CUSTOMER_PAGE_MAX_LIMIT = 100;
 }
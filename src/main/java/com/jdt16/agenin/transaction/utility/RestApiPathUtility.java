@@ -11,6 +11,7 @@ public class RestApiPathUtility {
     public static final String API_PATH_GET = "/get";
     public static final String API_PATH_USER_PAGINATION = "/page";
     public static final String API_PATH_BY_ID = "/{id}";
+    public static final String API_PATH_BY_CODE = "/{code}";
     public static final String API_PATH_CREATE = "/create";
     public static final String API_PATH_MODULE_LOGIN = "/login";
     public static final String API_PATH_MODULE_PROFILE = "/profile";
@@ -18,7 +19,10 @@ public class RestApiPathUtility {
     public static final String API_PATH_TRANSACTION = "/transaction";
     public static final String API_PATH_MOCK_TRANSACTION_OPEN_BANK_ACCOUNT = "/mock-open-bank-account";
     public static final String API_PATH_INQUIRY = "/inquiry";
+    public static final String API_PATH_INQUIRY_STATUS = "/inquiry-status";
     public static final String API_PATH_GET_CUSTOMER_LIST = "/customers";
+    public static final String API_PATH_EXPORT = "/export";
     public static final String API_PATH_GET_PRODUCTS = "/products";
     public static final String API_PATH_GET_BALANCE_AND_WALLET = "/balance-and-wallet";
+    public static final String API_PATH_COMMISSION_ROLLUP = "/commission-rollup";
 }
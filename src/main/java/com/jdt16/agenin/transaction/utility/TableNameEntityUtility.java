@@ -10,6 +10,7 @@ public class TableNameEntityUtility {
     public static final String TABLE_USER_REFERRAL_CODE = "T_USER_REFERRAL_CODE";
     public static final String TABLE_USERS_REFERRAL = "T_USERS_REFERRAL";
     public static final String TABLE_USER_BALANCE = "M_USER_BALANCE";
+    public static final String TABLE_USER_BALANCE_SLOT = "M_USER_BALANCE_SLOT";
     public static final String TABLE_USER_BALANCE_HISTORICAL = "T_USERS_BALANCE_HISTORICAL";
     public static final String TABLE_USER_WALLET = "M_USER_WALLET";
     public static final String TABLE_USER_WALLET_HISTORICAL = "T_USERS_WALLET_HISTORICAL";
@@ -18,4 +19,5 @@ public class TableNameEntityUtility {
     public static final String TABLE_TRANSACTION = "M_TRANSACTION";
     public static final String TABLE_TRANSACTION_OPEN_BANK_ACCOUNT = "T_TRANSACTION_OPEN_BANK_ACCOUNT";
     public static final String TABLE_T_AUDIT_LOGS = "AUDIT_LOGS";
+    public static final String TABLE_AUDIT_OUTBOX = "T_AUDIT_OUTBOX";
 }
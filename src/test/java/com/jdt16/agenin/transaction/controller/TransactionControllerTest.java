@@ -2,9 +2,15 @@ package com.jdt16.agenin.transaction.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jdt16.agenin.transaction.controller.module.TransactionController;
+import com.jdt16.agenin.transaction.dto.cache.SerializedResponseBody;
+import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
+import com.jdt16.agenin.transaction.dto.exception.InquiryPendingException;
 import com.jdt16.agenin.transaction.dto.request.CommissionToWalletRequest;
 import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
 import com.jdt16.agenin.transaction.dto.response.*;
+import com.jdt16.agenin.transaction.service.implementation.module.AsyncInquiryService;
+import com.jdt16.agenin.transaction.service.implementation.module.CommissionRollupQueryService;
+import com.jdt16.agenin.transaction.service.implementation.module.InquiryGroupCommitService;
 import com.jdt16.agenin.transaction.service.interfacing.module.TransactionService;
 import com.jdt16.agenin.transaction.utility.RestApiPathUtility;
 import org.junit.jupiter.api.DisplayName;
@@ -16,17 +22,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -46,6 +63,15 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private AsyncInquiryService asyncInquiryService;
+
+    @MockBean
+    private CommissionRollupQueryService commissionRollupQueryService;
+
+    @MockBean
+    private InquiryGroupCommitService inquiryGroupCommitService;
+
     private static final String HEADER_USER = "X-USER-ID";
     private static final String HEADER_PRODUCT = "X-PRODUCT-ID";
 
@@ -99,6 +125,137 @@ class TransactionControllerTest {
             verify(transactionService).inquiry(eq(userId), eq(productId), captor.capture());
         }
 
+        @Test
+        @DisplayName("202: async=true queues the inquiry and points to the status URL")
+        void inquiry_async_accepted() throws Exception {
+            UUID userId = UUID.randomUUID();
+            UUID productId = UUID.randomUUID();
+            UUID transactionId = UUID.randomUUID();
+            String statusUrl = AsyncInquiryService.statusUrl(transactionId);
+
+            when(asyncInquiryService.isEnabled()).thenReturn(true);
+            when(asyncInquiryService.submitInquiry(eq(userId), eq(productId), any(TransactionRequest.class)))
+                    .thenReturn(RestApiResponse.<InquiryStatusResponse>builder()
+                            .restApiResponseCode(202)
+                            .restApiResponseMessage("ACCEPTED")
+                            .restApiResponseResults(InquiryStatusResponse.builder()
+                                    .inquiryStatusTransactionId(transactionId)
+                                    .inquiryStatusStatus("PENDING")
+                                    .inquiryStatusUrl(statusUrl)
+                                    .build())
+                            .build());
+
+            mockMvc.perform(post(api(RestApiPathUtility.API_PATH_MOCK_TRANSACTION_OPEN_BANK_ACCOUNT))
+                            .param("async", "true")
+                            .header(HEADER_USER, userId.toString())
+                            .header(HEADER_PRODUCT, productId.toString())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string(HttpHeaders.LOCATION, statusUrl))
+                    .andExpect(jsonPath("$.results.status").value("PENDING"));
+
+            verifyNoInteractions(transactionService);
+        }
+
+        @Test
+        @DisplayName("503: async=true while the broker does not acknowledge the command")
+        void inquiry_async_brokerUnavailable() throws Exception {
+            UUID userId = UUID.randomUUID();
+            UUID productId = UUID.randomUUID();
+            when(asyncInquiryService.isEnabled()).thenReturn(true);
+            when(asyncInquiryService.submitInquiry(eq(userId), eq(productId), any(TransactionRequest.class)))
+                    .thenThrow(new RejectedExecutionException("Inquiry could not be queued, please retry"));
+
+            mockMvc.perform(post(api(RestApiPathUtility.API_PATH_MOCK_TRANSACTION_OPEN_BANK_ACCOUNT))
+                            .param("async", "true")
+                            .header(HEADER_USER, userId.toString())
+                            .header(HEADER_PRODUCT, productId.toString())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        }
+
+        @Test
+        @DisplayName("200: async=true falls back to the synchronous path when async mode is disabled")
+        void inquiry_async_disabled_runsSynchronously() throws Exception {
+            UUID userId = UUID.randomUUID();
+            UUID productId = UUID.randomUUID();
+            when(asyncInquiryService.isEnabled()).thenReturn(false);
+            when(transactionService.inquiry(eq(userId), eq(productId), any(TransactionRequest.class)))
+                    .thenReturn((RestApiResponse<TransactionResponse>) okResponseTyped(mock(TransactionResponse.class)));
+
+            mockMvc.perform(post(api(RestApiPathUtility.API_PATH_MOCK_TRANSACTION_OPEN_BANK_ACCOUNT))
+                            .param("async", "true")
+                            .header(HEADER_USER, userId.toString())
+                            .header(HEADER_PRODUCT, productId.toString())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isOk());
+
+            verify(asyncInquiryService, never()).submitInquiry(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("200: group-commit mode routes the inquiry through the batcher")
+        void inquiry_groupCommit_usesBatcher() throws Exception {
+            UUID userId = UUID.randomUUID();
+            UUID productId = UUID.randomUUID();
+            when(inquiryGroupCommitService.isEnabled()).thenReturn(true);
+            when(inquiryGroupCommitService.inquiry(eq(userId), eq(productId), any(TransactionRequest.class)))
+                    .thenReturn((RestApiResponse<TransactionResponse>) okResponseTyped(mock(TransactionResponse.class)));
+
+            mockMvc.perform(post(api(RestApiPathUtility.API_PATH_MOCK_TRANSACTION_OPEN_BANK_ACCOUNT))
+                            .header(HEADER_USER, userId.toString())
+                            .header(HEADER_PRODUCT, productId.toString())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isOk());
+
+            verify(transactionService, never()).inquiry(any(UUID.class), any(UUID.class), any());
+        }
+
+        @Test
+        @DisplayName("202: group-commit await timeout points to the status URL instead of failing")
+        void inquiry_groupCommitTimeout_accepted() throws Exception {
+            UUID userId = UUID.randomUUID();
+            UUID productId = UUID.randomUUID();
+            UUID transactionId = UUID.randomUUID();
+            when(inquiryGroupCommitService.isEnabled()).thenReturn(true);
+            when(inquiryGroupCommitService.inquiry(eq(userId), eq(productId), any(TransactionRequest.class)))
+                    .thenThrow(new InquiryPendingException(transactionId));
+
+            mockMvc.perform(post(api(RestApiPathUtility.API_PATH_MOCK_TRANSACTION_OPEN_BANK_ACCOUNT))
+                            .header(HEADER_USER, userId.toString())
+                            .header(HEADER_PRODUCT, productId.toString())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string(HttpHeaders.LOCATION,
+                            api(RestApiPathUtility.API_PATH_INQUIRY_STATUS + "/" + transactionId)))
+                    .andExpect(jsonPath("$.code").value(202))
+                    .andExpect(jsonPath("$.results.status").value("PENDING"))
+                    .andExpect(jsonPath("$.results.transactionId").value(transactionId.toString()));
+        }
+
+        @Test
+        @DisplayName("200: inquiry status is read for the calling user")
+        void inquiryStatus_returnsStatus() throws Exception {
+            UUID userId = UUID.randomUUID();
+            UUID transactionId = UUID.randomUUID();
+            when(transactionService.getInquiryStatus(eq(userId), eq(transactionId)))
+                    .thenReturn((RestApiResponse<InquiryStatusResponse>) okResponseTyped(InquiryStatusResponse.builder()
+                            .inquiryStatusTransactionId(transactionId)
+                            .inquiryStatusStatus("SUCCESS")
+                            .build()));
+
+            mockMvc.perform(get(AsyncInquiryService.statusUrl(transactionId))
+                            .header(HEADER_USER, userId.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.results.status").value("SUCCESS"));
+        }
+
         @Test
         @DisplayName("500: missing X-USER-ID header (mapped by Global Advice)")
         void inquiry_missing_user_header() throws Exception {
@@ -135,16 +292,36 @@ class TransactionControllerTest {
         @Test
         @DisplayName("200: success")
         void get_product_list_success() throws Exception {
-            ProductsResponse productsResponse = Mockito.mock(ProductsResponse.class);
+            ProductsResponse productsResponse = ProductsResponse.builder()
+                    .productEntityDTOId(UUID.randomUUID())
+                    .productEntityDTOName("Open Bank Account BCA")
+                    .build();
+            byte[] body = objectMapper.writeValueAsBytes(okResponseTyped(List.of(productsResponse)));
 
-            when(transactionService.getListProducts()).thenReturn((RestApiResponse<List<ProductsResponse>>) okResponseTyped(List.of(productsResponse)));
+            when(transactionService.getListProductsBody()).thenReturn(new SerializedResponseBody(body, "v1"));
 
             mockMvc.perform(get(api(RestApiPathUtility.API_PATH_GET_PRODUCTS)))
                     .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                     .andExpect(jsonPath("$.code").value(200))
-                    .andExpect(jsonPath("$.results").isArray());
+                    .andExpect(jsonPath("$.results").isArray())
+                    .andExpect(jsonPath("$.results[0].productName").value("Open Bank Account BCA"))
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""));
 
-            verify(transactionService).getListProducts();
+            verify(transactionService).getListProductsBody();
+        }
+
+        @Test
+        @DisplayName("304: If-None-Match matches catalog version → empty body")
+        void get_product_list_notModified() throws Exception {
+            when(transactionService.getListProductsBody())
+                    .thenReturn(new SerializedResponseBody("[]".getBytes(StandardCharsets.UTF_8), "v1"));
+
+            mockMvc.perform(get(api(RestApiPathUtility.API_PATH_GET_PRODUCTS))
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                    .andExpect(content().bytes(new byte[0]));
         }
     }
 
@@ -172,6 +349,73 @@ class TransactionControllerTest {
         }
 
 
+        @Test
+        @DisplayName("200: paginated – forwards limit & cursor to service")
+        void get_customer_page_success() throws Exception {
+            UUID userId = UUID.randomUUID();
+            CustomerPageResponse customerPageResponse = CustomerPageResponse.builder()
+                    .customerPageResponseCustomers(List.of())
+                    .customerPageResponseNextCursor("next")
+                    .build();
+
+            when(transactionService.getTransactionsByUserPage(eq(userId), eq(50), eq("abc")))
+                    .thenReturn((RestApiResponse<CustomerPageResponse>) okResponseTyped(customerPageResponse));
+
+            mockMvc.perform(get(api(RestApiPathUtility.API_PATH_GET_CUSTOMER_LIST + RestApiPathUtility.API_PATH_USER_PAGINATION))
+                            .header(HEADER_USER, userId.toString())
+                            .param("limit", "50")
+                            .param("cursor", "abc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.results.nextCursor").value("next"))
+                    .andExpect(jsonPath("$.results.customers").isArray());
+
+            verify(transactionService).getTransactionsByUserPage(eq(userId), eq(50), eq("abc"));
+        }
+
+        @Test
+        @DisplayName("400: invalid cursor (mapped by Global Advice)")
+        void get_customer_page_invalid_cursor() throws Exception {
+            UUID userId = UUID.randomUUID();
+            when(transactionService.getTransactionsByUserPage(eq(userId), eq(20), eq("bad")))
+                    .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+            mockMvc.perform(get(api(RestApiPathUtility.API_PATH_GET_CUSTOMER_LIST + RestApiPathUtility.API_PATH_USER_PAGINATION))
+                            .header(HEADER_USER, userId.toString())
+                            .param("cursor", "bad"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("200: export streams NDJSON (gzip optional)")
+        void export_customer_list_gzip() throws Exception {
+            UUID userId = UUID.randomUUID();
+            when(transactionService.exportTransactionsByUser(eq(userId), any(OutputStream.class)))
+                    .thenAnswer(inv -> {
+                        OutputStream outputStream = inv.getArgument(1);
+                        outputStream.write("{\"productName\":\"A\"}\n".getBytes(StandardCharsets.UTF_8));
+                        return 1L;
+                    });
+
+            MvcResult asyncResult = mockMvc.perform(get(api(RestApiPathUtility.API_PATH_GET_CUSTOMER_LIST + RestApiPathUtility.API_PATH_EXPORT))
+                            .header(HEADER_USER, userId.toString())
+                            .param("gzip", "true"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                    .andExpect(header().string("Content-Encoding", "gzip"))
+                    .andReturn();
+
+            try (GZIPInputStream gzipInputStream = new GZIPInputStream(
+                    new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+                assertThat(new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8))
+                        .isEqualTo("{\"productName\":\"A\"}\n");
+            }
+            verify(transactionService).exportTransactionsByUser(eq(userId), any(OutputStream.class));
+        }
+
         @Test
         @DisplayName("500: missing X-USER-ID header (mapped by Global Advice)")
         void get_customer_list_missing_header() throws Exception {
@@ -247,6 +491,37 @@ class TransactionControllerTest {
             verify(transactionService).getUserBalanceAndWallet(eq(userId));
         }
 
+        @Test
+        @DisplayName("304: If-None-Match matches balance/wallet version → balance not loaded")
+        void get_balance_wallet_notModified() throws Exception {
+            UUID userId = UUID.randomUUID();
+            when(transactionService.getUserBalanceAndWalletVersion(eq(userId))).thenReturn(Optional.of("a1-b2"));
+
+            mockMvc.perform(get(api(RestApiPathUtility.API_PATH_GET_BALANCE_AND_WALLET))
+                            .header(HEADER_USER, userId.toString())
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"a1-b2\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"a1-b2\""));
+
+            verify(transactionService, never()).getUserBalanceAndWallet(any());
+        }
+
+        @Test
+        @DisplayName("200: stale If-None-Match → full body with new ETag")
+        void get_balance_wallet_changed() throws Exception {
+            UUID userId = UUID.randomUUID();
+            when(transactionService.getUserBalanceAndWalletVersion(eq(userId))).thenReturn(Optional.of("a1-b3"));
+            when(transactionService.getUserBalanceAndWallet(eq(userId)))
+                    .thenReturn((RestApiResponse<UserBalanceAndWalletResponse>) okResponseTyped(UserBalanceAndWalletResponse.builder().build()));
+
+            mockMvc.perform(get(api(RestApiPathUtility.API_PATH_GET_BALANCE_AND_WALLET))
+                            .header(HEADER_USER, userId.toString())
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"a1-b2\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"a1-b3\""))
+                    .andExpect(jsonPath("$.code").value(200));
+        }
+
         @Test
         @DisplayName("500: missing X-USER-ID header (mapped by Global Advice)")
         void get_balance_wallet_missing_header() throws Exception {
@@ -256,4 +531,93 @@ class TransactionControllerTest {
             verifyNoInteractions(transactionService);
         }
     }
+
+    @Nested
+    @DisplayName("GET commission rollup")
+    class CommissionRollup {
+
+        @Test
+        @DisplayName("200: agent rollup defaults to month-to-date")
+        void get_agent_rollup_defaultRange() throws Exception {
+            UUID userId = UUID.randomUUID();
+            LocalDate today = LocalDate.now();
+            when(commissionRollupQueryService.getAgentDailyRollups(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+                    .thenReturn((RestApiResponse<List<CommissionRollupResponse>>) okResponseTyped(List.of(
+                            CommissionRollupResponse.builder()
+                                    .commissionRollupId(userId)
+                                    .commissionRollupDate(today)
+                                    .commissionRollupTransactionCount(2)
+                                    .commissionRollupCommission(new BigDecimal("10000"))
+                                    .build())));
+
+            mockMvc.perform(get(api(RestApiPathUtility.API_PATH_COMMISSION_ROLLUP))
+                            .header(HEADER_USER, userId.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.results[0].transactionCount").value(2))
+                    .andExpect(jsonPath("$.results[0].commission").value(10000));
+
+            verify(commissionRollupQueryService).getAgentDailyRollups(userId, today.withDayOfMonth(1), today);
+            verifyNoInteractions(transactionService);
+        }
+
+        @Test
+        @DisplayName("503: product rollup while the streams store is unavailable")
+        void get_product_rollup_storeUnavailable() throws Exception {
+            LocalDate day = LocalDate.of(2025, 3, 1);
+            when(commissionRollupQueryService.getProductRollups(day, day))
+                    .thenThrow(new RejectedExecutionException("Commission rollup is not available, try again later"));
+
+            mockMvc.perform(get(api(RestApiPathUtility.API_PATH_COMMISSION_ROLLUP + RestApiPathUtility.API_PATH_GET_PRODUCTS))
+                            .param("from", "2025-03-01")
+                            .param("to", "2025-03-01"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+            verifyNoInteractions(transactionService);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET transaction by code")
+    class TransactionByCode {
+
+        @Test
+        @DisplayName("200: transaction with open bank account detail")
+        void get_by_code_found() throws Exception {
+            String code = "TRX_01JNQ0ZV8K000010000A";
+            UUID userId = UUID.randomUUID();
+            when(transactionService.getTransactionByCode(eq(userId), eq(code)))
+                    .thenReturn((RestApiResponse<CustomerOpenBankAccountResponse>) okResponseTyped(new CustomerOpenBankAccountResponse(
+                            UUID.randomUUID(), "Open Bank Account BCA", new BigDecimal("100000"),
+                            "Alice", "111222333", "08123456789", "alice@example.com", "Jl. Mawar No. 1",
+                            null, "SUCCESS")));
+
+            mockMvc.perform(get(api("/" + code)).header(HEADER_USER, userId.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.code").value(200))
+                    .andExpect(jsonPath("$.results").value(notNullValue()));
+
+            verify(transactionService).getTransactionByCode(userId, code);
+        }
+
+        @Test
+        @DisplayName("404: unknown code (mapped by Global Advice)")
+        void get_by_code_not_found() throws Exception {
+            UUID userId = UUID.randomUUID();
+            when(transactionService.getTransactionByCode(eq(userId), eq("TRX_UNKNOWN")))
+                    .thenThrow(new CoreThrowHandlerException("Transaction with code TRX_UNKNOWN not found"));
+
+            mockMvc.perform(get(api("/TRX_UNKNOWN")).header(HEADER_USER, userId.toString()))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("500: missing X-USER-ID header (mapped by Global Advice)")
+        void get_by_code_missing_user_header() throws Exception {
+            mockMvc.perform(get(api("/TRX_01JNQ0ZV8K000010000A")))
+                    .andExpect(status().isInternalServerError());
+
+            verify(transactionService, never()).getTransactionByCode(any(), any());
+        }
+    }
 }
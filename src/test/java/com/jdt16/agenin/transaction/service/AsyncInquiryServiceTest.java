@@ -0,0 +1,90 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.dto.cache.ProductCatalogEntry;
+import com.jdt16.agenin.transaction.dto.entity.UserEntityDTO;
+import com.jdt16.agenin.transaction.dto.event.InquiryCommandEventDTO;
+import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
+import com.jdt16.agenin.transaction.service.implementation.module.AsyncInquiryService;
+import com.jdt16.agenin.transaction.service.implementation.module.ProductCatalogCacheService;
+import com.jdt16.agenin.transaction.service.implementation.module.TimeOrderedIdGenerator;
+import com.jdt16.agenin.transaction.service.implementation.module.UserIdentityCacheService;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AsyncInquiryServiceTest {
+
+    @Mock
+    private UserIdentityCacheService userIdentityCacheService;
+
+    @Mock
+    private ProductCatalogCacheService productCatalogCacheService;
+
+    @Mock
+    private KafkaTemplate<String, InquiryCommandEventDTO> inquiryCommandKafkaTemplate;
+
+    private AsyncInquiryService asyncInquiryService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID productId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        asyncInquiryService = new AsyncInquiryService(userIdentityCacheService, productCatalogCacheService,
+                inquiryCommandKafkaTemplate, new TimeOrderedIdGenerator());
+        ReflectionTestUtils.setField(asyncInquiryService, "createTransactionTopic", "create-transaction-po");
+        ReflectionTestUtils.setField(asyncInquiryService, "sendTimeoutMs", 1_000L);
+
+        UserEntityDTO user = new UserEntityDTO();
+        user.setUserEntityDTOId(userId);
+        user.setUserEntityDTORoleName("AGENT");
+        when(userIdentityCacheService.findUser(eq(userId))).thenReturn(Optional.of(user));
+        when(productCatalogCacheService.getProduct(eq(productId))).thenReturn(ProductCatalogEntry.builder()
+                .productEntityDTOId(productId)
+                .commissionsEntityDTOValue(new BigDecimal("5000"))
+                .build());
+    }
+
+    @Test
+    @DisplayName("Broker not acknowledging the command is reported as busy (503), not as a business conflict")
+    void submitInquiry_brokerFailure_rejected() {
+        when(inquiryCommandKafkaTemplate.send(anyString(), anyString(), any(InquiryCommandEventDTO.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Topic not present in metadata")));
+
+        assertThatThrownBy(() -> asyncInquiryService.submitInquiry(userId, productId, new TransactionRequest()))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("please retry");
+    }
+
+    @Test
+    @DisplayName("Synchronous send failure (metadata or buffer full) is also reported as busy")
+    void submitInquiry_sendThrows_rejected() {
+        when(inquiryCommandKafkaTemplate.send(anyString(), anyString(), any(InquiryCommandEventDTO.class)))
+                .thenThrow(new TimeoutException("Failed to update metadata after 5000 ms."));
+
+        assertThatThrownBy(() -> asyncInquiryService.submitInquiry(userId, productId, new TransactionRequest()))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,185 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.dto.request.LogEnvelopeRequestDTO;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import com.jdt16.agenin.transaction.service.implementation.module.AuditLogConsumerService;
+import com.jdt16.agenin.transaction.service.implementation.module.AuditLogCopyService;
+import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuditLogConsumerServiceTest {
+
+    private static final String AUDIT_TOPIC = "create-log-po";
+    private static final String DEAD_LETTER_TOPIC = "create-log-po.DLT";
+
+    @Mock
+    private AuditLogCopyService auditLogCopyService;
+    @Mock
+    private KafkaTemplate<String, Object> deadLetterKafkaTemplate;
+
+    private AuditLogConsumerService auditLogConsumerService;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        auditLogConsumerService = new AuditLogConsumerService(auditLogCopyService, meterRegistry, deadLetterKafkaTemplate);
+        ReflectionTestUtils.setField(auditLogConsumerService, "deadLetterTopic", DEAD_LETTER_TOPIC);
+        ReflectionTestUtils.setField(auditLogConsumerService, "deadLetterTimeoutMs", 1_000L);
+        ReflectionTestUtils.invokeMethod(auditLogConsumerService, "init");
+
+        when(deadLetterKafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+    }
+
+    private static LogRequestDTO logRequest(String roleName) {
+        return LogRequestDTO.builder()
+                .logEntityDTOAuditLogsId(UUID.randomUUID())
+                .logEntityDTOTableName(TableNameEntityUtility.TABLE_TRANSACTION)
+                .logEntityDTORecordId(UUID.randomUUID())
+                .logEntityDTOAction("CREATE")
+                .logEntityDTOOldData(Map.of())
+                .logEntityDTONewData(Map.of("status", "SUCCESS"))
+                .logEntityDTOUserAgent("Mozilla/5.0")
+                .logEntityDTOIpAddress("10.0.0.1")
+                .logEntityDTOChangedAt(LocalDateTime.now())
+                .logEntityDTORoleId(UUID.randomUUID())
+                .logEntityDTORoleName(roleName)
+                .logEntityDTOUserId(UUID.randomUUID())
+                .logEntityDTOUserFullname("Budi Santoso")
+                .build();
+    }
+
+    private static List<ConsumerRecord<String, LogEnvelopeRequestDTO>> records(LogRequestDTO... logRequests) {
+        return Stream.of(logRequests)
+                .map(logRequest -> new ConsumerRecord<>(AUDIT_TOPIC, 0, 0L, "key", LogEnvelopeRequestDTO.of(logRequest)))
+                .toList();
+    }
+
+    private static List<LogRequestDTO> rows(LogRequestDTO... logRequests) {
+        return argThat(copied -> copied.stream().map(LogRequestDTO::getLogEntityDTOAuditLogsId).toList()
+                .equals(Stream.of(logRequests).map(LogRequestDTO::getLogEntityDTOAuditLogsId).toList()));
+    }
+
+    private void verifyDeadLettered(LogRequestDTO logRequest) {
+        verify(deadLetterKafkaTemplate).send(argThat((ProducerRecord<String, Object> record) ->
+                record.topic().equals(DEAD_LETTER_TOPIC)
+                        && ((LogRequestDTO) record.value()).getLogEntityDTOAuditLogsId()
+                        .equals(logRequest.getLogEntityDTOAuditLogsId())));
+    }
+
+    @Test
+    @DisplayName("Rows with a null required column go to the DLT and are kept out of the COPY")
+    void consume_deadLettersIncompleteRows() {
+        LogRequestDTO complete = logRequest("AGENT");
+        LogRequestDTO withoutRole = logRequest(null);
+        when(auditLogCopyService.copy(anyList())).thenReturn(1);
+
+        auditLogConsumerService.consume(records(complete, withoutRole));
+
+        verify(auditLogCopyService).copy(rows(complete));
+        verifyDeadLettered(withoutRole);
+        assertThat(meterRegistry.counter("audit.consumer.dead-lettered").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Failed COPY falls back to per-record loads; only the row rejected by the database is dead-lettered")
+    void consume_copyFailure_loadsPerRecord() {
+        LogRequestDTO first = logRequest("AGENT");
+        LogRequestDTO rejected = logRequest("SUB_AGENT");
+        IllegalStateException notNullViolation = new IllegalStateException("Audit log COPY failed",
+                new SQLException("null value in column", "23502"));
+        when(auditLogCopyService.copy(anyList())).thenAnswer(invocation -> {
+            List<LogRequestDTO> copied = invocation.getArgument(0);
+            if (copied.stream().anyMatch(row -> row.getLogEntityDTOAuditLogsId().equals(rejected.getLogEntityDTOAuditLogsId()))) {
+                throw notNullViolation;
+            }
+            return copied.size();
+        });
+
+        auditLogConsumerService.consume(records(first, rejected));
+
+        verify(auditLogCopyService).copy(rows(first));
+        verifyDeadLettered(rejected);
+        assertThat(meterRegistry.counter("audit.consumer.inserted").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Connection failures are rethrown so the container retries the batch instead of dead-lettering")
+    @SuppressWarnings("unchecked")
+    void consume_transientFailure_rethrows() {
+        LogRequestDTO logRequest = logRequest("AGENT");
+        when(auditLogCopyService.copy(anyList())).thenThrow(new IllegalStateException("Audit log COPY failed",
+                new SQLException("connection refused", "08001")));
+
+        assertThatThrownBy(() -> auditLogConsumerService.consume(records(logRequest)))
+                .isInstanceOf(IllegalStateException.class);
+        verify(deadLetterKafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    @DisplayName("Undecodable records go to the DLT as the original raw bytes instead of being skipped")
+    @SuppressWarnings("unchecked")
+    void consume_deadLettersUndecodableRecordAsRawBytes() {
+        LogRequestDTO logRequest = logRequest("AGENT");
+        byte[] raw = "{not-json".getBytes(StandardCharsets.UTF_8);
+        RecordHeaders headers = new RecordHeaders();
+        SerializationUtils.deserializationException(headers, raw,
+                new DeserializationException("failed to deserialize", raw, false, new IllegalArgumentException("Unexpected token")), false);
+        ConsumerRecord<String, LogEnvelopeRequestDTO> undecodable = new ConsumerRecord<>(AUDIT_TOPIC, 2, 41L,
+                ConsumerRecord.NO_TIMESTAMP, TimestampType.NO_TIMESTAMP_TYPE, raw.length, raw.length, "key", null,
+                headers, Optional.empty());
+        when(auditLogCopyService.copy(anyList())).thenReturn(1);
+
+        auditLogConsumerService.consume(List.of(undecodable, records(logRequest).get(0)));
+
+        verify(auditLogCopyService).copy(rows(logRequest));
+        verify(deadLetterKafkaTemplate).send(argThat((ProducerRecord<String, Object> record) ->
+                record.topic().equals(DEAD_LETTER_TOPIC)
+                        && record.value() instanceof byte[] value && Arrays.equals(value, raw)
+                        && ByteBuffer.wrap(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET).value()).getLong() == 41L
+                        && new String(record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE).value(),
+                        StandardCharsets.UTF_8).equals("failed to deserialize")));
+        assertThat(meterRegistry.counter("audit.consumer.dead-lettered").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("audit.consumer.skipped").count()).isZero();
+    }
+}
@@ -0,0 +1,87 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import com.jdt16.agenin.transaction.service.implementation.module.AuditLogCopyService;
+import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuditLogCopyServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private AuditLogCopyService auditLogCopyService;
+
+    @BeforeEach
+    void setUp() {
+        auditLogCopyService = new AuditLogCopyService(dataSource, transactionTemplate, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    @DisplayName("CSV rows follow column order, quote text and escape embedded quotes")
+    void toCsv_quotesAndEscapes() {
+        UUID auditLogsId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID recordId = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        UUID roleId = UUID.fromString("00000000-0000-0000-0000-000000000003");
+        UUID userId = UUID.fromString("00000000-0000-0000-0000-000000000004");
+        Map<String, Object> newData = new LinkedHashMap<>();
+        newData.put("note", "say \"hi\", ok");
+
+        LogRequestDTO logRequest = LogRequestDTO.builder()
+                .logEntityDTOAuditLogsId(auditLogsId)
+                .logEntityDTOTableName(TableNameEntityUtility.TABLE_USER_WALLET)
+                .logEntityDTORecordId(recordId)
+                .logEntityDTOAction("UPDATE")
+                .logEntityDTOOldData(null)
+                .logEntityDTONewData(newData)
+                .logEntityDTOUserAgent("Mozilla/5.0 (X11, Linux)")
+                .logEntityDTOIpAddress(null)
+                .logEntityDTOChangedAt(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000))
+                .logEntityDTORoleId(roleId)
+                .logEntityDTORoleName("SUB_AGENT")
+                .logEntityDTOUserId(userId)
+                .logEntityDTOUserFullname("Budi\nSantoso")
+                .build();
+
+        String csv = ReflectionTestUtils.invokeMethod(auditLogCopyService, "toCsv", List.of(logRequest));
+
+        assertThat(csv).isEqualTo(
+                "\"" + auditLogsId + "\",\"" + TableNameEntityUtility.TABLE_USER_WALLET + "\",\"" + recordId + "\",\"UPDATE\"," +
+                        "\"{}\",\"{\"\"note\"\":\"\"say \\\"\"hi\\\"\", ok\"\"}\"," +
+                        "\"Mozilla/5.0 (X11, Linux)\",," +
+                        "\"2025-03-01T10:15:30.123456\",\"" + roleId + "\",\"SUB_AGENT\",\"" + userId + "\",\"Budi\nSantoso\"\n");
+    }
+
+    @Test
+    @DisplayName("Empty batch does not open a transaction")
+    void copy_emptyBatch_noop() {
+        assertThat(auditLogCopyService.copy(List.of())).isZero();
+
+        verifyNoInteractions(transactionTemplate, dataSource);
+    }
+}
@@ -0,0 +1,212 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.entity.AuditOutboxEntityDTO;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import com.jdt16.agenin.transaction.model.repository.TAuditOutboxRepositories;
+import com.jdt16.agenin.transaction.service.implementation.module.AuditLogProducerService;
+import com.jdt16.agenin.transaction.utility.TableNameEntityUtility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuditLogProducerServiceTest {
+
+    @Mock
+    private TAuditOutboxRepositories tAuditOutboxRepositories;
+    @Mock
+    private DataSource dataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private AuditLogProducerService auditLogProducerService;
+
+    private final UUID walletId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        auditLogProducerService = new AuditLogProducerService(tAuditOutboxRepositories, objectMapper, dataSource);
+        ReflectionTestUtils.setField(auditLogProducerService, "auditLogFormat", "json");
+        ReflectionTestUtils.setField(auditLogProducerService, "auditLogDiff", true);
+        ReflectionTestUtils.setField(auditLogProducerService, "fullSnapshotInterval", 3);
+        ReflectionTestUtils.setField(auditLogProducerService, "diffMaxRecords", 100);
+    }
+
+    private void transfer(String balanceBefore, String balanceAfter, String walletBefore, String walletAfter) {
+        auditLogProducerService.logUpdate(
+                TableNameEntityUtility.TABLE_USER_WALLET,
+                walletId,
+                Map.of("balance", new BigDecimal(balanceBefore), "wallet", new BigDecimal(walletBefore)),
+                Map.of("balance", new BigDecimal(balanceAfter), "wallet", new BigDecimal(walletAfter),
+                        "status", "SUCCESS"),
+                UUID.randomUUID(), "Budi Santoso", UUID.randomUUID(), "SUB_AGENT", "Mozilla/5.0", "10.0.0.1");
+    }
+
+    private List<LogRequestDTO> shipped() throws Exception {
+        ArgumentCaptor<AuditOutboxEntityDTO> captor = ArgumentCaptor.forClass(AuditOutboxEntityDTO.class);
+        verify(tAuditOutboxRepositories, atLeastOnce()).save(captor.capture());
+        List<LogRequestDTO> logRequests = new ArrayList<>();
+        for (AuditOutboxEntityDTO outbox : captor.getAllValues()) {
+            logRequests.add(objectMapper.readValue(outbox.getAuditOutboxEntityDTOPayload(), LogRequestDTO.class));
+        }
+        return logRequests;
+    }
+
+    @Test
+    @DisplayName("First update per record is a marked full snapshot, later ones carry only changed fields")
+    void logUpdate_shipsDiffAfterSnapshot() throws Exception {
+        transfer("100000", "90000", "0", "10000");
+        transfer("90000", "80000", "10000", "20000");
+
+        List<LogRequestDTO> logRequests = shipped();
+
+        assertThat(logRequests.get(0).getLogEntityDTONewData())
+                .containsEntry(AuditLogProducerService.SNAPSHOT_MARKER, true)
+                .containsKeys("balance", "wallet", "status");
+        assertThat(logRequests.get(1).getLogEntityDTONewData())
+                .containsOnlyKeys("balance", "wallet");
+        assertThat(logRequests.get(1).getLogEntityDTOOldData())
+                .containsOnlyKeys("balance", "wallet");
+    }
+
+    @Test
+    @DisplayName("Empty old side is diffed against the last after-image; snapshot repeats at the interval")
+    void logUpdate_usesLastImageAndPeriodicSnapshot() throws Exception {
+        transfer("100000", "90000", "0", "10000");
+        for (int i = 0; i < 3; i++) {
+            auditLogProducerService.logUpdate(
+                    TableNameEntityUtility.TABLE_USER_WALLET, walletId, Map.of(),
+                    Map.of("balance", new BigDecimal("90000.00"), "wallet", new BigDecimal(20000 + i), "status", "SUCCESS"),
+                    UUID.randomUUID(), "Budi Santoso", UUID.randomUUID(), "SUB_AGENT", "Mozilla/5.0", "10.0.0.1");
+        }
+
+        List<LogRequestDTO> logRequests = shipped();
+
+        assertThat(logRequests).hasSize(4);
+        assertThat(logRequests.get(1).getLogEntityDTONewData()).containsOnlyKeys("wallet");
+        assertThat(logRequests.get(1).getLogEntityDTOOldData()).containsOnlyKeys("wallet");
+        assertThat(logRequests.get(2).getLogEntityDTONewData()).containsOnlyKeys("wallet");
+        assertThat(logRequests.get(3).getLogEntityDTONewData())
+                .containsEntry(AuditLogProducerService.SNAPSHOT_MARKER, true)
+                .containsKeys("balance", "wallet", "status");
+    }
+
+    @Test
+    @DisplayName("Diffing disabled ships the caller maps unchanged")
+    void logUpdate_diffDisabled_shipsFullMaps() throws Exception {
+        ReflectionTestUtils.setField(auditLogProducerService, "auditLogDiff", false);
+
+        transfer("100000", "90000", "0", "10000");
+        transfer("90000", "80000", "10000", "20000");
+
+        assertThat(shipped()).allSatisfy(logRequest -> assertThat(logRequest.getLogEntityDTONewData())
+                .containsOnlyKeys("balance", "wallet", "status"));
+    }
+
+    @Test
+    @DisplayName("After-image of a rolled-back transaction is discarded; the next diff uses the last committed image")
+    void logUpdate_rollback_discardsImage() throws Exception {
+        transfer("100000", "90000", "0", "10000");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            transfer("90000", "80000", "10000", "20000");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        auditLogProducerService.logUpdate(
+                TableNameEntityUtility.TABLE_USER_WALLET, walletId, Map.of(),
+                Map.of("balance", new BigDecimal("90000"), "wallet", new BigDecimal("20000"), "status", "SUCCESS"),
+                UUID.randomUUID(), "Budi Santoso", UUID.randomUUID(), "SUB_AGENT", "Mozilla/5.0", "10.0.0.1");
+
+        List<LogRequestDTO> logRequests = shipped();
+
+        assertThat(logRequests).hasSize(3);
+        // Image commit terakhir: balance 90000, wallet 10000; image rollback (80000/20000) tidak dipakai
+        assertThat(logRequests.get(2).getLogEntityDTONewData()).containsOnlyKeys("wallet");
+    }
+
+    private void rollBack() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        // Seperti AbstractPlatformTransactionManager: sinkronisasi dilepas sebelum afterCompletion dipanggil
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private void logFailedUpdate() {
+        auditLogProducerService.logFailedUpdate(
+                TableNameEntityUtility.TABLE_TRANSACTION, UUID.randomUUID(), Map.of(), Map.of("status", "FAILED"),
+                UUID.randomUUID(), "Budi Santoso", UUID.randomUUID(), "SUB_AGENT", "Mozilla/5.0", "10.0.0.1");
+    }
+
+    @Test
+    @DisplayName("Failure audit inside a transaction is written after rollback on the held connection, not before")
+    void logFailedUpdate_writtenAfterRollbackOnHeldConnection() throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        TransactionSynchronizationManager.bindResource(dataSource, new ConnectionHolder(connection));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            logFailedUpdate();
+            verifyNoInteractions(connection, tAuditOutboxRepositories);
+
+            rollBack();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(dataSource);
+        }
+
+        verify(statement).executeUpdate();
+        verify(connection, never()).commit();
+        verify(connection, never()).close();
+        verify(dataSource, never()).getConnection();
+        verify(tAuditOutboxRepositories, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Without a bound transactional connection the failure audit uses and closes a new connection")
+    void logFailedUpdate_noBoundConnection_usesNewConnection() throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        logFailedUpdate();
+        rollBack();
+
+        verify(statement).executeUpdate();
+        verify(connection).commit();
+        verify(connection).close();
+        assertThat(TransactionSynchronizationManager.hasResource(dataSource)).isFalse();
+    }
+}
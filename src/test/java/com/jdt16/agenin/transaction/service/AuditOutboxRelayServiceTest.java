@@ -0,0 +1,215 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.dto.entity.AuditOutboxEntityDTO;
+import com.jdt16.agenin.transaction.model.repository.TAuditOutboxRepositories;
+import com.jdt16.agenin.transaction.service.implementation.module.AuditOutboxRelayService;
+import com.jdt16.agenin.transaction.service.implementation.module.AuditSpoolService;
+import com.jdt16.agenin.transaction.service.implementation.module.AuditSpoolService.SpoolRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuditOutboxRelayServiceTest {
+
+    private static final String TOPIC = "create-log-po";
+
+    @Mock
+    private TAuditOutboxRepositories tAuditOutboxRepositories;
+    @Mock
+    private KafkaTemplate<String, byte[]> auditLogKafkaTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private AuditSpoolService auditSpoolService;
+
+    private AuditOutboxRelayService auditOutboxRelayService;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        auditOutboxRelayService = new AuditOutboxRelayService(
+                tAuditOutboxRepositories, auditLogKafkaTemplate, transactionTemplate, meterRegistry, auditSpoolService);
+        ReflectionTestUtils.setField(auditOutboxRelayService, "auditLogTopic", TOPIC);
+        ReflectionTestUtils.setField(auditOutboxRelayService, "batchSize", 2);
+        ReflectionTestUtils.setField(auditOutboxRelayService, "maxBatchesPerRun", 5);
+        ReflectionTestUtils.setField(auditOutboxRelayService, "sendTimeoutMs", 1_000L);
+        ReflectionTestUtils.setField(auditOutboxRelayService, "breakerFailureThreshold", 2);
+        ReflectionTestUtils.setField(auditOutboxRelayService, "breakerOpenMs", 60_000L);
+        ReflectionTestUtils.invokeMethod(auditOutboxRelayService, "init");
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(tAuditOutboxRepositories.tryRelayLock(anyLong())).thenReturn(true);
+    }
+
+    private static AuditOutboxEntityDTO outbox(long id) {
+        return AuditOutboxEntityDTO.builder()
+                .auditOutboxEntityDTOId(outboxId(id))
+                .auditOutboxEntityDTOMessageKey("M_TRANSACTION#" + id)
+                .auditOutboxEntityDTOPayload(payload(id))
+                .auditOutboxEntityDTOCreatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static UUID outboxId(long id) {
+        return new UUID(0L, id);
+    }
+
+    private static byte[] payload(long id) {
+        return ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, byte[]>> acked() {
+        return CompletableFuture.completedFuture(mock(SendResult.class));
+    }
+
+    @Test
+    @DisplayName("Drains full batches in id order and deletes each batch with one statement")
+    void relay_drainsInOrder() {
+        when(tAuditOutboxRepositories.findNextBatch(any(Pageable.class)))
+                .thenReturn(List.of(outbox(1), outbox(2)), List.of(outbox(3)));
+        when(auditLogKafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class))).thenAnswer(invocation -> acked());
+
+        auditOutboxRelayService.relay();
+
+        InOrder inOrder = inOrder(auditLogKafkaTemplate, tAuditOutboxRepositories);
+        inOrder.verify(auditLogKafkaTemplate).send(TOPIC, "M_TRANSACTION#1", payload(1));
+        inOrder.verify(auditLogKafkaTemplate).send(TOPIC, "M_TRANSACTION#2", payload(2));
+        inOrder.verify(tAuditOutboxRepositories).deleteByIds(List.of(outboxId(1), outboxId(2)));
+        inOrder.verify(auditLogKafkaTemplate).send(TOPIC, "M_TRANSACTION#3", payload(3));
+        inOrder.verify(tAuditOutboxRepositories).deleteByIds(List.of(outboxId(3)));
+        verify(tAuditOutboxRepositories, times(2)).findNextBatch(any(Pageable.class));
+        assertThat(meterRegistry.counter("audit.outbox.relayed").count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("audit.outbox.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rows carrying their own topic are sent to that topic in the same ordered batch")
+    void relay_rowWithTopic_sentToItsTopic() {
+        AuditOutboxEntityDTO transactionCreated = outbox(2);
+        transactionCreated.setAuditOutboxEntityDTOTopic("transaction-created-po");
+        when(tAuditOutboxRepositories.findNextBatch(any(Pageable.class))).thenReturn(List.of(outbox(1), transactionCreated), List.of());
+        when(auditLogKafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenAnswer(invocation -> acked());
+
+        auditOutboxRelayService.relay();
+
+        InOrder inOrder = inOrder(auditLogKafkaTemplate, tAuditOutboxRepositories);
+        inOrder.verify(auditLogKafkaTemplate).send(TOPIC, "M_TRANSACTION#1", payload(1));
+        inOrder.verify(auditLogKafkaTemplate).send("transaction-created-po", "M_TRANSACTION#2", payload(2));
+        inOrder.verify(tAuditOutboxRepositories).deleteByIds(List.of(outboxId(1), outboxId(2)));
+    }
+
+    @Test
+    @DisplayName("Failed send keeps rows in the outbox for the next run")
+    void relay_sendFailure_keepsRows() {
+        when(tAuditOutboxRepositories.findNextBatch(any(Pageable.class))).thenReturn(List.of(outbox(1), outbox(2)));
+        when(auditLogKafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class)))
+                .thenAnswer(invocation -> acked())
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        auditOutboxRelayService.relay();
+
+        verify(tAuditOutboxRepositories, never()).deleteByIds(any());
+        verify(tAuditOutboxRepositories, times(1)).findNextBatch(any(Pageable.class));
+        assertThat(meterRegistry.counter("audit.outbox.failures").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Consecutive failures open the breaker; relay stops touching the producer while open")
+    void relay_repeatedFailures_openBreaker() {
+        when(tAuditOutboxRepositories.findNextBatch(any(Pageable.class))).thenReturn(List.of(outbox(1)));
+        when(tAuditOutboxRepositories.count()).thenReturn(1L);
+        when(auditLogKafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class)))
+                .thenThrow(new IllegalStateException("metadata not available"));
+
+        auditOutboxRelayService.relay();
+        auditOutboxRelayService.relay();
+        assertThat(auditOutboxRelayService.isBreakerOpen()).isTrue();
+
+        auditOutboxRelayService.relay();
+
+        verify(auditLogKafkaTemplate, times(2)).send(eq(TOPIC), anyString(), any(byte[].class));
+        verify(tAuditOutboxRepositories, never()).deleteByIds(any());
+        assertThat(meterRegistry.get("audit.outbox.breaker.open").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("audit.outbox.depth").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Another instance holds the relay lock → nothing is read or sent")
+    void relay_lockHeldElsewhere_skips() {
+        when(tAuditOutboxRepositories.tryRelayLock(anyLong())).thenReturn(false);
+
+        auditOutboxRelayService.relay();
+
+        verify(tAuditOutboxRepositories, never()).findNextBatch(any(Pageable.class));
+        verifyNoInteractions(auditLogKafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Breaker open with spool enabled → audit rows moved to spool, replayed before newer outbox rows")
+    void relay_spillsWhileOpen_thenReplaysSpoolFirst() {
+        when(auditSpoolService.isEnabled()).thenReturn(true);
+        when(tAuditOutboxRepositories.findNextBatch(any(Pageable.class)))
+                .thenReturn(List.of(outbox(1)), List.of(outbox(1)), List.of(outbox(2)));
+        when(tAuditOutboxRepositories.findNextAuditBatch(any(Pageable.class))).thenReturn(List.of(outbox(1)));
+        when(auditLogKafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class)))
+                .thenThrow(new IllegalStateException("metadata not available"));
+        when(auditSpoolService.peek(anyInt())).thenReturn(List.of());
+
+        auditOutboxRelayService.relay();
+        auditOutboxRelayService.relay();
+        assertThat(auditOutboxRelayService.isBreakerOpen()).isTrue();
+
+        auditOutboxRelayService.relay();
+
+        verify(auditSpoolService).append(argThat(records -> records.size() == 1
+                && records.get(0).key().equals("M_TRANSACTION#1")
+                && Arrays.equals(records.get(0).payload(), payload(1))));
+        verify(tAuditOutboxRepositories).deleteByIds(List.of(outboxId(1)));
+        assertThat(meterRegistry.counter("audit.outbox.spilled").count()).isEqualTo(1.0);
+
+        ReflectionTestUtils.setField(auditOutboxRelayService, "breakerOpenUntilNanos", System.nanoTime() - 1);
+        reset(auditLogKafkaTemplate);
+        when(auditLogKafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class))).thenAnswer(invocation -> acked());
+        when(auditSpoolService.peek(anyInt()))
+                .thenReturn(List.of(new SpoolRecord("M_TRANSACTION#1", payload(1))), List.of());
+
+        auditOutboxRelayService.relay();
+
+        InOrder inOrder = inOrder(auditLogKafkaTemplate, auditSpoolService, tAuditOutboxRepositories);
+        inOrder.verify(auditLogKafkaTemplate).send(TOPIC, "M_TRANSACTION#1", payload(1));
+        inOrder.verify(auditSpoolService).acknowledge(1);
+        inOrder.verify(auditLogKafkaTemplate).send(TOPIC, "M_TRANSACTION#2", payload(2));
+        inOrder.verify(tAuditOutboxRepositories).deleteByIds(List.of(outboxId(2)));
+        assertThat(auditOutboxRelayService.isBreakerOpen()).isFalse();
+    }
+}
@@ -0,0 +1,127 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.service.implementation.module.AuditSpoolService;
+import com.jdt16.agenin.transaction.service.implementation.module.AuditSpoolService.SpoolRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditSpoolServiceTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    private AuditSpoolService newSpool(int segmentSizeBytes) {
+        AuditSpoolService auditSpoolService = new AuditSpoolService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(auditSpoolService, "enabled", true);
+        ReflectionTestUtils.setField(auditSpoolService, "directory", spoolDirectory.toString());
+        ReflectionTestUtils.setField(auditSpoolService, "segmentSizeBytes", segmentSizeBytes);
+        ReflectionTestUtils.invokeMethod(auditSpoolService, "init");
+        return auditSpoolService;
+    }
+
+    private static List<SpoolRecord> records(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> new SpoolRecord("M_TRANSACTION#" + i, ("{\"seq\":" + i + "}").getBytes(StandardCharsets.UTF_8)))
+                .toList();
+    }
+
+    private static List<String> text(List<SpoolRecord> records) {
+        return records.stream()
+                .map(spoolRecord -> spoolRecord.key() + "=" + new String(spoolRecord.payload(), StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @DisplayName("Records are peeked in append order and acknowledged incrementally")
+    void appendPeekAcknowledge_inOrder() {
+        AuditSpoolService auditSpoolService = newSpool(4096);
+        auditSpoolService.append(records(0, 5));
+
+        assertThat(text(auditSpoolService.peek(3))).containsExactlyElementsOf(text(records(0, 3)));
+        auditSpoolService.acknowledge(3);
+
+        assertThat(auditSpoolService.pendingRecords()).isEqualTo(2);
+        assertThat(text(auditSpoolService.peek(10))).containsExactlyElementsOf(text(records(3, 5)));
+    }
+
+    @Test
+    @DisplayName("Unacknowledged records survive a restart")
+    void restart_recoversUnacknowledged() {
+        AuditSpoolService first = newSpool(4096);
+        first.append(records(0, 4));
+        first.acknowledge(1);
+
+        AuditSpoolService restarted = newSpool(4096);
+
+        assertThat(restarted.pendingRecords()).isEqualTo(3);
+        assertThat(text(restarted.peek(10))).containsExactlyElementsOf(text(records(1, 4)));
+
+        restarted.append(records(4, 5));
+        assertThat(text(restarted.peek(10))).containsExactlyElementsOf(text(records(1, 5)));
+    }
+
+    @Test
+    @DisplayName("Records roll over into new segments and acknowledged segments are deleted")
+    void segments_rollOverAndReclaim() throws IOException {
+        AuditSpoolService auditSpoolService = newSpool(256);
+        auditSpoolService.append(records(0, 20));
+
+        assertThat(auditSpoolService.segmentCount()).isGreaterThan(2);
+        assertThat(segmentFiles()).isEqualTo(auditSpoolService.segmentCount());
+        assertThat(text(auditSpoolService.peek(20))).containsExactlyElementsOf(text(records(0, 20)));
+
+        auditSpoolService.acknowledge(20);
+
+        assertThat(auditSpoolService.isEmpty()).isTrue();
+        assertThat(auditSpoolService.segmentCount()).isEqualTo(1);
+        assertThat(segmentFiles()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A torn trailing write is ignored on recovery and overwritten by the next append")
+    void restart_ignoresTornWrite() throws IOException {
+        AuditSpoolService first = newSpool(4096);
+        first.append(records(0, 2));
+
+        Path segment;
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        int end = 16;
+        for (SpoolRecord spoolRecord : records(0, 2)) {
+            end += 8 + 4 + spoolRecord.key().length() + spoolRecord.payload().length;
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // length ditulis, body/crc tidak
+            channel.write(ByteBuffer.allocate(4).putInt(0, 40), end);
+        }
+
+        AuditSpoolService restarted = newSpool(4096);
+        assertThat(text(restarted.peek(10))).containsExactlyElementsOf(text(records(0, 2)));
+
+        restarted.append(records(2, 3));
+        assertThat(text(newSpool(4096).peek(10))).containsExactlyElementsOf(text(records(0, 3)));
+    }
+}
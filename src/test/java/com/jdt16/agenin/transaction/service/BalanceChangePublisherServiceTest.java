@@ -0,0 +1,143 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.dto.event.BalanceChangeEventDTO;
+import com.jdt16.agenin.transaction.model.repository.MUserBalanceRepositories;
+import com.jdt16.agenin.transaction.service.implementation.module.BalanceChangePublisherService;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAndWalletSnapshotProjection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BalanceChangePublisherServiceTest {
+
+    private static final String TOPIC = "balance-change-po";
+
+    @Mock
+    private MUserBalanceRepositories mUserBalanceRepositories;
+    @Mock
+    private KafkaTemplate<String, BalanceChangeEventDTO> balanceChangeKafkaTemplate;
+    @Mock
+    private UserBalanceAndWalletSnapshotProjection snapshot;
+
+    private BalanceChangePublisherService balanceChangePublisherService;
+    private MeterRegistry meterRegistry;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        balanceChangePublisherService = new BalanceChangePublisherService(
+                mUserBalanceRepositories, balanceChangeKafkaTemplate, meterRegistry);
+        ReflectionTestUtils.setField(balanceChangePublisherService, "enabled", true);
+        ReflectionTestUtils.setField(balanceChangePublisherService, "balanceChangeTopic", TOPIC);
+        ReflectionTestUtils.setField(balanceChangePublisherService, "queueCapacity", 1);
+        ReflectionTestUtils.invokeMethod(balanceChangePublisherService, "init");
+
+        when(snapshot.getUserBalanceEntityDTOBalanceAmount()).thenReturn(new BigDecimal("30000"));
+        when(snapshot.getUserBalanceEntityDTOBalanceLastUpdate()).thenReturn(LocalDateTime.now());
+        when(balanceChangeKafkaTemplate.send(anyString(), anyString(), any(BalanceChangeEventDTO.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+        ReflectionTestUtils.invokeMethod(balanceChangePublisherService, "shutdown");
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @Test
+    @DisplayName("Snapshot is read only after commit, on the publisher thread, so it includes other committed slot increments")
+    void markChanged_readsSnapshotAfterCommit() {
+        when(mUserBalanceRepositories.findBalanceAndWalletSnapshot(userId)).thenReturn(Optional.of(snapshot));
+
+        balanceChangePublisherService.markChanged(userId);
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+        verifyNoInteractions(mUserBalanceRepositories);
+
+        commit();
+
+        verify(mUserBalanceRepositories, timeout(1000)).findBalanceAndWalletSnapshot(userId);
+        verify(balanceChangeKafkaTemplate, timeout(1000)).send(eq(TOPIC), eq(userId.toString()),
+                argThat(event -> event.getBalanceChangeEventDTOBalanceAmount().compareTo(new BigDecimal("30000")) == 0));
+    }
+
+    @Test
+    @DisplayName("Rolled back transaction neither reads nor publishes")
+    void markChanged_rollback_publishesNothing() {
+        balanceChangePublisherService.markChanged(userId);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(mUserBalanceRepositories, balanceChangeKafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("afterCommit never blocks: a busy publisher coalesces queued users and drops when the queue is full")
+    void markChanged_busyPublisher_neverBlocksCommit() throws InterruptedException {
+        UUID queuedUserId = UUID.randomUUID();
+        UUID droppedUserId = UUID.randomUUID();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mUserBalanceRepositories.findBalanceAndWalletSnapshot(userId)).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(snapshot);
+        });
+        when(mUserBalanceRepositories.findBalanceAndWalletSnapshot(queuedUserId)).thenReturn(Optional.of(snapshot));
+
+        balanceChangePublisherService.markChanged(userId);
+        commit();
+        assertThat(reading.await(1, TimeUnit.SECONDS)).isTrue();
+
+        balanceChangePublisherService.markChanged(queuedUserId);
+        commit();
+        balanceChangePublisherService.markChanged(queuedUserId);
+        commit();
+        balanceChangePublisherService.markChanged(droppedUserId);
+        commit();
+        assertThat(meterRegistry.counter("balance.change.dropped").count()).isEqualTo(1.0);
+
+        release.countDown();
+        verify(balanceChangeKafkaTemplate, timeout(1000)).send(eq(TOPIC), eq(queuedUserId.toString()), any(BalanceChangeEventDTO.class));
+        verify(mUserBalanceRepositories, times(1)).findBalanceAndWalletSnapshot(queuedUserId);
+        verify(mUserBalanceRepositories, never()).findBalanceAndWalletSnapshot(droppedUserId);
+    }
+}
@@ -0,0 +1,265 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.configuration.kafka.KafkaStreamsConfig;
+import com.jdt16.agenin.transaction.dto.event.TransactionCreatedEventDTO;
+import com.jdt16.agenin.transaction.dto.response.CommissionRollupResponse;
+import com.jdt16.agenin.transaction.service.implementation.module.CommissionRollupQueryService;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommissionRollupQueryServiceTest {
+
+    private static final String TOPIC = "transaction-created-po";
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, TransactionCreatedEventDTO> input;
+    private KafkaStreams kafkaStreams;
+    private KafkaAdmin kafkaAdmin;
+    private Set<Integer> localPartitions = Set.of(0);
+    private CommissionRollupQueryService commissionRollupQueryService;
+
+    private final UUID agentId = UUID.randomUUID();
+    private final UUID otherAgentId = UUID.randomUUID();
+    private final UUID parentAgentId = UUID.randomUUID();
+    private final UUID productA = UUID.randomUUID();
+    private final UUID productB = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        KafkaStreamsConfig kafkaStreamsConfig = new KafkaStreamsConfig();
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "transactionCreatedTopic", TOPIC);
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "rollupRetentionDays", 400L);
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "rollupGraceMinutes", 60L);
+
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        kafkaStreamsConfig.transactionCreatedStream(streamsBuilder, objectMapper);
+
+        Properties properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "rollup-test");
+        properties.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        properties.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(streamsBuilder.build(), properties);
+
+        JsonSerde<TransactionCreatedEventDTO> eventSerde = new JsonSerde<>(TransactionCreatedEventDTO.class, objectMapper)
+                .noTypeInfo();
+        input = driver.createInputTopic(TOPIC, Serdes.String().serializer(), eventSerde.serializer());
+
+        kafkaStreams = mock(KafkaStreams.class);
+        when(kafkaStreams.state()).thenReturn(KafkaStreams.State.RUNNING);
+        when(kafkaStreams.store(any(StoreQueryParameters.class))).thenAnswer(invocation -> {
+            StoreQueryParameters<?> parameters = invocation.getArgument(0);
+            if (!localPartitions.contains(parameters.partition())) {
+                throw new InvalidStateStoreException("The specified partition " + parameters.partition() + " does not exist.");
+            }
+            return driver.getWindowStore(parameters.storeName());
+        });
+        when(kafkaStreams.queryMetadataForKey(eq(KafkaStreamsConfig.AGENT_ROLLUP_STORE), anyString(), any(Serializer.class)))
+                .thenReturn(new KeyQueryMetadata(HostInfo.unavailable(), Set.of(), 0));
+        StreamsBuilderFactoryBean factoryBean = mock(StreamsBuilderFactoryBean.class);
+        when(factoryBean.getKafkaStreams()).thenReturn(kafkaStreams);
+        ObjectProvider<StreamsBuilderFactoryBean> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(factoryBean);
+
+        kafkaAdmin = mock(KafkaAdmin.class);
+        topicPartitions(1);
+
+        commissionRollupQueryService = new CommissionRollupQueryService(provider, kafkaAdmin);
+        ReflectionTestUtils.setField(commissionRollupQueryService, "maxRangeDays", 93L);
+        ReflectionTestUtils.setField(commissionRollupQueryService, "transactionCreatedTopic", TOPIC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    private void topicPartitions(int count) {
+        List<TopicPartitionInfo> partitions = IntStream.range(0, count)
+                .mapToObj(partition -> new TopicPartitionInfo(partition, null, List.of(), List.of()))
+                .toList();
+        when(kafkaAdmin.describeTopics(TOPIC)).thenReturn(Map.of(TOPIC, new TopicDescription(TOPIC, false, partitions)));
+    }
+
+    private void send(UUID userId, UUID productId, String price, String commission, LocalDateTime date) {
+        send(userId, null, productId, price, commission, date);
+    }
+
+    private void send(UUID userId, UUID referenceUserId, UUID productId, String price, String commission,
+                      LocalDateTime date) {
+        TransactionCreatedEventDTO event = TransactionCreatedEventDTO.builder()
+                .transactionCreatedEventDTOTransactionId(UUID.randomUUID())
+                .transactionCreatedEventDTOUserId(userId)
+                .transactionCreatedEventDTOProductId(productId)
+                .transactionCreatedEventDTOProductName(productId.equals(productA) ? "Open Bank Account BCA" : "Open Bank Account BNI")
+                .transactionCreatedEventDTOProductPrice(new BigDecimal(price))
+                .transactionCreatedEventDTOCommissionAmount(new BigDecimal(commission))
+                .transactionCreatedEventDTOReferenceUserId(referenceUserId)
+                .transactionCreatedEventDTOReferenceCommissionAmount(referenceUserId != null ? new BigDecimal(commission) : null)
+                .transactionCreatedEventDTOTransactionDate(date)
+                .build();
+        input.pipeInput(event.getTransactionCreatedEventDTOTransactionId().toString(), event);
+    }
+
+    @Test
+    @DisplayName("Agent rollup is bucketed per local calendar day by transaction date")
+    void agentDailyRollups_perCalendarDay() {
+        send(agentId, productA, "100000", "5000", LocalDateTime.of(2025, 3, 1, 0, 5));
+        send(agentId, productB, "50000", "2500", LocalDateTime.of(2025, 3, 1, 23, 55));
+        send(agentId, productA, "100000", "5000", LocalDateTime.of(2025, 3, 2, 9, 0));
+        send(otherAgentId, productA, "100000", "5000", LocalDateTime.of(2025, 3, 1, 12, 0));
+
+        List<CommissionRollupResponse> rollups = commissionRollupQueryService.getAgentDailyRollups(
+                agentId, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31)).getRestApiResponseResults();
+
+        assertThat(rollups).hasSize(2);
+        assertThat(rollups.get(0).getCommissionRollupDate()).isEqualTo(LocalDate.of(2025, 3, 1));
+        assertThat(rollups.get(0).getCommissionRollupTransactionCount()).isEqualTo(2);
+        assertThat(rollups.get(0).getCommissionRollupGrossPrice()).isEqualByComparingTo("150000");
+        assertThat(rollups.get(0).getCommissionRollupCommission()).isEqualByComparingTo("7500");
+        assertThat(rollups.get(1).getCommissionRollupDate()).isEqualTo(LocalDate.of(2025, 3, 2));
+        assertThat(rollups.get(1).getCommissionRollupTransactionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Product rollup sums all days in range, largest commission first")
+    void productRollups_summedOverRange() {
+        send(agentId, productA, "100000", "5000", LocalDateTime.of(2025, 3, 1, 10, 0));
+        send(otherAgentId, productA, "100000", "5000", LocalDateTime.of(2025, 3, 2, 10, 0));
+        send(agentId, productB, "50000", "2500", LocalDateTime.of(2025, 3, 2, 11, 0));
+        send(agentId, productB, "50000", "2500", LocalDateTime.of(2025, 3, 5, 11, 0));
+
+        List<CommissionRollupResponse> rollups = commissionRollupQueryService.getProductRollups(
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2)).getRestApiResponseResults();
+
+        assertThat(rollups).hasSize(2);
+        assertThat(rollups.get(0).getCommissionRollupId()).isEqualTo(productA);
+        assertThat(rollups.get(0).getCommissionRollupName()).isEqualTo("Open Bank Account BCA");
+        assertThat(rollups.get(0).getCommissionRollupTransactionCount()).isEqualTo(2);
+        assertThat(rollups.get(0).getCommissionRollupCommission()).isEqualByComparingTo("10000");
+        assertThat(rollups.get(0).getCommissionRollupDate()).isNull();
+        assertThat(rollups.get(1).getCommissionRollupId()).isEqualTo(productB);
+        assertThat(rollups.get(1).getCommissionRollupTransactionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Referral parent is credited the commission without counting the sub-agent's sale")
+    void agentDailyRollups_referralParentCredited() {
+        send(agentId, parentAgentId, productA, "100000", "5000", LocalDateTime.of(2025, 3, 1, 10, 0));
+        send(parentAgentId, productB, "50000", "2500", LocalDateTime.of(2025, 3, 1, 11, 0));
+        LocalDate day = LocalDate.of(2025, 3, 1);
+
+        List<CommissionRollupResponse> parent = commissionRollupQueryService.getAgentDailyRollups(
+                parentAgentId, day, day).getRestApiResponseResults();
+        assertThat(parent).hasSize(1);
+        assertThat(parent.get(0).getCommissionRollupTransactionCount()).isEqualTo(1);
+        assertThat(parent.get(0).getCommissionRollupGrossPrice()).isEqualByComparingTo("50000");
+        assertThat(parent.get(0).getCommissionRollupCommission()).isEqualByComparingTo("7500");
+
+        List<CommissionRollupResponse> subAgent = commissionRollupQueryService.getAgentDailyRollups(
+                agentId, day, day).getRestApiResponseResults();
+        assertThat(subAgent.get(0).getCommissionRollupTransactionCount()).isEqualTo(1);
+        assertThat(subAgent.get(0).getCommissionRollupCommission()).isEqualByComparingTo("5000");
+
+        List<CommissionRollupResponse> products = commissionRollupQueryService.getProductRollups(day, day)
+                .getRestApiResponseResults();
+        assertThat(products.get(0).getCommissionRollupId()).isEqualTo(productA);
+        assertThat(products.get(0).getCommissionRollupTransactionCount()).isEqualTo(1);
+        assertThat(products.get(0).getCommissionRollupCommission()).isEqualByComparingTo("10000");
+    }
+
+    @Test
+    @DisplayName("Agent key hosted on another instance is refused instead of returning an empty rollup")
+    void agentDailyRollups_keyNotLocal_throws() {
+        when(kafkaStreams.queryMetadataForKey(eq(KafkaStreamsConfig.AGENT_ROLLUP_STORE), anyString(), any(Serializer.class)))
+                .thenReturn(new KeyQueryMetadata(HostInfo.unavailable(), Set.of(), 1));
+        LocalDate day = LocalDate.of(2025, 3, 1);
+
+        assertThatThrownBy(() -> commissionRollupQueryService.getAgentDailyRollups(agentId, day, day))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("another instance");
+    }
+
+    @Test
+    @DisplayName("Product rollup is refused when only part of the partitions is local")
+    void productRollups_partialPartitions_throws() {
+        topicPartitions(2);
+        send(agentId, productA, "100000", "5000", LocalDateTime.of(2025, 3, 1, 10, 0));
+        LocalDate day = LocalDate.of(2025, 3, 1);
+
+        assertThatThrownBy(() -> commissionRollupQueryService.getProductRollups(day, day))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("partitioned across instances");
+
+        localPartitions = Set.of(0, 1);
+        assertThat(commissionRollupQueryService.getProductRollups(day, day).getRestApiResponseResults())
+                .isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Store not RUNNING is reported as unavailable instead of falling back to the database")
+    void rollups_storeNotRunning_throws() {
+        when(kafkaStreams.state()).thenReturn(KafkaStreams.State.REBALANCING);
+        LocalDate today = LocalDate.of(2025, 3, 1);
+
+        assertThatThrownBy(() -> commissionRollupQueryService.getProductRollups(today, today))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    @DisplayName("Inverted or oversized date ranges are rejected")
+    void rollups_invalidRange_throws() {
+        assertThatThrownBy(() -> commissionRollupQueryService.getAgentDailyRollups(
+                agentId, LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> commissionRollupQueryService.getProductRollups(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
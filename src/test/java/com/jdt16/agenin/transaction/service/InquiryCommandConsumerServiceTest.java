@@ -0,0 +1,144 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.dto.event.InquiryCommandEventDTO;
+import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
+import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
+import com.jdt16.agenin.transaction.model.repository.TTransactionRepositories;
+import com.jdt16.agenin.transaction.service.implementation.module.InquiryCommandConsumerService;
+import com.jdt16.agenin.transaction.service.interfacing.module.TransactionService;
+import com.jdt16.agenin.transaction.utility.RequestContextUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InquiryCommandConsumerServiceTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TTransactionRepositories tTransactionRepositories;
+
+    private InquiryCommandConsumerService inquiryCommandConsumerService;
+
+    @BeforeEach
+    void setUp() {
+        inquiryCommandConsumerService = new InquiryCommandConsumerService(
+                transactionService, tTransactionRepositories, new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(inquiryCommandConsumerService, "init");
+    }
+
+    private static InquiryCommandEventDTO command() {
+        return InquiryCommandEventDTO.builder()
+                .inquiryCommandEventDTOTransactionId(UUID.randomUUID())
+                .inquiryCommandEventDTOTransactionDate(LocalDateTime.of(2025, 3, 1, 10, 0))
+                .inquiryCommandEventDTOUserId(UUID.randomUUID())
+                .inquiryCommandEventDTOProductId(UUID.randomUUID())
+                .inquiryCommandEventDTORequest(new TransactionRequest())
+                .inquiryCommandEventDTOUserAgent("Mozilla/5.0")
+                .inquiryCommandEventDTOIpAddress("203.0.113.7")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Each command runs with its assigned id and the original request metadata")
+    void consume_processesWithRequestMetadata() {
+        InquiryCommandEventDTO command = command();
+        AtomicReference<String> ipDuringInquiry = new AtomicReference<>();
+        when(transactionService.inquiry(any(UUID.class), any(), any(), any(), any())).thenAnswer(invocation -> {
+            ipDuringInquiry.set(RequestContextUtil.getClientIpAddress());
+            return null;
+        });
+
+        inquiryCommandConsumerService.consume(List.of(command));
+
+        verify(transactionService).inquiry(eq(command.getInquiryCommandEventDTOTransactionId()),
+                eq(command.getInquiryCommandEventDTOTransactionDate()), eq(command.getInquiryCommandEventDTOUserId()),
+                eq(command.getInquiryCommandEventDTOProductId()), any(TransactionRequest.class));
+        assertThat(ipDuringInquiry.get()).isEqualTo("203.0.113.7");
+        assertThat(RequestContextUtil.getClientIpAddress()).isEqualTo("UNKNOWN");
+    }
+
+    @Test
+    @DisplayName("Redelivered command with an existing transaction row is skipped")
+    void consume_skipsAlreadyProcessed() {
+        InquiryCommandEventDTO command = command();
+        when(tTransactionRepositories.existsById(command.getInquiryCommandEventDTOTransactionId())).thenReturn(true);
+
+        inquiryCommandConsumerService.consume(List.of(command));
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("Business failure is recorded as FAILED and does not stop the batch")
+    void consume_businessFailure_recordedAndContinues() {
+        InquiryCommandEventDTO failing = command();
+        InquiryCommandEventDTO next = command();
+        when(transactionService.inquiry(eq(failing.getInquiryCommandEventDTOTransactionId()), any(), any(), any(), any()))
+                .thenThrow(new CoreThrowHandlerException("Transaction FAILED."));
+
+        inquiryCommandConsumerService.consume(List.of(failing, next));
+
+        verify(transactionService).recordFailedInquiry(failing.getInquiryCommandEventDTOTransactionId(),
+                failing.getInquiryCommandEventDTOTransactionDate(), failing.getInquiryCommandEventDTOUserId(),
+                failing.getInquiryCommandEventDTOProductId());
+        verify(transactionService).inquiry(eq(next.getInquiryCommandEventDTOTransactionId()), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Constraint violation is recorded as FAILED instead of retrying the batch")
+    void consume_constraintViolation_recordedAsFailed() {
+        InquiryCommandEventDTO command = command();
+        when(transactionService.inquiry(any(UUID.class), any(), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+
+        inquiryCommandConsumerService.consume(List.of(command));
+
+        verify(transactionService).recordFailedInquiry(eq(command.getInquiryCommandEventDTOTransactionId()),
+                any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Infrastructure failure marks the failing command's index so only it is retried and recovered")
+    void consume_infrastructureFailure_marksFailedIndex() {
+        InquiryCommandEventDTO first = command();
+        InquiryCommandEventDTO failing = command();
+        when(transactionService.inquiry(eq(failing.getInquiryCommandEventDTOTransactionId()), any(), any(), any(), any()))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+
+        assertThatThrownBy(() -> inquiryCommandConsumerService.consume(List.of(first, failing)))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(1));
+        verify(transactionService, never()).recordFailedInquiry(any(), any(), any(), any());
+
+        inquiryCommandConsumerService.recordExhausted(failing);
+
+        verify(transactionService).recordFailedInquiry(failing.getInquiryCommandEventDTOTransactionId(),
+                failing.getInquiryCommandEventDTOTransactionDate(), failing.getInquiryCommandEventDTOUserId(),
+                failing.getInquiryCommandEventDTOProductId());
+    }
+}
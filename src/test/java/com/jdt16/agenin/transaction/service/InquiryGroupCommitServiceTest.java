@@ -0,0 +1,173 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
+import com.jdt16.agenin.transaction.dto.exception.InquiryPendingException;
+import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
+import com.jdt16.agenin.transaction.dto.response.RestApiResponse;
+import com.jdt16.agenin.transaction.dto.response.TransactionResponse;
+import com.jdt16.agenin.transaction.service.implementation.module.InquiryGroupCommitService;
+import com.jdt16.agenin.transaction.service.implementation.module.TimeOrderedIdGenerator;
+import com.jdt16.agenin.transaction.service.interfacing.module.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InquiryGroupCommitServiceTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InquiryGroupCommitService inquiryGroupCommitService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        inquiryGroupCommitService = new InquiryGroupCommitService(
+                transactionService, new TransactionTemplate(transactionManager), new SimpleMeterRegistry(),
+                new TimeOrderedIdGenerator());
+        ReflectionTestUtils.setField(inquiryGroupCommitService, "enabled", true);
+        ReflectionTestUtils.setField(inquiryGroupCommitService, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(inquiryGroupCommitService, "maxWaitMs", 2_000L);
+        ReflectionTestUtils.setField(inquiryGroupCommitService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(inquiryGroupCommitService, "awaitTimeoutMs", 5_000L);
+        ReflectionTestUtils.invokeMethod(inquiryGroupCommitService, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(inquiryGroupCommitService, "shutdown");
+    }
+
+    private static RestApiResponse<TransactionResponse> ok() {
+        return RestApiResponse.<TransactionResponse>builder().restApiResponseCode(200).build();
+    }
+
+    @Test
+    @DisplayName("Full batch is written in one transaction and every caller is completed after commit")
+    void submit_fullBatch_oneCommit() throws Exception {
+        when(transactionService.inquiry(any(UUID.class), any(), any(), any(), any())).thenReturn(ok());
+
+        List<CompletableFuture<RestApiResponse<TransactionResponse>>> results = List.of(
+                inquiryGroupCommitService.submit(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest()),
+                inquiryGroupCommitService.submit(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest()),
+                inquiryGroupCommitService.submit(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest()));
+
+        for (CompletableFuture<RestApiResponse<TransactionResponse>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).getRestApiResponseCode()).isEqualTo(200);
+        }
+        verify(transactionManager, times(1)).commit(any(TransactionStatus.class));
+        verify(transactionManager, never()).rollback(any(TransactionStatus.class));
+        verify(transactionService, times(3)).inquiry(any(UUID.class), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("A failing inquiry is isolated: batch rolls back and the rest is retried in a new batch")
+    void submit_failingItem_isolated() throws Exception {
+        UUID failingUser = UUID.randomUUID();
+        when(transactionService.inquiry(any(UUID.class), any(), any(), any(), any())).thenReturn(ok());
+        when(transactionService.inquiry(any(UUID.class), any(), eq(failingUser), any(), any()))
+                .thenThrow(new CoreThrowHandlerException("Transaction FAILED."));
+
+        CompletableFuture<RestApiResponse<TransactionResponse>> first =
+                inquiryGroupCommitService.submit(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest());
+        CompletableFuture<RestApiResponse<TransactionResponse>> failing =
+                inquiryGroupCommitService.submit(failingUser, UUID.randomUUID(), new TransactionRequest());
+        CompletableFuture<RestApiResponse<TransactionResponse>> last =
+                inquiryGroupCommitService.submit(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest());
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getRestApiResponseCode()).isEqualTo(200);
+        assertThat(last.get(5, TimeUnit.SECONDS).getRestApiResponseCode()).isEqualTo(200);
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CoreThrowHandlerException.class);
+
+        verify(transactionManager, times(1)).rollback(any(TransactionStatus.class));
+        verify(transactionManager, times(1)).commit(any(TransactionStatus.class));
+        verify(transactionService, times(4)).inquiry(any(UUID.class), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Commit failure falls back to one transaction per request")
+    void submit_commitFailure_retriedIndividually() throws Exception {
+        when(transactionService.inquiry(any(UUID.class), any(), any(), any(), any())).thenReturn(ok());
+        doThrow(new IllegalStateException("could not serialize access")).when(transactionManager).commit(any());
+
+        List<CompletableFuture<RestApiResponse<TransactionResponse>>> results = List.of(
+                inquiryGroupCommitService.submit(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest()),
+                inquiryGroupCommitService.submit(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest()),
+                inquiryGroupCommitService.submit(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest()));
+
+        for (CompletableFuture<RestApiResponse<TransactionResponse>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).getRestApiResponseCode()).isEqualTo(200);
+        }
+        verify(transactionService, times(6)).inquiry(any(UUID.class), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Blocking inquiry unwraps the business exception for the caller")
+    void inquiry_unwrapsBusinessException() {
+        ReflectionTestUtils.setField(inquiryGroupCommitService, "maxWaitMs", 0L);
+        when(transactionService.inquiry(any(UUID.class), any(), any(), any(), any()))
+                .thenThrow(new CoreThrowHandlerException("Transaction FAILED."));
+
+        assertThatThrownBy(() -> inquiryGroupCommitService.inquiry(UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest()))
+                .isInstanceOf(CoreThrowHandlerException.class)
+                .hasMessage("Transaction FAILED.");
+    }
+
+    @Test
+    @DisplayName("Await timeout reports the transaction id the writer is still processing")
+    void inquiry_awaitTimeout_carriesTransactionId() {
+        ReflectionTestUtils.setField(inquiryGroupCommitService, "maxWaitMs", 0L);
+        ReflectionTestUtils.setField(inquiryGroupCommitService, "awaitTimeoutMs", 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionService.inquiry(any(UUID.class), any(), any(), any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ok();
+        });
+
+        try {
+            InquiryPendingException pending = catchThrowableOfType(() -> inquiryGroupCommitService.inquiry(
+                    UUID.randomUUID(), UUID.randomUUID(), new TransactionRequest()), InquiryPendingException.class);
+
+            assertThat(pending).isNotNull();
+            assertThat(pending.getMessage()).contains(pending.getTransactionId().toString());
+            verify(transactionService, timeout(1_000))
+                    .inquiry(eq(pending.getTransactionId()), any(), any(), any(), any());
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.service.implementation.module.PasswordVerificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordVerificationServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordVerificationService passwordVerificationService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordVerificationService = new PasswordVerificationService(passwordEncoder, meterRegistry);
+        ReflectionTestUtils.setField(passwordVerificationService, "poolSize", 1);
+        ReflectionTestUtils.setField(passwordVerificationService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordVerificationService, "timeoutMs", 5_000L);
+        ReflectionTestUtils.setField(passwordVerificationService, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(passwordVerificationService, "cacheMaxSize", 100);
+        ReflectionTestUtils.invokeMethod(passwordVerificationService, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(passwordVerificationService, "shutdown");
+    }
+
+    @Test
+    @DisplayName("Successful verification is cached; the encoder runs once")
+    void matches_success_cached() {
+        when(passwordEncoder.matches("secret", "$hash")).thenReturn(true);
+
+        assertThat(passwordVerificationService.matches(userId, "secret", "$hash")).isTrue();
+        assertThat(passwordVerificationService.matches(userId, "secret", "$hash")).isTrue();
+
+        verify(passwordEncoder, times(1)).matches("secret", "$hash");
+        assertThat(meterRegistry.counter("password.verification.cache.hits").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Failed verification is never cached")
+    void matches_failure_notCached() {
+        when(passwordEncoder.matches("wrong", "$hash")).thenReturn(false);
+
+        assertThat(passwordVerificationService.matches(userId, "wrong", "$hash")).isFalse();
+        assertThat(passwordVerificationService.matches(userId, "wrong", "$hash")).isFalse();
+
+        verify(passwordEncoder, times(2)).matches("wrong", "$hash");
+    }
+
+    @Test
+    @DisplayName("Saturated executor rejects immediately")
+    void matches_saturated_rejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> passwordVerificationService.matches(UUID.randomUUID(), "a", "$hash"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            callers.submit(() -> passwordVerificationService.matches(UUID.randomUUID(), "b", "$hash"));
+            waitForQueueDepth(1);
+
+            assertThatThrownBy(() -> passwordVerificationService.matches(UUID.randomUUID(), "c", "$hash"))
+                    .isInstanceOf(RejectedExecutionException.class);
+            assertThat(meterRegistry.counter("password.verification.rejected").count()).isEqualTo(1.0);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    private void waitForQueueDepth(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("password.verification.queue.depth").gauge().value() < expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.cache.ProductCatalogEntry;
+import com.jdt16.agenin.transaction.dto.cache.SerializedResponseBody;
+import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
+import com.jdt16.agenin.transaction.model.repository.MProductsRepositories;
+import com.jdt16.agenin.transaction.service.implementation.module.ProductCatalogCacheService;
+import com.jdt16.agenin.transaction.service.interfacing.module.ProductCommissionProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductCatalogCacheServiceTest {
+
+    @Mock
+    private MProductsRepositories mProductsRepositories;
+
+    private ProductCatalogCacheService productCatalogCacheService;
+
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        productCatalogCacheService = new ProductCatalogCacheService(mProductsRepositories, new ObjectMapper());
+        ReflectionTestUtils.setField(productCatalogCacheService, "catalogTtlMs", 60_000L);
+        ReflectionTestUtils.setField(productCatalogCacheService, "missRefreshIntervalMs", 60_000L);
+
+        productId = UUID.randomUUID();
+        ProductCommissionProjection first = row(productId, new BigDecimal("5000"));
+        ProductCommissionProjection duplicate = row(productId, new BigDecimal("9999"));
+        when(mProductsRepositories.findAllWithCommission()).thenReturn(List.of(first, duplicate));
+    }
+
+    private ProductCommissionProjection row(UUID id, BigDecimal commission) {
+        ProductCommissionProjection projection = mock(ProductCommissionProjection.class);
+        when(projection.getProductEntityDTOId()).thenReturn(id);
+        when(projection.getProductEntityDTOName()).thenReturn("Open Bank Account BCA");
+        when(projection.getProductEntityDTOCode()).thenReturn("OBA-BCA");
+        when(projection.getProductEntityDTODesc()).thenReturn("Pembukaan rekening BCA");
+        when(projection.getProductEntityDTOPrice()).thenReturn(new BigDecimal("100000"));
+        when(projection.getCommissionsEntityDTOValue()).thenReturn(commission);
+        return projection;
+    }
+
+    @Test
+    @DisplayName("Repeated lookups are served from one joined snapshot load")
+    void getProduct_servedFromSnapshot() {
+        ProductCatalogEntry first = productCatalogCacheService.getProduct(productId);
+        ProductCatalogEntry second = productCatalogCacheService.getProduct(productId);
+
+        assertThat(first.getProductEntityDTOName()).isEqualTo("Open Bank Account BCA");
+        assertThat(first.getProductEntityDTOPrice()).isEqualByComparingTo("100000");
+        assertThat(first.getCommissionsEntityDTOValue()).isEqualByComparingTo("5000");
+        assertThat(second).isSameAs(first);
+        assertThat(productCatalogCacheService.getProducts()).hasSize(1);
+
+        verify(mProductsRepositories, times(1)).findAllWithCommission();
+    }
+
+    @Test
+    @DisplayName("Manual refresh reloads; unchanged content keeps the same version")
+    void refresh_reloadsCatalog() {
+        String version = productCatalogCacheService.getVersion();
+        productCatalogCacheService.refresh();
+
+        assertThat(productCatalogCacheService.getVersion()).isEqualTo(version);
+        verify(mProductsRepositories, times(2)).findAllWithCommission();
+
+        ProductCommissionProjection changed = row(productId, new BigDecimal("6000"));
+        when(mProductsRepositories.findAllWithCommission()).thenReturn(List.of(changed));
+        productCatalogCacheService.refresh();
+
+        assertThat(productCatalogCacheService.getVersion()).isNotEqualTo(version);
+    }
+
+    @Test
+    @DisplayName("Serialized product body is built once per snapshot and rebuilt after refresh")
+    void getSerializedProducts_memoizedPerSnapshot() {
+        SerializedResponseBody first = productCatalogCacheService.getSerializedProducts(
+                products -> List.of(products.get(0).getProductEntityDTOName()));
+        SerializedResponseBody second = productCatalogCacheService.getSerializedProducts(
+                products -> {
+                    throw new AssertionError("must not re-serialize");
+                });
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).isEqualTo("[\"Open Bank Account BCA\"]");
+        assertThat(first.getVersion()).isEqualTo(productCatalogCacheService.getVersion());
+
+        productCatalogCacheService.refresh();
+        SerializedResponseBody afterRefresh = productCatalogCacheService.getSerializedProducts(products -> List.of());
+
+        assertThat(afterRefresh).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Unknown product within the miss-refresh interval throws without reloading")
+    void getProduct_unknown_throws() {
+        productCatalogCacheService.getProduct(productId);
+        UUID unknown = UUID.randomUUID();
+
+        assertThatThrownBy(() -> productCatalogCacheService.getProduct(unknown))
+                .isInstanceOf(CoreThrowHandlerException.class)
+                .hasMessageContaining("Product with ID " + unknown + " not found");
+
+        verify(mProductsRepositories, times(1)).findAllWithCommission();
+    }
+}
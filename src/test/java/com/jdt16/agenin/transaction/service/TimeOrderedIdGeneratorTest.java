@@ -0,0 +1,43 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.service.implementation.module.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdGeneratorTest {
+
+    private final TimeOrderedIdGenerator timeOrderedIdGenerator = new TimeOrderedIdGenerator();
+
+    @Test
+    @DisplayName("Ids are RFC 9562 version 7 with the current millisecond in the top 48 bits")
+    void newId_isVersion7() {
+        long before = System.currentTimeMillis();
+        UUID id = timeOrderedIdGenerator.newId();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1);
+    }
+
+    @Test
+    @DisplayName("Ids generated in a burst are unique and strictly increasing in index byte order")
+    void newId_monotonicWithinSameMillisecond() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            ids.add(timeOrderedIdGenerator.newId().toString());
+        }
+
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(ids.get(i)).isGreaterThan(ids.get(i - 1));
+        }
+    }
+}
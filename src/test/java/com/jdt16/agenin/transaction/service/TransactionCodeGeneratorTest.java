@@ -0,0 +1,112 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.service.implementation.module.TransactionCodeGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCodeGeneratorTest {
+
+    @Test
+    @DisplayName("Code is TRX_ plus 18 Crockford base32 characters and decodes to its creation time")
+    void nextCode_formatAndDecode() {
+        TransactionCodeGenerator transactionCodeGenerator = new TransactionCodeGenerator(42);
+        long before = System.currentTimeMillis();
+        String code = transactionCodeGenerator.nextCode();
+        long after = System.currentTimeMillis();
+
+        assertThat(code).hasSize(TransactionCodeGenerator.CODE_LENGTH).matches("TRX_[0-9A-HJKMNP-TV-Z]{18}");
+        Instant createdAt = TransactionCodeGenerator.decodeCreatedAt(code).orElseThrow();
+        assertThat(createdAt.toEpochMilli()).isBetween(before, after + 1);
+    }
+
+    @Test
+    @DisplayName("Codes from one node are unique and strictly increasing")
+    void nextCode_monotonic() {
+        TransactionCodeGenerator transactionCodeGenerator = new TransactionCodeGenerator(7);
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            codes.add(transactionCodeGenerator.nextCode());
+        }
+
+        assertThat(new HashSet<>(codes)).hasSize(codes.size());
+        for (int i = 1; i < codes.size(); i++) {
+            assertThat(codes.get(i)).isGreaterThan(codes.get(i - 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Late transaction dates keep their millisecond and never collide with codes already issued for it")
+    void nextCode_lateDates_uniqueAndDecodeToDate() {
+        TransactionCodeGenerator transactionCodeGenerator = new TransactionCodeGenerator(7);
+        Instant submittedAt = Instant.now().minus(Duration.ofHours(2)).truncatedTo(ChronoUnit.MILLIS);
+        HashSet<String> codes = new HashSet<>();
+        codes.add(transactionCodeGenerator.nextCode(submittedAt));
+        codes.add(transactionCodeGenerator.nextCode());
+        for (int i = 0; i < 5_000; i++) {
+            String code = transactionCodeGenerator.nextCode(submittedAt);
+            assertThat(TransactionCodeGenerator.decodeCreatedAt(code)).contains(submittedAt);
+            codes.add(code);
+        }
+
+        assertThat(codes).hasSize(5_002);
+    }
+
+    @Test
+    @DisplayName("Different nodes never produce the same code")
+    void nextCode_nodesDisjoint() {
+        TransactionCodeGenerator first = new TransactionCodeGenerator(1);
+        TransactionCodeGenerator second = new TransactionCodeGenerator(2);
+        HashSet<String> codes = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            codes.add(first.nextCode());
+            codes.add(second.nextCode());
+        }
+
+        assertThat(codes).hasSize(10_000);
+    }
+
+    @Test
+    @DisplayName("Legacy and malformed codes do not decode; node id is range checked")
+    void decode_rejectsLegacyAndInvalid() {
+        assertThat(TransactionCodeGenerator.decodeCreatedAt(
+                "TRX_3F2504E0-4F89-11D3-9A0C-0305E82C3301_01032025")).isEmpty();
+        assertThat(TransactionCodeGenerator.decodeCreatedAt("TRX_01JNQ0ZUABCDEFGHIJ")).isEmpty();
+        assertThat(TransactionCodeGenerator.decodeCreatedAt(null)).isEmpty();
+
+        assertThatThrownBy(() -> new TransactionCodeGenerator(1 << 20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Missing node id fails startup in production profiles and falls back to random elsewhere")
+    void init_missingNodeId_requiredInProduction() {
+        TransactionCodeGenerator production = new TransactionCodeGenerator();
+        ReflectionTestUtils.setField(production, "requiredProfiles", new String[]{"prod", "production"});
+        MockEnvironment productionEnvironment = new MockEnvironment();
+        productionEnvironment.setActiveProfiles("prod");
+        production.setEnvironment(productionEnvironment);
+
+        assertThatThrownBy(() -> ReflectionTestUtils.invokeMethod(production, "init"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("AGENIN_TRANSACTION_CODE_NODE_ID");
+
+        TransactionCodeGenerator development = new TransactionCodeGenerator();
+        ReflectionTestUtils.setField(development, "requiredProfiles", new String[]{"prod", "production"});
+        development.setEnvironment(new MockEnvironment());
+        ReflectionTestUtils.invokeMethod(development, "init");
+
+        assertThat(development.nextCode()).hasSize(TransactionCodeGenerator.CODE_LENGTH);
+    }
+}
@@ -0,0 +1,83 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.dto.entity.AuditOutboxEntityDTO;
+import com.jdt16.agenin.transaction.dto.event.TransactionCreatedEventDTO;
+import com.jdt16.agenin.transaction.model.repository.TAuditOutboxRepositories;
+import com.jdt16.agenin.transaction.service.implementation.module.TransactionCreatedPublisherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionCreatedPublisherServiceTest {
+
+    private static final String TOPIC = "transaction-created-po";
+
+    @Mock
+    private TAuditOutboxRepositories tAuditOutboxRepositories;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private TransactionCreatedPublisherService transactionCreatedPublisherService;
+
+    @BeforeEach
+    void setUp() {
+        transactionCreatedPublisherService = new TransactionCreatedPublisherService(
+                tAuditOutboxRepositories, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(transactionCreatedPublisherService, "enabled", true);
+        ReflectionTestUtils.setField(transactionCreatedPublisherService, "transactionCreatedTopic", TOPIC);
+        ReflectionTestUtils.invokeMethod(transactionCreatedPublisherService, "init");
+    }
+
+    private static TransactionCreatedEventDTO event() {
+        return TransactionCreatedEventDTO.builder()
+                .transactionCreatedEventDTOTransactionId(UUID.randomUUID())
+                .transactionCreatedEventDTOUserId(UUID.randomUUID())
+                .transactionCreatedEventDTOProductId(UUID.randomUUID())
+                .transactionCreatedEventDTOCommissionAmount(new BigDecimal("5000"))
+                .transactionCreatedEventDTOTransactionDate(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Event is written to the outbox with its topic and transaction id key, never sent directly")
+    void publish_writesOutboxRow() throws Exception {
+        TransactionCreatedEventDTO event = event();
+
+        transactionCreatedPublisherService.publish(event);
+
+        ArgumentCaptor<AuditOutboxEntityDTO> captor = ArgumentCaptor.forClass(AuditOutboxEntityDTO.class);
+        verify(tAuditOutboxRepositories).save(captor.capture());
+        AuditOutboxEntityDTO outbox = captor.getValue();
+        assertThat(outbox.getAuditOutboxEntityDTOTopic()).isEqualTo(TOPIC);
+        assertThat(outbox.getAuditOutboxEntityDTOMessageKey())
+                .isEqualTo(event.getTransactionCreatedEventDTOTransactionId().toString());
+        assertThat(outbox.getAuditOutboxEntityDTOId().version()).isEqualTo(7);
+        assertThat(objectMapper.readValue(outbox.getAuditOutboxEntityDTOPayload(), TransactionCreatedEventDTO.class)
+                .getTransactionCreatedEventDTOCommissionAmount()).isEqualByComparingTo("5000");
+    }
+
+    @Test
+    @DisplayName("Rollup disabled → nothing is written")
+    void publish_disabled_noop() {
+        ReflectionTestUtils.setField(transactionCreatedPublisherService, "enabled", false);
+
+        transactionCreatedPublisherService.publish(event());
+
+        verify(tAuditOutboxRepositories, never()).save(any());
+    }
+}
@@ -1,16 +1,27 @@
 package com.jdt16.agenin.transaction.service;
 
-import com.jdt16.agenin.transaction.configuration.security.SecurityConfig;
+import com.jdt16.agenin.transaction.dto.cache.ProductCatalogEntry;
 import com.jdt16.agenin.transaction.dto.entity.*;
+import com.jdt16.agenin.transaction.dto.event.BalanceChangeEventDTO;
+import com.jdt16.agenin.transaction.dto.event.TransactionCreatedEventDTO;
 import com.jdt16.agenin.transaction.dto.exception.CoreThrowHandlerException;
 import com.jdt16.agenin.transaction.dto.request.CommissionToWalletRequest;
 import com.jdt16.agenin.transaction.dto.request.TransactionRequest;
 import com.jdt16.agenin.transaction.dto.response.*;
 import com.jdt16.agenin.transaction.model.repository.*;
+import com.jdt16.agenin.transaction.service.implementation.module.BalanceChangePublisherService;
+import com.jdt16.agenin.transaction.service.implementation.module.BalanceStoreQueryService;
+import com.jdt16.agenin.transaction.service.implementation.module.TimeOrderedIdGenerator;
+import com.jdt16.agenin.transaction.service.implementation.module.TransactionCodeGenerator;
+import com.jdt16.agenin.transaction.service.implementation.module.TransactionCreatedPublisherService;
+import com.jdt16.agenin.transaction.service.implementation.module.ProductCatalogCacheService;
 import com.jdt16.agenin.transaction.service.implementation.module.TransactionServiceImpl;
-import com.jdt16.agenin.transaction.service.interfacing.module.CommissionValueProjection;
-import com.jdt16.agenin.transaction.service.interfacing.module.ProductProjection;
-import com.jdt16.agenin.transaction.service.interfacing.module.TransactionService;
+import com.jdt16.agenin.transaction.service.implementation.module.UserBalanceShardingService;
+import com.jdt16.agenin.transaction.service.implementation.module.PasswordVerificationService;
+import com.jdt16.agenin.transaction.service.implementation.module.UserIdentityCacheService;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAmountProjection;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAndWalletLastUpdateProjection;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserWalletAmountProjection;
 import com.jdt16.agenin.transaction.service.implementation.module.AuditLogProducerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,13 +33,20 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -43,15 +61,15 @@ class TransactionServiceImplTest {
     @Mock
     private TTransactionRepositories tTransactionRepositories;
     @Mock
-    private MProductsRepositories mProductsRepositories;
-    @Mock
     private MUserBalanceRepositories mUserBalanceRepositories;
     @Mock
     private MUserWalletRepositories mUserWalletRepositories;
     @Mock
     private TUsersBalanceHistoricalRepositories tUsersBalanceHistoricalRepositories;
     @Mock
-    private MCommissionRepositories mCommissionRepositories;
+    private ProductCatalogCacheService productCatalogCacheService;
+    @Mock
+    private UserBalanceShardingService userBalanceShardingService;
     @Mock
     private TTransactionOpenBankAccountRepositories tTransactionOpenBankAccountRepositories;
     @Mock
@@ -61,7 +79,13 @@ class TransactionServiceImplTest {
     @Mock
     private AuditLogProducerService auditLogProducerService;
     @Mock
-    private SecurityConfig securityConfig;
+    private PasswordVerificationService passwordVerificationService;
+    @Mock
+    private BalanceChangePublisherService balanceChangePublisherService;
+    @Mock
+    private BalanceStoreQueryService balanceStoreQueryService;
+    @Mock
+    private TransactionCreatedPublisherService transactionCreatedPublisherService;
 
     private TransactionServiceImpl service;
 
@@ -74,24 +98,38 @@ class TransactionServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        UserIdentityCacheService userIdentityCacheService = new UserIdentityCacheService(mUserRepositories);
+        ReflectionTestUtils.setField(userIdentityCacheService, "userTtlMs", 30_000L);
+        ReflectionTestUtils.setField(userIdentityCacheService, "maxSize", 100);
+
         service = new TransactionServiceImpl(
                 mUserRepositories,
                 tTransactionRepositories,
-                mProductsRepositories,
                 mUserBalanceRepositories,
                 mUserWalletRepositories,
                 tUsersBalanceHistoricalRepositories,
-                mCommissionRepositories,
+                productCatalogCacheService,
+                userBalanceShardingService,
+                userIdentityCacheService,
+                passwordVerificationService,
                 auditLogProducerService,
                 tTransactionOpenBankAccountRepositories,
                 tUsersReferralRepositories,
-                tUsersWalletHistoricalRepositories
+                tUsersWalletHistoricalRepositories,
+                new ObjectMapper().findAndRegisterModules(),
+                balanceChangePublisherService,
+                balanceStoreQueryService,
+                transactionCreatedPublisherService,
+                new TimeOrderedIdGenerator(),
+                new TransactionCodeGenerator(1)
         );
 
+        ReflectionTestUtils.setField(service, "lookupClockSkewMs", 60_000L);
+
         realEncoder = new BCryptPasswordEncoder();
 
-        ReflectionTestUtils.setField(service, "securityConfig", securityConfig);
-        when(securityConfig.passwordEncoder()).thenReturn(realEncoder);
+        when(passwordVerificationService.matches(any(UUID.class), any(), any()))
+                .thenAnswer(inv -> realEncoder.matches(inv.getArgument(1), inv.getArgument(2)));
 
         userId = UUID.randomUUID();
         productId = UUID.randomUUID();
@@ -145,40 +183,40 @@ class TransactionServiceImplTest {
     }
 
     /**
-     * Product (projection) + commission (projection).
+     * Product + commission dari catalog cache.
      */
     private void mockProductAndCommission() {
-        ProductProjection productProjection = mock(ProductProjection.class);
-        when(productProjection.getProductEntityDTOName()).thenReturn("Open Bank Account BCA");
-        when(productProjection.getProductEntityDTOPrice()).thenReturn(new BigDecimal("100000"));
-        when(mProductsRepositories.findByProductEntityDTOId(eq(productId)))
-                .thenReturn(Optional.of(productProjection));
-
-        CommissionValueProjection commissionProjection = mock(CommissionValueProjection.class);
-        when(commissionProjection.getCommissionsEntityDTOValue()).thenReturn(new BigDecimal("5000"));
-        when(mCommissionRepositories.findByCommissionsEntityDTOProductId(eq(productId)))
-                .thenReturn(Optional.of(commissionProjection));
+        ProductCatalogEntry productCatalogEntry = ProductCatalogEntry.builder()
+                .productEntityDTOId(productId)
+                .productEntityDTOName("Open Bank Account BCA")
+                .productEntityDTOPrice(new BigDecimal("100000"))
+                .commissionsEntityDTOValue(new BigDecimal("5000"))
+                .build();
+        when(productCatalogCacheService.getProduct(eq(productId))).thenReturn(productCatalogEntry);
     }
 
     /**
-     * Balance creation/update for all user.
+     * Balance credit (base row or slot) for all user.
      */
     private void mockUserBalanceCreation() {
-        when(mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(any(UUID.class)))
-                .thenReturn(Optional.empty());
+        when(userBalanceShardingService.incrementBalance(any(UUID.class), any(BigDecimal.class), any(UUID.class)))
+                .thenAnswer(inv -> UUID.randomUUID());
+    }
 
-        when(mUserBalanceRepositories.save(any(UserBalanceEntityDTO.class)))
-                .thenAnswer(inv -> {
-                    UserBalanceEntityDTO userBalanceEntityDTO = inv.getArgument(0);
-                    if (userBalanceEntityDTO.getUserBalanceEntityDTOId() == null) {
-                        userBalanceEntityDTO.setUserBalanceEntityDTOId(UUID.randomUUID());
-                    }
-                    if (userBalanceEntityDTO.getUserBalanceEntityDTOBalanceAmount() == null) {
-                        userBalanceEntityDTO.setUserBalanceEntityDTOBalanceAmount(BigDecimal.ZERO);
-                    }
-                    userBalanceEntityDTO.setUserBalanceEntityDTOBalanceLastUpdate(LocalDateTime.now());
-                    return userBalanceEntityDTO;
-                });
+    private UserBalanceAmountProjection balanceProjection(UUID balanceId, BigDecimal amount) {
+        UserBalanceAmountProjection projection = mock(UserBalanceAmountProjection.class);
+        when(projection.getUserBalanceEntityDTOId()).thenReturn(balanceId);
+        when(projection.getUserBalanceEntityDTOBalanceAmount()).thenReturn(amount);
+        when(projection.getUserBalanceEntityDTOBalanceLastUpdate()).thenReturn(LocalDateTime.now());
+        return projection;
+    }
+
+    private UserWalletAmountProjection walletProjection(UUID walletId, BigDecimal amount) {
+        UserWalletAmountProjection projection = mock(UserWalletAmountProjection.class);
+        when(projection.getUserWalletEntityDTOId()).thenReturn(walletId);
+        when(projection.getUserWalletEntityDTOAmount()).thenReturn(amount);
+        when(projection.getUserWalletEntityDTOLastUpdate()).thenReturn(LocalDateTime.now());
+        return projection;
     }
 
     /**
@@ -240,16 +278,23 @@ class TransactionServiceImplTest {
                 assertThat(restApiResponse.getRestApiResponseMessage()).isEqualTo("SUCCESS");
                 assertThat(restApiResponse.getRestApiResponseResults()).isNotNull();
 
-                verify(tTransactionRepositories).save(any(TransactionEntityDTO.class));
+                ArgumentCaptor<TransactionEntityDTO> transactionCaptor = ArgumentCaptor.forClass(TransactionEntityDTO.class);
+                verify(tTransactionRepositories).save(transactionCaptor.capture());
+                assertThat(transactionCaptor.getValue().isNew()).isTrue();
+                assertThat(transactionCaptor.getValue().getId().version()).isEqualTo(7);
                 verify(tTransactionOpenBankAccountRepositories).save(any(TransactionOpenBankAccountEntityDTO.class));
 
-                verify(mCommissionRepositories, atLeast(2))
-                        .findByCommissionsEntityDTOProductId(eq(productId));
+                verify(productCatalogCacheService, atLeast(2)).getProduct(eq(productId));
 
-                verify(mUserBalanceRepositories, atLeastOnce()).save(any(UserBalanceEntityDTO.class));
+                verify(userBalanceShardingService).incrementBalance(eq(userId), eq(new BigDecimal("5000")), any(UUID.class));
+                verify(mUserBalanceRepositories, never()).save(any(UserBalanceEntityDTO.class));
                 verify(tUsersBalanceHistoricalRepositories).save(any(UserBalanceHistoricalEntityDTO.class));
 
-                verify(mProductsRepositories, atLeastOnce()).findByProductEntityDTOId(eq(productId));
+                ArgumentCaptor<TransactionCreatedEventDTO> eventCaptor = ArgumentCaptor.forClass(TransactionCreatedEventDTO.class);
+                verify(transactionCreatedPublisherService).publish(eventCaptor.capture());
+                assertThat(eventCaptor.getValue().getTransactionCreatedEventDTOUserId()).isEqualTo(userId);
+                assertThat(eventCaptor.getValue().getTransactionCreatedEventDTOProductId()).isEqualTo(productId);
+                assertThat(eventCaptor.getValue().getTransactionCreatedEventDTOCommissionAmount()).isEqualByComparingTo("5000");
 
                 verifyNoInteractions(mUserWalletRepositories, tUsersWalletHistoricalRepositories);
             }
@@ -277,25 +322,59 @@ class TransactionServiceImplTest {
                 verify(tTransactionRepositories).save(any(TransactionEntityDTO.class));
                 verify(tTransactionOpenBankAccountRepositories).save(any(TransactionOpenBankAccountEntityDTO.class));
 
-                verify(mUserBalanceRepositories, times(2)).save(any(UserBalanceEntityDTO.class));
+                verify(userBalanceShardingService).incrementBalance(eq(userId), any(BigDecimal.class), any(UUID.class));
+                verify(userBalanceShardingService).incrementBalance(eq(parentUserId), any(BigDecimal.class), any(UUID.class));
                 verify(tUsersBalanceHistoricalRepositories, atLeast(2))
                         .save(any(UserBalanceHistoricalEntityDTO.class));
 
                 verify(tUsersReferralRepositories).findReferenceUserIdByInviteeUserId(eq(userId));
+                verify(mUserRepositories, times(1)).findByUserEntityDTOId(eq(userId));
+
+                verify(productCatalogCacheService, atLeast(2)).getProduct(eq(productId));
 
-                verify(mProductsRepositories, atLeastOnce()).findByProductEntityDTOId(eq(productId));
-                verify(mCommissionRepositories, atLeast(2))
-                        .findByCommissionsEntityDTOProductId(eq(productId));
+                ArgumentCaptor<BigDecimal> amountCaptor = ArgumentCaptor.forClass(BigDecimal.class);
+                verify(userBalanceShardingService, times(2)).incrementBalance(any(UUID.class), amountCaptor.capture(), any(UUID.class));
+                assertThat(amountCaptor.getAllValues())
+                        .allSatisfy(amount -> assertThat(amount).isGreaterThan(BigDecimal.ZERO));
+                verify(mUserBalanceRepositories, never()).save(any(UserBalanceEntityDTO.class));
 
-                ArgumentCaptor<UserBalanceEntityDTO> balCaptor = ArgumentCaptor.forClass(UserBalanceEntityDTO.class);
-                verify(mUserBalanceRepositories, atLeast(2)).save(balCaptor.capture());
-                UserBalanceEntityDTO finalSave = balCaptor.getAllValues().get(balCaptor.getAllValues().size() - 1);
-                assertThat(finalSave.getUserBalanceEntityDTOBalanceAmount())
-                        .isNotNull()
-                        .isGreaterThan(BigDecimal.ZERO);
+                ArgumentCaptor<TransactionCreatedEventDTO> eventCaptor = ArgumentCaptor.forClass(TransactionCreatedEventDTO.class);
+                verify(transactionCreatedPublisherService).publish(eventCaptor.capture());
+                assertThat(eventCaptor.getValue().getTransactionCreatedEventDTOUserId()).isEqualTo(userId);
+                assertThat(eventCaptor.getValue().getTransactionCreatedEventDTOReferenceUserId()).isEqualTo(parentUserId);
+                assertThat(eventCaptor.getValue().getTransactionCreatedEventDTOReferenceCommissionAmount())
+                        .isEqualByComparingTo(eventCaptor.getValue().getTransactionCreatedEventDTOCommissionAmount());
 
                 verifyNoInteractions(mUserWalletRepositories, tUsersWalletHistoricalRepositories);
             }
+
+            @Test
+            @DisplayName("200 OK inquiry(): async command processed 3h late gets a code for its transaction date, found by code")
+            void inquiry_lateAsyncCommand_codeFollowsTransactionDate() {
+                mockProductAndCommission();
+                mockUserBalanceCreation();
+                mockTransactionSaves();
+                mockUserRole("AGENT");
+                LocalDateTime submittedAt = LocalDateTime.now().minusHours(3).withNano(0);
+
+                service.inquiry(UUID.randomUUID(), submittedAt, userId, productId, buildTransactionRequest());
+
+                ArgumentCaptor<TransactionEntityDTO> transactionCaptor = ArgumentCaptor.forClass(TransactionEntityDTO.class);
+                verify(tTransactionRepositories).save(transactionCaptor.capture());
+                String code = transactionCaptor.getValue().getTransactionEntityDTOCode();
+                assertThat(TransactionCodeGenerator.decodeCreatedAt(code))
+                        .contains(submittedAt.atZone(ZoneId.systemDefault()).toInstant());
+
+                when(tTransactionRepositories.findCustomerOpenBankAccountByCode(eq(code), eq(userId), any(), any()))
+                        .thenReturn(Optional.of(new CustomerOpenBankAccountResponse(
+                                UUID.randomUUID(), "Open Bank Account BCA", new BigDecimal("100000"),
+                                "Alice", "111222333", "08123456789", "alice@example.com", "Jl. Mawar No. 1",
+                                submittedAt, "SUCCESS")));
+                service.getTransactionByCode(userId, code);
+
+                verify(tTransactionRepositories).findCustomerOpenBankAccountByCode(
+                        code, userId, submittedAt.minusMinutes(1), submittedAt.plusMinutes(1));
+            }
         }
 
         @Nested
@@ -319,9 +398,8 @@ class TransactionServiceImplTest {
                         .hasMessageContaining("User not found");
 
                 verify(mUserRepositories).findByUserEntityDTOId(eq(userId));
-                verify(mProductsRepositories, atLeastOnce()).findByProductEntityDTOId(eq(productId));
 
-                verifyNoInteractions(mUserWalletRepositories, tUsersWalletHistoricalRepositories);
+                verifyNoInteractions(tTransactionRepositories, mUserWalletRepositories, tUsersWalletHistoricalRepositories);
             }
 
             @Test
@@ -340,20 +418,39 @@ class TransactionServiceImplTest {
 
                 verify(tTransactionRepositories).save(any(TransactionEntityDTO.class));
                 verify(tTransactionOpenBankAccountRepositories).save(any(TransactionOpenBankAccountEntityDTO.class));
-                verify(mProductsRepositories, atLeastOnce()).findByProductEntityDTOId(eq(productId));
+                verify(productCatalogCacheService, atLeastOnce()).getProduct(eq(productId));
 
                 verifyNoInteractions(mUserWalletRepositories, tUsersWalletHistoricalRepositories);
             }
         }
     }
 
+    @Nested
+    @DisplayName("Inquiry identity cache")
+    class InquiryIdentityCache {
+        @Test
+        @DisplayName("Repeated inquiries by the same agent query M_USERS once")
+        void inquiry_repeated_userLoadedOnce() {
+            mockProductAndCommission();
+            mockUserBalanceCreation();
+            mockTransactionSaves();
+            mockUserRole("AGENT");
+
+            service.inquiry(userId, productId, buildTransactionRequest());
+            service.inquiry(userId, productId, buildTransactionRequest());
+
+            verify(mUserRepositories, times(1)).findByUserEntityDTOId(eq(userId));
+            verify(tTransactionRepositories, times(2)).save(any(TransactionEntityDTO.class));
+        }
+    }
+
     @Nested
     @DisplayName("getListProducts")
     class GetListProducts {
         @Test
         @DisplayName("200 OK: (negative) empty → return empty list")
         void getListProducts_empty() {
-            when(mProductsRepositories.findAll()).thenReturn(Collections.emptyList());
+            when(productCatalogCacheService.getProducts()).thenReturn(Collections.emptyList());
 
             RestApiResponse<List<ProductsResponse>> restApiResponse = service.getListProducts();
 
@@ -362,42 +459,31 @@ class TransactionServiceImplTest {
             assertThat(restApiResponse.getRestApiResponseMessage()).isEqualTo("SUCCESS GET Products");
             assertThat(restApiResponse.getRestApiResponseResults()).isNotNull().isEmpty();
 
-            verify(mProductsRepositories, times(1)).findAll();
-            verifyNoMoreInteractions(mProductsRepositories);
+            verify(productCatalogCacheService, times(1)).getProducts();
+            verifyNoMoreInteractions(productCatalogCacheService);
         }
 
         @Test
-        @DisplayName("200 OK: non-empty → return list of products (with commission projections)")
+        @DisplayName("200 OK: non-empty → return list of products with commission from the catalog snapshot")
         void getListProducts_nonEmpty_withCommissionProjection() {
             UUID uuid = UUID.randomUUID();
             UUID uuid1 = UUID.randomUUID();
 
-            ProductsEntityDTO productsEntityDTO = mock(ProductsEntityDTO.class);
-            ProductsEntityDTO productsEntityDTO1 = mock(ProductsEntityDTO.class);
-
-            when(productsEntityDTO.getProductEntityDTOId()).thenReturn(uuid);
-            when(productsEntityDTO1.getProductEntityDTOId()).thenReturn(uuid1);
-
-            when(productsEntityDTO.getProductEntityDTOName()).thenReturn("Open Bank Account BCA");
-            when(productsEntityDTO1.getProductEntityDTOName()).thenReturn("Open Bank Account BRI");
-
-            when(productsEntityDTO.getProductEntityDTOPrice()).thenReturn(new BigDecimal("1000000"));
-            when(productsEntityDTO1.getProductEntityDTOPrice()).thenReturn(new BigDecimal("2000000"));
+            when(productCatalogCacheService.getProducts()).thenReturn(List.of(
+                    ProductCatalogEntry.builder()
+                            .productEntityDTOId(uuid)
+                            .productEntityDTOName("Open Bank Account BCA")
+                            .productEntityDTOPrice(new BigDecimal("1000000"))
+                            .commissionsEntityDTOValue(new BigDecimal("150000"))
+                            .build(),
+                    ProductCatalogEntry.builder()
+                            .productEntityDTOId(uuid1)
+                            .productEntityDTOName("Open Bank Account BRI")
+                            .productEntityDTOPrice(new BigDecimal("2000000"))
+                            .commissionsEntityDTOValue(new BigDecimal("175000"))
+                            .build()
+            ));
 
-            when(mProductsRepositories.findAll()).thenReturn(List.of(productsEntityDTO, productsEntityDTO1));
-
-            CommissionValueProjection commissionValueProjection = mock(CommissionValueProjection.class);
-            when(commissionValueProjection.getCommissionsEntityDTOProductId()).thenReturn(uuid);
-            when(commissionValueProjection.getCommissionsEntityDTOValue()).thenReturn(new BigDecimal("150000"));
-
-            CommissionValueProjection commissionValueProjection1 = mock(CommissionValueProjection.class);
-            when(commissionValueProjection1.getCommissionsEntityDTOProductId()).thenReturn(uuid1);
-            when(commissionValueProjection1.getCommissionsEntityDTOValue()).thenReturn(new BigDecimal("175000"));
-
-            when(mCommissionRepositories.findByCommissionsEntityDTOProductId(uuid))
-                    .thenReturn(Optional.of(commissionValueProjection));
-            when(mCommissionRepositories.findByCommissionsEntityDTOProductId(uuid1))
-                    .thenReturn(Optional.of(commissionValueProjection1));
             RestApiResponse<List<ProductsResponse>> listRestApiResponse = service.getListProducts();
 
             assertThat(listRestApiResponse).isNotNull();
@@ -410,12 +496,24 @@ class TransactionServiceImplTest {
             ProductsResponse productsResponse1 = results.stream().filter(r -> "Open Bank Account BRI".equals(r.getProductEntityDTOName())).findFirst().orElseThrow();
 
             assertThat(productsResponse.getProductEntityDTOPrice()).isEqualByComparingTo("1000000");
+            assertThat(productsResponse.getCommissionsEntityDTOValue()).isEqualByComparingTo("150000");
             assertThat(productsResponse1.getProductEntityDTOPrice()).isEqualByComparingTo("2000000");
+            assertThat(productsResponse1.getCommissionsEntityDTOValue()).isEqualByComparingTo("175000");
+
+            verify(productCatalogCacheService, times(1)).getProducts();
+            verify(productCatalogCacheService, never()).getProduct(any(UUID.class));
+        }
+
+        @Test
+        @DisplayName("404: product without commission keeps the existing error")
+        void getListProducts_missingCommission_throws() {
+            UUID uuid = UUID.randomUUID();
+            when(productCatalogCacheService.getProducts()).thenReturn(List.of(
+                    ProductCatalogEntry.builder().productEntityDTOId(uuid).productEntityDTOName("X").build()));
 
-            verify(mProductsRepositories, times(1)).findAll();
-            verify(mCommissionRepositories, times(1)).findByCommissionsEntityDTOProductId(uuid);
-            verify(mCommissionRepositories, times(1)).findByCommissionsEntityDTOProductId(uuid1);
-            verifyNoMoreInteractions(mProductsRepositories, mCommissionRepositories);
+            assertThatThrownBy(() -> service.getListProducts())
+                    .isInstanceOf(CoreThrowHandlerException.class)
+                    .hasMessageContaining("Commission value for ID products " + uuid + " not found");
         }
     }
 
@@ -427,45 +525,17 @@ class TransactionServiceImplTest {
         @DisplayName("200 OK (Positive): transactions exist → return sorted list with details")
         void getAllTransactionsByUser_positive_success() {
             UUID uuid = userId;
-            UUID trx1 = UUID.randomUUID();
-            TransactionEntityDTO transactionEntityDTO = TransactionEntityDTO.builder()
-                    .transactionEntityDTOId(trx1)
-                    .transactionEntityDTOUserId(uuid)
-                    .transactionEntityDTOProductName("Open Bank Account BCA")
-                    .transactionEntityDTOProductPrice(new BigDecimal("100000"))
-                    .transactionEntityDTODate(LocalDateTime.now().minusDays(1))
-                    .transactionEntityDTOStatus("SUCCESS")
-                    .build();
-
-            UUID trx2 = UUID.randomUUID();
-            TransactionEntityDTO transactionEntityDTO1 = TransactionEntityDTO.builder()
-                    .transactionEntityDTOId(trx2)
-                    .transactionEntityDTOUserId(uuid)
-                    .transactionEntityDTOProductName("Open Bank Account BRI")
-                    .transactionEntityDTOProductPrice(new BigDecimal("50000"))
-                    .transactionEntityDTODate(LocalDateTime.now().minusDays(3))
-                    .transactionEntityDTOStatus("SUCCESS")
-                    .build();
-
-            when(tTransactionRepositories.findByTransactionEntityDTOUserId(eq(uuid)))
-                    .thenReturn(List.of(transactionEntityDTO1, transactionEntityDTO));
-
-            TransactionOpenBankAccountEntityDTO transactionOpenBankAccountEntityDTO = new TransactionOpenBankAccountEntityDTO();
-            transactionOpenBankAccountEntityDTO.setTransactionOpenBankAccountEntityDTOId(UUID.randomUUID());
-            transactionOpenBankAccountEntityDTO.setTransactionOpenBankAccountEntityDTOTransactionId(trx1);
-            transactionOpenBankAccountEntityDTO.setTransactionOpenBankAccountEntityDTOCustomerName("Alice");
-            transactionOpenBankAccountEntityDTO.setTransactionOpenBankAccountEntityDTOCustomerIdentityNumber("111222333");
-            transactionOpenBankAccountEntityDTO.setTransactionOpenBankAccountEntityDTOCustomerPhoneNumber("08123456789");
-            transactionOpenBankAccountEntityDTO.setTransactionOpenBankAccountEntityDTOCustomerEmail("alice@example.com");
-            transactionOpenBankAccountEntityDTO.setTransactionOpenBankAccountEntityDTOCustomerAddress("Jl. Mawar No. 1");
-
-            when(tTransactionOpenBankAccountRepositories
-                    .findByTransactionOpenBankAccountEntityDTOTransactionId(eq(trx1)))
-                    .thenReturn(Optional.of(transactionOpenBankAccountEntityDTO));
-
-            when(tTransactionOpenBankAccountRepositories
-                    .findByTransactionOpenBankAccountEntityDTOTransactionId(eq(trx2)))
-                    .thenReturn(Optional.empty());
+            CustomerOpenBankAccountResponse latest = new CustomerOpenBankAccountResponse(
+                    UUID.randomUUID(), "Open Bank Account BCA", new BigDecimal("100000"),
+                    "Alice", "111222333", "08123456789", "alice@example.com", "Jl. Mawar No. 1",
+                    LocalDateTime.now().minusDays(1), "SUCCESS");
+            CustomerOpenBankAccountResponse withoutDetail = new CustomerOpenBankAccountResponse(
+                    UUID.randomUUID(), "Open Bank Account BRI", new BigDecimal("50000"),
+                    null, null, null, null, null,
+                    LocalDateTime.now().minusDays(3), "SUCCESS");
+
+            when(tTransactionRepositories.findCustomerOpenBankAccountsByUserId(eq(uuid)))
+                    .thenReturn(List.of(latest, withoutDetail));
 
             RestApiResponse<List<CustomerOpenBankAccountResponse>> restApiResponse =
                     service.getAllTransactionsByUser(uuid);
@@ -491,25 +561,19 @@ class TransactionServiceImplTest {
             assertThat(customerOpenBankAccountResponse1.getCustomerOpenBankAccountProductPrice()).isEqualByComparingTo("50000");
             assertThat(customerOpenBankAccountResponse1.getCustomerOpenBankAccountTransactionStatus()).isEqualTo("SUCCESS");
             assertThat(customerOpenBankAccountResponse1.getCustomerOpenBankAccountName()).isNull();
-            assertThat(customerOpenBankAccountResponse1.getCustomerOpenBankAccountIdentityNumber()).isNull();
-            assertThat(customerOpenBankAccountResponse1.getCustomerOpenBankAccountPhoneNumber()).isNull();
-            assertThat(customerOpenBankAccountResponse1.getCustomerOpenBankAccountEmail()).isNull();
             assertThat(customerOpenBankAccountResponse1.getCustomerOpenBankAccountAddress()).isNull();
 
             verify(tTransactionRepositories, times(1))
-                    .findByTransactionEntityDTOUserId(eq(uuid));
-            verify(tTransactionOpenBankAccountRepositories, times(1))
-                    .findByTransactionOpenBankAccountEntityDTOTransactionId(eq(trx1));
-            verify(tTransactionOpenBankAccountRepositories, times(1))
-                    .findByTransactionOpenBankAccountEntityDTOTransactionId(eq(trx2));
-            verifyNoMoreInteractions(tTransactionRepositories, tTransactionOpenBankAccountRepositories);
+                    .findCustomerOpenBankAccountsByUserId(eq(uuid));
+            verifyNoInteractions(tTransactionOpenBankAccountRepositories);
+            verifyNoMoreInteractions(tTransactionRepositories);
         }
 
         @Test
         @DisplayName("200 OK (Negative): No transactions → return empty list")
         void getAllTransactionsByUser_negative_empty() {
             UUID uid = userId;
-            when(tTransactionRepositories.findByTransactionEntityDTOUserId(eq(uid)))
+            when(tTransactionRepositories.findCustomerOpenBankAccountsByUserId(eq(uid)))
                     .thenReturn(Collections.emptyList());
 
             RestApiResponse<List<CustomerOpenBankAccountResponse>> restApiResponse =
@@ -521,12 +585,182 @@ class TransactionServiceImplTest {
             assertThat(restApiResponse.getRestApiResponseResults()).isNotNull().isEmpty();
 
             verify(tTransactionRepositories, times(1))
-                    .findByTransactionEntityDTOUserId(eq(uid));
+                    .findCustomerOpenBankAccountsByUserId(eq(uid));
             verifyNoInteractions(tTransactionOpenBankAccountRepositories);
             verifyNoMoreInteractions(tTransactionRepositories);
         }
     }
 
+    @Nested
+    @DisplayName("getTransactionByCode()")
+    class GetTransactionByCode {
+
+        private CustomerOpenBankAccountResponse row() {
+            return new CustomerOpenBankAccountResponse(
+                    UUID.randomUUID(), "Open Bank Account BCA", new BigDecimal("100000"),
+                    "Alice", "111222333", "08123456789", "alice@example.com", "Jl. Mawar No. 1",
+                    LocalDateTime.now(), "SUCCESS");
+        }
+
+        @Test
+        @DisplayName("200 OK: time-ordered code is looked up within the window decoded from the code")
+        void getTransactionByCode_timeOrdered_rangeFromCode() {
+            String code = new TransactionCodeGenerator(3).nextCode();
+            LocalDateTime createdAt = LocalDateTime.ofInstant(
+                    TransactionCodeGenerator.decodeCreatedAt(code).orElseThrow(), ZoneId.systemDefault());
+            when(tTransactionRepositories.findCustomerOpenBankAccountByCode(eq(code), eq(userId), any(), any()))
+                    .thenReturn(Optional.of(row()));
+
+            RestApiResponse<CustomerOpenBankAccountResponse> restApiResponse = service.getTransactionByCode(userId, code);
+
+            assertThat(restApiResponse.getRestApiResponseCode()).isEqualTo(200);
+            assertThat(restApiResponse.getRestApiResponseResults().getCustomerOpenBankAccountName()).isEqualTo("Alice");
+            verify(tTransactionRepositories).findCustomerOpenBankAccountByCode(
+                    code, userId, createdAt.minusMinutes(1), createdAt.plusMinutes(1));
+        }
+
+        @Test
+        @DisplayName("200 OK: legacy code is looked up within its ddMMyyyy day")
+        void getTransactionByCode_legacy_rangeIsDay() {
+            String code = "TRX_3F2504E0-4F89-11D3-9A0C-0305E82C3301_01032025";
+            when(tTransactionRepositories.findCustomerOpenBankAccountByCode(eq(code), eq(userId), any(), any()))
+                    .thenReturn(Optional.of(row()));
+
+            service.getTransactionByCode(userId, code);
+
+            verify(tTransactionRepositories).findCustomerOpenBankAccountByCode(
+                    code, userId, LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 2, 0, 0));
+        }
+
+        @Test
+        @DisplayName("404: unknown code format fails without querying")
+        void getTransactionByCode_unknownFormat_throws() {
+            assertThatThrownBy(() -> service.getTransactionByCode(userId, "NOT-A-CODE"))
+                    .isInstanceOf(CoreThrowHandlerException.class)
+                    .hasMessageContaining("Transaction with code NOT-A-CODE not found");
+
+            verify(tTransactionRepositories, never()).findCustomerOpenBankAccountByCode(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("404: code owned by another user is not disclosed")
+        void getTransactionByCode_otherUser_notFound() {
+            String code = new TransactionCodeGenerator(3).nextCode();
+            UUID otherUserId = UUID.randomUUID();
+            when(tTransactionRepositories.findCustomerOpenBankAccountByCode(eq(code), eq(userId), any(), any()))
+                    .thenReturn(Optional.of(row()));
+            when(tTransactionRepositories.findCustomerOpenBankAccountByCode(eq(code), eq(otherUserId), any(), any()))
+                    .thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> service.getTransactionByCode(otherUserId, code))
+                    .isInstanceOf(CoreThrowHandlerException.class)
+                    .hasMessageContaining("not found");
+        }
+    }
+
+    @Nested
+    @DisplayName("getTransactionsByUserPage()")
+    class GetTransactionsByUserPage {
+
+        private CustomerOpenBankAccountResponse row(LocalDateTime date) {
+            return new CustomerOpenBankAccountResponse(
+                    UUID.randomUUID(), "Open Bank Account BCA", new BigDecimal("100000"),
+                    "Alice", "111222333", "08123456789", "alice@example.com", "Jl. Mawar No. 1",
+                    date, "SUCCESS");
+        }
+
+        @Test
+        @DisplayName("200 OK: full page → nextCursor seeks after the last row")
+        void firstPage_hasNextCursor() {
+            LocalDateTime now = LocalDateTime.now();
+            CustomerOpenBankAccountResponse first = row(now);
+            CustomerOpenBankAccountResponse second = row(now.minusMinutes(1));
+            CustomerOpenBankAccountResponse extra = row(now.minusMinutes(2));
+            when(tTransactionRepositories.findCustomerPageByUserId(eq(userId), any(Pageable.class)))
+                    .thenReturn(List.of(first, second, extra));
+
+            RestApiResponse<CustomerPageResponse> restApiResponse = service.getTransactionsByUserPage(userId, 2, null);
+
+            assertThat(restApiResponse.getRestApiResponseCode()).isEqualTo(200);
+            assertThat(restApiResponse.getRestApiResponseResults().getCustomerPageResponseCustomers())
+                    .containsExactly(first, second);
+            String nextCursor = restApiResponse.getRestApiResponseResults().getCustomerPageResponseNextCursor();
+            assertThat(nextCursor).isNotBlank();
+
+            ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+            verify(tTransactionRepositories).findCustomerPageByUserId(eq(userId), pageableCaptor.capture());
+            assertThat(pageableCaptor.getValue().getPageSize()).isEqualTo(3);
+            assertThat(pageableCaptor.getValue().getOffset()).isZero();
+
+            when(tTransactionRepositories.findCustomerPageByUserIdAfter(
+                    eq(userId), any(LocalDateTime.class), any(UUID.class), any(Pageable.class)))
+                    .thenReturn(List.of(extra));
+
+            RestApiResponse<CustomerPageResponse> lastPage = service.getTransactionsByUserPage(userId, 2, nextCursor);
+
+            assertThat(lastPage.getRestApiResponseResults().getCustomerPageResponseCustomers()).containsExactly(extra);
+            assertThat(lastPage.getRestApiResponseResults().getCustomerPageResponseNextCursor()).isNull();
+            verify(tTransactionRepositories).findCustomerPageByUserIdAfter(
+                    eq(userId),
+                    eq(second.getCustomerOpenBankAccountTransactionDate()),
+                    eq(second.getCustomerOpenBankAccountTransactionId()),
+                    any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("400: malformed cursor is rejected")
+        void invalidCursor_throws() {
+            assertThatThrownBy(() -> service.getTransactionsByUserPage(userId, 20, "not-a-cursor"))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            verifyNoInteractions(tTransactionRepositories);
+        }
+
+        @Test
+        @DisplayName("400: limit must be positive; oversized limit is capped")
+        void limit_validatedAndCapped() {
+            assertThatThrownBy(() -> service.getTransactionsByUserPage(userId, 0, null))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            when(tTransactionRepositories.findCustomerPageByUserId(eq(userId), any(Pageable.class)))
+                    .thenReturn(Collections.emptyList());
+            service.getTransactionsByUserPage(userId, 10_000, null);
+
+            ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+            verify(tTransactionRepositories).findCustomerPageByUserId(eq(userId), pageableCaptor.capture());
+            assertThat(pageableCaptor.getValue().getPageSize()).isEqualTo(101);
+        }
+    }
+
+    @Nested
+    @DisplayName("exportTransactionsByUser()")
+    class ExportTransactionsByUser {
+        @Test
+        @DisplayName("Writes one JSON object per line and closes the DB stream")
+        void export_writesNdjson() throws Exception {
+            AtomicBoolean closed = new AtomicBoolean();
+            Stream<CustomerOpenBankAccountResponse> rows = Stream.of(
+                    new CustomerOpenBankAccountResponse(UUID.randomUUID(), "Open Bank Account BCA", new BigDecimal("100000"),
+                            "Alice", "111222333", "08123456789", "alice@example.com", "Jl. Mawar No. 1",
+                            LocalDateTime.of(2025, 1, 2, 10, 0), "SUCCESS"),
+                    new CustomerOpenBankAccountResponse(UUID.randomUUID(), "Open Bank Account BRI", new BigDecimal("50000"),
+                            null, null, null, null, null,
+                            LocalDateTime.of(2025, 1, 1, 9, 0), "SUCCESS")
+            ).onClose(() -> closed.set(true));
+            when(tTransactionRepositories.streamCustomerOpenBankAccountsByUserId(eq(userId))).thenReturn(rows);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            long exported = service.exportTransactionsByUser(userId, outputStream);
+
+            String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+            assertThat(exported).isEqualTo(2);
+            assertThat(lines).hasSize(2);
+            assertThat(lines[0]).contains("\"customerName\":\"Alice\"").contains("\"productName\":\"Open Bank Account BCA\"");
+            assertThat(lines[1]).contains("\"productName\":\"Open Bank Account BRI\"");
+            assertThat(closed).isTrue();
+        }
+    }
+
     @Nested
     @DisplayName("transactionCommissionToWallet()")
     class TransactionCommissionToWallet {
@@ -543,23 +777,14 @@ class TransactionServiceImplTest {
                 BigDecimal transfer = new BigDecimal("25000");
                 CommissionToWalletRequest commissionToWalletRequest = makeRequest(transfer, RAW_PASSWORD);
 
-                UserBalanceEntityDTO userBalanceEntityDTO = UserBalanceEntityDTO.builder()
-                        .userBalanceEntityDTOId(UUID.randomUUID())
-                        .userBalanceEntityDTOUserId(userId)
-                        .userBalanceEntityDTOBalanceAmount(new BigDecimal("100000"))
-                        .userBalanceEntityDTOBalanceLastUpdate(LocalDateTime.now().minusDays(1))
-                        .build();
-
-                UserWalletEntityDTO userWalletEntityDTO = new UserWalletEntityDTO();
-                userWalletEntityDTO.setUserWalletEntityDTOId(UUID.randomUUID());
-                userWalletEntityDTO.setUserWalletEntityDTOUserId(userId);
-                userWalletEntityDTO.setUserWalletEntityDTOAmount(new BigDecimal("5000"));
-                userWalletEntityDTO.setUserWalletEntityDTOLastUpdate(LocalDateTime.now().minusDays(2));
+                UUID walletId = UUID.randomUUID();
+                UserBalanceAmountProjection balanceAfter = balanceProjection(UUID.randomUUID(), new BigDecimal("75000"));
+                UserWalletAmountProjection walletAfter = walletProjection(walletId, new BigDecimal("30000"));
 
-                when(mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(eq(userId)))
-                        .thenReturn(Optional.of(userBalanceEntityDTO));
-                when(mUserWalletRepositories.findByUserWalletEntityDTOUserId(eq(userId)))
-                        .thenReturn(Optional.of(userWalletEntityDTO));
+                when(mUserBalanceRepositories.decrementUserBalance(eq(userId), eq(transfer), any(LocalDateTime.class)))
+                        .thenReturn(Optional.of(balanceAfter));
+                when(mUserWalletRepositories.incrementUserWallet(any(UUID.class), eq(userId), eq(transfer), any(LocalDateTime.class)))
+                        .thenReturn(walletAfter);
 
                 RestApiResponse<UserBalanceResponse> restApiResponse =
                         service.transactionCommissionToWallet(userId, commissionToWalletRequest);
@@ -576,26 +801,18 @@ class TransactionServiceImplTest {
                 assertThat(restApiResponse.getRestApiResponseResults().getUserBalanceEntityDTOUserWalletAmount())
                         .isEqualByComparingTo("30000");
 
-                ArgumentCaptor<UserBalanceEntityDTO> balCap = ArgumentCaptor.forClass(UserBalanceEntityDTO.class);
-                verify(mUserBalanceRepositories).save(balCap.capture());
-                assertThat(balCap.getValue().getUserBalanceEntityDTOBalanceAmount())
-                        .isEqualByComparingTo("75000");
-                assertThat(balCap.getValue().getUserBalanceEntityDTOBalanceLastUpdate())
-                        .isNotNull();
-
-                ArgumentCaptor<UserWalletEntityDTO> walCap = ArgumentCaptor.forClass(UserWalletEntityDTO.class);
-                verify(mUserWalletRepositories).save(walCap.capture());
-                assertThat(walCap.getValue().getUserWalletEntityDTOAmount())
-                        .isEqualByComparingTo("30000");
-                assertThat(walCap.getValue().getUserWalletEntityDTOLastUpdate())
-                        .isNotNull();
-
-                verify(tUsersWalletHistoricalRepositories)
-                        .save(any(UserWalletHistoricalEntityDTO.class));
+                ArgumentCaptor<UserWalletHistoricalEntityDTO> histCap = ArgumentCaptor.forClass(UserWalletHistoricalEntityDTO.class);
+                verify(tUsersWalletHistoricalRepositories).save(histCap.capture());
+                assertThat(histCap.getValue().getUserWalletHistoricalEntityDTOUserWalletId()).isEqualTo(walletId);
+                assertThat(histCap.getValue().getUserWalletHistoricalEntityDTOAmount()).isEqualByComparingTo("25000");
+                assertThat(histCap.getValue().getUserWalletHistoricalEntityDTOId().version()).isEqualTo(7);
 
                 verify(mUserRepositories).findByUserEntityDTOId(eq(userId));
-                verify(mUserBalanceRepositories).findByUserBalanceEntityDTOUserId(eq(userId));
-                verify(mUserWalletRepositories).findByUserWalletEntityDTOUserId(eq(userId));
+                verify(userBalanceShardingService).consolidate(eq(userId));
+                verify(balanceChangePublisherService).markChanged(eq(userId));
+                verify(mUserBalanceRepositories).decrementUserBalance(eq(userId), eq(transfer), any(LocalDateTime.class));
+                verify(mUserWalletRepositories).incrementUserWallet(
+                        argThat(id -> id.version() == 7), eq(userId), eq(transfer), any(LocalDateTime.class));
                 verifyNoMoreInteractions(mUserRepositories, mUserBalanceRepositories, mUserWalletRepositories);
             }
         }
@@ -641,6 +858,8 @@ class TransactionServiceImplTest {
 
                 CommissionToWalletRequest commissionToWalletRequest = makeRequest(new BigDecimal("10000"), RAW_PASSWORD);
 
+                when(mUserBalanceRepositories.decrementUserBalance(eq(userId), any(BigDecimal.class), any(LocalDateTime.class)))
+                        .thenReturn(Optional.empty());
                 when(mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(eq(userId)))
                         .thenReturn(Optional.empty());
 
@@ -649,6 +868,7 @@ class TransactionServiceImplTest {
                         .hasMessageContaining("User balance not found");
 
                 verify(mUserRepositories).findByUserEntityDTOId(eq(userId));
+                verify(mUserBalanceRepositories).decrementUserBalance(eq(userId), eq(new BigDecimal("10000")), any(LocalDateTime.class));
                 verify(mUserBalanceRepositories).findByUserBalanceEntityDTOUserId(eq(userId));
                 verifyNoMoreInteractions(mUserBalanceRepositories);
                 verifyNoInteractions(mUserWalletRepositories, tUsersWalletHistoricalRepositories);
@@ -668,14 +888,17 @@ class TransactionServiceImplTest {
                         .userBalanceEntityDTOBalanceLastUpdate(LocalDateTime.now().minusDays(1))
                         .build();
 
+                when(mUserBalanceRepositories.decrementUserBalance(eq(userId), any(BigDecimal.class), any(LocalDateTime.class)))
+                        .thenReturn(Optional.empty());
                 when(mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(eq(userId)))
                         .thenReturn(Optional.of(userBalanceEntityDTO));
 
                 assertThatThrownBy(() -> service.transactionCommissionToWallet(userId, commissionToWalletRequest))
                         .isInstanceOf(CoreThrowHandlerException.class)
-                        .hasMessageContaining("Insufficient commission balance");
+                        .hasMessageContaining("Insufficient commission balance. Available: 15000");
 
                 verify(mUserRepositories).findByUserEntityDTOId(eq(userId));
+                verify(mUserBalanceRepositories).decrementUserBalance(eq(userId), eq(new BigDecimal("20000")), any(LocalDateTime.class));
                 verify(mUserBalanceRepositories).findByUserBalanceEntityDTOUserId(eq(userId));
                 verifyNoMoreInteractions(mUserBalanceRepositories);
                 verifyNoInteractions(mUserWalletRepositories, tUsersWalletHistoricalRepositories);
@@ -693,12 +916,7 @@ class TransactionServiceImplTest {
             @DisplayName("200 OK: returns balance & wallet amounts")
             void getUserBalanceAndWallet_success() {
                 UUID uid = userId;
-                UserBalanceEntityDTO userBalanceEntityDTO = UserBalanceEntityDTO.builder()
-                        .userBalanceEntityDTOId(UUID.randomUUID())
-                        .userBalanceEntityDTOUserId(uid)
-                        .userBalanceEntityDTOBalanceAmount(new BigDecimal("150000"))
-                        .userBalanceEntityDTOBalanceLastUpdate(LocalDateTime.now().minusHours(1))
-                        .build();
+                UserBalanceAmountProjection userBalance = balanceProjection(UUID.randomUUID(), new BigDecimal("150000"));
 
                 UserWalletEntityDTO userWalletEntityDTO = UserWalletEntityDTO.builder()
                         .userWalletEntityDTOId(UUID.randomUUID())
@@ -707,8 +925,8 @@ class TransactionServiceImplTest {
                         .userWalletEntityDTOLastUpdate(LocalDateTime.now().minusMinutes(10))
                         .build();
 
-                when(mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(eq(uid)))
-                        .thenReturn(Optional.of(userBalanceEntityDTO));
+                when(userBalanceShardingService.findTotalBalance(eq(uid)))
+                        .thenReturn(Optional.of(userBalance));
                 when(mUserWalletRepositories.findByUserWalletEntityDTOUserId(eq(uid)))
                         .thenReturn(Optional.of(userWalletEntityDTO));
 
@@ -724,9 +942,34 @@ class TransactionServiceImplTest {
                 assertThat(restApiResponse.getRestApiResponseResults().getUserWalletEntityDTOAmount())
                         .isEqualByComparingTo("27500");
 
-                verify(mUserBalanceRepositories).findByUserBalanceEntityDTOUserId(eq(uid));
+                verify(userBalanceShardingService).findTotalBalance(eq(uid));
                 verify(mUserWalletRepositories).findByUserWalletEntityDTOUserId(eq(uid));
-                verifyNoMoreInteractions(mUserBalanceRepositories, mUserWalletRepositories);
+                verifyNoMoreInteractions(userBalanceShardingService, mUserWalletRepositories);
+                verifyNoInteractions(mUserBalanceRepositories);
+            }
+
+            @Test
+            @DisplayName("200 OK: served from the Kafka Streams store without touching the database")
+            void getUserBalanceAndWallet_fromStateStore() {
+                BalanceChangeEventDTO stored = BalanceChangeEventDTO.builder()
+                        .balanceChangeEventDTOUserId(userId)
+                        .balanceChangeEventDTOBalanceAmount(new BigDecimal("90000"))
+                        .balanceChangeEventDTOBalanceLastUpdate(LocalDateTime.of(2025, 1, 1, 10, 0))
+                        .balanceChangeEventDTOWalletAmount(new BigDecimal("10000"))
+                        .balanceChangeEventDTOWalletLastUpdate(LocalDateTime.of(2025, 1, 1, 9, 0))
+                        .build();
+                when(balanceStoreQueryService.findBalance(eq(userId))).thenReturn(Optional.of(stored));
+
+                RestApiResponse<UserBalanceAndWalletResponse> restApiResponse =
+                        service.getUserBalanceAndWallet(userId);
+                Optional<String> version = service.getUserBalanceAndWalletVersion(userId);
+
+                assertThat(restApiResponse.getRestApiResponseResults().getUserBalanceEntityDTOAmount())
+                        .isEqualByComparingTo("90000");
+                assertThat(restApiResponse.getRestApiResponseResults().getUserWalletEntityDTOAmount())
+                        .isEqualByComparingTo("10000");
+                assertThat(version).isPresent();
+                verifyNoInteractions(userBalanceShardingService, mUserWalletRepositories, mUserBalanceRepositories);
             }
         }
 
@@ -737,14 +980,14 @@ class TransactionServiceImplTest {
             @DisplayName("404: throws when user balance not found")
             void getUserBalanceAndWallet_balanceNotFound_throws() {
                 UUID uid = userId;
-                when(mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(eq(uid)))
+                when(userBalanceShardingService.findTotalBalance(eq(uid)))
                         .thenReturn(Optional.empty());
 
                 assertThatThrownBy(() -> service.getUserBalanceAndWallet(uid))
                         .isInstanceOf(CoreThrowHandlerException.class)
                         .hasMessageContaining("User balance not found for user: " + uid);
 
-                verify(mUserBalanceRepositories).findByUserBalanceEntityDTOUserId(eq(uid));
+                verify(userBalanceShardingService).findTotalBalance(eq(uid));
                 verifyNoInteractions(mUserWalletRepositories);
             }
 
@@ -752,15 +995,10 @@ class TransactionServiceImplTest {
             @DisplayName("404: throws when user wallet not found")
             void getUserBalanceAndWallet_walletNotFound_throws() {
                 UUID uid = userId;
-                UserBalanceEntityDTO userBalanceEntityDTO = UserBalanceEntityDTO.builder()
-                        .userBalanceEntityDTOId(UUID.randomUUID())
-                        .userBalanceEntityDTOUserId(uid)
-                        .userBalanceEntityDTOBalanceAmount(new BigDecimal("50000"))
-                        .userBalanceEntityDTOBalanceLastUpdate(LocalDateTime.now())
-                        .build();
+                UserBalanceAmountProjection userBalance = balanceProjection(UUID.randomUUID(), new BigDecimal("50000"));
 
-                when(mUserBalanceRepositories.findByUserBalanceEntityDTOUserId(eq(uid)))
-                        .thenReturn(Optional.of(userBalanceEntityDTO));
+                when(userBalanceShardingService.findTotalBalance(eq(uid)))
+                        .thenReturn(Optional.of(userBalance));
                 when(mUserWalletRepositories.findByUserWalletEntityDTOUserId(eq(uid)))
                         .thenReturn(Optional.empty());
 
@@ -768,9 +1006,32 @@ class TransactionServiceImplTest {
                         .isInstanceOf(CoreThrowHandlerException.class)
                         .hasMessageContaining("User wallet not found for user: " + uid);
 
-                verify(mUserBalanceRepositories).findByUserBalanceEntityDTOUserId(eq(uid));
+                verify(userBalanceShardingService).findTotalBalance(eq(uid));
                 verify(mUserWalletRepositories).findByUserWalletEntityDTOUserId(eq(uid));
             }
         }
+
+        @Test
+        @DisplayName("Version changes when balance or wallet last update changes")
+        void getUserBalanceAndWalletVersion_tracksLastUpdate() {
+            LocalDateTime balanceUpdated = LocalDateTime.of(2025, 1, 1, 10, 0);
+            LocalDateTime walletUpdated = LocalDateTime.of(2025, 1, 1, 9, 0);
+            UserBalanceAndWalletLastUpdateProjection first = mock(UserBalanceAndWalletLastUpdateProjection.class);
+            when(first.getUserBalanceEntityDTOBalanceLastUpdate()).thenReturn(balanceUpdated);
+            when(first.getUserWalletEntityDTOLastUpdate()).thenReturn(walletUpdated);
+            UserBalanceAndWalletLastUpdateProjection second = mock(UserBalanceAndWalletLastUpdateProjection.class);
+            when(second.getUserBalanceEntityDTOBalanceLastUpdate()).thenReturn(balanceUpdated.plusNanos(1_000));
+            when(second.getUserWalletEntityDTOLastUpdate()).thenReturn(walletUpdated);
+
+            when(mUserBalanceRepositories.findBalanceAndWalletLastUpdate(eq(userId)))
+                    .thenReturn(Optional.of(first), Optional.of(second), Optional.empty());
+
+            String version = service.getUserBalanceAndWalletVersion(userId).orElseThrow();
+            String changed = service.getUserBalanceAndWalletVersion(userId).orElseThrow();
+
+            assertThat(changed).isNotEqualTo(version);
+            assertThat(service.getUserBalanceAndWalletVersion(userId)).isEmpty();
+            verifyNoInteractions(mUserWalletRepositories);
+        }
     }
 }
\ No newline at end of file
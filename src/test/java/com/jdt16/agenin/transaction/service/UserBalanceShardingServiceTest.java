@@ -0,0 +1,106 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.model.repository.MUserBalanceRepositories;
+import com.jdt16.agenin.transaction.model.repository.MUserBalanceSlotRepositories;
+import com.jdt16.agenin.transaction.service.implementation.module.TimeOrderedIdGenerator;
+import com.jdt16.agenin.transaction.service.implementation.module.UserBalanceShardingService;
+import com.jdt16.agenin.transaction.service.interfacing.module.UserBalanceAmountProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserBalanceShardingServiceTest {
+
+    @Mock
+    private MUserBalanceRepositories mUserBalanceRepositories;
+    @Mock
+    private MUserBalanceSlotRepositories mUserBalanceSlotRepositories;
+
+    private UserBalanceShardingService userBalanceShardingService;
+
+    private UUID userId;
+    private UUID balanceId;
+
+    @BeforeEach
+    void setUp() {
+        userBalanceShardingService = new UserBalanceShardingService(mUserBalanceRepositories, mUserBalanceSlotRepositories,
+                new TimeOrderedIdGenerator());
+        ReflectionTestUtils.setField(userBalanceShardingService, "shardingEnabled", true);
+        ReflectionTestUtils.setField(userBalanceShardingService, "slotCount", 4);
+        ReflectionTestUtils.setField(userBalanceShardingService, "promotionWritesPerSecond", 3);
+        ReflectionTestUtils.setField(userBalanceShardingService, "trackerMaxUsers", 100);
+
+        userId = UUID.randomUUID();
+        balanceId = UUID.randomUUID();
+
+        UserBalanceAmountProjection projection = mock(UserBalanceAmountProjection.class);
+        when(projection.getUserBalanceEntityDTOId()).thenReturn(balanceId);
+        when(mUserBalanceRepositories.incrementUserBalance(any(UUID.class), eq(userId), any(BigDecimal.class), any(LocalDateTime.class)))
+                .thenReturn(projection);
+    }
+
+    @Test
+    @DisplayName("Disabled: every credit goes to the base balance row")
+    void incrementBalance_disabled_usesBaseRow() {
+        ReflectionTestUtils.setField(userBalanceShardingService, "shardingEnabled", false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(userBalanceShardingService.incrementBalance(userId, BigDecimal.TEN, UUID.randomUUID()))
+                    .isEqualTo(balanceId);
+        }
+
+        verify(mUserBalanceRepositories, times(10)).incrementUserBalance(
+                argThat(id -> id.version() == 7), eq(userId), eq(BigDecimal.TEN), any(LocalDateTime.class));
+        verifyNoInteractions(mUserBalanceSlotRepositories);
+    }
+
+    @Test
+    @DisplayName("Hot user is promoted once and later credits land in slots")
+    void incrementBalance_hotUser_promotedToSlots() {
+        when(mUserBalanceSlotRepositories.incrementSlot(eq(userId), anyInt(), any(BigDecimal.class), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(balanceId));
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(userBalanceShardingService.incrementBalance(userId, BigDecimal.TEN, UUID.randomUUID()))
+                    .isEqualTo(balanceId);
+        }
+
+        verify(mUserBalanceRepositories, times(2))
+                .incrementUserBalance(any(UUID.class), eq(userId), any(BigDecimal.class), any(LocalDateTime.class));
+        verify(mUserBalanceSlotRepositories, times(1)).createSlots(eq(userId), eq(4), any(LocalDateTime.class));
+        verify(mUserBalanceSlotRepositories, times(4))
+                .incrementSlot(eq(userId), intThat(slot -> slot >= 0 && slot < 4), eq(BigDecimal.TEN), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Missing slots fall back to the base balance row")
+    void incrementBalance_slotMissing_fallsBack() {
+        when(mUserBalanceSlotRepositories.incrementSlot(eq(userId), anyInt(), any(BigDecimal.class), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        for (int i = 0; i < 3; i++) {
+            userBalanceShardingService.incrementBalance(userId, BigDecimal.ONE, UUID.randomUUID());
+        }
+
+        verify(mUserBalanceSlotRepositories).incrementSlot(eq(userId), anyInt(), eq(BigDecimal.ONE), any(LocalDateTime.class));
+        verify(mUserBalanceRepositories, times(3))
+                .incrementUserBalance(any(UUID.class), eq(userId), eq(BigDecimal.ONE), any(LocalDateTime.class));
+    }
+}
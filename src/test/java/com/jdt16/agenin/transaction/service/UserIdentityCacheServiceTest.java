@@ -0,0 +1,63 @@
+package com.jdt16.agenin.transaction.service;
+
+import com.jdt16.agenin.transaction.dto.entity.UserEntityDTO;
+import com.jdt16.agenin.transaction.model.repository.MUserRepositories;
+import com.jdt16.agenin.transaction.service.implementation.module.UserIdentityCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserIdentityCacheServiceTest {
+
+    @Mock
+    private MUserRepositories mUserRepositories;
+
+    private UserIdentityCacheService userIdentityCacheService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        userIdentityCacheService = new UserIdentityCacheService(mUserRepositories);
+        ReflectionTestUtils.setField(userIdentityCacheService, "userTtlMs", 30_000L);
+        ReflectionTestUtils.setField(userIdentityCacheService, "maxSize", 10);
+    }
+
+    @Test
+    @DisplayName("Cached identity keeps name and role but never the password hash")
+    void findUser_passwordHashNotCached() {
+        UserEntityDTO user = new UserEntityDTO();
+        user.setUserEntityDTOId(userId);
+        user.setUserEntityDTOFullName("Budi");
+        user.setUserEntityDTORoleName("AGENT");
+        user.setUserEntityDTOPassword("$2a$10$hash");
+        when(mUserRepositories.findByUserEntityDTOId(eq(userId))).thenReturn(Optional.of(user));
+
+        UserEntityDTO loaded = userIdentityCacheService.findUser(userId).orElseThrow();
+        UserEntityDTO cached = userIdentityCacheService.findUser(userId).orElseThrow();
+
+        assertThat(loaded.getUserEntityDTOPassword()).isNull();
+        assertThat(cached.getUserEntityDTOPassword()).isNull();
+        assertThat(cached.getUserEntityDTOFullName()).isEqualTo("Budi");
+        assertThat(cached.getUserEntityDTORoleName()).isEqualTo("AGENT");
+        assertThat(user.getUserEntityDTOPassword()).isEqualTo("$2a$10$hash");
+        verify(mUserRepositories, times(1)).findByUserEntityDTOId(eq(userId));
+    }
+}
@@ -0,0 +1,130 @@
+package com.jdt16.agenin.transaction.utility;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdt16.agenin.transaction.configuration.kafka.AuditLogDeserializer;
+import com.jdt16.agenin.transaction.configuration.kafka.AuditLogEnvelopeDeserializer;
+import com.jdt16.agenin.transaction.dto.request.LogEnvelopeRequestDTO;
+import com.jdt16.agenin.transaction.dto.request.LogRequestDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditLogBinaryCodecTest {
+
+    private static LogRequestDTO sample() {
+        Map<String, Object> newData = new LinkedHashMap<>();
+        newData.put("userId", UUID.randomUUID());
+        newData.put("transferAmount", new BigDecimal("150000.50"));
+        newData.put("status", "SUCCESS");
+        newData.put("timestamp", LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000));
+        newData.put("attempt", 3);
+        newData.put("sequence", -42L);
+        newData.put("flag", true);
+        newData.put("customNote", "catatan bebas");
+        newData.put("tags", List.of("a", 1));
+        newData.put("nested", Map.of("walletAfter", new BigDecimal("-1.25")));
+        newData.put("missing", null);
+
+        return LogRequestDTO.builder()
+                .logEntityDTOAuditLogsId(UUID.randomUUID())
+                .logEntityDTOTableName(TableNameEntityUtility.TABLE_USER_WALLET)
+                .logEntityDTORecordId(UUID.randomUUID())
+                .logEntityDTOAction("UPDATE")
+                .logEntityDTOOldData(Map.of())
+                .logEntityDTONewData(newData)
+                .logEntityDTOUserAgent("Mozilla/5.0")
+                .logEntityDTOIpAddress("10.0.0.1")
+                .logEntityDTOChangedAt(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 987_654_000))
+                .logEntityDTORoleId(UUID.randomUUID())
+                .logEntityDTORoleName("SUB_AGENT")
+                .logEntityDTOUserId(UUID.randomUUID())
+                .logEntityDTOUserFullname("Budi Santoso")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Round trip keeps every field and typed map values")
+    void encodeDecode_roundTrip() {
+        LogRequestDTO logRequest = sample();
+
+        LogRequestDTO decoded = AuditLogBinaryCodec.decode(AuditLogBinaryCodec.encode(logRequest));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(logRequest);
+        assertThat(decoded.getLogEntityDTONewData().get("transferAmount")).isEqualTo(new BigDecimal("150000.50"));
+        assertThat(decoded.getLogEntityDTONewData().get("attempt")).isEqualTo(3);
+        assertThat(decoded.getLogEntityDTONewData().get("sequence")).isEqualTo(-42L);
+    }
+
+    @Test
+    @DisplayName("Binary encoding is several times smaller than JSON")
+    void encode_smallerThanJson() throws Exception {
+        LogRequestDTO logRequest = sample();
+        byte[] json = new ObjectMapper().findAndRegisterModules().writeValueAsBytes(logRequest);
+
+        byte[] binary = AuditLogBinaryCodec.encode(logRequest);
+
+        assertThat(binary[0]).isEqualTo(AuditLogBinaryCodec.VERSION);
+        assertThat(binary.length * 2).isLessThan(json.length);
+    }
+
+    @Test
+    @DisplayName("Deserializer accepts binary and legacy JSON, rejects unknown versions")
+    void deserializer_acceptsBothFormats() throws Exception {
+        LogRequestDTO logRequest = sample();
+        AuditLogDeserializer deserializer = new AuditLogDeserializer();
+        byte[] json = new ObjectMapper().findAndRegisterModules().writeValueAsBytes(logRequest);
+
+        assertThat(deserializer.deserialize("create-log-po", AuditLogBinaryCodec.encode(logRequest)).getLogEntityDTOAuditLogsId())
+                .isEqualTo(logRequest.getLogEntityDTOAuditLogsId());
+        assertThat(deserializer.deserialize("create-log-po", json).getLogEntityDTOUserFullname())
+                .isEqualTo("Budi Santoso");
+        assertThatThrownBy(() -> deserializer.deserialize("create-log-po", new byte[]{9, 0}))
+                .hasRootCauseMessage("Unsupported audit log encoding version: 9");
+    }
+
+    @Test
+    @DisplayName("Envelope round trip keeps shared context and every event")
+    void encodeDecodeEnvelope_roundTrip() {
+        LogRequestDTO first = sample();
+        LogRequestDTO second = sample();
+        second.setLogEntityDTOUserId(first.getLogEntityDTOUserId());
+        second.setLogEntityDTORoleId(first.getLogEntityDTORoleId());
+        second.setLogEntityDTOAction("CREATE");
+        LogEnvelopeRequestDTO envelope = LogEnvelopeRequestDTO.of(first);
+        envelope.addEvent(second);
+
+        byte[] encoded = AuditLogBinaryCodec.encodeEnvelope(envelope);
+        LogEnvelopeRequestDTO decoded = AuditLogBinaryCodec.decodeEnvelope(encoded);
+
+        assertThat(AuditLogBinaryCodec.isEnvelope(encoded)).isTrue();
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(envelope);
+        assertThat(decoded.toLogRequests()).usingRecursiveComparison().isEqualTo(List.of(first, second));
+    }
+
+    @Test
+    @DisplayName("Envelope deserializer wraps single records and reads JSON and binary envelopes")
+    void envelopeDeserializer_acceptsAllShapes() throws Exception {
+        LogRequestDTO logRequest = sample();
+        LogEnvelopeRequestDTO envelope = LogEnvelopeRequestDTO.of(logRequest);
+        AuditLogEnvelopeDeserializer deserializer = new AuditLogEnvelopeDeserializer();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        assertThat(deserializer.deserialize("create-log-po", AuditLogBinaryCodec.encodeEnvelope(envelope))
+                .getLogEnvelopeDTOEvents()).hasSize(1);
+        assertThat(deserializer.deserialize("create-log-po", objectMapper.writeValueAsBytes(envelope))
+                .getLogEnvelopeDTOId()).isEqualTo(envelope.getLogEnvelopeDTOId());
+        assertThat(deserializer.deserialize("create-log-po", AuditLogBinaryCodec.encode(logRequest))
+                .toLogRequests().get(0).getLogEntityDTOAuditLogsId()).isEqualTo(logRequest.getLogEntityDTOAuditLogsId());
+        assertThat(deserializer.deserialize("create-log-po", objectMapper.writeValueAsBytes(logRequest))
+                .getLogEnvelopeDTOUserFullname()).isEqualTo("Budi Santoso");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.jdt16.agenin.transaction.utility;
+
+import com.jdt16.agenin.transaction.configuration.web.RequestMetadataFilter;
+import com.jdt16.agenin.transaction.dto.context.RequestMetadataContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestMetadataHolderTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestMetadataHolder.clear();
+    }
+
+    @Test
+    @DisplayName("Filter parses metadata once, exposes it during the chain and clears it afterwards")
+    void filter_parsesOnceAndClears() throws Exception {
+        UUID userId = UUID.randomUUID();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(RequestHeaderUtility.HEADER_FORWARDED_FOR, "203.0.113.7, 10.0.0.1");
+        request.addHeader(RequestHeaderUtility.HEADER_USER_AGENT, "Mozilla/5.0");
+        request.addHeader(RequestHeaderUtility.HEADER_USER_ID, userId.toString());
+        AtomicReference<RequestMetadataContext> seen = new AtomicReference<>();
+
+        new RequestMetadataFilter().doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain() {
+                    @Override
+                    public void doFilter(ServletRequest req, ServletResponse res) {
+                        seen.set(RequestMetadataHolder.current());
+                    }
+                });
+
+        assertThat(seen.get().getClientIpAddress()).isEqualTo("203.0.113.7");
+        assertThat(seen.get().getUserAgent()).isEqualTo("Mozilla/5.0");
+        assertThat(seen.get().getHeaderUserId()).isEqualTo(userId);
+        assertThat(RequestMetadataHolder.current()).isSameAs(RequestMetadataContext.EMPTY);
+    }
+
+    @Test
+    @DisplayName("Remote address is used when no proxy header is present")
+    void from_fallsBackToRemoteAddress() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("198.51.100.4");
+        request.addHeader(RequestHeaderUtility.HEADER_REAL_IP, "unknown");
+
+        RequestMetadataContext metadata = RequestMetadataContext.from(request);
+
+        assertThat(metadata.getClientIpAddress()).isEqualTo("198.51.100.4");
+        assertThat(metadata.getUserAgent()).isEqualTo(RequestMetadataContext.UNKNOWN);
+        assertThat(metadata.getHeaderUserId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Wrapped task sees the caller's metadata on a pool thread and leaves the worker clean")
+    void wrap_propagatesToWorkerThread() throws Exception {
+        RequestMetadataContext metadata = RequestMetadataContext.builder()
+                .userAgent("Mozilla/5.0")
+                .clientIpAddress("203.0.113.7")
+                .build();
+        RequestMetadataHolder.set(metadata);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            RequestMetadataContext inside = executor.submit(RequestMetadataHolder.wrap(RequestMetadataHolder::current)).get();
+            RequestMetadataContext afterwards = executor.submit(RequestMetadataHolder::current).get();
+
+            assertThat(inside).isSameAs(metadata);
+            assertThat(afterwards).isSameAs(RequestMetadataContext.EMPTY);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}